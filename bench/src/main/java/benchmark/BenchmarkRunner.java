@@ -0,0 +1,32 @@
+package benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do jar de benchmarks. Aceita as mesmas opções do JMH e
+ * sempre ativa o profiler de alocação ({@code -prof gc}), para que as
+ * regressões de memória apareçam junto com as de tempo.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+
+		CommandLineOptions options = new CommandLineOptions(args);
+
+		if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers()
+				|| options.shouldListResultFormats() || options.shouldListWithParams()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+	}
+
+}// class BenchmarkRunner
@@ -0,0 +1,163 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import model.DirectorySize;
+import model.DirectorySizeCalculator;
+
+/**
+ * Compara o cálculo recursivo de tamanho de diretórios (implementação original
+ * do FileChecker) com o cálculo fork-join do {@link DirectorySizeCalculator},
+ * sobre uma árvore sintética gerada em um diretório temporário.
+ *
+ * Uso: java -cp bench/target/benchmarks.jar benchmark.DirectorySizeBenchmark
+ * [profundidade] [ramificação] [arquivos por diretório] [iterações] [threads]
+ */
+public class DirectorySizeBenchmark {
+
+	private static final int WARMUP_ITERATIONS = 3;
+
+	public static void main(String[] args) throws IOException {
+
+		int depth = argument(args, 0, 5);
+		int fanout = argument(args, 1, 4);
+		int filesPerDirectory = argument(args, 2, 20);
+		int iterations = argument(args, 3, 5);
+		int parallelism = argument(args, 4, Runtime.getRuntime().availableProcessors());
+
+		Path root = Files.createTempDirectory("file-navigator-bench");
+
+		try {
+			long directories = createTree(root, depth, fanout, filesPerDirectory);
+			System.out.printf("Árvore: profundidade %d, ramificação %d, %d arquivos por diretório, %d diretórios%n",
+					depth, fanout, filesPerDirectory, directories);
+
+			try (DirectorySizeCalculator calculator = new DirectorySizeCalculator(parallelism)) {
+
+				long expected = recursiveSize(root.toFile());
+				DirectorySize actual = calculator.calculate(root);
+
+				if (expected != actual.getBytes())
+					throw new IllegalStateException(
+							"Resultados divergentes: " + expected + " != " + actual.getBytes());
+
+				System.out.println("Resultado: " + actual);
+
+				double recursive = measure(iterations, () -> recursiveSize(root.toFile()));
+				double forkJoin = measure(iterations, () -> calculator.calculate(root).getBytes());
+
+				System.out.printf("Recursivo:            %10.2f ms%n", recursive);
+				System.out.printf("Fork-join (%2d threads): %8.2f ms%n", parallelism, forkJoin);
+				System.out.printf("Aceleração:           %10.2fx%n", recursive / forkJoin);
+			}
+		} finally {
+			deleteTree(root);
+		}
+	}
+
+	/**
+	 * Mede o tempo médio de execução, descartando as primeiras iterações.
+	 *
+	 * @param iterations a quantidade de iterações medidas
+	 * @param task       a tarefa a ser medida
+	 * @return o tempo médio em milissegundos
+	 */
+	private static double measure(int iterations, SizeTask task) {
+
+		long sink = 0;
+
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+			sink += task.run();
+
+		long start = System.nanoTime();
+
+		for (int i = 0; i < iterations; i++)
+			sink += task.run();
+
+		long elapsed = System.nanoTime() - start;
+
+		if (sink == Long.MIN_VALUE)
+			System.out.println(sink);
+
+		return elapsed / 1_000_000.0 / iterations;
+	}
+
+	/**
+	 * Implementação recursiva original, mantida como referência de comparação.
+	 *
+	 * @param directory o diretório
+	 * @return o tamanho em bytes
+	 */
+	private static long recursiveSize(File directory) {
+
+		long size = 0;
+
+		if (directory.isDirectory()) {
+
+			File[] files = directory.listFiles();
+
+			if (files != null) {
+				for (File file : files)
+					size += (file.isFile()) ? file.length() : recursiveSize(file);
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Cria a árvore sintética.
+	 *
+	 * @return a quantidade de diretórios criados
+	 */
+	private static long createTree(Path directory, int depth, int fanout, int filesPerDirectory) throws IOException {
+
+		for (int i = 0; i < filesPerDirectory; i++)
+			Files.write(directory.resolve("file" + i + ".txt"), new byte[i + 1]);
+
+		long directories = 1;
+
+		if (depth > 0) {
+			for (int i = 0; i < fanout; i++) {
+				Path subdirectory = Files.createDirectory(directory.resolve("dir" + i));
+				directories += createTree(subdirectory, depth - 1, fanout, filesPerDirectory);
+			}
+		}
+
+		return directories;
+	}
+
+	private static void deleteTree(Path root) throws IOException {
+
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+				Files.delete(directory);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private static int argument(String[] args, int index, int defaultValue) {
+		return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+	}
+
+	@FunctionalInterface
+	private interface SizeTask {
+		long run();
+	}
+
+}// class DirectorySizeBenchmark
@@ -0,0 +1,108 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.DirectorySnapshot;
+import model.DirectorySnapshot.Entry;
+
+/**
+ * Compara a memória ocupada pelas entradas de um único diretório grande em três
+ * representações: o vetor de {@link File} da implementação original, uma lista
+ * de objetos {@link Entry} com o caminho montado (a fotografia antes do
+ * armazenamento em colunas) e a {@link DirectorySnapshot} atual.
+ *
+ * Cada representação é mantida viva enquanto a memória do heap é medida depois
+ * de coletas de lixo completas; a diferença para a medição anterior é a memória
+ * retida pela representação. O programa falha se as colunas não ocuparem no
+ * máximo metade da memória do vetor de {@link File}; o mesmo limite é conferido
+ * pela estimativa das colunas nos testes do EntryStore.
+ *
+ * Uso: java -cp bench/target/benchmarks.jar benchmark.EntryMemoryBenchmark
+ * [entradas]
+ */
+public class EntryMemoryBenchmark {
+
+	private static final int GC_ROUNDS = 5;
+
+	/** Economia mínima das colunas sobre o vetor de {@link File}. */
+	private static final double MIN_SAVING = 2;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+		Path root = FixtureTree.get(entries, 1);
+
+		long baseline = usedHeap();
+
+		File[] files = root.toFile().listFiles();
+		long fileArray = usedHeap() - baseline;
+
+		// Usada depois da medição, para que a coleta não a considere morta antes
+		int count = files.length;
+		files = null;
+		baseline = usedHeap();
+
+		DirectorySnapshot read = DirectorySnapshot.read(root);
+		List<Entry> objects = new ArrayList<>(read.getEntries().size());
+
+		for (Entry entry : read.getEntries()) {
+			entry.getPath();
+			objects.add(entry);
+		}
+
+		read = null;
+		long entryObjects = usedHeap() - baseline;
+
+		if (objects.size() != count)
+			throw new IllegalStateException("Entradas divergentes: " + objects.size() + " != " + count);
+
+		objects = null;
+		baseline = usedHeap();
+
+		DirectorySnapshot snapshot = DirectorySnapshot.read(root);
+		long columns = usedHeap() - baseline;
+
+		System.out.printf("Diretório: %s (%d entradas)%n", root, count);
+		print("File[]", fileArray, count);
+		print("List<Entry>", entryObjects, count);
+		print("DirectorySnapshot", columns, count);
+		System.out.printf("Estimativa das colunas: %.1f MB%n", snapshot.estimateBytes() / 1e6);
+		System.out.printf("Economia sobre File[]: %.1fx, sobre List<Entry>: %.1fx%n", (double) fileArray / columns,
+				(double) entryObjects / columns);
+
+		if (snapshot.getEntries().size() != count)
+			throw new IllegalStateException("Entradas divergentes: " + snapshot.getEntries().size() + " != " + count);
+
+		if (columns * MIN_SAVING > fileArray)
+			throw new IllegalStateException(String.format("Economia abaixo de %.1fx sobre File[]", MIN_SAVING));
+	}
+
+	private static void print(String name, long bytes, int count) {
+		System.out.printf("%-20s %8.1f MB  %6.1f bytes por entrada%n", name, bytes / 1e6, (double) bytes / count);
+	}
+
+	/**
+	 * Obtém a memória usada do heap depois de várias coletas completas.
+	 *
+	 * @return a memória usada, em bytes
+	 */
+	private static long usedHeap() throws InterruptedException {
+
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+		for (int round = 0; round < GC_ROUNDS; round++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+}// class EntryMemoryBenchmark
@@ -0,0 +1,122 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.DirectorySize;
+import model.DirectorySizeCache;
+import model.DirectorySizeCalculator;
+import model.DirectorySnapshot.Entry;
+import model.FileChecker;
+import util.Extension;
+
+/**
+ * Mede os caminhos mais usados do {@link FileChecker}: a leitura do diretório,
+ * a listagem combinada de arquivos e subdiretórios, as propriedades de um
+ * subdiretório, as propriedades de todos os arquivos e o tamanho recursivo da
+ * árvore.
+ *
+ * As propriedades e os tamanhos são medidos com um cache vazio, para que cada
+ * chamada percorra a subárvore, e também com o cache padrão.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileCheckerBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int entries;
+
+	@Param({ "1", "3" })
+	private int depth;
+
+	private Path root;
+
+	private FileChecker uncached;
+	private FileChecker cached;
+
+	private int subdirectoryIndex;
+
+	private List<Entry> files;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+
+		root = FixtureTree.get(entries, depth);
+
+		uncached = new FileChecker(root.toString(), new DirectorySizeCalculator(), new DirectorySizeCache(0, 0));
+		cached = new FileChecker(root.toString());
+
+		String[] names = uncached.getFileNamesSubdirectories(true, Extension.ALL);
+		subdirectoryIndex = Arrays.asList(names).indexOf("dir0");
+
+		cached.getFileNamesSubdirectories(true, Extension.ALL);
+
+		files = uncached.getSnapshot().getFiles();
+	}
+
+	@Benchmark
+	public FileChecker newFileChecker() {
+		return new FileChecker(root.toString());
+	}
+
+	@Benchmark
+	public String[] getFileNamesSubdirectories() {
+		return uncached.getFileNamesSubdirectories(true, Extension.ALL);
+	}
+
+	@Benchmark
+	public String[] getFileNamesSubdirectoriesWithoutExtension() {
+		return uncached.getFileNamesSubdirectories(false, Extension.ALL);
+	}
+
+	@Benchmark
+	public String[] getSubdirectoryNames() {
+		return uncached.getSubdirectoryNames();
+	}
+
+	@Benchmark
+	public String getSubdirectoryProperties() {
+		return uncached.getSubdirectoryProperties(subdirectoryIndex);
+	}
+
+	@Benchmark
+	public String getSubdirectoryPropertiesCached() {
+		return cached.getSubdirectoryProperties(subdirectoryIndex);
+	}
+
+	@Benchmark
+	public String formatProperties() {
+		return uncached.formatProperties(files);
+	}
+
+	@Benchmark
+	public DirectorySize getDirectorySize() {
+		return uncached.getDirectorySize(root);
+	}
+
+	@Benchmark
+	public DirectorySize getDirectorySizeCached() {
+		return cached.getDirectorySize(root);
+	}
+
+}// class FileCheckerBenchmark
@@ -0,0 +1,66 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.FileChecker;
+import util.Extension;
+import util.ExtensionFilter;
+import util.ExtensionGroup;
+
+/**
+ * Mede a filtragem de arquivos por extensão em {@link FileChecker#getFileNames}
+ * para cada valor de {@link Extension} e de {@link ExtensionGroup}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileNamesBenchmark {
+
+	@Param({ "ALL", "DOCX", "EXE", "JAVA", "JPG", "PDF", "PNG", "PPTX", "RTF", "TXT", "XLSX", "DOCUMENTS", "IMAGES",
+			"PROGRAMS" })
+	private String filter;
+
+	private ExtensionFilter extension;
+
+	@Param({ "1000", "100000", "1000000" })
+	private int entries;
+
+	@Param({ "1", "3" })
+	private int depth;
+
+	private FileChecker fileChecker;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		extension = ExtensionFilter.valueOf(filter);
+		fileChecker = new FileChecker(FixtureTree.get(entries, depth).toString());
+	}
+
+	@Benchmark
+	public String[] getFileNames() {
+		return fileChecker.getFileNames(true, extension);
+	}
+
+	@Benchmark
+	public String[] getFileNamesWithoutExtension() {
+		return fileChecker.getFileNames(false, extension);
+	}
+
+}// class FileNamesBenchmark
@@ -0,0 +1,108 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import util.Extension;
+
+/**
+ * Gera as árvores de diretórios usadas pelos benchmarks.
+ *
+ * A raiz sempre possui {@value #SUBDIRECTORIES} subdiretórios. Os arquivos são
+ * divididos igualmente entre os níveis da árvore: o primeiro nível fica na
+ * própria raiz e cada nível seguinte é dividido entre os
+ * {@value #SUBDIRECTORIES} ramos, que descem em cadeia até a profundidade
+ * pedida. Assim, uma árvore de profundidade 1 é um único diretório grande, e
+ * profundidades maiores distribuem as mesmas entradas em mais diretórios.
+ *
+ * As árvores são gravadas em {@code fixtures.dir} (por padrão, na pasta
+ * temporária do sistema) e reaproveitadas entre execuções.
+ */
+public final class FixtureTree {
+
+	public static final int SUBDIRECTORIES = 10;
+
+	/**
+	 * Sufixo do arquivo que marca uma árvore completamente gerada. O marcador
+	 * fica ao lado da raiz, e não dentro dela, para não ser contado como uma
+	 * entrada da árvore.
+	 */
+	private static final String COMPLETE = ".complete";
+
+	private static final int MAX_FILE_SIZE = 64;
+
+	private FixtureTree() {
+	}
+
+	/**
+	 * Obtém a árvore com a quantidade de entradas e a profundidade informadas,
+	 * gerando-a se ainda não existir.
+	 *
+	 * @param entries a quantidade aproximada de arquivos
+	 * @param depth   a quantidade de níveis com arquivos
+	 * @return a raiz da árvore
+	 * @throws IOException se a árvore não puder ser gerada
+	 */
+	public static Path get(int entries, int depth) throws IOException {
+
+		Path base = Paths.get(System.getProperty("fixtures.dir",
+				Paths.get(System.getProperty("java.io.tmpdir"), "file-navigator-fixtures").toString()));
+
+		Path root = base.resolve(entries + "-" + depth);
+		Path complete = base.resolve(root.getFileName() + COMPLETE);
+
+		if (Files.exists(complete))
+			return root;
+
+		Files.createDirectories(root);
+
+		// Marcador deixado dentro da raiz por versões anteriores
+		Files.deleteIfExists(root.resolve(COMPLETE));
+
+		int filesPerLevel = Math.max(1, entries / depth);
+
+		createFiles(root, filesPerLevel);
+
+		for (int branch = 0; branch < SUBDIRECTORIES; branch++) {
+
+			Path directory = root.resolve("dir" + branch);
+
+			for (int level = 1; level < depth; level++) {
+				Files.createDirectories(directory);
+				createFiles(directory, filesPerLevel / SUBDIRECTORIES);
+				directory = directory.resolve("dir" + level);
+			}
+
+			Files.createDirectories(directory);
+		}
+
+		Files.createFile(complete);
+
+		return root;
+	}
+
+	/**
+	 * Cria os arquivos de um diretório, alternando entre as extensões conhecidas e
+	 * variando maiúsculas e minúsculas.
+	 */
+	private static void createFiles(Path directory, int count) throws IOException {
+
+		Extension[] extensions = Extension.values();
+
+		for (int i = 0; i < count; i++) {
+
+			String extension = extensions[1 + i % (extensions.length - 1)].getName();
+
+			if (i % 2 == 0)
+				extension = extension.toLowerCase();
+
+			Path file = directory.resolve("file" + i + "." + extension);
+
+			if (!Files.exists(file))
+				Files.write(file, new byte[i % MAX_FILE_SIZE]);
+		}
+	}
+
+}// class FixtureTree
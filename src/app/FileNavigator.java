@@ -1,21 +1,44 @@
 package app;
 
+import static util.Constants.METRICS_LOG_INTERVAL;
+import static util.Constants.METRICS_LOG_PROPERTY;
+
+import javax.swing.SwingUtilities;
+
+import app.cli.HeadlessNavigator;
 import app.gui.UI;
+import model.Metrics;
 
 /**
  * A classe FileNavigator é o ponto de entrada principal para a aplicação. Ela
- * inicializa a interface do usuário quando a aplicação é iniciada.
+ * inicializa a interface do usuário quando a aplicação é iniciada sem
+ * argumentos, ou executa a listagem sem interface gráfica quando argumentos são
+ * informados.
  */
 public class FileNavigator {
 
 	/**
-	 * O método main é o ponto de entrada da aplicação. Ele cria uma instância de
-	 * FileNavigator, que por sua vez, inicializa a interface do usuário.
+	 * O método main é o ponto de entrada da aplicação. Sem argumentos, ele cria
+	 * uma instância de FileNavigator na thread de eventos do Swing, que por sua
+	 * vez, inicializa a interface do usuário. Com argumentos, o diretório é listado
+	 * na saída padrão.
+	 *
+	 * Com a interface, as medições de desempenho são publicadas por JMX e
+	 * gravadas no log a cada {@link util.Constants#METRICS_LOG_INTERVAL}
+	 * segundos, intervalo que pode ser alterado pela propriedade de sistema
+	 * {@value util.Constants#METRICS_LOG_PROPERTY} (0 desativa o log).
 	 *
-	 * @param args argumentos da linha de comando (não utilizados)
+	 * @param args argumentos da linha de comando (veja {@link HeadlessNavigator})
 	 */
 	public static void main(String[] args) {
-		new FileNavigator();
+
+		if (args.length > 0)
+			System.exit(HeadlessNavigator.run(args));
+
+		Metrics.register();
+		Metrics.startLogging(Long.getLong(METRICS_LOG_PROPERTY, METRICS_LOG_INTERVAL));
+
+		SwingUtilities.invokeLater(FileNavigator::new);
 	}
 
 	/**
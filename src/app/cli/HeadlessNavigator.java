@@ -0,0 +1,635 @@
+package app.cli;
+
+import static util.Constants.MSG_INVALID_PATH;
+import static util.Constants.MSG_NOT_DIRECTORY;
+import static util.Constants.MSG_READ_ERROR;
+import static util.Constants.MSG_SNAPSHOT_ERROR;
+import static util.Constants.NAME_INDEX_DIRECTORY;
+import static util.Constants.USAGE_HEADLESS;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import model.ContentMatch;
+import model.ContentSearch;
+import model.DirectorySizeCalculator;
+import model.DirectorySnapshot;
+import model.DirectorySnapshot.Entry;
+import model.DuplicateFinder;
+import model.DuplicateGroup;
+import model.Metrics;
+import model.NameIndex;
+import model.NameIndexStore;
+import model.RecursiveSearch;
+import model.SnapshotDiff;
+import model.SpaceReport;
+import model.TreeSnapshot;
+import util.Extension;
+import util.ExtensionFilter;
+import util.OptionRadioButton;
+import util.SortKey;
+
+/**
+ * A classe HeadlessNavigator executa a listagem de um diretório sem interface
+ * gráfica, escrevendo as entradas na saída padrão à medida que são encontradas.
+ *
+ * As entradas não são guardadas nem ordenadas, de modo que a memória usada não
+ * depende do tamanho do diretório, exceto quando uma ordenação é pedida: nesse
+ * caso o diretório é lido em uma {@link DirectorySnapshot} antes da escrita. A
+ * saída passa por um buffer e só é enviada ao sistema operacional quando ele
+ * enche ou ao final da listagem.
+ *
+ * Com a opção de busca recursiva, toda a árvore é percorrida em paralelo por
+ * uma {@link RecursiveSearch}, e cada resultado é escrito com o caminho
+ * relativo ao diretório informado assim que é encontrado. Com a opção de
+ * índice, a busca é respondida por um {@link NameIndex} gravado em disco, que é
+ * atualizado lendo somente os diretórios modificados desde a última busca.
+ *
+ * Com a opção de conteúdo, os arquivos do diretório ou da árvore são lidos em
+ * paralelo por uma {@link ContentSearch}, e cada linha que contém o texto é
+ * escrita com o caminho e o número da linha.
+ *
+ * A listagem, simples ou recursiva, também pode ser gravada em um arquivo como
+ * uma {@link TreeSnapshot} e, mais tarde, comparada com a listagem atual por um
+ * {@link SnapshotDiff}, que escreve as entradas criadas, removidas e alteradas.
+ */
+public class HeadlessNavigator {
+
+	private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+	private static final String[] NAMES = { "name" };
+	private static final String[] PROPERTY_NAMES = { "name", "type", "path", "lastModified", "size" };
+	private static final boolean[] NUMERIC = { false };
+	private static final boolean[] PROPERTY_NUMERIC = { false, false, false, false, true };
+	private static final String[] DUPLICATE_NAMES = { "group", "size", "sha256", "path" };
+	private static final boolean[] DUPLICATE_NUMERIC = { true, true, false, false };
+	private static final String[] LARGEST_NAMES = { "type", "size", "path" };
+	private static final boolean[] LARGEST_NUMERIC = { false, true, false };
+	private static final String[] DIFF_NAMES = { "change", "type", "name", "sizeBefore", "sizeAfter" };
+	private static final boolean[] DIFF_NUMERIC = { false, false, false, true, true };
+	private static final String[] GREP_NAMES = { "path", "line", "text" };
+	private static final boolean[] GREP_NUMERIC = { false, true, false };
+
+	private Path directory;
+	private ExtensionFilter extension = Extension.ALL;
+	private OptionRadioButton option = OptionRadioButton.FILES_SUBDIRECTORIES;
+	private boolean withExtension = true;
+	private boolean properties;
+	private OutputFormat format = OutputFormat.TEXT;
+	private SortKey sort;
+	private boolean descending;
+
+	private boolean recursive;
+	private String pattern;
+	private int maxDepth = RecursiveSearch.UNLIMITED_DEPTH;
+	private boolean followLinks;
+	private boolean indexed;
+	private boolean duplicates;
+	private int largest;
+	private boolean metrics;
+	private Path exportFile;
+	private Path diffFile;
+	private String grep;
+
+	/**
+	 * Calculador de tamanhos, cujo pool também executa as buscas recursivas. O
+	 * pool é próprio, e não o pool comum do fork-join, porque as tarefas da
+	 * busca ficam bloqueadas enquanto a fila de resultados está cheia.
+	 */
+	private DirectorySizeCalculator sizeCalculator;
+
+	/**
+	 * Executa a listagem descrita pelos argumentos.
+	 *
+	 * @param args os argumentos da linha de comando
+	 * @return o código de saída: 0 em caso de sucesso, 1 em caso de erro e 2 se
+	 *         os argumentos forem inválidos
+	 */
+	public static int run(String[] args) {
+
+		HeadlessNavigator navigator = new HeadlessNavigator();
+
+		if (!navigator.parse(args)) {
+			System.err.println(USAGE_HEADLESS);
+			return 2;
+		}
+
+		int status;
+
+		try (DirectorySizeCalculator sizeCalculator = new DirectorySizeCalculator(
+				Runtime.getRuntime().availableProcessors())) {
+			navigator.sizeCalculator = sizeCalculator;
+			status = navigator.list();
+		}
+
+		if (navigator.metrics)
+			System.err.print(Metrics.format());
+
+		return status;
+	}
+
+	/**
+	 * Interpreta os argumentos da linha de comando.
+	 *
+	 * @param args os argumentos
+	 * @return true se os argumentos forem válidos
+	 */
+	private boolean parse(String[] args) {
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+
+				switch (args[i]) {
+
+				case "-t":
+				case "--type":
+					extension = ExtensionFilter.valueOf(args[++i].toUpperCase());
+					break;
+
+				case "-s":
+				case "--show":
+					option = OptionRadioButton.valueOf(args[++i].toUpperCase());
+					break;
+
+				case "-f":
+				case "--format":
+					format = OutputFormat.valueOf(args[++i].toUpperCase());
+					break;
+
+				case "-n":
+				case "--no-extension":
+					withExtension = false;
+					break;
+
+				case "--sort":
+					sort = SortKey.valueOf(args[++i].toUpperCase());
+					break;
+
+				case "--descending":
+					descending = true;
+					break;
+
+				case "-p":
+				case "--properties":
+					properties = true;
+					break;
+
+				case "-r":
+				case "--recursive":
+					recursive = true;
+					break;
+
+				case "--name":
+					pattern = args[++i];
+					break;
+
+				case "--max-depth":
+					maxDepth = Integer.parseInt(args[++i]);
+
+					if (maxDepth < 1)
+						return false;
+					break;
+
+				case "--follow-links":
+					followLinks = true;
+					break;
+
+				case "-d":
+				case "--duplicates":
+					duplicates = true;
+					break;
+
+				case "-l":
+				case "--largest":
+					largest = Integer.parseInt(args[++i]);
+
+					if (largest < 1)
+						return false;
+					break;
+
+				case "--export":
+					exportFile = Paths.get(args[++i]);
+					break;
+
+				case "--diff":
+					diffFile = Paths.get(args[++i]);
+					break;
+
+				case "-g":
+				case "--grep":
+					grep = args[++i];
+
+					if (grep.isEmpty())
+						return false;
+					break;
+
+				case "--metrics":
+					metrics = true;
+					break;
+
+				case "-i":
+				case "--index":
+					indexed = true;
+					break;
+
+				default:
+					if (args[i].startsWith("-") || directory != null)
+						return false;
+
+					directory = Paths.get(args[i]);
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+			return false;
+		}
+
+		// O índice não segue links
+		if (indexed && (!recursive || followLinks))
+			return false;
+
+		// Somente a listagem do diretório é ordenada
+		if ((sort != null || descending) && (sort == null || recursive || duplicates || largest > 0))
+			return false;
+
+		// A gravação e a comparação usam a listagem simples ou a recursiva, sem índice nem ordem
+		if ((exportFile != null || diffFile != null) && (exportFile != null && diffFile != null || indexed
+				|| duplicates || largest > 0 || sort != null || properties))
+			return false;
+
+		// A busca no conteúdo lê somente arquivos e escreve linhas, e não entradas
+		if (grep != null && (indexed || duplicates || largest > 0 || sort != null || properties || exportFile != null
+				|| diffFile != null || option == OptionRadioButton.SUBDIRECTORIES))
+			return false;
+
+		return directory != null;
+	}
+
+	/**
+	 * Lista o diretório na saída padrão.
+	 *
+	 * @return o código de saída
+	 */
+	private int list() {
+
+		if (!Files.exists(directory)) {
+			System.err.println(MSG_INVALID_PATH);
+			return 1;
+		}
+
+		if (!Files.isDirectory(directory)) {
+			System.err.println(MSG_NOT_DIRECTORY);
+			return 1;
+		}
+
+		if (exportFile != null)
+			return export();
+
+		TreeSnapshot before = null;
+
+		if (diffFile != null) {
+			try {
+				before = TreeSnapshot.read(diffFile);
+			} catch (IOException e) {
+				System.err.println(String.format(MSG_SNAPSHOT_ERROR, diffFile));
+				return 1;
+			}
+		}
+
+		Writer output = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8),
+				OUTPUT_BUFFER_SIZE);
+
+		try {
+			if (before != null) {
+				format.writeHeader(output, DIFF_NAMES);
+				writeDiff(output, before);
+				output.flush();
+				return 0;
+			}
+
+			if (grep != null) {
+				format.writeHeader(output, GREP_NAMES);
+				grep(output);
+				output.flush();
+				return 0;
+			}
+
+			if (duplicates) {
+				format.writeHeader(output, DUPLICATE_NAMES);
+				writeDuplicates(output);
+				output.flush();
+				return 0;
+			}
+
+			if (largest > 0) {
+				format.writeHeader(output, LARGEST_NAMES);
+				writeLargest(output);
+				output.flush();
+				return 0;
+			}
+
+			format.writeHeader(output, properties ? PROPERTY_NAMES : NAMES);
+
+			if (indexed) {
+				searchIndex(output);
+			} else if (recursive) {
+				search(entry -> {
+					try {
+						write(output, entry, entry.getRelativeName(directory, withExtension));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} else if (sort != null) {
+				for (Entry entry : DirectorySnapshot.read(directory).sorted(sort, withExtension, descending))
+					if (accepts(entry))
+						write(output, entry, entry.getDisplayName(withExtension));
+			} else {
+				DirectorySnapshot.scan(directory, entry -> {
+					try {
+						if (accepts(entry))
+							write(output, entry, entry.getDisplayName(withExtension));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+
+			output.flush();
+		} catch (UncheckedIOException e) {
+			// Saída fechada antes do fim da listagem (por exemplo, ao usar head)
+			return 1;
+		} catch (IOException e) {
+			flushQuietly(output);
+			System.err.println(MSG_READ_ERROR);
+			return 1;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Busca em toda a árvore do diretório, entregando os resultados aceitos à
+	 * medida que são retirados da fila da busca.
+	 *
+	 * @param action recebe cada resultado aceito
+	 */
+	private void search(Consumer<Entry> action) {
+
+		RecursiveSearch search = new RecursiveSearch(directory, pattern, extension, maxDepth, followLinks,
+				RecursiveSearch.DEFAULT_CAPACITY, sizeCalculator.getPool()).start();
+
+		List<Entry> batch = new ArrayList<>();
+
+		try {
+			while (!search.isExhausted()) {
+
+				batch.clear();
+				search.drainTo(batch, 100, TimeUnit.MILLISECONDS);
+
+				for (Entry entry : batch)
+					if (accepts(entry))
+						action.accept(entry);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			search.cancel();
+		}
+	}
+
+	/**
+	 * Procura o texto no conteúdo dos arquivos do diretório ou, com a opção
+	 * recursiva, de toda a árvore, escrevendo cada linha encontrada assim que é
+	 * retirada da fila da busca.
+	 *
+	 * @param output o destino
+	 * @throws IOException se a escrita falhar
+	 */
+	private void grep(Writer output) throws IOException {
+
+		RecursiveSearch files = new RecursiveSearch(directory.toAbsolutePath().normalize(), pattern, extension,
+				recursive ? maxDepth : 1, followLinks, RecursiveSearch.DEFAULT_CAPACITY, sizeCalculator.getPool());
+		ContentSearch search = new ContentSearch(files, grep, RecursiveSearch.DEFAULT_CAPACITY).start();
+
+		List<ContentMatch> batch = new ArrayList<>();
+
+		try {
+			while (!search.isExhausted()) {
+
+				batch.clear();
+				search.drainTo(batch, 100, TimeUnit.MILLISECONDS);
+
+				for (ContentMatch match : batch) {
+					String[] fields = { search.getRoot().relativize(match.getFile()).toString(),
+							Long.toString(match.getLine()), match.getText() };
+					format.write(output, GREP_NAMES, fields, GREP_NUMERIC);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			search.cancel();
+		}
+	}
+
+	/**
+	 * Captura a listagem do diretório, simples ou recursiva, com as entradas
+	 * aceitas pelas opções.
+	 *
+	 * @return a listagem capturada
+	 * @throws IOException se o diretório não puder ser lido
+	 */
+	private TreeSnapshot capture() throws IOException {
+
+		TreeSnapshot.Builder builder = new TreeSnapshot.Builder(directory);
+
+		if (recursive) {
+			search(builder::add);
+		} else {
+			DirectorySnapshot.scan(directory, entry -> {
+				if (accepts(entry))
+					builder.add(entry);
+			});
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * Grava a listagem do diretório no arquivo informado.
+	 *
+	 * @return o código de saída
+	 */
+	private int export() {
+
+		TreeSnapshot captured;
+
+		try {
+			captured = capture();
+		} catch (IOException e) {
+			System.err.println(MSG_READ_ERROR);
+			return 1;
+		}
+
+		try {
+			captured.write(exportFile);
+		} catch (IOException e) {
+			System.err.println(String.format(MSG_SNAPSHOT_ERROR, exportFile));
+			return 1;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Compara a listagem gravada com a listagem atual do diretório, escrevendo
+	 * uma linha por entrada criada, removida ou alterada.
+	 *
+	 * @param output o destino
+	 * @param before a listagem gravada
+	 * @throws IOException se o diretório não puder ser lido ou a escrita falhar
+	 */
+	private void writeDiff(Writer output, TreeSnapshot before) throws IOException {
+
+		SnapshotDiff.compare(before, capture(), change -> {
+
+			String[] fields = { change.getType().name().toLowerCase(), change.isDirectory() ? "directory" : "file",
+					change.getName(), Long.toString(change.getSizeBefore()), Long.toString(change.getSizeAfter()) };
+
+			try {
+				format.write(output, DIFF_NAMES, fields, DIFF_NUMERIC);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Busca no índice gravado do diretório, criando-o na primeira busca.
+	 *
+	 * @param output o destino
+	 * @throws IOException se o diretório não puder ser indexado ou a escrita falhar
+	 */
+	private void searchIndex(Writer output) throws IOException {
+
+		NameIndexStore store = new NameIndexStore(Paths.get(System.getProperty("user.home"), NAME_INDEX_DIRECTORY));
+		NameIndex index = store.get(directory);
+
+		for (Entry entry : index.find(pattern, extension, maxDepth, Integer.MAX_VALUE)) {
+
+			// Tamanho e data são lidos novamente, pois podem ter mudado desde a indexação
+			Entry current = properties ? entry.current() : entry;
+
+			if (current != null && accepts(current))
+				write(output, current, current.getRelativeName(index.getRoot(), withExtension));
+		}
+	}
+
+	/**
+	 * Procura os arquivos duplicados da árvore, escrevendo uma linha por arquivo
+	 * com o número do grupo a que pertence.
+	 *
+	 * @param output o destino
+	 * @throws IOException se a escrita falhar
+	 */
+	private void writeDuplicates(Writer output) throws IOException {
+
+		List<DuplicateGroup> groups = new DuplicateFinder().find(directory);
+
+		for (int group = 0; group < groups.size(); group++) {
+
+			DuplicateGroup duplicate = groups.get(group);
+
+			for (Path file : duplicate.getFiles()) {
+				String[] fields = { Integer.toString(group + 1), Long.toString(duplicate.getSize()),
+						duplicate.getHash(), file.toAbsolutePath().toString() };
+				format.write(output, DUPLICATE_NAMES, fields, DUPLICATE_NUMERIC);
+			}
+		}
+	}
+
+	/**
+	 * Calcula o tamanho da árvore e escreve os maiores arquivos e, em seguida, os
+	 * maiores subdiretórios, do maior para o menor.
+	 *
+	 * @param output o destino
+	 * @throws IOException se a escrita falhar
+	 */
+	private void writeLargest(Writer output) throws IOException {
+
+		SpaceReport report = sizeCalculator.report(directory, largest);
+
+		writeLargest(output, "file", report.getLargestFiles());
+		writeLargest(output, "directory", report.getLargestDirectories());
+	}
+
+	private void writeLargest(Writer output, String type, List<Entry> entries) throws IOException {
+
+		for (Entry entry : entries) {
+			String[] fields = { type, Long.toString(entry.getSize()), entry.getPath().toAbsolutePath().toString() };
+			format.write(output, LARGEST_NAMES, fields, LARGEST_NUMERIC);
+		}
+	}
+
+	/**
+	 * Verifica se a entrada deve ser listada com as opções informadas.
+	 *
+	 * @param entry a entrada do diretório
+	 * @return true se a entrada deve ser listada
+	 */
+	private boolean accepts(Entry entry) {
+
+		if (entry.isDirectory())
+			return option != OptionRadioButton.FILES;
+
+		return option != OptionRadioButton.SUBDIRECTORIES && extension.matches(entry.getName());
+	}
+
+	/**
+	 * Escreve a entrada no formato escolhido.
+	 *
+	 * @param output o destino
+	 * @param entry  a entrada do diretório
+	 * @param name   o nome exibido da entrada
+	 * @throws IOException se a escrita falhar
+	 */
+	private void write(Writer output, Entry entry, String name) throws IOException {
+
+		if (!properties) {
+			format.write(output, NAMES, new String[] { name }, NUMERIC);
+			return;
+		}
+
+		long size = entry.isFile() ? entry.getSize() : sizeCalculator.calculate(entry.getPath()).getBytes();
+
+		String[] fields = { name, entry.isDirectory() ? "directory" : "file",
+				entry.getPath().toAbsolutePath().toString(), Instant.ofEpochMilli(entry.getLastModified()).toString(),
+				Long.toString(size) };
+
+		format.write(output, PROPERTY_NAMES, fields, PROPERTY_NUMERIC);
+	}
+
+	private static void flushQuietly(Writer output) {
+		try {
+			output.flush();
+		} catch (IOException e) {
+			// Nada mais pode ser escrito
+		}
+	}
+
+}// class HeadlessNavigator
@@ -0,0 +1,146 @@
+package app.cli;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Enumeração que define os formatos de saída do modo sem interface gráfica.
+ * Cada formato escreve uma linha por entrada.
+ */
+public enum OutputFormat {
+
+	/** Texto simples, com os campos separados por tabulação. */
+	TEXT {
+		@Override
+		void write(Writer output, String[] names, String[] fields, boolean[] numeric) throws IOException {
+
+			for (int i = 0; i < fields.length; i++) {
+				if (i > 0)
+					output.write('\t');
+				output.write(fields[i]);
+			}
+
+			output.write('\n');
+		}
+	},
+
+	/** Valores separados por vírgula, com aspas quando necessário. */
+	CSV {
+		@Override
+		void writeHeader(Writer output, String[] names) throws IOException {
+			write(output, names, names, new boolean[names.length]);
+		}
+
+		@Override
+		void write(Writer output, String[] names, String[] fields, boolean[] numeric) throws IOException {
+
+			for (int i = 0; i < fields.length; i++) {
+
+				if (i > 0)
+					output.write(',');
+
+				String field = fields[i];
+
+				if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0
+						&& field.indexOf('\r') < 0) {
+					output.write(field);
+					continue;
+				}
+
+				output.write('"');
+				for (int j = 0; j < field.length(); j++) {
+					char c = field.charAt(j);
+					if (c == '"')
+						output.write('"');
+					output.write(c);
+				}
+				output.write('"');
+			}
+
+			output.write("\r\n");
+		}
+	},
+
+	/** Um objeto JSON por linha (JSON Lines). */
+	JSONL {
+		@Override
+		void write(Writer output, String[] names, String[] fields, boolean[] numeric) throws IOException {
+
+			output.write('{');
+
+			for (int i = 0; i < fields.length; i++) {
+
+				if (i > 0)
+					output.write(',');
+
+				writeString(output, names[i]);
+				output.write(':');
+
+				if (numeric[i])
+					output.write(fields[i]);
+				else
+					writeString(output, fields[i]);
+			}
+
+			output.write("}\n");
+		}
+
+		private void writeString(Writer output, String value) throws IOException {
+
+			output.write('"');
+
+			for (int i = 0; i < value.length(); i++) {
+
+				char c = value.charAt(i);
+
+				switch (c) {
+				case '"':
+					output.write("\\\"");
+					break;
+				case '\\':
+					output.write("\\\\");
+					break;
+				case '\n':
+					output.write("\\n");
+					break;
+				case '\r':
+					output.write("\\r");
+					break;
+				case '\t':
+					output.write("\\t");
+					break;
+				default:
+					if (c < 0x20)
+						output.write(String.format("\\u%04x", (int) c));
+					else
+						output.write(c);
+				}
+			}
+
+			output.write('"');
+		}
+	};
+
+	/**
+	 * Escreve o cabeçalho, para os formatos que possuem um.
+	 *
+	 * @param output o destino
+	 * @param names  os nomes dos campos
+	 * @throws IOException se a escrita falhar
+	 */
+	void writeHeader(Writer output, String[] names) throws IOException {
+		// Sem cabeçalho por padrão
+	}
+
+	/**
+	 * Escreve uma entrada.
+	 *
+	 * @param output  o destino
+	 * @param names   os nomes dos campos
+	 * @param fields  os valores dos campos
+	 * @param numeric indica quais campos são numéricos
+	 * @throws IOException se a escrita falhar
+	 */
+	abstract void write(Writer output, String[] names, String[] fields, boolean[] numeric) throws IOException;
+
+}// enum OutputFormat
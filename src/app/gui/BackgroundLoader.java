@@ -0,0 +1,132 @@
+package app.gui;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+/**
+ * A classe BackgroundLoader executa carregamentos fora da thread de eventos do
+ * Swing (EDT) e entrega o resultado de volta à EDT.
+ *
+ * Cada carregador mantém somente uma tarefa ativa: iniciar um novo carregamento
+ * cancela o anterior, e resultados de tarefas substituídas são descartados.
+ */
+class BackgroundLoader {
+
+	/**
+	 * Tarefa que, antes do resultado final, pode entregar resultados parciais.
+	 */
+	interface PartialTask<T> {
+
+		/**
+		 * Executa a tarefa.
+		 *
+		 * @param partial recebe os resultados parciais, na thread da tarefa
+		 * @return o resultado final
+		 * @throws Exception se a tarefa falhar
+		 */
+		T call(Consumer<T> partial) throws Exception;
+	}
+
+	private final Executor executor;
+
+	private SwingWorker<?, ?> current;
+
+	/**
+	 * Construtor da classe BackgroundLoader.
+	 *
+	 * @param executor o executor onde as tarefas serão executadas
+	 */
+	BackgroundLoader(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Inicia um carregamento, cancelando o que estiver em andamento. Deve ser
+	 * chamado na EDT.
+	 *
+	 * @param task    a tarefa executada em segundo plano
+	 * @param success chamado na EDT com o resultado da tarefa
+	 * @param failure chamado na EDT com o erro lançado pela tarefa
+	 */
+	<T> void load(Callable<T> task, Consumer<T> success, Consumer<Throwable> failure) {
+		load(partial -> task.call(), null, success, failure);
+	}
+
+	/**
+	 * Inicia um carregamento que entrega resultados parciais antes do final.
+	 * Somente o resultado parcial mais recente é entregue, e nenhum é entregue
+	 * depois do resultado final ou de um cancelamento. Deve ser chamado na EDT.
+	 *
+	 * @param task    a tarefa executada em segundo plano
+	 * @param partial chamado na EDT com os resultados parciais, ou null
+	 * @param success chamado na EDT com o resultado da tarefa
+	 * @param failure chamado na EDT com o erro lançado pela tarefa
+	 */
+	<T> void load(PartialTask<T> task, Consumer<T> partial, Consumer<T> success, Consumer<Throwable> failure) {
+
+		cancel();
+
+		SwingWorker<T, T> worker = new SwingWorker<T, T>() {
+
+			@Override
+			protected T doInBackground() throws Exception {
+				return task.call(this::publish);
+			}
+
+			@Override
+			protected void process(List<T> chunks) {
+
+				if (current == this && !isCancelled() && !isDone() && partial != null)
+					partial.accept(chunks.get(chunks.size() - 1));
+			}
+
+			@Override
+			protected void done() {
+
+				if (current != this || isCancelled())
+					return;
+
+				current = null;
+
+				try {
+					success.accept(get());
+				} catch (ExecutionException e) {
+					if (!(e.getCause() instanceof CancellationException))
+						failure.accept(e.getCause());
+				} catch (InterruptedException | CancellationException e) {
+					// Tarefa substituída por um carregamento mais recente
+				}
+			}
+		};
+
+		current = worker;
+		executor.execute(worker);
+	}
+
+	/**
+	 * Cancela o carregamento em andamento, interrompendo a thread que o executa.
+	 */
+	void cancel() {
+
+		if (current != null) {
+			current.cancel(true);
+			current = null;
+		}
+	}
+
+	/**
+	 * Verifica se há um carregamento em andamento.
+	 *
+	 * @return true se houver uma tarefa ativa
+	 */
+	boolean isLoading() {
+		return current != null;
+	}
+
+}// class BackgroundLoader
@@ -0,0 +1,212 @@
+package app.gui;
+
+import java.util.List;
+import java.util.function.Function;
+
+import javax.swing.AbstractListModel;
+import javax.swing.Timer;
+
+import model.DirectorySnapshot.Entry;
+
+/**
+ * Modelo de lista apoiado diretamente nas entradas da fotografia do diretório.
+ *
+ * As entradas são publicadas na lista em blocos, a cada ciclo de um
+ * {@link Timer}, para que a primeira tela apareça imediatamente mesmo em
+ * diretórios muito grandes. Os nomes exibidos não são copiados: cada nome é
+ * obtido da entrada somente quando a lista precisa desenhá-lo.
+ *
+ * O nome mais longo, usado na largura das células, também é procurado bloco a
+ * bloco, à medida que as entradas são publicadas, e não em toda a lista de uma
+ * vez.
+ */
+class DirectoryListModel extends AbstractListModel<String> {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Quantidade de entradas publicadas de uma vez. */
+	static final int CHUNK_SIZE = 5_000;
+
+	/** Intervalo entre a publicação de dois blocos, em milissegundos. */
+	static final int CHUNK_DELAY = 15;
+
+	private transient List<Entry> entries;
+	private final transient Function<Entry, String> names;
+
+	private final Timer timer;
+
+	private int published;
+
+	/** Nome exibido mais longo entre as entradas já medidas. */
+	private String longest = "";
+
+	/**
+	 * Construtor da classe DirectoryListModel.
+	 *
+	 * @param entries       as entradas exibidas, na ordem da lista
+	 * @param withExtension se true, os nomes dos arquivos incluirão suas extensões
+	 */
+	DirectoryListModel(List<Entry> entries, boolean withExtension) {
+		this(entries, entry -> entry.getDisplayName(withExtension));
+	}
+
+	/**
+	 * Construtor da classe DirectoryListModel com uma forma própria de exibir as
+	 * entradas.
+	 *
+	 * @param entries as entradas exibidas, na ordem da lista
+	 * @param names   obtém o nome exibido de uma entrada
+	 */
+	DirectoryListModel(List<Entry> entries, Function<Entry, String> names) {
+
+		this.entries = entries;
+		this.names = names;
+
+		timer = new Timer(CHUNK_DELAY, e -> publishChunk());
+	}
+
+	/**
+	 * Publica o primeiro bloco imediatamente e agenda os seguintes.
+	 */
+	void start() {
+
+		publishChunk();
+
+		if (published < entries.size())
+			timer.start();
+	}
+
+	/**
+	 * Interrompe a publicação dos blocos restantes.
+	 */
+	void stop() {
+		timer.stop();
+	}
+
+	/**
+	 * Substitui as entradas exibidas, mantendo a quantidade já publicada, para
+	 * que a lista não volte ao início quando o diretório é atualizado.
+	 *
+	 * @param updated as novas entradas, na ordem da lista
+	 */
+	void update(List<Entry> updated) {
+
+		int previous = published;
+
+		entries = updated;
+		published = Math.min(updated.size(), Math.max(previous, CHUNK_SIZE));
+
+		// A largura nunca diminui; basta medir o primeiro bloco e as novas entradas
+		measure(0, Math.min(published, CHUNK_SIZE));
+		measure(Math.max(previous, CHUNK_SIZE), published);
+
+		if (published < previous)
+			fireIntervalRemoved(this, published, previous - 1);
+		else if (published > previous)
+			fireIntervalAdded(this, previous, published - 1);
+
+		if (Math.min(previous, published) > 0)
+			fireContentsChanged(this, 0, Math.min(previous, published) - 1);
+
+		if (published < entries.size())
+			timer.start();
+	}
+
+	/**
+	 * Acrescenta entradas ao final da lista, como os resultados de uma busca que
+	 * chegam aos poucos. As entradas são publicadas imediatamente, a menos que
+	 * ainda haja blocos aguardando publicação.
+	 *
+	 * @param added as entradas acrescentadas
+	 */
+	void append(List<Entry> added) {
+
+		if (added.isEmpty())
+			return;
+
+		boolean pending = published < entries.size();
+
+		entries.addAll(added);
+
+		if (!pending) {
+			int first = published;
+			published = entries.size();
+			fireIntervalAdded(this, first, published - 1);
+		}
+	}
+
+	/**
+	 * Obtém o nome exibido mais longo entre as entradas publicadas.
+	 *
+	 * @return o nome mais longo, ou uma String vazia
+	 */
+	String getLongestName() {
+		return longest;
+	}
+
+	/**
+	 * Obtém a entrada exibida na posição informada.
+	 *
+	 * @param index a posição na lista
+	 * @return a entrada correspondente
+	 */
+	Entry getEntry(int index) {
+		return entries.get(index);
+	}
+
+	/**
+	 * Obtém a posição de uma entrada entre as publicadas.
+	 *
+	 * @param entry a entrada procurada
+	 * @return a posição da entrada, ou -1 se ela não estiver publicada
+	 */
+	int indexOf(Entry entry) {
+
+		for (int index = 0; index < published; index++)
+			if (entries.get(index).equals(entry))
+				return index;
+
+		return -1;
+	}
+
+	/**
+	 * Publica o próximo bloco de entradas, notificando a lista com um único
+	 * evento de intervalo adicionado.
+	 */
+	private void publishChunk() {
+
+		int first = published;
+		int last = Math.min(entries.size(), first + CHUNK_SIZE);
+
+		if (last > first) {
+			measure(first, last);
+			published = last;
+			fireIntervalAdded(this, first, last - 1);
+		}
+
+		if (published == entries.size())
+			timer.stop();
+	}
+
+	private void measure(int from, int to) {
+
+		for (int index = from; index < to; index++) {
+
+			String name = names.apply(entries.get(index));
+
+			if (name.length() > longest.length())
+				longest = name;
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return published;
+	}
+
+	@Override
+	public String getElementAt(int index) {
+		return names.apply(entries.get(index));
+	}
+
+}// class DirectoryListModel
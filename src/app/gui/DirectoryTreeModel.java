@@ -0,0 +1,428 @@
+package app.gui;
+
+import static util.Constants.MSG_LOADING;
+import static util.Constants.TREE_COLD_MILLIS;
+import static util.Constants.TREE_EVICTION_INTERVAL;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+import model.DirectorySnapshot;
+import model.DirectorySnapshot.Entry;
+import model.Metrics;
+import util.SortKey;
+
+/**
+ * Modelo de árvore de diretórios que lê os subdiretórios de cada nó somente
+ * quando ele é expandido.
+ *
+ * A leitura é feita em segundo plano, uma tarefa por nó, enquanto o nó exibe
+ * um item provisório; nenhum nó é lido antes de ser expandido, de modo que
+ * abrir um diretório não lê os netos. Os filhos lidos ficam guardados no nó e
+ * são publicados em blocos, como em {@link DirectoryListModel}, para que um
+ * diretório com centenas de milhares de subdiretórios não ocupe a EDT.
+ *
+ * Os filhos de um nó recolhido são descartados depois de
+ * {@link util.Constants#TREE_COLD_MILLIS} sem uso; a próxima expansão os lê
+ * novamente. Todos os métodos devem ser chamados na EDT.
+ */
+class DirectoryTreeModel implements TreeModel {
+
+	/**
+	 * Diretório exibido na árvore. Somente a raiz guarda o caminho completo; os
+	 * demais nós guardam o nome e a posição entre os irmãos.
+	 */
+	static final class Node {
+
+		private final Node parent;
+		private final Path path;
+		private final String name;
+		private final int index;
+
+		/** Subdiretórios lidos, ou null se o nó ainda não foi lido. */
+		private List<Node> children;
+		private int published;
+
+		/** Leitura em andamento, ou null. */
+		private FutureTask<List<Node>> task;
+		private long collapsedAt;
+
+		private Node(Node parent, Path path, String name, int index) {
+			this.parent = parent;
+			this.path = path;
+			this.name = name;
+			this.index = index;
+		}
+
+		/**
+		 * Obtém o caminho do diretório.
+		 *
+		 * @return o caminho, ou null para o item provisório
+		 */
+		Path getPath() {
+
+			if (parent == null)
+				return path;
+
+			Path parentPath = parent.getPath();
+
+			return parentPath == null ? null : parentPath.resolve(name);
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private final Node root;
+
+	/** Item exibido enquanto os filhos de um nó são lidos. */
+	private final Node loading = new Node(null, null, MSG_LOADING, 0);
+
+	private final Executor executor;
+	private final EventListenerList listeners = new EventListenerList();
+
+	/** Nós recolhidos com filhos guardados, do recolhido há mais tempo ao mais recente. */
+	private final Set<Node> collapsed = new LinkedHashSet<>();
+
+	/** Nós com filhos lidos e ainda não publicados. */
+	private final Set<Node> publishing = new LinkedHashSet<>();
+
+	private final Timer publisher;
+	private final Timer evictor;
+
+	/**
+	 * Construtor da classe DirectoryTreeModel.
+	 *
+	 * @param directory o diretório da raiz
+	 * @param executor  o executor onde os diretórios são lidos
+	 */
+	DirectoryTreeModel(Path directory, Executor executor) {
+
+		Path name = directory.getFileName();
+
+		this.root = new Node(null, directory, name == null ? directory.toString() : name.toString(), 0);
+		this.executor = executor;
+
+		publisher = new Timer(DirectoryListModel.CHUNK_DELAY, e -> publishChunks());
+		evictor = new Timer(TREE_EVICTION_INTERVAL, e -> evictCold(System.currentTimeMillis()));
+		evictor.start();
+	}
+
+	/**
+	 * Inicia a leitura dos filhos do nó expandido, se eles não estiverem
+	 * guardados.
+	 *
+	 * @param node o nó expandido
+	 */
+	void expand(Node node) {
+
+		collapsed.remove(node);
+
+		if (node == loading || node.children != null || node.task != null)
+			return;
+
+		FutureTask<List<Node>> task = new FutureTask<List<Node>>(() -> read(node)) {
+
+			@Override
+			protected void done() {
+				SwingUtilities.invokeLater(() -> loaded(node, this));
+			}
+		};
+
+		node.task = task;
+		fireNodesInserted(node, 0, 1);
+
+		executor.execute(task);
+	}
+
+	/**
+	 * Registra o recolhimento do nó. Uma leitura em andamento é cancelada; filhos
+	 * já lidos passam a contar o tempo sem uso.
+	 *
+	 * @param node o nó recolhido
+	 */
+	void collapse(Node node) {
+
+		node.collapsedAt = System.currentTimeMillis();
+
+		if (node.task != null) {
+			cancel(node);
+			fireLoadingRemoved(node);
+		} else if (node.children != null && node != root) {
+			// A raiz nunca é descartada: a JTree a marcaria como expandida sem avisar
+			collapsed.add(node);
+		}
+	}
+
+	/**
+	 * Descarta os filhos dos nós recolhidos há mais tempo que
+	 * {@link util.Constants#TREE_COLD_MILLIS}.
+	 *
+	 * @param now o instante atual, em milissegundos
+	 */
+	void evictCold(long now) {
+
+		List<Node> cold = new ArrayList<>();
+
+		for (Node node : collapsed) {
+
+			if (now - node.collapsedAt < TREE_COLD_MILLIS)
+				break;
+
+			cold.add(node);
+		}
+
+		for (Node node : cold) {
+
+			// Pode ter sido descartado junto com um ancestral
+			if (!collapsed.remove(node))
+				continue;
+
+			release(node);
+			fireTreeStructureChanged(node);
+		}
+	}
+
+	/**
+	 * Interrompe as leituras e os temporizadores do modelo. Chamado quando a
+	 * árvore passa a exibir outro modelo.
+	 */
+	void close() {
+
+		publisher.stop();
+		evictor.stop();
+		release(root);
+	}
+
+	/**
+	 * Lê os subdiretórios do nó, ordenados pelo nome. Executado em segundo plano.
+	 */
+	private List<Node> read(Node parent) throws IOException {
+
+		Path path = parent.getPath();
+		long start = Metrics.start();
+
+		try {
+			List<Node> children = new ArrayList<>();
+
+			for (Entry entry : DirectorySnapshot.read(path).sorted(SortKey.NAME, true, false))
+				if (entry.isDirectory())
+					children.add(new Node(parent, null, entry.getName(), children.size()));
+
+			return children;
+		} finally {
+			Metrics.TREE_CHILDREN.stop(start, path);
+		}
+	}
+
+	/**
+	 * Recebe o resultado da leitura na EDT e publica o primeiro bloco de filhos.
+	 * Resultados de leituras canceladas ou substituídas são descartados.
+	 */
+	private void loaded(Node node, FutureTask<List<Node>> task) {
+
+		if (node.task != task || task.isCancelled())
+			return;
+
+		node.task = null;
+		fireLoadingRemoved(node);
+
+		try {
+			node.children = task.get();
+		} catch (ExecutionException | InterruptedException e) {
+			// Um diretório ilegível é exibido sem filhos
+			node.children = Collections.emptyList();
+		}
+
+		node.published = 0;
+
+		if (node.children.isEmpty()) {
+			fireTreeStructureChanged(node);
+			return;
+		}
+
+		publishing.add(node);
+		publishChunks();
+	}
+
+	/**
+	 * Publica o próximo bloco de filhos de cada nó em publicação.
+	 */
+	private void publishChunks() {
+
+		for (Iterator<Node> iterator = publishing.iterator(); iterator.hasNext();) {
+
+			Node node = iterator.next();
+			int first = node.published;
+			int last = Math.min(node.children.size(), first + DirectoryListModel.CHUNK_SIZE);
+
+			node.published = last;
+			fireNodesInserted(node, first, last);
+
+			if (last == node.children.size())
+				iterator.remove();
+		}
+
+		if (publishing.isEmpty())
+			publisher.stop();
+		else
+			publisher.start();
+	}
+
+	/**
+	 * Descarta os filhos do nó e de todos os seus descendentes, cancelando as
+	 * leituras em andamento.
+	 */
+	private void release(Node node) {
+
+		cancel(node);
+		collapsed.remove(node);
+		publishing.remove(node);
+
+		if (node.children != null)
+			for (Node child : node.children)
+				if (child.children != null || child.task != null)
+					release(child);
+
+		node.children = null;
+		node.published = 0;
+	}
+
+	private void cancel(Node node) {
+
+		if (node.task == null)
+			return;
+
+		FutureTask<List<Node>> task = node.task;
+		node.task = null;
+		task.cancel(true);
+	}
+
+	@Override
+	public Object getRoot() {
+		return root;
+	}
+
+	@Override
+	public Object getChild(Object parent, int index) {
+
+		Node node = (Node) parent;
+
+		return node.task != null ? loading : node.children.get(index);
+	}
+
+	@Override
+	public int getChildCount(Object parent) {
+
+		Node node = (Node) parent;
+
+		return node.task != null ? 1 : node.published;
+	}
+
+	@Override
+	public boolean isLeaf(Object value) {
+
+		Node node = (Node) value;
+
+		// Um nó ainda não lido pode ter subdiretórios; a leitura só ocorre ao expandi-lo
+		return node == loading || (node.children != null && node.children.isEmpty());
+	}
+
+	@Override
+	public int getIndexOfChild(Object parent, Object child) {
+
+		Node node = (Node) parent;
+
+		if (child == loading)
+			return node.task != null ? 0 : -1;
+
+		Node candidate = (Node) child;
+
+		return candidate.parent == node && candidate.index < node.published ? candidate.index : -1;
+	}
+
+	@Override
+	public void valueForPathChanged(TreePath path, Object newValue) {
+		// A árvore não é editável
+	}
+
+	@Override
+	public void addTreeModelListener(TreeModelListener listener) {
+		listeners.add(TreeModelListener.class, listener);
+	}
+
+	@Override
+	public void removeTreeModelListener(TreeModelListener listener) {
+		listeners.remove(TreeModelListener.class, listener);
+	}
+
+	/**
+	 * Obtém o caminho da raiz até o nó.
+	 */
+	private Object[] pathTo(Node node) {
+
+		int depth = 0;
+
+		for (Node ancestor = node; ancestor != null; ancestor = ancestor.parent)
+			depth++;
+
+		Object[] path = new Object[depth];
+
+		for (Node ancestor = node; ancestor != null; ancestor = ancestor.parent)
+			path[--depth] = ancestor;
+
+		return path;
+	}
+
+	private void fireNodesInserted(Node parent, int from, int to) {
+
+		int[] indices = new int[to - from];
+		Object[] children = new Object[to - from];
+
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = from + i;
+			children[i] = getChild(parent, from + i);
+		}
+
+		TreeModelEvent event = new TreeModelEvent(this, pathTo(parent), indices, children);
+
+		for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class))
+			listener.treeNodesInserted(event);
+	}
+
+	private void fireLoadingRemoved(Node parent) {
+
+		TreeModelEvent event = new TreeModelEvent(this, pathTo(parent), new int[] { 0 }, new Object[] { loading });
+
+		for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class))
+			listener.treeNodesRemoved(event);
+	}
+
+	private void fireTreeStructureChanged(Node node) {
+
+		TreeModelEvent event = new TreeModelEvent(this, pathTo(node));
+
+		for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class))
+			listener.treeStructureChanged(event);
+	}
+
+}// class DirectoryTreeModel
@@ -0,0 +1,178 @@
+package app.gui;
+
+import static util.Constants.BUTTON_CANCEL;
+import static util.Constants.BUTTON_CLEAR;
+import static util.Constants.BUTTON_PAUSE;
+import static util.Constants.FILE_JOB_REFRESH;
+import static util.Constants.FILE_JOB_SIZE;
+import static util.Constants.FORMAT_FILE_JOB;
+import static util.Constants.FORMAT_FILE_JOB_FAILURES;
+import static util.Constants.FORMAT_FILE_JOB_MORE;
+import static util.Constants.TITLE_FILE_JOBS;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+
+import model.FileJob;
+import model.FileJobQueue;
+
+/**
+ * Janela que acompanha as operações em lote da {@link FileJobQueue}: o estado,
+ * o progresso, a vazão e as falhas de cada uma. A lista é atualizada por um
+ * {@link Timer} somente enquanto a janela está aberta, e a operação
+ * selecionada pode ser pausada, retomada ou cancelada.
+ */
+class FileJobsDialog extends JDialog {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final double MEGABYTE = 1024 * 1024;
+
+	private final transient FileJobQueue queue;
+	private final JList<String> list = new JList<>();
+	private final Timer timer;
+
+	/** Operações exibidas, na ordem da lista. */
+	private transient List<FileJob> shown = new ArrayList<>();
+
+	/**
+	 * Construtor da classe FileJobsDialog.
+	 *
+	 * @param owner a janela principal
+	 * @param queue a fila de operações
+	 */
+	FileJobsDialog(Frame owner, FileJobQueue queue) {
+
+		super(owner, TITLE_FILE_JOBS, false);
+		this.queue = queue;
+
+		setDefaultCloseOperation(JDialog.HIDE_ON_CLOSE);
+		setSize(FILE_JOB_SIZE[0], FILE_JOB_SIZE[1]);
+
+		list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		getContentPane().add(new JScrollPane(list), BorderLayout.CENTER);
+
+		JButton pauseButton = new JButton(BUTTON_PAUSE);
+		JButton cancelButton = new JButton(BUTTON_CANCEL);
+		JButton clearButton = new JButton(BUTTON_CLEAR);
+
+		pauseButton.addActionListener(e -> {
+
+			FileJob job = selected();
+
+			if (job != null && job.getState() == FileJob.State.PAUSED)
+				job.resume();
+			else if (job != null)
+				job.pause();
+
+			refresh();
+		});
+
+		cancelButton.addActionListener(e -> {
+
+			FileJob job = selected();
+
+			if (job != null)
+				job.cancel();
+
+			refresh();
+		});
+
+		clearButton.addActionListener(e -> {
+			queue.removeFinished();
+			refresh();
+		});
+
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		buttons.add(pauseButton);
+		buttons.add(cancelButton);
+		buttons.add(clearButton);
+		getContentPane().add(buttons, BorderLayout.SOUTH);
+
+		timer = new Timer(FILE_JOB_REFRESH, e -> refresh());
+
+		addWindowListener(new WindowAdapter() {
+
+			@Override
+			public void windowClosing(WindowEvent e) {
+				timer.stop();
+			}
+		});
+	}
+
+	/**
+	 * Exibe a janela, atualizando a lista imediatamente.
+	 */
+	void open() {
+
+		refresh();
+
+		if (!isVisible())
+			setLocationRelativeTo(getOwner());
+
+		setVisible(true);
+		timer.start();
+	}
+
+	private FileJob selected() {
+
+		int index = list.getSelectedIndex();
+
+		return index >= 0 && index < shown.size() ? shown.get(index) : null;
+	}
+
+	/**
+	 * Redesenha a lista, mantendo selecionada a mesma operação.
+	 */
+	private void refresh() {
+
+		FileJob selected = selected();
+		List<FileJob> jobs = queue.getJobs();
+		String[] lines = new String[jobs.size()];
+
+		for (int index = 0; index < lines.length; index++)
+			lines[index] = describe(jobs.get(index));
+
+		shown = jobs;
+		list.setListData(lines);
+
+		int index = jobs.indexOf(selected);
+
+		if (index >= 0)
+			list.setSelectedIndex(index);
+	}
+
+	private static String describe(FileJob job) {
+
+		List<Path> sources = job.getSources();
+		String names = sources.isEmpty() ? "" : String.valueOf(sources.get(0).getFileName());
+
+		if (sources.size() > 1)
+			names = String.format(FORMAT_FILE_JOB_MORE, names, sources.size() - 1);
+
+		long total = job.getTotalBytes();
+		long done = job.getDoneBytes();
+		int percent = total > 0 ? (int) Math.min(100, done * 100 / total)
+				: job.getState() == FileJob.State.DONE ? 100 : 0;
+		String failures = job.getFailures() == 0 ? ""
+				: String.format(FORMAT_FILE_JOB_FAILURES, job.getFailures(), job.getFirstFailure());
+
+		return String.format(FORMAT_FILE_JOB, job.getOperation().getLabel(), names, job.getState().getLabel(),
+				percent, done / MEGABYTE, total / MEGABYTE, job.getThroughput() / MEGABYTE, failures);
+	}
+
+}// class FileJobsDialog
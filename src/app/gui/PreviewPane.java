@@ -0,0 +1,612 @@
+package app.gui;
+
+import static util.Constants.MSG_LOADING;
+import static util.Constants.MSG_PREVIEW_EMPTY;
+import static util.Constants.MSG_PREVIEW_ERROR;
+import static util.Constants.PREVIEW_PAGE_SIZE;
+import static util.Constants.PREVIEW_SCROLL_UNITS;
+import static util.Constants.PREVIEW_WHEEL_ROWS;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.SwingUtilities;
+
+import model.FilePreview;
+
+/**
+ * Painel que exibe o conteúdo de um arquivo: como texto, em linhas quebradas na
+ * largura do painel, ou em hexadecimal, com 16 bytes por linha, se o arquivo
+ * for binário.
+ *
+ * Somente as páginas sob as linhas visíveis são lidas, por um
+ * {@link FilePreview}, na thread do executor informado. A posição exibida é
+ * guardada como a posição em bytes da primeira linha visível, de modo que
+ * rolar até o meio de um arquivo de vários gigabytes lê apenas as páginas
+ * daquele trecho. Enquanto uma página não chega, as linhas que dependem dela
+ * ficam em branco e são desenhadas quando a leitura termina. Uma página cuja
+ * leitura falhou não é pedida novamente: no lugar das linhas que dependem dela
+ * é exibida a mensagem de erro.
+ *
+ * Todos os métodos devem ser chamados na EDT.
+ */
+class PreviewPane extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int HEX_COLUMNS = 16;
+	private static final int MARGIN = 4;
+
+	private final transient ExecutorService executor;
+	private final View view = new View();
+	private final JScrollBar scrollBar = new JScrollBar(JScrollBar.VERTICAL);
+
+	private transient FilePreview preview;
+	private String message = MSG_PREVIEW_EMPTY;
+
+	/** Conta os arquivos pedidos, para descartar as leituras de um arquivo anterior. */
+	private int generation;
+
+	/** Páginas já pedidas ao executor e ainda não lidas. */
+	private final Set<Long> pending = new HashSet<>();
+
+	/** Páginas cuja leitura falhou no arquivo exibido. */
+	private final Set<Long> failed = new HashSet<>();
+
+	/** Indica que o desenho atual chegou a uma página que não pôde ser lida. */
+	private boolean unreadable;
+
+	/** Posição em bytes da primeira linha visível. */
+	private long top;
+
+	/** Indica que {@link #top} veio da barra de rolagem e ainda não é o início de uma linha. */
+	private boolean aligned = true;
+
+	/** Indica que a barra de rolagem está sendo atualizada pelo próprio painel. */
+	private boolean adjusting;
+
+	/** Quantidade de bytes representada por uma unidade da barra de rolagem. */
+	private long scrollUnit = 1;
+
+	/**
+	 * Construtor da classe PreviewPane.
+	 *
+	 * @param executor a thread em que os arquivos são abertos e lidos
+	 */
+	PreviewPane(ExecutorService executor) {
+
+		super(new BorderLayout());
+		this.executor = executor;
+
+		add(view, BorderLayout.CENTER);
+		add(scrollBar, BorderLayout.EAST);
+
+		scrollBar.addAdjustmentListener(e -> {
+			if (!adjusting && preview != null)
+				scrollTo(e.getValue() * scrollUnit);
+		});
+
+		view.addMouseWheelListener(e -> scrollRows(e.getWheelRotation() * PREVIEW_WHEEL_ROWS));
+
+		view.addMouseListener(new MouseAdapter() {
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+				view.requestFocusInWindow();
+			}
+		});
+
+		view.addKeyListener(new KeyAdapter() {
+
+			@Override
+			public void keyPressed(KeyEvent e) {
+				navigate(e.getKeyCode());
+			}
+		});
+
+		updateScrollBar();
+	}
+
+	/**
+	 * Passa a exibir um arquivo. O arquivo é aberto em segundo plano e o arquivo
+	 * anterior é fechado.
+	 *
+	 * @param file o arquivo, ou null para esvaziar o painel
+	 */
+	void show(Path file) {
+
+		if (preview != null && file != null && preview.getFile().equals(file))
+			return;
+
+		int requested = ++generation;
+
+		close();
+		message = file == null ? MSG_PREVIEW_EMPTY : MSG_LOADING;
+		updateScrollBar();
+		view.repaint();
+
+		if (file == null)
+			return;
+
+		executor.execute(() -> {
+
+			FilePreview opened;
+
+			try {
+				opened = FilePreview.open(file);
+			} catch (IOException e) {
+				SwingUtilities.invokeLater(() -> {
+					if (requested == generation) {
+						message = MSG_PREVIEW_ERROR;
+						view.repaint();
+					}
+				});
+				return;
+			}
+
+			SwingUtilities.invokeLater(() -> {
+
+				if (requested != generation) {
+					executor.execute(() -> closeQuietly(opened));
+					return;
+				}
+
+				preview = opened;
+				message = null;
+				scrollUnit = Math.max(1, (opened.size() + PREVIEW_SCROLL_UNITS - 1) / PREVIEW_SCROLL_UNITS);
+				updateScrollBar();
+				view.repaint();
+			});
+		});
+	}
+
+	/**
+	 * Fecha o arquivo exibido. O fechamento é feito no executor, depois das
+	 * leituras já pedidas.
+	 */
+	private void close() {
+
+		FilePreview closed = preview;
+
+		preview = null;
+		pending.clear();
+		failed.clear();
+		top = 0;
+		aligned = true;
+		scrollUnit = 1;
+
+		if (closed != null)
+			executor.execute(() -> closeQuietly(closed));
+	}
+
+	private static void closeQuietly(FilePreview preview) {
+		try {
+			preview.close();
+		} catch (IOException e) {
+			// O arquivo só foi lido; não há o que perder
+		}
+	}
+
+	/**
+	 * Obtém um byte do arquivo a partir das páginas já lidas, pedindo a leitura
+	 * da página se ela não estiver no cache.
+	 *
+	 * @return o byte, de 0 a 255, ou -1 se a página ainda não foi lida ou não
+	 *         pôde ser lida
+	 */
+	private int byteAt(long position) {
+
+		long index = position / PREVIEW_PAGE_SIZE;
+		byte[] page = preview.getPage(index);
+
+		if (page == null) {
+
+			if (failed.contains(index))
+				unreadable = true;
+			else
+				request(index);
+
+			return -1;
+		}
+
+		int offset = (int) (position % PREVIEW_PAGE_SIZE);
+
+		// O arquivo pode ter diminuído depois de aberto
+		return offset < page.length ? page[offset] & 0xFF : '\n';
+	}
+
+	/**
+	 * Pede a leitura de uma página no executor e redesenha o painel quando ela
+	 * chegar. Uma página que não pôde ser lida é registrada, para que o desenho
+	 * seguinte exiba o erro em vez de pedi-la de novo.
+	 */
+	private void request(long index) {
+
+		if (!pending.add(index))
+			return;
+
+		FilePreview requested = preview;
+
+		executor.execute(() -> {
+
+			boolean read;
+
+			try {
+				requested.readPage(index);
+				read = true;
+			} catch (IOException e) {
+				read = false;
+			}
+
+			boolean failure = !read;
+
+			SwingUtilities.invokeLater(() -> {
+				if (preview == requested) {
+
+					pending.remove(index);
+
+					if (failure)
+						failed.add(index);
+
+					view.repaint();
+				}
+			});
+		});
+	}
+
+	/**
+	 * Obtém o início da linha seguinte. No modo texto, uma linha termina na quebra
+	 * de linha ou ao ocupar a largura do painel; uma quebra logo depois de uma
+	 * linha cheia pertence a ela.
+	 *
+	 * @return a posição, ou -1 se alguma página ainda não foi lida
+	 */
+	private long nextRow(long start) {
+
+		long size = preview.size();
+
+		if (preview.isBinary())
+			return Math.min(size, start + HEX_COLUMNS);
+
+		long limit = Math.min(size, start + view.columns());
+
+		for (long position = start; position < limit; position++) {
+
+			int value = byteAt(position);
+
+			if (value < 0)
+				return -1;
+
+			if (value == '\n')
+				return position + 1;
+		}
+
+		if (limit < size) {
+
+			int value = byteAt(limit);
+
+			if (value < 0)
+				return -1;
+
+			if (value == '\n')
+				return limit + 1;
+		}
+
+		return limit;
+	}
+
+	/**
+	 * Obtém o início da linha anterior. No modo texto, procura o início da linha
+	 * do arquivo no máximo uma página para trás e avança linha a linha até a
+	 * posição informada.
+	 *
+	 * @return a posição, ou -1 se alguma página ainda não foi lida
+	 */
+	private long previousRow(long start) {
+
+		if (start <= 0)
+			return 0;
+
+		if (preview.isBinary())
+			return Math.max(0, start - HEX_COLUMNS);
+
+		long floor = Math.max(0, start - 1 - PREVIEW_PAGE_SIZE);
+		long lineStart = floor;
+
+		for (long position = start - 2; position >= floor; position--) {
+
+			int value = byteAt(position);
+
+			if (value < 0)
+				return -1;
+
+			if (value == '\n') {
+				lineStart = position + 1;
+				break;
+			}
+		}
+
+		for (long row = lineStart;;) {
+
+			long next = nextRow(row);
+
+			if (next < 0)
+				return -1;
+
+			if (next >= start || next == row)
+				return row;
+
+			row = next;
+		}
+	}
+
+	/**
+	 * Obtém o início da linha que contém a posição.
+	 *
+	 * @return a posição, ou -1 se alguma página ainda não foi lida
+	 */
+	private long rowStartAt(long position) {
+
+		if (preview.isBinary())
+			return position - position % HEX_COLUMNS;
+
+		return position <= 0 ? 0 : previousRow(position + 1);
+	}
+
+	/**
+	 * Posiciona a primeira linha visível no ponto escolhido na barra de rolagem.
+	 */
+	private void scrollTo(long position) {
+
+		top = Math.max(0, Math.min(position, preview.size() - 1));
+		aligned = false;
+		align();
+		view.repaint();
+	}
+
+	/**
+	 * Ajusta {@link #top} ao início da sua linha, se as páginas necessárias já
+	 * foram lidas.
+	 */
+	private void align() {
+
+		if (aligned || preview == null)
+			return;
+
+		long start = rowStartAt(top);
+
+		if (start >= 0) {
+			top = start;
+			aligned = true;
+		}
+	}
+
+	/**
+	 * Rola a quantidade de linhas informada, para baixo se positiva. A rolagem
+	 * para na primeira página que ainda não foi lida.
+	 */
+	private void scrollRows(int rows) {
+
+		if (preview == null || !aligned)
+			return;
+
+		for (int count = 0; count < Math.abs(rows); count++) {
+
+			long next = rows > 0 ? nextRow(top) : previousRow(top);
+
+			if (next < 0 || (rows > 0 && next >= preview.size()))
+				break;
+
+			top = next;
+		}
+
+		updateScrollBar();
+		view.repaint();
+	}
+
+	private void navigate(int keyCode) {
+
+		if (preview == null)
+			return;
+
+		int visible = view.visibleRows();
+
+		switch (keyCode) {
+		case KeyEvent.VK_UP:
+			scrollRows(-1);
+			break;
+		case KeyEvent.VK_DOWN:
+			scrollRows(1);
+			break;
+		case KeyEvent.VK_PAGE_UP:
+			scrollRows(-Math.max(1, visible - 1));
+			break;
+		case KeyEvent.VK_PAGE_DOWN:
+			scrollRows(Math.max(1, visible - 1));
+			break;
+		case KeyEvent.VK_HOME:
+			top = 0;
+			aligned = true;
+			updateScrollBar();
+			view.repaint();
+			break;
+		case KeyEvent.VK_END:
+			scrollTo(preview.size() - 1);
+			updateScrollBar();
+			scrollRows(1 - visible);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void updateScrollBar() {
+
+		adjusting = true;
+
+		if (preview == null) {
+			scrollBar.setValues(0, 1, 0, 1);
+			scrollBar.setEnabled(false);
+		} else {
+
+			int extent = (int) Math.max(1, (long) view.visibleRows() * view.columns() / scrollUnit);
+			int maximum = (int) (preview.size() / scrollUnit) + extent;
+
+			scrollBar.setValues((int) (top / scrollUnit), extent, 0, maximum);
+			scrollBar.setBlockIncrement(extent);
+			scrollBar.setEnabled(true);
+		}
+
+		adjusting = false;
+	}
+
+	/**
+	 * Área em que as linhas são desenhadas.
+	 */
+	private final class View extends JComponent {
+
+		private static final long serialVersionUID = 1L;
+
+		View() {
+			setOpaque(true);
+			setBackground(Color.WHITE);
+			setFocusable(true);
+			setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+		}
+
+		/**
+		 * Obtém a quantidade de bytes por linha: 16 no modo hexadecimal ou os
+		 * caracteres que cabem na largura no modo texto.
+		 */
+		int columns() {
+
+			if (preview != null && preview.isBinary())
+				return HEX_COLUMNS;
+
+			int width = getFontMetrics(getFont()).charWidth('m');
+
+			return Math.max(1, (getWidth() - 2 * MARGIN) / width);
+		}
+
+		int visibleRows() {
+			return Math.max(1, getHeight() / getFontMetrics(getFont()).getHeight());
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+
+			g.setColor(getBackground());
+			g.fillRect(0, 0, getWidth(), getHeight());
+			g.setColor(Color.BLACK);
+			g.setFont(getFont());
+
+			FontMetrics metrics = g.getFontMetrics();
+			int y = metrics.getAscent() + MARGIN;
+
+			if (preview == null) {
+				if (message != null)
+					g.drawString(message, MARGIN, y);
+				return;
+			}
+
+			unreadable = false;
+			align();
+
+			if (!aligned) {
+				if (unreadable)
+					g.drawString(MSG_PREVIEW_ERROR, MARGIN, y);
+				return;
+			}
+
+			long row = top;
+
+			for (int count = 0; count <= visibleRows() && row < preview.size(); count++) {
+
+				long next = nextRow(row);
+
+				if (next < 0)
+					break;
+
+				String text = preview.isBinary() ? hex(row, next) : text(row, next);
+
+				if (text == null)
+					break;
+
+				g.drawString(text, MARGIN, y);
+				y += metrics.getHeight();
+				row = next;
+			}
+
+			if (unreadable)
+				g.drawString(MSG_PREVIEW_ERROR, MARGIN, y);
+		}
+
+		/**
+		 * Monta uma linha do modo texto, sem a quebra de linha, decodificada em
+		 * UTF-8. Tabulações e outros caracteres de controle viram espaços.
+		 */
+		private String text(long start, long end) {
+
+			byte[] bytes = new byte[(int) (end - start)];
+			int length = 0;
+
+			for (long position = start; position < end; position++) {
+
+				int value = byteAt(position);
+
+				if (value < 0)
+					return null;
+
+				if (value != '\n' && value != '\r')
+					bytes[length++] = (byte) (value < ' ' ? ' ' : value);
+			}
+
+			return new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Monta uma linha do modo hexadecimal: a posição, os bytes e os caracteres
+		 * ASCII imprimíveis.
+		 */
+		private String hex(long start, long end) {
+
+			StringBuilder codes = new StringBuilder(HEX_COLUMNS * 3);
+			StringBuilder chars = new StringBuilder(HEX_COLUMNS);
+
+			for (long position = start; position < start + HEX_COLUMNS; position++) {
+
+				if (position >= end) {
+					codes.append("   ");
+					continue;
+				}
+
+				int value = byteAt(position);
+
+				if (value < 0)
+					return null;
+
+				codes.append(String.format("%02X ", value));
+				chars.append(value >= ' ' && value < 0x7F ? (char) value : '.');
+			}
+
+			return String.format("%012X  %s %s", start, codes, chars);
+		}
+	}// class View
+
+}// class PreviewPane
@@ -0,0 +1,113 @@
+package app.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+import model.DirectorySnapshot.Entry;
+import model.RecursiveSearch;
+
+/**
+ * A classe SearchLoader retira os resultados de uma busca recursiva em segundo
+ * plano e os entrega à thread de eventos do Swing (EDT) em blocos, à medida que
+ * são encontrados.
+ *
+ * Assim como o {@link BackgroundLoader}, mantém somente uma busca ativa:
+ * iniciar uma nova busca cancela a anterior, e resultados de buscas
+ * substituídas são descartados. A busca usa uma thread própria, e não a thread
+ * das listagens, para que as propriedades dos resultados possam ser obtidas
+ * enquanto ela continua.
+ */
+class SearchLoader {
+
+	/** Tempo máximo de espera por novos resultados, em milissegundos. */
+	private static final long POLL_TIMEOUT = 100;
+
+	private RecursiveSearch search;
+	private SwingWorker<Void, Entry> current;
+
+	/**
+	 * Inicia a entrega dos resultados da busca, cancelando a busca anterior. Deve
+	 * ser chamado na EDT.
+	 *
+	 * @param search   a busca já iniciada
+	 * @param results  chamado na EDT com cada bloco de resultados
+	 * @param finished chamado na EDT quando a busca termina sem ser cancelada; o
+	 *                 Swing pode entregar o último bloco de resultados depois dele
+	 */
+	void load(RecursiveSearch search, Consumer<List<Entry>> results, Runnable finished) {
+
+		cancel();
+
+		SwingWorker<Void, Entry> worker = new SwingWorker<Void, Entry>() {
+
+			@Override
+			protected Void doInBackground() throws Exception {
+
+				List<Entry> batch = new ArrayList<>();
+
+				while (!isCancelled() && !search.isExhausted()) {
+
+					batch.clear();
+
+					if (search.drainTo(batch, POLL_TIMEOUT, TimeUnit.MILLISECONDS) > 0)
+						publish(batch.toArray(new Entry[batch.size()]));
+				}
+
+				return null;
+			}
+
+			@Override
+			protected void process(List<Entry> chunks) {
+				// Pode chegar depois de done(): o último bloco não é descartado
+				if (!isCancelled())
+					results.accept(chunks);
+			}
+
+			@Override
+			protected void done() {
+
+				if (current != this || isCancelled())
+					return;
+
+				current = null;
+				SearchLoader.this.search = null;
+
+				finished.run();
+			}
+		};
+
+		this.search = search;
+		current = worker;
+		worker.execute();
+	}
+
+	/**
+	 * Cancela a busca em andamento e a entrega dos seus resultados.
+	 */
+	void cancel() {
+
+		if (search != null) {
+			search.cancel();
+			search = null;
+		}
+
+		if (current != null) {
+			current.cancel(true);
+			current = null;
+		}
+	}
+
+	/**
+	 * Verifica se há uma busca em andamento.
+	 *
+	 * @return true se houver uma busca ativa
+	 */
+	boolean isSearching() {
+		return current != null;
+	}
+
+}// class SearchLoader
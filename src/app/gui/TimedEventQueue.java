@@ -0,0 +1,49 @@
+package app.gui;
+
+import static util.Constants.EVENT_STALL_MILLIS;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.concurrent.TimeUnit;
+
+import model.Metrics;
+
+/**
+ * A classe TimedEventQueue substitui a fila de eventos do AWT para medir quanto
+ * tempo cada evento ocupa a thread de eventos do Swing (EDT). Eventos mais
+ * longos que {@link util.Constants#EVENT_STALL_MILLIS} contam como bloqueios da
+ * interface em {@link Metrics}.
+ */
+class TimedEventQueue extends EventQueue {
+
+	private static final long STALL_NANOS = TimeUnit.MILLISECONDS.toNanos(EVENT_STALL_MILLIS);
+
+	private static boolean installed;
+
+	/**
+	 * Instala a fila na frente da fila de eventos do sistema. Chamadas seguintes
+	 * não têm efeito.
+	 */
+	static synchronized void install() {
+
+		if (installed)
+			return;
+
+		installed = true;
+		Toolkit.getDefaultToolkit().getSystemEventQueue().push(new TimedEventQueue());
+	}
+
+	@Override
+	protected void dispatchEvent(AWTEvent event) {
+
+		long start = Metrics.start();
+
+		try {
+			super.dispatchEvent(event);
+		} finally {
+			Metrics.recordEvent(start, STALL_NANOS);
+		}
+	}
+
+}// class TimedEventQueue
@@ -0,0 +1,352 @@
+package app.gui;
+
+import static util.Constants.FORMAT_TREEMAP_TIP;
+import static util.Constants.TREEMAP_PARTIAL;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JComponent;
+
+import model.Metrics;
+import model.SpaceUsage.Block;
+
+/**
+ * Componente que desenha o espaço ocupado pelos subdiretórios como um mapa de
+ * áreas (treemap) em dois níveis: cada subdiretório é um retângulo com área
+ * proporcional ao seu tamanho, dividido entre os seus próprios subdiretórios.
+ * Os retângulos seguem o algoritmo de retângulos quadrados (squarified), que
+ * evita faixas finas e facilita a comparação das áreas.
+ *
+ * O mapa é desenhado em uma imagem fora da tela, reaproveitada enquanto o
+ * tamanho do componente não muda: cada novo retrato redesenha a mesma imagem
+ * uma única vez, e as demais repinturas apenas a copiam. Blocos cujo total
+ * ainda está sendo calculado aparecem em cores claras.
+ */
+class TreemapPanel extends JComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Altura da faixa com o nome de um subdiretório de primeiro nível. */
+	private static final int HEADER_HEIGHT = 16;
+
+	/** Largura mínima de um bloco para que o nome seja escrito. */
+	private static final int MIN_LABEL_WIDTH = 40;
+
+	/** Distância entre os matizes de dois blocos vizinhos (razão áurea). */
+	private static final float HUE_STEP = 0.618034f;
+
+	private static final String[] UNITS = { "B", "KB", "MB", "GB", "TB", "PB" };
+
+	/** Bloco desenhado, usado para encontrar o bloco sob o ponteiro. */
+	private static final class Placed {
+
+		private final Rectangle bounds;
+		private final String path;
+		private final Block block;
+
+		Placed(Rectangle bounds, String path, Block block) {
+			this.bounds = bounds;
+			this.path = path;
+			this.block = block;
+		}
+	}
+
+	private transient Block usage;
+	private transient BufferedImage buffer;
+	private boolean stale;
+
+	/** Blocos da última imagem, dos externos para os internos. */
+	private final transient List<Placed> placed = new ArrayList<>();
+
+	/**
+	 * Construtor da classe TreemapPanel.
+	 */
+	TreemapPanel() {
+		setOpaque(true);
+		setBackground(Color.WHITE);
+
+		// Habilita as dicas, obtidas de getToolTipText(MouseEvent)
+		setToolTipText("");
+	}
+
+	/**
+	 * Passa a exibir um novo retrato. Retratos parciais que chegam depois do
+	 * retrato final são descartados.
+	 *
+	 * @param usage o retrato do espaço ocupado
+	 * @return true se o retrato passou a ser exibido
+	 */
+	boolean setUsage(Block usage) {
+
+		if (this.usage != null && this.usage.isComplete())
+			return false;
+
+		this.usage = usage;
+		stale = true;
+		repaint();
+
+		return true;
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+
+		int width = getWidth();
+		int height = getHeight();
+
+		if (width <= 0 || height <= 0)
+			return;
+
+		if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+			buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			stale = true;
+		}
+
+		if (stale) {
+			render();
+			stale = false;
+		}
+
+		g.drawImage(buffer, 0, 0, null);
+	}
+
+	@Override
+	public String getToolTipText(MouseEvent event) {
+
+		for (int index = placed.size() - 1; index >= 0; index--) {
+
+			Placed candidate = placed.get(index);
+
+			if (candidate.bounds.contains(event.getPoint()))
+				return String.format(FORMAT_TREEMAP_TIP, candidate.path, candidate.block.getBytes(),
+						candidate.block.isComplete() ? "" : TREEMAP_PARTIAL);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Redesenha a imagem fora da tela com o retrato atual.
+	 */
+	private void render() {
+
+		long start = Metrics.start();
+		Graphics2D g = buffer.createGraphics();
+
+		try {
+			g.setColor(getBackground());
+			g.fillRect(0, 0, buffer.getWidth(), buffer.getHeight());
+			g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+			if (getFont() != null)
+				g.setFont(getFont());
+
+			placed.clear();
+
+			if (usage == null)
+				return;
+
+			List<Block> directories = usage.getChildren();
+			List<Rectangle> bounds = squarify(directories, new Rectangle(0, 0, buffer.getWidth(), buffer.getHeight()));
+
+			for (int index = 0; index < directories.size(); index++)
+				drawDirectory(g, directories.get(index), bounds.get(index), (index * HUE_STEP) % 1);
+		} finally {
+			g.dispose();
+			Metrics.TREEMAP_RENDER.stop(start);
+		}
+	}
+
+	/**
+	 * Desenha um subdiretório de primeiro nível com uma faixa para o nome e, abaixo
+	 * dela, os seus subdiretórios.
+	 */
+	private void drawDirectory(Graphics2D g, Block directory, Rectangle bounds, float hue) {
+
+		if (bounds.width < 1 || bounds.height < 1)
+			return;
+
+		fill(g, bounds, Color.getHSBColor(hue, directory.isComplete() ? 0.6f : 0.2f, 0.75f));
+		placed.add(new Placed(bounds, directory.getName(), directory));
+
+		if (bounds.height < 2 * HEADER_HEIGHT || bounds.width < MIN_LABEL_WIDTH) {
+			label(g, directory, bounds, 0);
+			return;
+		}
+
+		label(g, directory, bounds, HEADER_HEIGHT);
+
+		Rectangle inner = new Rectangle(bounds.x + 2, bounds.y + HEADER_HEIGHT, bounds.width - 4,
+				bounds.height - HEADER_HEIGHT - 2);
+		List<Block> children = directory.getChildren();
+		List<Rectangle> childBounds = squarify(children, inner);
+
+		for (int index = 0; index < children.size(); index++) {
+
+			Block child = children.get(index);
+			Rectangle area = childBounds.get(index);
+
+			if (area.width < 1 || area.height < 1)
+				continue;
+
+			fill(g, area, Color.getHSBColor(hue, child.isComplete() ? 0.45f : 0.12f, 0.95f - 0.07f * (index % 3)));
+			placed.add(new Placed(area, directory.getName() + "/" + child.getName(), child));
+			label(g, child, area, 0);
+		}
+	}
+
+	private static void fill(Graphics2D g, Rectangle bounds, Color color) {
+
+		g.setColor(color);
+		g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+		g.setColor(color.darker().darker());
+		g.drawRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
+	}
+
+	/**
+	 * Escreve o nome e o tamanho do bloco, se couberem.
+	 *
+	 * @param height a altura da faixa do nome, ou 0 para usar todo o bloco
+	 */
+	private static void label(Graphics2D g, Block block, Rectangle bounds, int height) {
+
+		FontMetrics metrics = g.getFontMetrics();
+		int lineHeight = metrics.getHeight();
+
+		if (bounds.width < MIN_LABEL_WIDTH || bounds.height < lineHeight + 2)
+			return;
+
+		String text = block.getName() + " " + formatBytes(block.getBytes());
+		int available = bounds.width - 6;
+
+		while (text.length() > 1 && metrics.stringWidth(text) > available)
+			text = text.substring(0, text.length() - 2) + "…";
+
+		int area = height > 0 ? height : lineHeight + 2;
+
+		g.setColor(Color.BLACK);
+		g.setClip(bounds.x, bounds.y, bounds.width, Math.min(area, bounds.height));
+		g.drawString(text, bounds.x + 3, bounds.y + (area + metrics.getAscent() - metrics.getDescent()) / 2);
+		g.setClip(null);
+	}
+
+	/**
+	 * Formata um tamanho na maior unidade em que ele tenha parte inteira.
+	 */
+	private static String formatBytes(long bytes) {
+
+		double value = bytes;
+		int unit = 0;
+
+		while (value >= 1024 && unit < UNITS.length - 1) {
+			value /= 1024;
+			unit++;
+		}
+
+		return unit == 0 ? bytes + " " + UNITS[0] : String.format("%.1f %s", value, UNITS[unit]);
+	}
+
+	/**
+	 * Divide a área entre os blocos, já ordenados do maior para o menor, com o
+	 * algoritmo de retângulos quadrados: os blocos são colocados em faixas ao
+	 * longo do lado menor da área livre, e uma faixa recebe o próximo bloco
+	 * enquanto isso não piorar a maior proporção entre os lados dos seus
+	 * retângulos.
+	 *
+	 * @param blocks os blocos, do maior para o menor
+	 * @param area   a área a ser dividida
+	 * @return o retângulo de cada bloco, na mesma ordem
+	 */
+	private static List<Rectangle> squarify(List<Block> blocks, Rectangle area) {
+
+		List<Rectangle> bounds = new ArrayList<>(blocks.size());
+		long total = 0;
+
+		for (Block block : blocks)
+			total += block.getBytes();
+
+		if (total <= 0 || area.width <= 0 || area.height <= 0) {
+			for (int index = 0; index < blocks.size(); index++)
+				bounds.add(new Rectangle());
+			return bounds;
+		}
+
+		double scale = (double) area.width * area.height / total;
+		Rectangle2D.Double free = new Rectangle2D.Double(area.x, area.y, area.width, area.height);
+		int start = 0;
+
+		while (start < blocks.size()) {
+
+			double side = Math.min(free.width, free.height);
+			double sum = 0;
+			double worst = Double.MAX_VALUE;
+			int end = start;
+
+			while (end < blocks.size()) {
+
+				double candidate = blocks.get(end).getBytes() * scale;
+				double first = blocks.get(start).getBytes() * scale;
+				double rowSum = sum + candidate;
+				double ratio = Math.max(side * side * first / (rowSum * rowSum),
+						rowSum * rowSum / (side * side * candidate));
+
+				if (end > start && ratio > worst)
+					break;
+
+				sum = rowSum;
+				worst = ratio;
+				end++;
+			}
+
+			double thickness = side > 0 ? sum / side : 0;
+			double offset = 0;
+
+			for (int index = start; index < end; index++) {
+
+				double length = thickness > 0 ? blocks.get(index).getBytes() * scale / thickness : 0;
+
+				if (free.width >= free.height)
+					bounds.add(round(free.x, free.y + offset, thickness, length));
+				else
+					bounds.add(round(free.x + offset, free.y, length, thickness));
+
+				offset += length;
+			}
+
+			if (free.width >= free.height) {
+				free.x += thickness;
+				free.width -= thickness;
+			} else {
+				free.y += thickness;
+				free.height -= thickness;
+			}
+
+			start = end;
+		}
+
+		return bounds;
+	}
+
+	/**
+	 * Arredonda as bordas, e não a posição e o tamanho, para que blocos vizinhos
+	 * não se sobreponham nem deixem frestas.
+	 */
+	private static Rectangle round(double x, double y, double width, double height) {
+
+		int left = (int) Math.round(x);
+		int top = (int) Math.round(y);
+
+		return new Rectangle(left, top, (int) Math.round(x + width) - left, (int) Math.round(y + height) - top);
+	}
+
+}// class TreemapPanel
@@ -1,35 +1,84 @@
 package app.gui;
 
+import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Cursor;
 import java.awt.Font;
 import java.awt.event.ItemEvent;
 import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.ButtonGroup;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JList;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
 import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.JTree;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.border.LineBorder;
 import javax.swing.border.TitledBorder;
-
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import javax.swing.tree.TreeSelectionModel;
+
+import model.DirectorySnapshot.Entry;
+import model.DuplicateFinder;
+import model.ExtensionHistogram;
 import model.FileChecker;
-import model.FileCheckerException;
+import model.FileJob;
+import model.FileJobQueue;
+import model.NameIndex;
+import model.NameIndexStore;
+import model.RecursiveSearch;
+import util.ConflictPolicy;
 import util.Constants;
+import util.ContentType;
 import util.Extension;
+import util.ExtensionFilter;
+import util.ExtensionGroup;
+import util.FileOperation;
 import util.InputOutput;
 import util.OptionRadioButton;
+import util.SortKey;
+import util.SuffixFilter;
 
 /**
  * A classe UI é responsável pela interface gráfica da aplicação. Ela estende
@@ -41,30 +90,116 @@ public class UI extends JFrame implements Constants {
 	private static final long serialVersionUID = 1L;
 
 	private JTextField searchDirectoryTextField;
+	private JTextField searchNameTextField;
+	private JComboBox<String> searchDepthComboBox;
+	private JCheckBox followLinksCheckBox;
 
 	private JList<String> filesSubdirectoriesList;
 
+	private JTree directoryTree;
+	private DirectoryTreeModel treeModel;
+
 	private JComboBox<String> extensionComboBox;
+
+	/** Filtros da lista de tipos e as dicas de cada um, na ordem da lista. */
+	private final List<ExtensionFilter> extensionFilters = new ArrayList<>();
+	private final List<String> extensionTips = new ArrayList<>();
+
+	/** Histograma exibido na lista de tipos. */
+	private ExtensionHistogram extensionHistogram;
+	private boolean fillingExtensions;
+	private JComboBox<String> contentTypeComboBox;
 	private JCheckBox displayExtensionCheckBox;
 
+	private JComboBox<String> sortComboBox;
+	private JCheckBox descendingCheckBox;
+
 	private JRadioButton fileButton;
 	private JRadioButton subdirectoriesButton;
 	private JRadioButton fileSubdirectoriesButton;
 
 	private JTextArea propertiesTextArea;
+	private JTabbedPane propertiesTabbedPane;
+	private PreviewPane previewPane;
+
+	private JButton duplicatesButton;
+	private JButton largestButton;
+	private JButton exportButton;
+	private JButton treemapButton;
 
 	private FileChecker fileChecker;
 
+	private DirectoryListModel listModel;
+
+	private OptionRadioButton displayed = OptionRadioButton.FILES_SUBDIRECTORIES;
+
+	private boolean refreshingList;
+
+	/** Indica que a lista exibe os resultados de uma busca recursiva. */
+	private boolean searchDisplayed;
+	private boolean searchFinished;
+	private int searchCount;
+	private int searchLongest;
+
 	private OptionRadioButton current = OptionRadioButton.FILES_SUBDIRECTORIES;
 
+	/**
+	 * Todas as leituras do disco são executadas em uma única thread de segundo
+	 * plano, na ordem em que foram pedidas, para que as propriedades sejam sempre
+	 * obtidas depois da listagem a que se referem.
+	 */
+	private final ExecutorService executor = newDaemonExecutor(TITLE_PROGRAM);
+
+	private final BackgroundLoader listingLoader = new BackgroundLoader(executor);
+	private final BackgroundLoader propertiesLoader = new BackgroundLoader(executor);
+
+	private final SearchLoader searchLoader = new SearchLoader();
+
+	private final NameIndexStore nameIndexes = new NameIndexStore(
+			Paths.get(System.getProperty("user.home"), NAME_INDEX_DIRECTORY));
+
+	/** Thread em que os nós da árvore de diretórios são lidos, um por vez. */
+	private final ExecutorService treeExecutor = newDaemonExecutor(TITLE_PROGRAM + " tree");
+
+	/** Thread em que as árvores já buscadas são indexadas. */
+	private final ExecutorService indexExecutor = newDaemonExecutor(TITLE_PROGRAM + " index");
+
+	/**
+	 * Os relatórios (arquivos duplicados e maiores entradas) percorrem a árvore
+	 * inteira e têm uma thread própria, para não atrasar as listagens.
+	 */
+	private final BackgroundLoader reportLoader = new BackgroundLoader(newDaemonExecutor(TITLE_PROGRAM + " reports"));
+
+	/** O mapa de espaço ocupado tem uma thread própria e uma única janela aberta. */
+	private final BackgroundLoader treemapLoader = new BackgroundLoader(newDaemonExecutor(TITLE_PROGRAM + " treemap"));
+	private JDialog treemapDialog;
+
+	/** O conteúdo dos arquivos é lido página a página em uma thread própria. */
+	private final ExecutorService previewExecutor = newDaemonExecutor(TITLE_PROGRAM + " preview");
+
+	/** Cópias, movimentações e exclusões em lote, com paralelismo limitado. */
+	private final FileJobQueue fileJobs = new FileJobQueue(TITLE_PROGRAM + " jobs", FILE_JOB_THREADS);
+	private FileJobsDialog fileJobsDialog;
+
+	private JMenuItem copyMenuItem;
+	private JMenuItem moveMenuItem;
+	private JMenuItem deleteMenuItem;
+	private JMenuItem jobsMenuItem;
+
+	/** O último relatório exibido, que pode ser exportado. */
+	private String report;
+
 	/**
 	 * Construtor da classe UI. Inicializa os componentes, configura os ouvintes de
 	 * eventos, desenha a interface e torna a janela visível.
 	 */
 	public UI() {
 
+		TimedEventQueue.install();
+
 		initComponent();
 		configureEventListeners();
+		loadSizeCache();
 
 		draw();
 		events();
@@ -80,15 +215,99 @@ public class UI extends JFrame implements Constants {
 		// Evento quando o usuário aperta Enter para pesquisar o diretório
 		searchDirectoryTextField.addActionListener((e) -> searchDirectory());
 
+		// Eventos da árvore: os subdiretórios são lidos ao expandir um nó, e o nó
+		// selecionado é listado sem recriar a árvore
+		directoryTree.addTreeExpansionListener(new TreeExpansionListener() {
+
+			@Override
+			public void treeExpanded(TreeExpansionEvent e) {
+				treeModel.expand((DirectoryTreeModel.Node) e.getPath().getLastPathComponent());
+			}
+
+			@Override
+			public void treeCollapsed(TreeExpansionEvent e) {
+				treeModel.collapse((DirectoryTreeModel.Node) e.getPath().getLastPathComponent());
+			}
+		});
+
+		directoryTree.addTreeSelectionListener(e -> {
+
+			TreePath selected = directoryTree.getSelectionPath();
+			Path path = selected == null ? null : ((DirectoryTreeModel.Node) selected.getLastPathComponent()).getPath();
+
+			if (path != null) {
+				searchDirectoryTextField.setText(path.toString());
+				openDirectory(path.toString(), false);
+			}
+		});
+
+		// Evento quando o usuário aperta Enter para buscar nos subdiretórios
+		searchNameTextField.addActionListener(e -> updateData(current));
+
+		// Eventos das opções da busca, que refazem a busca exibida
+		searchDepthComboBox.addItemListener(e -> {
+			if (e.getStateChange() == ItemEvent.SELECTED && searchDisplayed)
+				updateData(current);
+		});
+		followLinksCheckBox.addItemListener(e -> {
+			if (searchDisplayed)
+				updateData(current);
+		});
+
+		// Eventos dos botões de relatórios
+		duplicatesButton.addActionListener(e -> findDuplicates());
+		largestButton.addActionListener(e -> findLargest());
+		exportButton.addActionListener(e -> exportReport());
+		treemapButton.addActionListener(e -> showTreemap());
+
 		// Evento caso o usuário desmarque ou marque a opção de exibir extensão
 		displayExtensionCheckBox.addItemListener(e -> updateData(current));
 
 		// Evento caso o usuário escolha uma extensão do JComboBox
-		extensionComboBox.addItemListener(e -> updateData(current));
+		extensionComboBox.addItemListener(e -> {
+			if (!fillingExtensions)
+				updateData(current);
+		});
+		contentTypeComboBox.addItemListener(e -> updateData(current));
+
+		// Eventos caso o usuário escolha outro critério ou sentido de ordenação
+		sortComboBox.addItemListener(e -> updateData(current));
+		descendingCheckBox.addItemListener(e -> updateData(current));
 
 		// Evento se o usuário clicar em algum item do JList
-		filesSubdirectoriesList
-				.addListSelectionListener(e -> getProperties(filesSubdirectoriesList.getSelectedIndex()));
+		filesSubdirectoriesList.addListSelectionListener(e -> {
+
+			if (e.getValueIsAdjusting())
+				return;
+
+			if (!refreshingList)
+				getProperties(filesSubdirectoriesList.getSelectedIndex());
+
+			updatePreview();
+		});
+
+		// Operações sobre as entradas selecionadas, pelo menu de contexto da lista
+		copyMenuItem.addActionListener(e -> transferSelected(FileOperation.COPY));
+		moveMenuItem.addActionListener(e -> transferSelected(FileOperation.MOVE));
+		deleteMenuItem.addActionListener(e -> deleteSelected());
+		jobsMenuItem.addActionListener(e -> showFileJobs());
+
+		// O clique com o botão direito fora da seleção seleciona o item clicado
+		filesSubdirectoriesList.addMouseListener(new MouseAdapter() {
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+
+				int index = filesSubdirectoriesList.locationToIndex(e.getPoint());
+
+				if (SwingUtilities.isRightMouseButton(e) && index >= 0
+						&& !filesSubdirectoriesList.isSelectedIndex(index))
+					filesSubdirectoriesList.setSelectedIndex(index);
+			}
+		});
+
+		// O conteúdo só é lido enquanto a aba está visível
+		propertiesTabbedPane.addChangeListener(e -> updatePreview());
 
 		// Eventos JRadioButton
 		fileButton.addItemListener(e -> {
@@ -116,66 +335,857 @@ public class UI extends JFrame implements Constants {
 
 	/**
 	 * Atualiza os dados da lista com base na opção selecionada (arquivos,
-	 * subdiretórios ou ambos).
+	 * subdiretórios ou ambos). A listagem é montada em segundo plano. Se houver um
+	 * nome a buscar, a lista exibe os resultados da busca recursiva.
 	 *
 	 * @param option a opção selecionada para exibir na lista.
 	 */
 	private void updateData(OptionRadioButton option) {
 
+		searchLoader.cancel();
+
+		if (fileChecker != null && !searchNameTextField.getText().trim().isEmpty()) {
+			searchNames(option);
+			return;
+		}
+
+		searchDisplayed = false;
+
 		resetFields();
 
 		if (fileChecker == null)
 			return;
 
+		FileChecker checker = fileChecker;
+		boolean withExtension = displayExtensionCheckBox.isSelected();
+		ExtensionFilter extension = getSelectedExtension();
+		ContentType contentType = ContentType.values()[contentTypeComboBox.getSelectedIndex()];
+		SortKey key = SortKey.values()[sortComboBox.getSelectedIndex()];
+		boolean descending = descendingCheckBox.isSelected();
+
+		displayed = option;
+
+		propertiesLoader.cancel();
+		showLoading();
+
+		boolean[] partialShown = new boolean[1];
+
+		// O primeiro bloco é exibido enquanto as demais entradas são ordenadas
+		listingLoader.<List<Entry>>load(partial -> {
+			checker.applyPendingChanges();
+
+			List<Entry> first = checker.listFirst(option != OptionRadioButton.SUBDIRECTORIES,
+					option != OptionRadioButton.FILES, option == OptionRadioButton.SUBDIRECTORIES || withExtension,
+					extension, contentType, key, descending, DirectoryListModel.CHUNK_SIZE);
+
+			if (first != null)
+				partial.accept(first);
+
+			return list(checker, option, withExtension, extension, contentType, key, descending);
+		}, first -> {
+			partialShown[0] = true;
+			showList(first, withExtension);
+		}, entries -> {
+			if (!partialShown[0]) {
+				showList(entries, withExtension);
+				return;
+			}
+
+			refreshList(entries, withExtension);
+
+			if (fileChecker.hasPendingChanges())
+				refresh(fileChecker);
+		}, this::showError);
+	}
+
+	/**
+	 * Obtém as entradas a serem exibidas na lista. Executado em segundo plano.
+	 *
+	 * @param checker       o verificador do diretório atual.
+	 * @param option        a opção selecionada para exibir na lista.
+	 * @param withExtension se true, a ordem considera os nomes com extensão.
+	 * @param extension     a extensão dos arquivos a serem listados.
+	 * @param contentType   o tipo de conteúdo dos arquivos a serem listados.
+	 * @param key           o critério de ordenação.
+	 * @param descending    se true, a ordem é invertida.
+	 * @return as entradas a serem exibidas.
+	 */
+	private List<Entry> list(FileChecker checker, OptionRadioButton option, boolean withExtension,
+			ExtensionFilter extension, ContentType contentType, SortKey key, boolean descending) {
+
 		switch (option) {
 
 		case FILES:
-			filesSubdirectoriesList.setListData(fileChecker.getFileNames(displayExtensionCheckBox.isSelected(),
-					Extension.valueOf(extensionComboBox.getSelectedItem().toString())));
-			break;
+			return checker.listFiles(withExtension, extension, contentType, key, descending);
 
 		case SUBDIRECTORIES:
-			filesSubdirectoriesList.setListData(fileChecker.getSubdirectoryNames());
-			break;
-
-		case FILES_SUBDIRECTORIES:
-			filesSubdirectoriesList
-					.setListData(fileChecker.getFileNamesSubdirectories(displayExtensionCheckBox.isSelected(),
-							Extension.valueOf(extensionComboBox.getSelectedItem().toString())));
-			break;
+			return checker.listSubdirectories(key, descending);
+
+		default:
+			return checker.listFilesSubdirectories(withExtension, extension, contentType, key, descending);
+		}
+	}
+
+	/**
+	 * Busca o nome informado em toda a árvore do diretório atual. Os resultados
+	 * são exibidos à medida que são encontrados, com o caminho relativo ao
+	 * diretório, e a busca é cancelada por qualquer nova listagem ou busca.
+	 *
+	 * @param option a opção selecionada para exibir na lista.
+	 */
+	private void searchNames(OptionRadioButton option) {
+
+		FileChecker checker = fileChecker;
+		boolean withExtension = displayExtensionCheckBox.isSelected();
+		ExtensionFilter extension = getSelectedExtension();
+
+		listingLoader.cancel();
+		propertiesLoader.cancel();
+
+		if (listModel != null)
+			listModel.stop();
+
+		displayed = option;
+		searchDisplayed = true;
+		searchFinished = false;
+		searchCount = 0;
+		searchLongest = 0;
+
+		String pattern = searchNameTextField.getText();
+		Path root = checker.getSnapshot().getDirectory().toAbsolutePath().normalize();
+
+		listModel = new DirectoryListModel(new ArrayList<>(), entry -> entry.getRelativeName(root, withExtension));
+		filesSubdirectoriesList.setFixedCellWidth(getCellWidth(EMPTY));
+		filesSubdirectoriesList.setModel(listModel);
+
+		int maxDepth = getSearchDepth();
+		boolean followLinks = followLinksCheckBox.isSelected();
+
+		// Árvores já indexadas são respondidas pelo índice, atualizado antes da busca;
+		// o índice não segue links
+		if (!followLinks && nameIndexes.contains(root)) {
+
+			showLoading();
+
+			listingLoader.load(() -> nameIndexes.get(root).find(pattern, extension, maxDepth, Integer.MAX_VALUE), results -> {
+				finishLoading();
+				searchFinished = true;
+				showResults(root, results, option, withExtension);
+			}, this::showError);
+
+			return;
 		}
 
+		// Sem seguir links, a própria busca fornece os diretórios do índice
+		NameIndex.Collector collector = followLinks ? null : new NameIndex.Collector(root);
+		RecursiveSearch search = checker.search(pattern, extension, maxDepth, followLinks, collector);
+
+		finishLoading();
+		showSearchStatus();
+
+		searchLoader.load(search, results -> showResults(root, results, option, withExtension), () -> {
+			searchFinished = true;
+			showSearchStatus();
+
+			if (collector != null)
+				indexLater(collector);
+		});
+	}
+
+	/**
+	 * Obtém a profundidade máxima da busca selecionada.
+	 *
+	 * @return a quantidade de níveis, ou {@link RecursiveSearch#UNLIMITED_DEPTH}
+	 */
+	private int getSearchDepth() {
+
+		String depth = (String) searchDepthComboBox.getSelectedItem();
+
+		return SEARCH_UNLIMITED_DEPTH.equals(depth) ? RecursiveSearch.UNLIMITED_DEPTH : Integer.parseInt(depth);
+	}
+
+	/**
+	 * Monta e grava em segundo plano o índice com os diretórios lidos pela busca,
+	 * para que as próximas buscas na árvore não precisem percorrer o disco. Uma
+	 * busca que não leu a árvore inteira, por ter parado no limite de
+	 * profundidade, não gera índice.
+	 *
+	 * @param collector os diretórios lidos pela busca.
+	 */
+	private void indexLater(NameIndex.Collector collector) {
+
+		if (!collector.isComplete())
+			return;
+
+		indexExecutor.execute(() -> {
+			try {
+				nameIndexes.put(collector.build());
+			} catch (IOException e) {
+				// Sem índice, as buscas continuam percorrendo o disco
+			}
+		});
+	}
+
+	/**
+	 * Acrescenta à lista os resultados da busca que correspondem à opção
+	 * selecionada.
+	 *
+	 * @param root          o diretório em que a busca começou.
+	 * @param results       os resultados encontrados.
+	 * @param option        a opção selecionada para exibir na lista.
+	 * @param withExtension se true, os nomes dos arquivos incluirão suas extensões.
+	 */
+	private void showResults(Path root, List<Entry> results, OptionRadioButton option, boolean withExtension) {
+
+		List<Entry> accepted = new ArrayList<>(results.size());
+		String longest = EMPTY;
+
+		for (Entry entry : results) {
+
+			if (entry.isDirectory() ? option == OptionRadioButton.FILES : option == OptionRadioButton.SUBDIRECTORIES)
+				continue;
+
+			accepted.add(entry);
+
+			String name = entry.getRelativeName(root, withExtension);
+
+			if (name.length() > longest.length())
+				longest = name;
+		}
+
+		if (longest.length() > searchLongest) {
+			searchLongest = longest.length();
+			filesSubdirectoriesList.setFixedCellWidth(getCellWidth(longest));
+		}
+
+		listModel.append(accepted);
+		searchCount += accepted.size();
+
+		showSearchStatus();
+	}
+
+	/**
+	 * Exibe o andamento da busca na área de propriedades, enquanto nenhum
+	 * resultado estiver selecionado.
+	 */
+	private void showSearchStatus() {
+
+		if (filesSubdirectoriesList.isSelectionEmpty() && !propertiesLoader.isLoading())
+			propertiesTextArea.setText(String.format(searchFinished ? MSG_SEARCH_DONE : MSG_SEARCHING, searchCount));
+	}
+
+	/**
+	 * Exibe as entradas carregadas na lista e seleciona o primeiro item. As
+	 * entradas são publicadas em blocos pelo modelo da lista.
+	 *
+	 * @param entries       as entradas a serem exibidas.
+	 * @param withExtension se true, os nomes dos arquivos incluirão suas extensões.
+	 */
+	private void showList(List<Entry> entries, boolean withExtension) {
+
+		finishLoading();
+		fillExtensions(fileChecker.getSnapshot().getExtensionHistogram());
+
+		listModel = new DirectoryListModel(entries, withExtension);
+		listModel.addListDataListener(cellWidthListener);
+		filesSubdirectoriesList.setFixedCellWidth(getCellWidth(EMPTY));
+		filesSubdirectoriesList.setModel(listModel);
+		listModel.start();
+
 		if (filesSubdirectoriesList.getModel().getSize() > 0)
 			filesSubdirectoriesList.setSelectedIndex(0);
+
+		// Alterações observadas durante a listagem
+		if (fileChecker.hasPendingChanges())
+			refresh(fileChecker);
+	}
+
+	/**
+	 * Aplica as alterações observadas no diretório e atualiza a lista sem
+	 * recarregá-la. Chamado na EDT sempre que o observador do diretório informa
+	 * novas alterações. Se houver uma listagem em andamento, as alterações são
+	 * aplicadas por ela.
+	 *
+	 * @param checker o verificador que observou as alterações.
+	 */
+	private void refresh(FileChecker checker) {
+
+		if (checker != fileChecker || listingLoader.isLoading() || searchDisplayed)
+			return;
+
+		OptionRadioButton option = displayed;
+		boolean withExtension = displayExtensionCheckBox.isSelected();
+		ExtensionFilter extension = getSelectedExtension();
+		ContentType contentType = ContentType.values()[contentTypeComboBox.getSelectedIndex()];
+		SortKey key = SortKey.values()[sortComboBox.getSelectedIndex()];
+		boolean descending = descendingCheckBox.isSelected();
+
+		listingLoader.load(() -> {
+			checker.applyPendingChanges();
+			return list(checker, option, withExtension, extension, contentType, key, descending);
+		}, entries -> {
+			fillExtensions(checker.getSnapshot().getExtensionHistogram());
+			refreshList(entries, withExtension);
+
+			if (checker.hasPendingChanges())
+				refresh(checker);
+		}, this::showError);
+	}
+
+	/**
+	 * Obtém o filtro selecionado na lista de tipos.
+	 *
+	 * @return o filtro selecionado
+	 */
+	private ExtensionFilter getSelectedExtension() {
+
+		int index = extensionComboBox.getSelectedIndex();
+
+		return index >= 0 && index < extensionFilters.size() ? extensionFilters.get(index) : Extension.ALL;
+	}
+
+	/**
+	 * Preenche a lista de tipos com todas as extensões, os grupos e as extensões
+	 * presentes no diretório, da mais frequente para a menos frequente, com a
+	 * quantidade de arquivos de cada uma. A lista só é refeita quando o
+	 * histograma muda, e o filtro selecionado é mantido mesmo que o diretório
+	 * não tenha mais arquivos com a extensão.
+	 *
+	 * @param histogram o histograma do diretório, ou null se não houver
+	 *                  diretório aberto.
+	 */
+	private void fillExtensions(ExtensionHistogram histogram) {
+
+		if (histogram == extensionHistogram && !extensionFilters.isEmpty())
+			return;
+
+		ExtensionFilter selected = getSelectedExtension();
+
+		extensionHistogram = histogram;
+		extensionFilters.clear();
+		extensionTips.clear();
+
+		List<String> items = new ArrayList<>();
+
+		items.add(Extension.ALL.getName());
+		extensionFilters.add(Extension.ALL);
+		extensionTips.add(LABEL_TYPE_TIP);
+
+		for (ExtensionGroup group : ExtensionGroup.values()) {
+			items.add(group.getName());
+			extensionFilters.add(group);
+			extensionTips.add(LABEL_TYPE_TIP);
+		}
+
+		if (histogram != null)
+			for (int index : histogram.byCount()) {
+
+				SuffixFilter filter = new SuffixFilter(histogram.getKey(index));
+
+				items.add(String.format(FORMAT_EXTENSION_ITEM, filter.getName(), histogram.getCount(index)));
+				extensionFilters.add(filter);
+				extensionTips.add(String.format(FORMAT_EXTENSION_TIP, histogram.getCount(index),
+						histogram.getBytes(index)));
+			}
+
+		int selectedIndex = extensionFilters.indexOf(selected);
+
+		if (selectedIndex < 0) {
+			selectedIndex = extensionFilters.size();
+			items.add(String.format(FORMAT_EXTENSION_ITEM, selected.getName(), 0));
+			extensionFilters.add(selected);
+			extensionTips.add(String.format(FORMAT_EXTENSION_TIP, 0, 0L));
+		}
+
+		fillingExtensions = true;
+
+		try {
+			extensionComboBox.setModel(new DefaultComboBoxModel<>(items.toArray(new String[0])));
+			extensionComboBox.setSelectedIndex(selectedIndex);
+		} finally {
+			fillingExtensions = false;
+		}
+	}
+
+	/**
+	 * Substitui as entradas da lista mantendo a posição e a seleção. As
+	 * propriedades só são recalculadas se a entrada selecionada foi alterada.
+	 *
+	 * @param entries       as entradas atualizadas.
+	 * @param withExtension se true, os nomes dos arquivos incluirão suas extensões.
+	 */
+	private void refreshList(List<Entry> entries, boolean withExtension) {
+
+		if (listModel == null) {
+			showList(entries, withExtension);
+			return;
+		}
+
+		int selectedIndex = filesSubdirectoriesList.getSelectedIndex();
+		Entry selected = selectedIndex >= 0 ? listModel.getEntry(selectedIndex) : null;
+		Set<Entry> others = new HashSet<>();
+
+		for (int index : filesSubdirectoriesList.getSelectedIndices())
+			if (index != selectedIndex)
+				others.add(listModel.getEntry(index));
+
+		refreshingList = true;
+
+		try {
+			listModel.update(entries);
+
+			int index = selected == null ? -1 : listModel.indexOf(selected);
+
+			if (index >= 0)
+				filesSubdirectoriesList.setSelectedIndex(index);
+			else
+				filesSubdirectoriesList.clearSelection();
+
+			if (!others.isEmpty())
+				reselect(others);
+		} finally {
+			refreshingList = false;
+		}
+
+		if (selected != null && filesSubdirectoriesList.isSelectionEmpty()) {
+
+			int index = findByName(selected.getName());
+
+			if (index >= 0)
+				filesSubdirectoriesList.setSelectedIndex(index);
+			else
+				propertiesTextArea.setText(EMPTY);
+		}
+	}
+
+	/**
+	 * Acrescenta à seleção as entradas informadas que continuam publicadas. As
+	 * posições vizinhas são selecionadas em intervalos, com um evento por
+	 * intervalo.
+	 *
+	 * @param entries as entradas a selecionar.
+	 */
+	private void reselect(Set<Entry> entries) {
+
+		int first = -1;
+
+		for (int index = 0; index <= listModel.getSize(); index++) {
+
+			boolean contained = index < listModel.getSize() && entries.contains(listModel.getEntry(index));
+
+			if (contained && first < 0)
+				first = index;
+			else if (!contained && first >= 0) {
+				filesSubdirectoriesList.addSelectionInterval(first, index - 1);
+				first = -1;
+			}
+		}
+	}
+
+	/**
+	 * Procura, entre os itens publicados, a entrada com o nome informado.
+	 *
+	 * @param name o nome procurado.
+	 * @return a posição da entrada, ou -1 se não houver.
+	 */
+	private int findByName(String name) {
+
+		for (int index = 0; index < listModel.getSize(); index++)
+			if (listModel.getEntry(index).getName().equals(name))
+				return index;
+
+		return -1;
+	}
+
+	/**
+	 * Alarga as células da lista quando o modelo publica um nome mais longo. Os
+	 * nomes são medidos pelo modelo, bloco a bloco, e não todos de uma vez.
+	 */
+	private final ListDataListener cellWidthListener = new ListDataListener() {
+
+		@Override
+		public void intervalAdded(ListDataEvent e) {
+			updateCellWidth(e);
+		}
+
+		@Override
+		public void intervalRemoved(ListDataEvent e) {
+			// A largura é mantida
+		}
+
+		@Override
+		public void contentsChanged(ListDataEvent e) {
+			updateCellWidth(e);
+		}
+
+		private void updateCellWidth(ListDataEvent e) {
+
+			if (e.getSource() != listModel)
+				return;
+
+			int width = getCellWidth(listModel.getLongestName());
+
+			if (width > filesSubdirectoriesList.getFixedCellWidth())
+				filesSubdirectoriesList.setFixedCellWidth(width);
+		}
+	};
+
+	/**
+	 * Calcula a largura das células da lista para exibir o nome informado.
+	 *
+	 * @param longest o nome mais longo da lista.
+	 * @return a largura das células em pixels.
+	 */
+	private int getCellWidth(String longest) {
+
+		int width = filesSubdirectoriesList.getFontMetrics(filesSubdirectoriesList.getFont()).stringWidth(longest);
+
+		return Math.max(filesSubdirectoriesList.getParent().getWidth(), width + 10);
 	}
 
 	/**
 	 * Obtém e exibe as propriedades do subdiretório selecionado na área de texto de
-	 * propriedades.
+	 * propriedades. O cálculo é feito em segundo plano e substitui qualquer
+	 * cálculo anterior ainda em andamento.
 	 *
 	 * @param selectedIndex o índice do subdiretório selecionado na lista.
 	 */
 	private void getProperties(int selectedIndex) {
 
-		if (selectedIndex >= 0)
-			propertiesTextArea.setText(fileChecker.getSubdirectoryProperties(selectedIndex));
+		if (selectedIndex < 0)
+			return;
+
+		FileChecker checker = fileChecker;
+		Entry entry = listModel.getEntry(selectedIndex);
+
+		showLoading();
+
+		propertiesLoader.load(() -> checker.getProperties(entry), properties -> {
+			finishLoading();
+			propertiesTextArea.setText(properties);
+		}, this::showError);
+	}
+
+	/**
+	 * Obtém os caminhos das entradas selecionadas na lista.
+	 *
+	 * @return os caminhos, na ordem da lista.
+	 */
+	private List<Path> getSelectedPaths() {
+
+		List<Path> paths = new ArrayList<>();
+
+		if (listModel != null)
+			for (int index : filesSubdirectoriesList.getSelectedIndices())
+				paths.add(listModel.getEntry(index).getPath());
+
+		return paths;
+	}
+
+	/**
+	 * Copia ou move as entradas selecionadas para o diretório escolhido pelo
+	 * usuário, perguntando o que fazer com as entradas que já existem no destino.
+	 *
+	 * @param operation a cópia ou a movimentação.
+	 */
+	private void transferSelected(FileOperation operation) {
+
+		List<Path> sources = getSelectedPaths();
+
+		if (sources.isEmpty())
+			return;
+
+		JFileChooser chooser = new JFileChooser(sources.get(0).getParent().toFile());
+		chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+
+		if (chooser.showDialog(this, operation.getLabel()) != JFileChooser.APPROVE_OPTION)
+			return;
+
+		String[] policies = ConflictPolicy.labels();
+		int policy = JOptionPane.showOptionDialog(this, MSG_CONFLICT_POLICY, operation.getLabel(),
+				JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, policies, policies[0]);
+
+		if (policy < 0)
+			return;
+
+		submitFileJob(new FileJob(operation, sources, chooser.getSelectedFile().toPath(),
+				ConflictPolicy.values()[policy]));
+	}
+
+	/**
+	 * Exclui as entradas selecionadas, depois de pedir a confirmação do usuário.
+	 */
+	private void deleteSelected() {
+
+		List<Path> sources = getSelectedPaths();
+
+		if (sources.isEmpty()
+				|| InputOutput.msgConfirm(String.format(MSG_DELETE_CONFIRM, sources.size()), TITLE_PROGRAM)
+						!= JOptionPane.YES_OPTION)
+			return;
+
+		submitFileJob(new FileJob(FileOperation.DELETE, sources, null, ConflictPolicy.SKIP));
+	}
+
+	/**
+	 * Coloca a operação na fila e exibe a janela de acompanhamento. A lista é
+	 * atualizada pelo monitoramento do diretório à medida que as entradas mudam.
+	 *
+	 * @param job a operação.
+	 */
+	private void submitFileJob(FileJob job) {
+		fileJobs.submit(job);
+		showFileJobs();
+	}
+
+	/**
+	 * Exibe a janela que acompanha as operações em lote.
+	 */
+	private void showFileJobs() {
+
+		if (fileJobsDialog == null)
+			fileJobsDialog = new FileJobsDialog(this, fileJobs);
+
+		fileJobsDialog.open();
+	}
+
+	/**
+	 * Exibe na aba de conteúdo o arquivo selecionado na lista. Subdiretórios e a
+	 * ausência de seleção esvaziam a aba.
+	 */
+	private void updatePreview() {
+
+		if (propertiesTabbedPane.getSelectedComponent() != previewPane)
+			return;
+
+		int selectedIndex = filesSubdirectoriesList.getSelectedIndex();
+		Entry entry = selectedIndex >= 0 && listModel != null ? listModel.getEntry(selectedIndex) : null;
+
+		previewPane.show(entry != null && entry.isFile() ? entry.getPath() : null);
+	}
+
+	/**
+	 * Procura os arquivos duplicados em toda a árvore do diretório atual e exibe
+	 * o relatório na área de propriedades. A busca é feita em segundo plano.
+	 */
+	private void findDuplicates() {
+
+		if (fileChecker == null)
+			return;
+
+		Path root = fileChecker.getSnapshot().getDirectory().toAbsolutePath().normalize();
+		DuplicateFinder finder = new DuplicateFinder();
+
+		showReport(MSG_DUPLICATES_SEARCHING, () -> finder.formatReport(finder.find(root)));
+	}
+
+	/**
+	 * Exibe os maiores arquivos e subdiretórios de toda a árvore do diretório
+	 * atual. A mesma passagem guarda no cache o tamanho de cada subdiretório.
+	 */
+	private void findLargest() {
+
+		if (fileChecker == null)
+			return;
+
+		FileChecker checker = fileChecker;
+		Path root = checker.getSnapshot().getDirectory().toAbsolutePath().normalize();
+
+		showReport(MSG_LARGEST_SEARCHING, () -> checker.getSpaceReport(root, LARGEST_LIMIT).format());
+	}
+
+	/**
+	 * Abre uma janela com o mapa do espaço ocupado pelos subdiretórios do
+	 * diretório atual. O mapa é refinado à medida que os totais parciais chegam
+	 * do cálculo, e fechar a janela cancela o cálculo.
+	 */
+	private void showTreemap() {
+
+		if (fileChecker == null)
+			return;
+
+		if (treemapDialog != null) {
+			JDialog previous = treemapDialog;
+			treemapDialog = null;
+			previous.dispose();
+		}
+
+		FileChecker checker = fileChecker;
+		Path root = checker.getSnapshot().getDirectory().toAbsolutePath().normalize();
+
+		TreemapPanel treemap = new TreemapPanel();
+		JLabel status = new JLabel(MSG_LOADING);
+
+		JDialog dialog = new JDialog(this, String.format(TITLE_TREEMAP, root), false);
+		dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+		dialog.setSize(TREEMAP_SIZE[0], TREEMAP_SIZE[1]);
+		dialog.getContentPane().add(treemap, BorderLayout.CENTER);
+		dialog.getContentPane().add(status, BorderLayout.SOUTH);
+		dialog.setLocationRelativeTo(this);
+
+		dialog.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosed(WindowEvent e) {
+				if (treemapDialog == dialog) {
+					treemapDialog = null;
+					treemapLoader.cancel();
+				}
+			}
+		});
+
+		treemapDialog = dialog;
+		dialog.setVisible(true);
+
+		treemapLoader.load(() -> checker.getSpaceUsage(root, TREEMAP_PUBLISH_MILLIS, partial -> {
+			SwingUtilities.invokeLater(() -> {
+				if (treemap.setUsage(partial))
+					status.setText(String.format(MSG_TREEMAP_PROGRESS, partial.getBytes()));
+			});
+		}), usage -> {
+			treemap.setUsage(usage);
+			status.setText(String.format(MSG_TREEMAP_DONE, usage.getBytes()));
+		}, e -> {
+			dialog.dispose();
+			showError(e);
+		});
+	}
+
+	/**
+	 * Monta um relatório em segundo plano e o exibe na área de propriedades,
+	 * substituindo o relatório anterior.
+	 *
+	 * @param message a mensagem exibida enquanto o relatório é montado.
+	 * @param task    a tarefa que monta o relatório.
+	 */
+	private void showReport(String message, Callable<String> task) {
+
+		report = null;
+		exportButton.setEnabled(false);
+
+		propertiesLoader.cancel();
+		propertiesTextArea.setText(message);
+		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+		reportLoader.load(task, text -> {
+			finishLoading();
+
+			report = text;
+			exportButton.setEnabled(true);
+
+			propertiesTextArea.setText(text);
+			propertiesTextArea.setCaretPosition(0);
+		}, this::showError);
+	}
+
+	/**
+	 * Salva o último relatório exibido no arquivo escolhido pelo usuário.
+	 */
+	private void exportReport() {
+
+		if (report == null)
+			return;
+
+		JFileChooser chooser = new JFileChooser();
+
+		if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION)
+			return;
+
+		try {
+			Files.write(chooser.getSelectedFile().toPath(), report.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			InputOutput.msgError(this, MSG_EXPORT_ERROR, TITLE_PROGRAM);
+		}
 	}
 
 	/**
 	 * Pesquisa o diretório especificado no campo de texto e atualiza os dados da
-	 * interface.
+	 * interface. O diretório é lido em segundo plano.
 	 */
 	private void searchDirectory() {
+		openDirectory(searchDirectoryTextField.getText(), true);
+	}
 
-		String textSearch = searchDirectoryTextField.getText();
+	/**
+	 * Lê o diretório em segundo plano e passa a exibi-lo na lista.
+	 *
+	 * @param textSearch o caminho do diretório.
+	 * @param showTree   se true, a árvore de diretórios passa a ter o diretório
+	 *                   como raiz.
+	 */
+	private void openDirectory(String textSearch, boolean showTree) {
+
+		propertiesLoader.cancel();
+		showLoading();
+
+		listingLoader.load(() -> new FileChecker(textSearch), checker -> {
+
+			if (showTree)
+				showTree(checker.getSnapshot().getDirectory().toAbsolutePath().normalize());
+
+			if (fileChecker != null)
+				fileChecker.stopWatching();
+
+			fileChecker = checker;
+			reportLoader.cancel();
+			report = null;
+			exportButton.setEnabled(false);
+
+			checker.watch(() -> SwingUtilities.invokeLater(() -> refresh(checker)));
 
-		try {
-			fileChecker = new FileChecker(textSearch);
 			updateData(OptionRadioButton.FILES_SUBDIRECTORIES);
-		} catch (FileCheckerException e) {
-			InputOutput.msgError(this, e.getMessage(), TITLE_PROGRAM);
+		}, e -> {
+			showError(e);
 			resetFields();
-		}
+		});
+	}
+
+	/**
+	 * Substitui a árvore de diretórios por uma nova, com a raiz já expandida. Os
+	 * nós do modelo anterior deixam de ser lidos.
+	 *
+	 * @param directory o diretório da raiz.
+	 */
+	private void showTree(Path directory) {
+
+		if (treeModel != null)
+			treeModel.close();
+
+		treeModel = new DirectoryTreeModel(directory, treeExecutor);
+		directoryTree.setModel(treeModel);
+
+		// A JTree marca a raiz como expandida sem avisar os ouvintes de expansão
+		treeModel.expand((DirectoryTreeModel.Node) treeModel.getRoot());
+	}
+
+	/**
+	 * Indica que um carregamento está em andamento.
+	 */
+	private void showLoading() {
+
+		propertiesTextArea.setText(MSG_LOADING);
+		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+	}
+
+	/**
+	 * Indica o fim do carregamento, se não houver outro em andamento.
+	 */
+	private void finishLoading() {
+
+		propertiesTextArea.setText(EMPTY);
+
+		if (!listingLoader.isLoading() && !propertiesLoader.isLoading() && !reportLoader.isLoading())
+			setCursor(Cursor.getDefaultCursor());
+	}
+
+	/**
+	 * Exibe o erro lançado por um carregamento.
+	 *
+	 * @param e o erro lançado.
+	 */
+	private void showError(Throwable e) {
+
+		finishLoading();
+		InputOutput.msgError(this, e.getMessage(), TITLE_PROGRAM);
 	}
 
 	/**
@@ -198,6 +1208,8 @@ public class UI extends JFrame implements Constants {
 
 		drawSourceDirectory();
 
+		drawTreePanel();
+
 		drawFilesAndSubdirectoriesPanel();
 
 		drawPropertiesPanel();
@@ -212,18 +1224,47 @@ public class UI extends JFrame implements Constants {
 				SwingConstants.CENTER, 12, 15, 67, 16);
 		getContentPane().add(diretorioLabel);
 
-		searchDirectoryTextField = createTextField(83, 12, 750, 22, LABEL_DIRECTORY_TIP,
+		searchDirectoryTextField = createTextField(83, 12, 1000, 22, LABEL_DIRECTORY_TIP,
 				new Font("Arial", Font.PLAIN, 15), 38);
 
 		getContentPane().add(searchDirectoryTextField);
 	}
 
+	/**
+	 * Desenha o painel da árvore de diretórios. A árvore fica vazia até que um
+	 * diretório seja pesquisado.
+	 */
+	private void drawTreePanel() {
+
+		JPanel treePanel = createPanel(0, 39, 250, 345);
+		getContentPane().add(treePanel);
+
+		JLabel treeLabel = createLabel(LABEL_TREE, KeyEvent.VK_V, SwingConstants.LEFT, SwingConstants.CENTER, 10, 10,
+				230, 14);
+		treePanel.add(treeLabel);
+
+		JScrollPane treeScrollPane = createScrollPane(10, 28, 236, 306);
+		treePanel.add(treeScrollPane);
+
+		// Com altura de linha fixa e modelo grande, a árvore não guarda um objeto por
+		// linha visível, o que mantém barata a inserção de muitos filhos
+		directoryTree = new JTree(new DefaultTreeModel(null));
+		directoryTree.setToolTipText(LABEL_TREE_TIP);
+		directoryTree.setRowHeight(TREE_ROW_HEIGHT);
+		directoryTree.setLargeModel(true);
+		directoryTree.setShowsRootHandles(true);
+		directoryTree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
+		directoryTree.setBorder(new LineBorder(new Color(0, 0, 0)));
+		treeLabel.setLabelFor(directoryTree);
+		treeScrollPane.setViewportView(directoryTree);
+	}
+
 	/**
 	 * Desenha o painel de arquivos e subdiretórios.
 	 */
 	private void drawFilesAndSubdirectoriesPanel() {
 
-		JPanel fileSubdirectoriesPanel = createPanel(0, 39, 420, 345);
+		JPanel fileSubdirectoriesPanel = createPanel(250, 39, 420, 345);
 		getContentPane().add(fileSubdirectoriesPanel);
 
 		JLabel fileSubdirectoriesLabel = createLabel(LABEL_FILE_SUBDIRECTORY, KeyEvent.VK_R, SwingConstants.LEFT,
@@ -240,7 +1281,8 @@ public class UI extends JFrame implements Constants {
 		filesSubdirectoriesList = createJList();
 		filesSubdirectoriesList.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
 		fileSubdirectoriesLabel.setLabelFor(filesSubdirectoriesList);
-		filesSubdirectoriesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		filesSubdirectoriesList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+		filesSubdirectoriesList.setComponentPopupMenu(createListMenu());
 		filesSubdirectoriesList.setBorder(new LineBorder(new Color(0, 0, 0)));
 		fileSubdirectoriesListScrollPane.setViewportView(filesSubdirectoriesList);
 
@@ -248,31 +1290,84 @@ public class UI extends JFrame implements Constants {
 				50, 14);
 		fileSubdirectoriesPanel.add(typeLabel);
 
-		extensionComboBox = createComboBox(50, 220, 78, 22, LABEL_TYPE_TIP, 4, Extension.names(), 0);
+		extensionComboBox = createComboBox(50, 220, 110, 22, LABEL_TYPE_TIP, 12, ExtensionFilter.names(), 0);
+		extensionComboBox.setRenderer(new DefaultListCellRenderer() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+					boolean isSelected, boolean cellHasFocus) {
+
+				super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+				setToolTipText(index >= 0 && index < extensionTips.size() ? extensionTips.get(index) : null);
+
+				return this;
+			}
+		});
+		fillExtensions(null);
 		fileSubdirectoriesPanel.add(extensionComboBox);
 
+		contentTypeComboBox = createComboBox(50, 245, 110, 20, LABEL_CONTENT_TYPE_TIP, 8, ContentType.labels(), 0);
+		fileSubdirectoriesPanel.add(contentTypeComboBox);
+
+		duplicatesButton = createButton(BUTTON_DUPLICATES, KeyEvent.VK_L, BUTTON_DUPLICATES_TIP, 200, 220, 100, 22);
+		fileSubdirectoriesPanel.add(duplicatesButton);
+
+		largestButton = createButton(BUTTON_LARGEST, KeyEvent.VK_M, BUTTON_LARGEST_TIP, 310, 220, 100, 22);
+		fileSubdirectoriesPanel.add(largestButton);
+
+		exportButton = createButton(BUTTON_EXPORT, KeyEvent.VK_X, BUTTON_EXPORT_TIP, 310, 268, 100, 22);
+		exportButton.setEnabled(false);
+		fileSubdirectoriesPanel.add(exportButton);
+
+		treemapButton = createButton(BUTTON_TREEMAP, KeyEvent.VK_G, BUTTON_TREEMAP_TIP, 200, 268, 100, 22);
+		fileSubdirectoriesPanel.add(treemapButton);
+
 		displayExtensionCheckBox = createCheckBox(LABEL_EXTENTION, KeyEvent.VK_E, LABEL_EXTENTION_TIP, true, 10, 268,
-				291, 23);
+				180, 23);
 		fileSubdirectoriesPanel.add(displayExtensionCheckBox);
+
+		JLabel searchLabel = createLabel(LABEL_SEARCH, KeyEvent.VK_B, SwingConstants.LEFT, SwingConstants.CENTER, 15,
+				304, 55, 14);
+		fileSubdirectoriesPanel.add(searchLabel);
+
+		searchNameTextField = createTextField(70, 300, 180, 22, LABEL_SEARCH_TIP, new Font("Arial", Font.PLAIN, 13),
+				20);
+		searchLabel.setLabelFor(searchNameTextField);
+		fileSubdirectoriesPanel.add(searchNameTextField);
+
+		searchDepthComboBox = createComboBox(255, 300, 55, 22, LABEL_SEARCH_DEPTH_TIP, SEARCH_DEPTHS.length,
+				SEARCH_DEPTHS, Arrays.asList(SEARCH_DEPTHS).indexOf(String.valueOf(SEARCH_MAX_DEPTH)));
+		fileSubdirectoriesPanel.add(searchDepthComboBox);
+
+		followLinksCheckBox = createCheckBox(LABEL_FOLLOW_LINKS, KeyEvent.VK_K, LABEL_FOLLOW_LINKS_TIP,
+				SEARCH_FOLLOW_LINKS, 315, 300, 100, 22);
+		fileSubdirectoriesPanel.add(followLinksCheckBox);
 	}
 
 	/**
-	 * Desenha o painel de propriedades.
+	 * Desenha o painel de propriedades, com as abas de propriedades e de conteúdo
+	 * do item selecionado.
 	 */
 	private void drawPropertiesPanel() {
 
-		JPanel panelPropriedades = createPanel(424, 39, 420, 345);
+		JPanel panelPropriedades = createPanel(674, 39, 420, 345);
 		getContentPane().add(panelPropriedades);
 
-		JLabel propriedadesLabel = createLabel(LABEL_PROPERTIES, KeyEvent.VK_P, SwingConstants.LEFT,
-				SwingConstants.CENTER, 0, 11, 277, 14);
-		panelPropriedades.add(propriedadesLabel);
-
-		JScrollPane propriedadesTextAreaScrollPane = createScrollPane(0, 28, 410, 182);
-		panelPropriedades.add(propriedadesTextAreaScrollPane);
+		propertiesTabbedPane = new JTabbedPane();
+		propertiesTabbedPane.setBounds(0, 6, 410, 204);
+		panelPropriedades.add(propertiesTabbedPane);
 
+		JScrollPane propriedadesTextAreaScrollPane = new JScrollPane();
 		propertiesTextArea = createTextArea();
 		propriedadesTextAreaScrollPane.setViewportView(propertiesTextArea);
+		propertiesTabbedPane.addTab(LABEL_PROPERTIES, propriedadesTextAreaScrollPane);
+		propertiesTabbedPane.setMnemonicAt(0, KeyEvent.VK_P);
+
+		previewPane = new PreviewPane(previewExecutor);
+		propertiesTabbedPane.addTab(LABEL_PREVIEW, null, previewPane, LABEL_PREVIEW_TIP);
+		propertiesTabbedPane.setMnemonicAt(1, KeyEvent.VK_N);
 
 		JPanel panelConteudoDiretorio = createPanel(8, 222, 373, 115);
 		panelConteudoDiretorio
@@ -306,6 +1401,18 @@ public class UI extends JFrame implements Constants {
 		panelConteudoDiretorio.add(fileSubdirectoriesButton);
 
 		fileSubdirectoriesButton.setSelected(true);
+
+		JLabel sortLabel = createLabel(LABEL_SORT, KeyEvent.VK_O, SwingConstants.LEFT, SwingConstants.CENTER, 200, 26,
+				150, 14);
+		panelConteudoDiretorio.add(sortLabel);
+
+		sortComboBox = createComboBox(200, 45, 160, 22, LABEL_SORT_TIP, 4, SortKey.labels(), 0);
+		sortLabel.setLabelFor(sortComboBox);
+		panelConteudoDiretorio.add(sortComboBox);
+
+		descendingCheckBox = createCheckBox(LABEL_DESCENDING, KeyEvent.VK_C, LABEL_DESCENDING_TIP, false, 196, 75,
+				165, 23);
+		panelConteudoDiretorio.add(descendingCheckBox);
 	}
 
 	/**
@@ -316,12 +1423,67 @@ public class UI extends JFrame implements Constants {
 		addWindowListener(new WindowAdapter() {
 			@Override
 			public void windowClosing(WindowEvent e) {
+				saveSizeCache();
 				System.exit(0);
 			}
 		});
 
 	}
 
+	/**
+	 * Carrega os tamanhos de diretórios calculados em execuções anteriores.
+	 */
+	private void loadSizeCache() {
+
+		Path file = getSizeCacheFile();
+
+		if (!Files.exists(file))
+			return;
+
+		try {
+			FileChecker.getSizeCache().load(file);
+		} catch (IOException e) {
+			// Um cache ilegível apenas começa vazio
+		}
+	}
+
+	/**
+	 * Grava os tamanhos de diretórios calculados para a próxima execução.
+	 */
+	private void saveSizeCache() {
+
+		try {
+			FileChecker.getSizeCache().save(getSizeCacheFile());
+		} catch (IOException e) {
+			// O cache é apenas uma otimização, a falha não impede o encerramento
+		}
+	}
+
+	/**
+	 * Cria um executor de uma única thread que não impede o encerramento do
+	 * programa.
+	 *
+	 * @param name o nome da thread
+	 * @return o executor
+	 */
+	private static ExecutorService newDaemonExecutor(String name) {
+
+		return Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Obtém o arquivo onde o cache de tamanhos é gravado.
+	 *
+	 * @return o caminho do arquivo de cache
+	 */
+	private Path getSizeCacheFile() {
+		return Paths.get(System.getProperty("user.home"), SIZE_CACHE_FILE);
+	}
+
 	/**
 	 * Cria um JLabel com as propriedades especificadas.
 	 *
@@ -424,6 +1586,30 @@ public class UI extends JFrame implements Constants {
 		return textArea;
 	}
 
+	/**
+	 * Cria um JButton com as propriedades especificadas.
+	 *
+	 * @param text o texto do botão.
+	 * @param mnemonic o atalho do botão.
+	 * @param tooltip a dica de ferramenta do botão.
+	 * @param x a coordenada x do botão.
+	 * @param y a coordenada y do botão.
+	 * @param width a largura do botão.
+	 * @param height a altura do botão.
+	 * @return um JButton configurado.
+	 */
+	private JButton createButton(String text, int mnemonic, String tooltip, int x, int y, int width, int height) {
+
+		JButton button = new JButton(text);
+
+		button.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+		button.setMnemonic(mnemonic);
+		button.setToolTipText(tooltip);
+		button.setBounds(x, y, width, height);
+
+		return button;
+	}
+
 	/**
 	 * Cria um JRadioButton com as propriedades especificadas.
 	 *
@@ -506,12 +1692,43 @@ public class UI extends JFrame implements Constants {
 	}
 
 	/**
-	 * Cria um JList configurado.
+	 * Cria um JList configurado. A altura das células é fixa, e a largura é
+	 * definida a cada listagem, para que a lista não precise obter todos os itens
+	 * para calcular o próprio tamanho.
 	 *
 	 * @return um JList configurado.
 	 */
 	private JList<String> createJList() {
-		return new JList<>();
+
+		JList<String> list = new JList<>();
+
+		list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + 2);
+
+		return list;
+	}
+
+	/**
+	 * Cria o menu de contexto da lista, com as operações sobre as entradas
+	 * selecionadas.
+	 *
+	 * @return o menu configurado.
+	 */
+	private JPopupMenu createListMenu() {
+
+		JPopupMenu menu = new JPopupMenu();
+
+		copyMenuItem = new JMenuItem(MENU_COPY, KeyEvent.VK_C);
+		moveMenuItem = new JMenuItem(MENU_MOVE, KeyEvent.VK_M);
+		deleteMenuItem = new JMenuItem(MENU_DELETE, KeyEvent.VK_E);
+		jobsMenuItem = new JMenuItem(MENU_JOBS, KeyEvent.VK_O);
+
+		menu.add(copyMenuItem);
+		menu.add(moveMenuItem);
+		menu.add(deleteMenuItem);
+		menu.addSeparator();
+		menu.add(jobsMenuItem);
+
+		return menu;
 	}
 
 	/**
@@ -521,9 +1738,15 @@ public class UI extends JFrame implements Constants {
 
 		searchDirectoryTextField.setText(EMPTY);
 
+		if (listModel != null) {
+			listModel.stop();
+			listModel = null;
+		}
+
 		filesSubdirectoriesList.setListData(new String[0]);
 
 		propertiesTextArea.setText(EMPTY);
+		previewPane.show(null);
 
 		searchDirectoryTextField.requestFocus();
 	}
@@ -0,0 +1,80 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A classe BytePattern procura uma sequência de bytes em um {@link ByteBuffer}
+ * com o algoritmo de Boyer-Moore-Horspool, sem decodificar o conteúdo.
+ *
+ * O último byte da janela comparada decide o salto: se ele não aparece na
+ * sequência, a janela avança o comprimento inteiro da sequência, de modo que
+ * em textos comuns a maior parte dos bytes nem chega a ser lida.
+ */
+final class BytePattern {
+
+	private final byte[] pattern;
+
+	/** Avanço da janela para cada valor do seu último byte. */
+	private final int[] shift = new int[256];
+
+	/**
+	 * Construtor da classe BytePattern.
+	 *
+	 * @param pattern a sequência procurada, não vazia
+	 */
+	BytePattern(byte[] pattern) {
+
+		if (pattern.length == 0)
+			throw new IllegalArgumentException("pattern");
+
+		this.pattern = pattern.clone();
+
+		int last = pattern.length - 1;
+
+		Arrays.fill(shift, pattern.length);
+
+		for (int index = 0; index < last; index++)
+			shift[pattern[index] & 0xFF] = last - index;
+	}
+
+	int length() {
+		return pattern.length;
+	}
+
+	/**
+	 * Procura a primeira ocorrência da sequência em um trecho do buffer, lido por
+	 * posições absolutas.
+	 *
+	 * @param buffer o buffer
+	 * @param from   o início do trecho, inclusivo
+	 * @param to     o fim do trecho, exclusivo
+	 * @return a posição da ocorrência, ou -1 se não houver
+	 */
+	int indexOf(ByteBuffer buffer, int from, int to) {
+
+		int last = pattern.length - 1;
+		byte lastByte = pattern[last];
+
+		for (int position = from; position + last < to;) {
+
+			byte current = buffer.get(position + last);
+
+			if (current == lastByte) {
+
+				int index = last - 1;
+
+				while (index >= 0 && buffer.get(position + index) == pattern[index])
+					index--;
+
+				if (index < 0)
+					return position;
+			}
+
+			position += shift[current & 0xFF];
+		}
+
+		return -1;
+	}
+
+}// class BytePattern
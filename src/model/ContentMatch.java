@@ -0,0 +1,46 @@
+package model;
+
+import java.nio.file.Path;
+
+/**
+ * A classe ContentMatch representa uma linha de arquivo que contém o texto
+ * procurado por uma {@link ContentSearch}.
+ */
+public final class ContentMatch {
+
+	private final Path file;
+	private final long line;
+	private final String text;
+
+	/**
+	 * Construtor da classe ContentMatch.
+	 *
+	 * @param file o arquivo
+	 * @param line o número da linha, a partir de 1
+	 * @param text o conteúdo da linha, possivelmente reduzido ao trecho em torno
+	 *             do texto encontrado
+	 */
+	ContentMatch(Path file, long line, String text) {
+		this.file = file;
+		this.line = line;
+		this.text = text;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return "ContentMatch [file=" + file + ", line=" + line + ", text=" + text + "]";
+	}
+
+}// class ContentMatch
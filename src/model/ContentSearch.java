@@ -0,0 +1,551 @@
+package model;
+
+import static util.Constants.CONTENT_BINARY_PROBE;
+import static util.Constants.CONTENT_MAX_LINE;
+import static util.Constants.CONTENT_WINDOW_SIZE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.DirectorySnapshot.Entry;
+
+/**
+ * A classe ContentSearch procura um texto no conteúdo dos arquivos encontrados
+ * por uma {@link RecursiveSearch}: os arquivos do próprio diretório, com
+ * profundidade 1, ou os de toda a árvore.
+ *
+ * Cada arquivo é lido por uma tarefa própria, no mesmo pool da busca pelos
+ * nomes, de modo que vários arquivos são lidos em paralelo. O texto é
+ * codificado em UTF-8 e procurado byte a byte por um {@link BytePattern}, sem
+ * decodificar o conteúdo. Os arquivos são lidos em janelas de até
+ * {@link util.Constants#CONTENT_WINDOW_SIZE} bytes, por leituras posicionais
+ * em um buffer reutilizado pela thread; nenhum arquivo é mapeado na memória,
+ * de modo que a memória usada não depende do coletor de lixo e fica limitada a
+ * uma janela por thread. Arquivos com um byte nulo no início são considerados
+ * binários e ignorados.
+ *
+ * As linhas são contadas sobre os próprios bytes; somente as linhas que
+ * contêm o texto são decodificadas, uma vez cada, e colocadas em uma fila
+ * limitada, como os resultados da {@link RecursiveSearch}.
+ */
+public class ContentSearch {
+
+	/** Buffer de cada thread para a leitura das janelas. */
+	private static final ThreadLocal<ByteBuffer> WINDOW_BUFFER = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocateDirect(CONTENT_WINDOW_SIZE));
+
+	private final RecursiveSearch files;
+	private final BytePattern pattern;
+	private final BlockingQueue<ContentMatch> results;
+	private final int windowSize;
+
+	/** Tarefas ainda não terminadas: a que distribui os arquivos e uma por arquivo. */
+	private final AtomicInteger pending = new AtomicInteger(1);
+	private boolean started;
+
+	/**
+	 * Construtor da classe ContentSearch.
+	 *
+	 * @param files    a busca, ainda não iniciada, que encontra os arquivos
+	 * @param text     o texto procurado, diferenciando maiúsculas de minúsculas
+	 * @param capacity a capacidade da fila de resultados
+	 * @throws IllegalArgumentException se o texto for vazio ou maior que uma
+	 *                                  janela
+	 */
+	public ContentSearch(RecursiveSearch files, String text, int capacity) {
+		this(files, text, capacity, CONTENT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Construtor com janelas menores que
+	 * {@link util.Constants#CONTENT_WINDOW_SIZE}, para que os testes exercitem as
+	 * linhas divididas entre janelas com arquivos pequenos.
+	 *
+	 * @param windowSize o tamanho das janelas, até o tamanho do buffer da thread
+	 */
+	ContentSearch(RecursiveSearch files, String text, int capacity, int windowSize) {
+
+		byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+
+		if (windowSize > CONTENT_WINDOW_SIZE)
+			throw new IllegalArgumentException("windowSize: " + windowSize);
+
+		if (encoded.length >= windowSize)
+			throw new IllegalArgumentException("text");
+
+		this.files = files;
+		this.pattern = new BytePattern(encoded);
+		this.results = new ArrayBlockingQueue<>(capacity);
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Inicia a busca em segundo plano.
+	 *
+	 * @return esta busca
+	 */
+	public synchronized ContentSearch start() {
+
+		if (!started) {
+			started = true;
+			files.start();
+			files.getPool().execute(new Distributor());
+		}
+
+		return this;
+	}
+
+	/**
+	 * Cancela a busca. Os arquivos em leitura são abandonados na janela atual.
+	 */
+	public void cancel() {
+		files.cancel();
+	}
+
+	public boolean isCancelled() {
+		return files.isCancelled();
+	}
+
+	/**
+	 * Verifica se todos os arquivos já foram lidos. Ainda pode haver resultados
+	 * na fila.
+	 *
+	 * @return true se a busca terminou
+	 */
+	public synchronized boolean isDone() {
+		return started && pending.get() == 0;
+	}
+
+	/**
+	 * Verifica se a busca terminou e todos os resultados já foram retirados da
+	 * fila.
+	 *
+	 * @return true se não haverá mais resultados
+	 */
+	public boolean isExhausted() {
+		return isDone() && results.isEmpty();
+	}
+
+	/**
+	 * Retira os resultados disponíveis, aguardando até o tempo informado se a fila
+	 * estiver vazia.
+	 *
+	 * @param target  onde os resultados serão adicionados
+	 * @param timeout o tempo máximo de espera
+	 * @param unit    a unidade do tempo de espera
+	 * @return a quantidade de resultados retirados
+	 * @throws InterruptedException se a thread for interrompida durante a espera
+	 */
+	public int drainTo(Collection<? super ContentMatch> target, long timeout, TimeUnit unit)
+			throws InterruptedException {
+
+		int count = results.drainTo(target);
+
+		if (count > 0)
+			return count;
+
+		ContentMatch match = results.poll(timeout, unit);
+
+		if (match == null)
+			return 0;
+
+		target.add(match);
+
+		return 1 + results.drainTo(target);
+	}
+
+	public Path getRoot() {
+		return files.getRoot();
+	}
+
+	/**
+	 * Tarefa que retira os arquivos encontrados pela busca de nomes e cria uma
+	 * tarefa de leitura para cada um. A espera por novos arquivos é um bloqueio
+	 * gerenciado, para que o pool compense a thread parada.
+	 */
+	private final class Distributor extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final long POLL_TIMEOUT = 50;
+
+		@Override
+		protected void compute() {
+
+			List<Entry> batch = new ArrayList<>();
+
+			try {
+				while (!files.isExhausted() && !files.isCancelled()) {
+
+					batch.clear();
+					ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+
+						@Override
+						public boolean block() throws InterruptedException {
+							files.drainTo(batch, POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+							return true;
+						}
+
+						@Override
+						public boolean isReleasable() {
+							return false;
+						}
+					});
+
+					for (Entry entry : batch) {
+						if (entry.isFile()) {
+							pending.incrementAndGet();
+							new Reader(entry.getPath()).fork();
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				files.cancel();
+			} finally {
+				pending.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Tarefa que procura o texto em um único arquivo.
+	 */
+	private final class Reader extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path file;
+
+		Reader(Path file) {
+			this.file = file;
+		}
+
+		@Override
+		protected void compute() {
+
+			long start = Metrics.start();
+
+			try {
+				if (!files.isCancelled())
+					read(file);
+			} catch (IOException e) {
+				// Arquivos sem permissão de leitura são ignorados
+			} finally {
+				pending.decrementAndGet();
+				Metrics.CONTENT_FILE.stop(start);
+			}
+		}
+	}
+
+	/**
+	 * Lê o arquivo em janelas, no buffer da thread. Janelas vizinhas se
+	 * sobrepõem em um byte a menos que o texto, para que uma ocorrência dividida
+	 * entre elas seja encontrada na primeira. Um arquivo que diminui durante a
+	 * leitura termina na última janela lida.
+	 */
+	private void read(Path file) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+			long size = channel.size();
+
+			if (size < pattern.length())
+				return;
+
+			FileScan scan = new FileScan(file, channel);
+			ByteBuffer buffer = WINDOW_BUFFER.get();
+			int step = windowSize - (pattern.length() - 1);
+
+			for (long base = 0; !files.isCancelled(); base += step) {
+
+				buffer.clear().limit((int) Math.min(windowSize, size - base));
+
+				while (buffer.hasRemaining())
+					if (channel.read(buffer, base + buffer.position()) < 0)
+						break;
+
+				int length = buffer.position();
+				boolean last = length < buffer.limit() || base + length >= size;
+
+				if (!scan.window(buffer, base, length, last) || last)
+					return;
+			}
+		}
+	}
+
+	/**
+	 * Estado da leitura de um arquivo entre uma janela e a seguinte. Posições
+	 * absolutas são contadas a partir do início do arquivo.
+	 */
+	private final class FileScan {
+
+		private final Path file;
+		private final FileChannel channel;
+
+		/** Número da linha em {@link #counted}. */
+		private long line = 1;
+
+		/** Posição até a qual as quebras de linha já foram contadas. */
+		private long counted;
+
+		/** Início da linha em {@link #counted}. */
+		private long lineStart;
+
+		/** Posição a partir da qual o texto é procurado; linhas já informadas ficam antes dela. */
+		private long next;
+
+		/** Indica que a última linha informada continua na próxima janela. */
+		private boolean skipping;
+
+		FileScan(Path file, FileChannel channel) {
+			this.file = file;
+			this.channel = channel;
+		}
+
+		/**
+		 * Procura o texto em uma janela do arquivo.
+		 *
+		 * @param buffer o conteúdo da janela, lido por posições absolutas
+		 * @param base   a posição da janela no arquivo
+		 * @param limit  o tamanho da janela
+		 * @param last   se true, a janela chega ao fim do arquivo
+		 * @return false se o arquivo for binário
+		 * @throws IOException se o início de uma linha não puder ser relido
+		 */
+		boolean window(ByteBuffer buffer, long base, int limit, boolean last) throws IOException {
+
+			if (base == 0 && isBinary(buffer, limit))
+				return false;
+
+			// O trecho final é relido pela próxima janela e só é contado nela
+			int end = last ? limit : limit - (pattern.length() - 1);
+			int from = (int) (next - base);
+
+			if (skipping) {
+
+				int newline = indexOfNewline(buffer, from, limit);
+
+				if (newline < 0) {
+					next = base + end;
+					countLines(buffer, base, end);
+					return true;
+				}
+
+				skipping = false;
+				from = newline + 1;
+			}
+
+			while (from < end && !files.isCancelled()) {
+
+				int match = pattern.indexOf(buffer, from, limit);
+
+				if (match < 0)
+					break;
+
+				countLines(buffer, base, match);
+
+				int newline = indexOfNewline(buffer, match, limit);
+
+				SearchTask.offer(results,
+						new ContentMatch(file, line, text(buffer, base, match, newline, limit, last)),
+						files::isCancelled);
+
+				if (newline < 0) {
+					skipping = !last;
+					from = end;
+					break;
+				}
+
+				from = newline + 1;
+			}
+
+			next = base + Math.max(from, end);
+
+			// As linhas só são contadas até a última ocorrência: arquivos sem ocorrências não são contados
+			if (!last)
+				countLines(buffer, base, end);
+
+			return true;
+		}
+
+		/**
+		 * Avança a contagem de linhas até a posição da janela.
+		 */
+		private void countLines(ByteBuffer buffer, long base, int position) {
+
+			for (int index = (int) (counted - base); index < position; index++) {
+				if (buffer.get(index) == '\n') {
+					line++;
+					lineStart = base + index + 1;
+				}
+			}
+
+			counted = Math.max(counted, base + position);
+		}
+
+		/**
+		 * Decodifica a linha da ocorrência. Linhas longas são reduzidas a
+		 * {@link util.Constants#CONTENT_MAX_LINE} bytes em torno do texto, sem
+		 * cortar caracteres de mais de um byte. Os trechos da linha fora da janela,
+		 * antes ou depois dela, são relidos do arquivo.
+		 */
+		private String text(ByteBuffer buffer, long base, int match, int newline, int limit, boolean last)
+				throws IOException {
+
+			int context = CONTENT_MAX_LINE / 2;
+			long at = base + match;
+			long from = Math.max(lineStart, at - context);
+			long to = at + pattern.length() + context;
+			boolean lineEnd = false;
+
+			if (newline >= 0 || last) {
+
+				long end = newline >= 0 ? base + newline : base + limit;
+
+				if (end <= to) {
+					to = end;
+					lineEnd = true;
+				}
+			}
+
+			byte[] bytes = new byte[(int) (to - from)];
+			int length = copy(buffer, base, limit, from, bytes);
+
+			// Sem quebra na janela, a linha pode terminar logo depois dela ou no fim do arquivo
+			if (!lineEnd) {
+
+				for (int index = (int) Math.max(base + limit - from, 0); index < length && !lineEnd; index++) {
+					if (bytes[index] == '\n') {
+						length = index;
+						lineEnd = true;
+					}
+				}
+
+				lineEnd |= length < bytes.length;
+			}
+
+			int first = 0;
+
+			// Um corte antes do início ou do fim da linha pode cair no meio de um caractere
+			if (from > lineStart)
+				while (first < length && isContinuation(bytes[first]))
+					first++;
+
+			if (!lineEnd)
+				length = completeCharacters(bytes, first, length);
+			else if (length > first && bytes[length - 1] == '\r')
+				length--;
+
+			return new String(bytes, first, length - first, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Copia para o vetor os bytes do arquivo a partir da posição informada,
+		 * tirando-os da janela quando estão nela e relendo-os do arquivo quando
+		 * estão fora.
+		 *
+		 * @return a quantidade de bytes copiados, menor que o vetor se o arquivo
+		 *         terminar antes
+		 */
+		private int copy(ByteBuffer buffer, long base, int limit, long from, byte[] bytes) throws IOException {
+
+			int copied = 0;
+
+			if (from < base) {
+
+				int before = (int) Math.min(bytes.length, base - from);
+				copied = readAt(from, bytes, 0, before);
+
+				if (copied < before)
+					return copied;
+			}
+
+			for (long position = from + copied; copied < bytes.length && position < base + limit; position++)
+				bytes[copied++] = buffer.get((int) (position - base));
+
+			if (copied < bytes.length)
+				copied += readAt(from + copied, bytes, copied, bytes.length - copied);
+
+			return copied;
+		}
+
+		private int readAt(long position, byte[] bytes, int offset, int length) throws IOException {
+
+			ByteBuffer target = ByteBuffer.wrap(bytes, offset, length);
+
+			while (target.hasRemaining())
+				if (channel.read(target, position + target.position() - offset) < 0)
+					break;
+
+			return target.position() - offset;
+		}
+	}
+
+	private static boolean isContinuation(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+
+	/**
+	 * Obtém o fim do trecho sem o último caractere, se ele estiver incompleto.
+	 */
+	private static int completeCharacters(byte[] bytes, int from, int to) {
+
+		int lead = to - 1;
+
+		while (lead > from && isContinuation(bytes[lead]))
+			lead--;
+
+		if (lead < from)
+			return to;
+
+		int b = bytes[lead] & 0xFF;
+		int length = b < 0x80 ? 1 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+
+		return lead + length > to ? lead : to;
+	}
+
+	private static int indexOfNewline(ByteBuffer buffer, int from, int to) {
+
+		for (int index = from; index < to; index++)
+			if (buffer.get(index) == '\n')
+				return index;
+
+		return -1;
+	}
+
+	/**
+	 * Verifica se há um byte nulo nos primeiros
+	 * {@link util.Constants#CONTENT_BINARY_PROBE} bytes do arquivo, o que não
+	 * ocorre em textos em UTF-8 nem nas codificações de um byte. É o único
+	 * critério de arquivo binário, usado também pela pré-visualização e pela
+	 * identificação do tipo de conteúdo.
+	 *
+	 * @param buffer o início do arquivo, lido por posições absolutas
+	 * @param limit  a quantidade de bytes lidos
+	 * @return true se o arquivo for binário
+	 */
+	static boolean isBinary(ByteBuffer buffer, int limit) {
+
+		int probe = Math.min(limit, CONTENT_BINARY_PROBE);
+
+		for (int index = 0; index < probe; index++)
+			if (buffer.get(index) == 0)
+				return true;
+
+		return false;
+	}
+
+}// class ContentSearch
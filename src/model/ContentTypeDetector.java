@@ -0,0 +1,269 @@
+package model;
+
+import static util.Constants.CONTENT_TYPE_HEADER;
+import static util.Constants.CONTENT_TYPE_PARALLEL_THRESHOLD;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import model.DirectorySnapshot.Entry;
+import util.ContentType;
+
+/**
+ * A classe ContentTypeDetector identifica o tipo de conteúdo dos arquivos
+ * ({@link ContentType}) pelos primeiros bytes, sem considerar o nome.
+ *
+ * Somente os {@link util.Constants#CONTENT_TYPE_HEADER} primeiros bytes de cada
+ * arquivo são lidos, em um buffer direto reutilizado por cada thread, e
+ * comparados com todas as assinaturas de uma só vez por uma árvore de prefixos
+ * (trie): cada byte do cabeçalho avança um nível, e a busca para no primeiro
+ * byte que não continua nenhuma assinatura.
+ *
+ * Os arquivos de uma listagem são lidos em paralelo no pool informado, e cada
+ * resultado fica guardado com a data de modificação do arquivo: enquanto ela
+ * não muda, filtrar o mesmo diretório de novo não lê nenhum cabeçalho. Os
+ * resultados usados há mais tempo são descartados quando o cache fica cheio.
+ */
+public class ContentTypeDetector {
+
+	/** Buffer de cada thread para a leitura dos cabeçalhos. */
+	private static final ThreadLocal<ByteBuffer> HEADER_BUFFER = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocateDirect(CONTENT_TYPE_HEADER));
+
+	/** Raiz da árvore de prefixos com as assinaturas de todos os tipos. */
+	private static final Node SIGNATURES = new Node();
+
+	static {
+		for (ContentType type : ContentType.values())
+			for (byte[] signature : type.getSignatures())
+				SIGNATURES.add(signature, type);
+	}
+
+	/**
+	 * Nó da árvore de prefixos. O tipo é o da assinatura que termina no nó, se
+	 * houver.
+	 */
+	private static final class Node {
+
+		private Node[] next;
+		private ContentType type;
+
+		void add(byte[] signature, ContentType type) {
+
+			Node node = this;
+
+			for (byte value : signature) {
+
+				if (node.next == null)
+					node.next = new Node[256];
+
+				int slot = value & 0xFF;
+
+				if (node.next[slot] == null)
+					node.next[slot] = new Node();
+
+				node = node.next[slot];
+			}
+
+			node.type = type;
+		}
+	}
+
+	/** Tipo já identificado e a data de modificação do arquivo na leitura. */
+	private static final class Detected {
+
+		private final long lastModified;
+		private final ContentType type;
+
+		Detected(long lastModified, ContentType type) {
+			this.lastModified = lastModified;
+			this.type = type;
+		}
+	}
+
+	private final Map<Path, Detected> cache;
+
+	private long hits;
+	private long misses;
+
+	/**
+	 * Construtor da classe ContentTypeDetector.
+	 *
+	 * @param maxEntries a quantidade máxima de arquivos guardados no cache
+	 */
+	public ContentTypeDetector(int maxEntries) {
+
+		cache = new LinkedHashMap<Path, Detected>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Path, Detected> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Identifica o tipo de conteúdo dos arquivos, lendo em paralelo os cabeçalhos
+	 * que não estão no cache.
+	 *
+	 * @param files os arquivos
+	 * @param pool  o pool em que os cabeçalhos são lidos
+	 * @return os tipos, na mesma ordem dos arquivos
+	 */
+	public ContentType[] detect(List<Entry> files, ForkJoinPool pool) {
+
+		ContentType[] types = new ContentType[files.size()];
+
+		if (types.length <= CONTENT_TYPE_PARALLEL_THRESHOLD)
+			new DetectTask(files, types, 0, types.length).compute();
+		else
+			pool.invoke(new DetectTask(files, types, 0, types.length));
+
+		return types;
+	}
+
+	/**
+	 * Identifica o tipo de conteúdo de um arquivo, lendo o cabeçalho somente se o
+	 * arquivo mudou desde a última leitura.
+	 *
+	 * @param file o arquivo
+	 * @return o tipo de conteúdo
+	 */
+	public ContentType detect(Entry file) {
+
+		Path path = file.getPath();
+		long lastModified = file.getLastModified();
+
+		synchronized (this) {
+
+			Detected detected = cache.get(path);
+
+			if (detected != null && detected.lastModified == lastModified) {
+				hits++;
+				return detected.type;
+			}
+
+			misses++;
+		}
+
+		ContentType type = read(path);
+
+		synchronized (this) {
+			cache.put(path, new Detected(lastModified, type));
+		}
+
+		return type;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Lê o cabeçalho do arquivo e o compara com as assinaturas.
+	 */
+	private static ContentType read(Path path) {
+
+		long start = Metrics.start();
+		ByteBuffer buffer = HEADER_BUFFER.get();
+		buffer.clear();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			while (buffer.hasRemaining())
+				if (channel.read(buffer) < 0)
+					break;
+		} catch (IOException e) {
+			return ContentType.UNKNOWN;
+		} finally {
+			Metrics.CONTENT_TYPE.stop(start);
+		}
+
+		return match(buffer, buffer.position());
+	}
+
+	/**
+	 * Procura a assinatura mais longa que inicia o cabeçalho. Sem assinatura, o
+	 * cabeçalho é texto se não for binário pelo critério da busca no conteúdo.
+	 *
+	 * @param header o cabeçalho, lido por posições absolutas
+	 * @param length a quantidade de bytes lidos
+	 * @return o tipo de conteúdo
+	 */
+	static ContentType match(ByteBuffer header, int length) {
+
+		if (length == 0)
+			return ContentType.UNKNOWN;
+
+		ContentType type = null;
+		Node node = SIGNATURES;
+
+		for (int index = 0; index < length && node.next != null; index++) {
+
+			node = node.next[header.get(index) & 0xFF];
+
+			if (node == null)
+				break;
+
+			if (node.type != null)
+				type = node.type;
+		}
+
+		if (type != null)
+			return type;
+
+		return ContentSearch.isBinary(header, length) ? ContentType.UNKNOWN : ContentType.TEXT;
+	}
+
+	/**
+	 * Tarefa que identifica um intervalo de arquivos, dividindo-o ao meio até que
+	 * cada parte seja pequena o bastante para uma única thread.
+	 */
+	private final class DetectTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Entry> files;
+		private final ContentType[] types;
+		private final int from;
+		private final int to;
+
+		DetectTask(List<Entry> files, ContentType[] types, int from, int to) {
+			this.files = files;
+			this.types = types;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (to - from <= CONTENT_TYPE_PARALLEL_THRESHOLD) {
+
+				for (int index = from; index < to; index++)
+					types[index] = detect(files.get(index));
+
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+
+			invokeAll(new DetectTask(files, types, from, middle), new DetectTask(files, types, middle, to));
+		}
+	}
+
+}// class ContentTypeDetector
@@ -0,0 +1,74 @@
+package model;
+
+/**
+ * A classe DirectorySize guarda o resultado do cálculo do tamanho de um
+ * diretório: o total de bytes, a quantidade de arquivos e a quantidade de
+ * subdiretórios encontrados em toda a subárvore.
+ */
+public final class DirectorySize {
+
+	public static final DirectorySize EMPTY = new DirectorySize(0, 0, 0);
+
+	private final long bytes;
+	private final long files;
+	private final long directories;
+
+	/**
+	 * Construtor da classe DirectorySize.
+	 *
+	 * @param bytes       o total de bytes dos arquivos
+	 * @param files       a quantidade de arquivos
+	 * @param directories a quantidade de subdiretórios
+	 */
+	public DirectorySize(long bytes, long files, long directories) {
+		this.bytes = bytes;
+		this.files = files;
+		this.directories = directories;
+	}
+
+	/**
+	 * Soma este resultado com outro.
+	 *
+	 * @param other o outro resultado
+	 * @return um novo resultado com os totais somados
+	 */
+	public DirectorySize plus(DirectorySize other) {
+		return new DirectorySize(bytes + other.bytes, files + other.files, directories + other.directories);
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public long getFiles() {
+		return files;
+	}
+
+	public long getDirectories() {
+		return directories;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj)
+			return true;
+		if (!(obj instanceof DirectorySize))
+			return false;
+
+		DirectorySize other = (DirectorySize) obj;
+
+		return bytes == other.bytes && files == other.files && directories == other.directories;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(bytes) * 31 * 31 + Long.hashCode(files) * 31 + Long.hashCode(directories);
+	}
+
+	@Override
+	public String toString() {
+		return bytes + " bytes, " + files + " arquivos, " + directories + " subdiretórios";
+	}
+
+}// class DirectorySize
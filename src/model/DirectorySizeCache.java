@@ -0,0 +1,357 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A classe DirectorySizeCache guarda os tamanhos de diretórios já calculados,
+ * evitando percorrer novamente a subárvore quando o mesmo diretório é
+ * consultado outra vez.
+ *
+ * Cada entrada guarda somente o conteúdo direto de um diretório: os bytes e a
+ * quantidade dos seus arquivos e os nomes dos seus subdiretórios. A entrada é
+ * associada ao caminho absoluto e validada pela data de modificação e pela
+ * identificação do arquivo (inode), que mudam quando um filho direto é criado,
+ * removido ou renomeado. O total de um diretório é remontado somando as
+ * entradas de todos os seus subdiretórios, cada uma conferida com os atributos
+ * atuais; basta uma entrada inválida para que o total seja recalculado. Assim,
+ * uma alteração em qualquer nível da subárvore é percebida, ao custo de ler os
+ * atributos de cada subdiretório, e não de cada arquivo.
+ *
+ * A reescrita de um arquivo sem criar nem remover entradas não muda a data do
+ * diretório; para esses casos existe o método {@link #invalidate(Path)}.
+ *
+ * Os valores menos usados recentemente são descartados quando a quantidade de
+ * entradas ou a memória estimada ultrapassa os limites configurados.
+ */
+public class DirectorySizeCache {
+
+	private static final int MAGIC = 0x46534331; // "FSC1"
+	private static final int VERSION = 2;
+
+	/** Memória estimada de uma entrada, sem contar o caminho e os nomes. */
+	private static final long ENTRY_OVERHEAD = 160;
+
+	/** Memória estimada de cada nome de subdiretório, sem contar os caracteres. */
+	private static final long NAME_OVERHEAD = 48;
+
+	private final int maxEntries;
+	private final long maxBytes;
+
+	private final LinkedHashMap<String, CachedDirectory> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long estimatedBytes;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Construtor da classe DirectorySizeCache.
+	 *
+	 * @param maxEntries a quantidade máxima de diretórios guardados
+	 * @param maxBytes   a memória máxima estimada, em bytes
+	 */
+	public DirectorySizeCache(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Obtém o tamanho total do diretório, se as entradas dele e de todos os seus
+	 * subdiretórios ainda forem válidas. Os atributos dos subdiretórios são lidos
+	 * fora do bloqueio do cache.
+	 *
+	 * @param directory  o diretório
+	 * @param attributes os atributos atuais do diretório
+	 * @return o tamanho total ou null se não houver valor válido
+	 */
+	public DirectorySize get(Path directory, BasicFileAttributes attributes) {
+
+		DirectorySize size = total(directory, attributes);
+
+		synchronized (this) {
+			if (size != null)
+				hits++;
+			else
+				misses++;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Guarda o conteúdo direto do diretório.
+	 *
+	 * @param directory      o diretório
+	 * @param attributes     os atributos do diretório lidos antes da leitura
+	 * @param contents       os bytes e a quantidade dos arquivos e a quantidade
+	 *                       de subdiretórios, sem contar as subárvores
+	 * @param subdirectories os nomes dos subdiretórios
+	 */
+	public synchronized void put(Path directory, BasicFileAttributes attributes, DirectorySize contents,
+			String[] subdirectories) {
+		put(key(directory), new CachedDirectory(attributes.lastModifiedTime().toMillis(), fileKey(attributes),
+				contents.getBytes(), contents.getFiles(), subdirectories));
+	}
+
+	/**
+	 * Descarta o valor guardado para o diretório.
+	 *
+	 * @param directory o diretório
+	 */
+	public synchronized void invalidate(Path directory) {
+		remove(key(directory));
+	}
+
+	/**
+	 * Descarta todos os valores guardados.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		estimatedBytes = 0;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Grava os valores guardados em um arquivo binário, do menos para o mais
+	 * usado recentemente, para que a ordem de descarte seja mantida na leitura.
+	 *
+	 * O arquivo é gravado à parte, com um nome único, e movido sobre o anterior,
+	 * para que uma gravação interrompida ou simultânea não o deixe incompleto.
+	 *
+	 * @param file o arquivo de destino
+	 * @throws IOException se o arquivo não puder ser gravado
+	 */
+	public synchronized void save(Path file) throws IOException {
+
+		Path directory = file.toAbsolutePath().getParent();
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+		try {
+			try (DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(entries.size());
+
+				for (Map.Entry<String, CachedDirectory> entry : entries.entrySet()) {
+
+					CachedDirectory cached = entry.getValue();
+
+					output.writeUTF(entry.getKey());
+					output.writeLong(cached.lastModified);
+					output.writeUTF(cached.fileKey == null ? "" : cached.fileKey);
+					output.writeLong(cached.bytes);
+					output.writeLong(cached.files);
+					output.writeInt(cached.subdirectories.length);
+
+					for (String name : cached.subdirectories)
+						output.writeUTF(name);
+				}
+			}
+
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Lê os valores gravados por {@link #save(Path)}, somando-os aos atuais.
+	 * Arquivos de outra versão são ignorados.
+	 *
+	 * @param file o arquivo de origem
+	 * @throws IOException se o arquivo não puder ser lido
+	 */
+	public synchronized void load(Path file) throws IOException {
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				return;
+
+			int count = input.readInt();
+
+			for (int i = 0; i < count; i++) {
+
+				String key = input.readUTF();
+				long lastModified = input.readLong();
+				String fileKey = input.readUTF();
+				long bytes = input.readLong();
+				long files = input.readLong();
+				String[] subdirectories = new String[input.readInt()];
+
+				for (int index = 0; index < subdirectories.length; index++)
+					subdirectories[index] = input.readUTF();
+
+				put(key, new CachedDirectory(lastModified, fileKey.isEmpty() ? null : fileKey, bytes, files,
+						subdirectories));
+			}
+		}
+	}
+
+	/**
+	 * Remonta o total do diretório a partir das entradas da subárvore.
+	 *
+	 * @return o total, ou null se alguma entrada faltar ou não for mais válida
+	 */
+	private DirectorySize total(Path directory, BasicFileAttributes attributes) {
+
+		CachedDirectory cached = lookup(key(directory), attributes);
+
+		if (cached == null)
+			return null;
+
+		long bytes = cached.bytes;
+		long files = cached.files;
+		long directories = cached.subdirectories.length;
+
+		for (String name : cached.subdirectories) {
+
+			Path subdirectory = directory.resolve(name);
+			BasicFileAttributes subdirectoryAttributes;
+
+			Metrics.countStatCalls(1);
+
+			try {
+				subdirectoryAttributes = Files.readAttributes(subdirectory, BasicFileAttributes.class,
+						LinkOption.NOFOLLOW_LINKS);
+			} catch (IOException e) {
+				return null;
+			}
+
+			DirectorySize size = subdirectoryAttributes.isDirectory() ? total(subdirectory, subdirectoryAttributes)
+					: null;
+
+			if (size == null)
+				return null;
+
+			bytes += size.getBytes();
+			files += size.getFiles();
+			directories += size.getDirectories();
+		}
+
+		return new DirectorySize(bytes, files, directories);
+	}
+
+	/**
+	 * Obtém a entrada do diretório, descartando-a se os atributos mudaram.
+	 */
+	private synchronized CachedDirectory lookup(String key, BasicFileAttributes attributes) {
+
+		CachedDirectory cached = entries.get(key);
+
+		if (cached != null && !cached.matches(attributes)) {
+			remove(key);
+			return null;
+		}
+
+		return cached;
+	}
+
+	private void put(String key, CachedDirectory cached) {
+
+		remove(key);
+
+		entries.put(key, cached);
+		estimatedBytes += estimate(key, cached);
+
+		Iterator<Map.Entry<String, CachedDirectory>> eldest = entries.entrySet().iterator();
+
+		while ((entries.size() > maxEntries || estimatedBytes > maxBytes) && eldest.hasNext()) {
+
+			Map.Entry<String, CachedDirectory> entry = eldest.next();
+			eldest.remove();
+
+			estimatedBytes -= estimate(entry.getKey(), entry.getValue());
+			evictions++;
+		}
+	}
+
+	private void remove(String key) {
+
+		CachedDirectory cached = entries.remove(key);
+
+		if (cached != null)
+			estimatedBytes -= estimate(key, cached);
+	}
+
+	private static long estimate(String key, CachedDirectory cached) {
+
+		long bytes = ENTRY_OVERHEAD + 2L * key.length();
+
+		for (String name : cached.subdirectories)
+			bytes += NAME_OVERHEAD + 2L * name.length();
+
+		return bytes;
+	}
+
+	private static String key(Path directory) {
+		return directory.toAbsolutePath().normalize().toString();
+	}
+
+	private static String fileKey(BasicFileAttributes attributes) {
+		return attributes.fileKey() == null ? null : attributes.fileKey().toString();
+	}
+
+	/**
+	 * Conteúdo direto do diretório, guardado junto com a identificação do
+	 * diretório no momento da leitura.
+	 */
+	private static final class CachedDirectory {
+
+		private final long lastModified;
+		private final String fileKey;
+		private final long bytes;
+		private final long files;
+		private final String[] subdirectories;
+
+		private CachedDirectory(long lastModified, String fileKey, long bytes, long files, String[] subdirectories) {
+			this.lastModified = lastModified;
+			this.fileKey = fileKey;
+			this.bytes = bytes;
+			this.files = files;
+			this.subdirectories = subdirectories;
+		}
+
+		private boolean matches(BasicFileAttributes attributes) {
+			return lastModified == attributes.lastModifiedTime().toMillis()
+					&& Objects.equals(fileKey, DirectorySizeCache.fileKey(attributes));
+		}
+
+	}// class CachedDirectory
+
+}// class DirectorySizeCache
@@ -0,0 +1,194 @@
+package model;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.DirectorySizeTask.SizeListener;
+import model.DirectorySnapshot.Entry;
+
+/**
+ * A classe DirectorySizeCalculator calcula o tamanho total de diretórios,
+ * dividindo o trabalho por subdiretório entre as threads de um
+ * {@link ForkJoinPool}.
+ *
+ * O pool criado pelo próprio calculador é encerrado por {@link #close()}; um
+ * pool recebido pelo construtor pertence a quem o criou e não é encerrado.
+ */
+public class DirectorySizeCalculator implements AutoCloseable {
+
+	/** Ordem das entradas de mesmo tamanho no relatório de espaço. */
+	private static final Comparator<Entry> BY_PATH = Comparator.comparing(Entry::getPath);
+
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+
+	/**
+	 * Cria um calculador que utiliza o pool comum do fork-join.
+	 */
+	public DirectorySizeCalculator() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Cria um calculador com um pool próprio, encerrado por {@link #close()}.
+	 *
+	 * @param parallelism a quantidade de threads do pool
+	 */
+	public DirectorySizeCalculator(int parallelism) {
+		this(new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Cria um calculador que utiliza o pool informado. O pool continua sob a
+	 * responsabilidade de quem o criou.
+	 *
+	 * @param pool o pool onde as tarefas serão executadas
+	 */
+	public DirectorySizeCalculator(ForkJoinPool pool) {
+		this(pool, false);
+	}
+
+	private DirectorySizeCalculator(ForkJoinPool pool, boolean ownsPool) {
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	/**
+	 * Calcula o tamanho do diretório, incluindo todos os seus arquivos e
+	 * subdiretórios. Se o próprio diretório for um link simbólico, o link é
+	 * seguido; os links dentro dele não são. Se a thread que aguarda o resultado
+	 * for interrompida, o cálculo é cancelado em todas as threads do pool.
+	 *
+	 * @param directory o diretório
+	 * @return o total de bytes, arquivos e subdiretórios
+	 * @throws CancellationException se a thread for interrompida durante o cálculo
+	 */
+	public DirectorySize calculate(Path directory) {
+		return calculate(directory, null);
+	}
+
+	/**
+	 * Calcula o relatório de espaço do diretório: o tamanho total e os maiores
+	 * arquivos e subdiretórios, obtidos na mesma passagem pela árvore.
+	 *
+	 * @param directory o diretório
+	 * @param limit     a quantidade de arquivos e de subdiretórios do relatório
+	 * @return o relatório de espaço
+	 * @throws CancellationException se a thread for interrompida durante o cálculo
+	 */
+	public SpaceReport report(Path directory, int limit) {
+		return report(directory, limit, null);
+	}
+
+	/**
+	 * Calcula o relatório de espaço, repassando o total e o conteúdo direto de
+	 * cada diretório a outro ouvinte.
+	 *
+	 * @param directory   o diretório
+	 * @param limit       a quantidade de arquivos e de subdiretórios do relatório
+	 * @param directories quem também recebe os diretórios, ou null
+	 * @return o relatório de espaço
+	 */
+	SpaceReport report(Path directory, int limit, SizeListener directories) {
+
+		LargestEntries<Entry> largestFiles = new LargestEntries<>(limit, Entry::getSize, BY_PATH);
+		LargestEntries<Entry> largestDirectories = new LargestEntries<>(limit, Entry::getSize, BY_PATH);
+
+		DirectorySize size = calculate(directory, new SizeListener() {
+
+			@Override
+			public void file(Path file, BasicFileAttributes attributes) {
+				offer(largestFiles, file, attributes, attributes.size());
+			}
+
+			@Override
+			public void directory(Path subdirectory, BasicFileAttributes attributes, DirectorySize total) {
+
+				offer(largestDirectories, subdirectory, attributes, total.getBytes());
+
+				if (directories != null)
+					directories.directory(subdirectory, attributes, total);
+			}
+
+			@Override
+			public void contents(Path subdirectory, BasicFileAttributes attributes, DirectorySize contents,
+					String[] subdirectories) {
+
+				if (directories != null)
+					directories.contents(subdirectory, attributes, contents, subdirectories);
+			}
+		});
+
+		return new SpaceReport(directory, size, largestFiles.toList(), largestDirectories.toList());
+	}
+
+	/**
+	 * Oferece uma entrada do relatório de espaço, criando-a somente se ela
+	 * estiver entre as maiores até agora.
+	 *
+	 * @param size o tamanho considerado, que nos diretórios é o total da
+	 *             subárvore
+	 */
+	private static void offer(LargestEntries<Entry> largest, Path path, BasicFileAttributes attributes, long size) {
+
+		if (largest.accepts(size))
+			largest.offer(new Entry(path, path.getFileName().toString(), attributes.isDirectory(), size,
+					attributes.lastModifiedTime().toMillis()));
+	}
+
+	/**
+	 * Calcula o tamanho do diretório, informando os arquivos e subdiretórios ao
+	 * ouvinte.
+	 *
+	 * @param directory o diretório
+	 * @param listener  quem recebe os arquivos e subdiretórios, ou null
+	 * @return o total de bytes, arquivos e subdiretórios
+	 * @throws CancellationException se a thread for interrompida durante o cálculo
+	 */
+	DirectorySize calculate(Path directory, SizeListener listener) {
+
+		if (!Files.isDirectory(directory))
+			return DirectorySize.EMPTY;
+
+		AtomicBoolean cancelled = new AtomicBoolean();
+		DirectorySizeTask task = new DirectorySizeTask(directory, null, cancelled, listener);
+
+		pool.execute(task);
+
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			cancelled.set(true);
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Obtém o pool utilizado pelo calculador.
+	 *
+	 * @return o pool fork-join
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Encerra o pool, se ele foi criado pelo calculador. Os cálculos em
+	 * andamento terminam normalmente.
+	 */
+	@Override
+	public void close() {
+		if (ownsPool)
+			pool.shutdown();
+	}
+
+}// class DirectorySizeCalculator
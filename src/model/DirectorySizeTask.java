@@ -0,0 +1,189 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tarefa fork-join que calcula o tamanho de um diretório. Cada tarefa lê
+ * somente o próprio diretório, obtendo os atributos das entradas na mesma
+ * passagem, e cria uma nova tarefa para cada subdiretório encontrado.
+ *
+ * Links simbólicos não são seguidos, evitando ciclos e contagem duplicada. A
+ * única exceção é o diretório inicial: se ele for um link, a tarefa lê o
+ * diretório apontado, mas as entradas continuam sob o caminho do link.
+ *
+ * Todas as tarefas de um mesmo cálculo compartilham um sinal de cancelamento;
+ * quando ele é ativado, as tarefas pendentes terminam sem ler o disco.
+ *
+ * Um {@link SizeListener} opcional recebe, na mesma passagem, cada arquivo
+ * encontrado e o total de cada subdiretório, permitindo montar relatórios sem
+ * percorrer a árvore outra vez.
+ */
+class DirectorySizeTask extends RecursiveTask<DirectorySize> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Recebe os arquivos e os subdiretórios calculados. Os métodos são chamados
+	 * pelas threads do pool, ao mesmo tempo.
+	 */
+	interface SizeListener {
+
+		/**
+		 * Chamado para cada arquivo regular encontrado.
+		 *
+		 * @param file       o arquivo
+		 * @param attributes os atributos do arquivo
+		 */
+		default void file(Path file, BasicFileAttributes attributes) {
+		}
+
+		/**
+		 * Chamado com o total de cada subdiretório, depois que toda a sua subárvore
+		 * foi calculada. Não é chamado para o diretório inicial nem depois de um
+		 * cancelamento.
+		 *
+		 * @param directory  o subdiretório
+		 * @param attributes os atributos do subdiretório
+		 * @param size       o total da subárvore
+		 */
+		default void directory(Path directory, BasicFileAttributes attributes, DirectorySize size) {
+		}
+
+		/**
+		 * Chamado com o conteúdo direto de cada diretório lido por completo,
+		 * inclusive o inicial, antes que as subárvores sejam calculadas.
+		 *
+		 * @param directory      o diretório
+		 * @param attributes     os atributos do diretório, ou null para o diretório
+		 *                       inicial
+		 * @param contents       os bytes e a quantidade dos arquivos e a quantidade
+		 *                       de subdiretórios, sem contar as subárvores
+		 * @param subdirectories os nomes dos subdiretórios
+		 */
+		default void contents(Path directory, BasicFileAttributes attributes, DirectorySize contents,
+				String[] subdirectories) {
+		}
+	}
+
+	private final Path directory;
+	private final BasicFileAttributes attributes;
+	private final AtomicBoolean cancelled;
+	private final SizeListener listener;
+
+	/**
+	 * Construtor da classe DirectorySizeTask.
+	 *
+	 * @param directory o diretório a ser calculado
+	 * @param cancelled o sinal de cancelamento do cálculo
+	 */
+	DirectorySizeTask(Path directory, AtomicBoolean cancelled) {
+		this(directory, null, cancelled, null);
+	}
+
+	/**
+	 * Construtor da classe DirectorySizeTask com um ouvinte.
+	 *
+	 * @param directory  o diretório a ser calculado
+	 * @param attributes os atributos do diretório, ou null para o diretório
+	 *                   inicial
+	 * @param cancelled  o sinal de cancelamento do cálculo
+	 * @param listener   quem recebe os arquivos e subdiretórios, ou null
+	 */
+	DirectorySizeTask(Path directory, BasicFileAttributes attributes, AtomicBoolean cancelled,
+			SizeListener listener) {
+		this.directory = directory;
+		this.attributes = attributes;
+		this.cancelled = cancelled;
+		this.listener = listener;
+	}
+
+	@Override
+	protected DirectorySize compute() {
+
+		if (cancelled.get())
+			return DirectorySize.EMPTY;
+
+		List<DirectorySizeTask> subtasks = new ArrayList<>();
+
+		// Bytes, arquivos, subdiretórios e entradas lidas
+		long[] totals = new long[4];
+
+		try {
+			Path start = attributes == null && Files.isSymbolicLink(directory) ? directory.toRealPath() : directory;
+
+			Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult visitFile(Path entry, BasicFileAttributes attributes) {
+
+					if (cancelled.get())
+						return FileVisitResult.TERMINATE;
+
+					Path file = start == directory ? entry : directory.resolve(entry.getFileName());
+
+					totals[3]++;
+
+					if (attributes.isDirectory()) {
+
+						DirectorySizeTask subtask = new DirectorySizeTask(file, attributes, cancelled, listener);
+						subtask.fork();
+						subtasks.add(subtask);
+						totals[2]++;
+
+					} else if (attributes.isRegularFile()) {
+						totals[0] += attributes.size();
+						totals[1]++;
+
+						if (listener != null)
+							listener.file(file, attributes);
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			// Diretórios sem permissão de leitura contam como vazios
+		}
+
+		// Cada entrada e o próprio diretório têm os atributos lidos uma vez
+		Metrics.countEntries(totals[3]);
+		Metrics.countStatCalls(totals[3] + 1);
+
+		DirectorySize size = new DirectorySize(totals[0], totals[1], totals[2]);
+
+		if (listener != null && !cancelled.get()) {
+
+			String[] names = new String[subtasks.size()];
+
+			for (int index = 0; index < names.length; index++)
+				names[index] = subtasks.get(index).directory.getFileName().toString();
+
+			listener.contents(directory, attributes, size, names);
+		}
+
+		for (DirectorySizeTask subtask : subtasks)
+			size = size.plus(subtask.join());
+
+		if (listener != null && attributes != null && !cancelled.get())
+			listener.directory(directory, attributes, size);
+
+		return size;
+	}
+
+}// class DirectorySizeTask
@@ -0,0 +1,638 @@
+package model;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+import util.SortKey;
+
+/**
+ * A classe DirectorySnapshot representa uma fotografia imutável do conteúdo de
+ * um diretório. Ela é construída com uma única leitura do diretório, guardando
+ * nome, tipo, tamanho e data de modificação de cada entrada, de modo que as
+ * consultas seguintes não precisem acessar o disco novamente.
+ *
+ * As entradas são guardadas em colunas, em um {@link EntryStore} ordenado por
+ * nome, e não como objetos. As listas de {@link Entry} devolvidas são visões
+ * que criam cada entrada somente quando ela é consultada, de modo que um
+ * diretório com milhões de entradas ocupa poucos bytes por entrada enquanto a
+ * fotografia existir.
+ */
+public final class DirectorySnapshot {
+
+	private final Path directory;
+	private final EntryStore store;
+	private final EntryOrders orders;
+	private final ExtensionHistogram histogram = new ExtensionHistogram();
+
+	private final List<Entry> entries;
+	private final List<Entry> files;
+	private final List<Entry> subdirectories;
+
+	/**
+	 * Construtor privado. Recebe as entradas já ordenadas por nome.
+	 *
+	 * @param directory o diretório lido
+	 * @param store     as entradas do diretório ordenadas por nome
+	 */
+	private DirectorySnapshot(Path directory, EntryStore store) {
+
+		this.directory = directory;
+		this.store = store;
+		this.orders = new EntryOrders(store);
+
+		int subdirectoryCount = 0;
+
+		// A mesma passagem que conta os subdiretórios monta o histograma das extensões
+		for (int index = 0; index < store.size(); index++)
+			if (store.isDirectory(index))
+				subdirectoryCount++;
+			else
+				store.countExtension(index, histogram);
+
+		int[] fileIndices = new int[store.size() - subdirectoryCount];
+		int[] subdirectoryIndices = new int[subdirectoryCount];
+		int fileCount = 0;
+
+		subdirectoryCount = 0;
+
+		for (int index = 0; index < store.size(); index++) {
+			if (store.isDirectory(index))
+				subdirectoryIndices[subdirectoryCount++] = index;
+			else
+				fileIndices[fileCount++] = index;
+		}
+
+		this.entries = new EntryList(null, store.size());
+		this.files = new EntryList(fileIndices, fileCount);
+		this.subdirectories = new EntryList(subdirectoryIndices, subdirectoryCount);
+	}
+
+	/**
+	 * Lê o diretório uma única vez, obtendo os atributos de cada entrada na mesma
+	 * passagem. Entradas que não são arquivos regulares nem diretórios (links
+	 * quebrados, sockets, etc.) são ignoradas. A leitura é abandonada se a thread
+	 * for interrompida.
+	 *
+	 * @param directory o diretório a ser lido
+	 * @return a fotografia do diretório
+	 * @throws IOException se o diretório não puder ser lido
+	 */
+	public static DirectorySnapshot read(Path directory) throws IOException {
+
+		EntryStore.Builder builder = new EntryStore.Builder(256);
+
+		scan(directory, builder::add);
+
+		return new DirectorySnapshot(directory, builder.build().sortByName());
+	}
+
+	/**
+	 * Lê o diretório entregando cada entrada assim que ela é encontrada, sem
+	 * guardá-las nem ordená-las. Usado quando o conteúdo só precisa ser percorrido
+	 * uma vez. A leitura é abandonada se a thread for interrompida.
+	 *
+	 * @param directory o diretório a ser lido
+	 * @param action    recebe cada entrada, na ordem do sistema de arquivos
+	 * @throws IOException se o diretório não puder ser lido
+	 */
+	public static void scan(Path directory, Consumer<Entry> action) throws IOException {
+
+		long entries = 0;
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+
+			for (Path path : stream) {
+
+				if (Thread.currentThread().isInterrupted())
+					throw new InterruptedIOException();
+
+				entries++;
+				Entry entry = Entry.read(path);
+
+				if (entry != null)
+					action.accept(entry);
+			}
+		} finally {
+			Metrics.countEntries(entries);
+		}
+	}
+
+	/**
+	 * Cria uma nova fotografia aplicando alterações a esta, sem ler novamente o
+	 * diretório. As entradas alteradas são localizadas por busca binária, e as
+	 * demais são copiadas das colunas atuais sem serem decodificadas.
+	 *
+	 * @param removed os nomes das entradas removidas
+	 * @param updated as entradas criadas ou modificadas
+	 * @return a nova fotografia
+	 */
+	public DirectorySnapshot apply(Set<String> removed, Collection<Entry> updated) {
+
+		Map<String, Entry> changes = new LinkedHashMap<>();
+
+		for (Entry entry : updated)
+			changes.put(entry.getName(), entry);
+
+		boolean[] dropped = new boolean[store.size()];
+
+		for (String name : removed)
+			drop(dropped, name);
+
+		EntryStore.Builder changed = new EntryStore.Builder(changes.size());
+
+		for (Entry entry : changes.values()) {
+			drop(dropped, entry.getName());
+			changed.add(entry);
+		}
+
+		EntryStore created = changed.build().sortByName();
+		EntryStore.Builder merged = new EntryStore.Builder(store.size() + created.size());
+
+		int i = 0;
+		int j = 0;
+
+		while (i < store.size() || j < created.size()) {
+
+			if (i < store.size() && dropped[i]) {
+				i++;
+			} else if (j == created.size()
+					|| (i < store.size() && EntryStore.compareNames(store, i, created, j) <= 0)) {
+				merged.add(store, i++);
+			} else {
+				merged.add(created, j++);
+			}
+		}
+
+		return new DirectorySnapshot(directory, merged.build());
+	}
+
+	private void drop(boolean[] dropped, String name) {
+
+		int index = store.find(name);
+
+		if (index >= 0)
+			dropped[index] = true;
+	}
+
+	/**
+	 * Obtém o diretório representado por esta fotografia.
+	 *
+	 * @return o caminho do diretório
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Obtém a quantidade de arquivos e o total em bytes de cada extensão presente
+	 * no diretório.
+	 *
+	 * @return o histograma das extensões
+	 */
+	public ExtensionHistogram getExtensionHistogram() {
+		return histogram;
+	}
+
+	/**
+	 * Obtém todas as entradas (arquivos e subdiretórios) ordenadas por nome.
+	 *
+	 * @return uma lista imutável de entradas
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Obtém somente os arquivos, ordenados por nome.
+	 *
+	 * @return uma lista imutável de arquivos
+	 */
+	public List<Entry> getFiles() {
+		return files;
+	}
+
+	/**
+	 * Obtém somente os subdiretórios, ordenados por nome.
+	 *
+	 * @return uma lista imutável de subdiretórios
+	 */
+	public List<Entry> getSubdirectories() {
+		return subdirectories;
+	}
+
+	/**
+	 * Obtém todas as entradas ordenadas pelo critério informado. A ordem é
+	 * calculada na primeira chamada com o critério e reaproveitada nas seguintes.
+	 *
+	 * @param key           o critério de ordenação
+	 * @param withExtension se false, a ordem por nome considera o nome dos
+	 *                      arquivos sem a extensão
+	 * @param descending    se true, a ordem é invertida
+	 * @return uma lista imutável de entradas
+	 */
+	public List<Entry> sorted(SortKey key, boolean withExtension, boolean descending) {
+
+		int[] order = getOrder(key, withExtension);
+
+		if (!descending)
+			return view(order, order.length);
+
+		int[] reversed = new int[order.length];
+
+		for (int position = 0; position < order.length; position++)
+			reversed[position] = order[order.length - 1 - position];
+
+		return view(reversed, reversed.length);
+	}
+
+	/**
+	 * Obtém as posições das entradas em ordem crescente do critério.
+	 *
+	 * @param key           o critério de ordenação
+	 * @param withExtension se false, a ordem por nome considera o nome dos
+	 *                      arquivos sem a extensão
+	 * @return as posições ordenadas; o vetor é compartilhado e não deve ser
+	 *         alterado
+	 */
+	int[] getOrder(SortKey key, boolean withExtension) {
+		return orders.get(key, withExtension);
+	}
+
+	/**
+	 * Verifica se a ordem do critério já foi calculada.
+	 *
+	 * @param key           o critério de ordenação
+	 * @param withExtension se false, a ordem por nome desconsidera a extensão
+	 * @return true se a ordem já estiver calculada
+	 */
+	boolean hasOrder(SortKey key, boolean withExtension) {
+		return orders.has(key, withExtension);
+	}
+
+	/**
+	 * Obtém as posições das primeiras entradas aceitas na ordem do critério, sem
+	 * calcular a ordem completa.
+	 *
+	 * @param key           o critério de ordenação
+	 * @param withExtension se false, a ordem por nome desconsidera a extensão
+	 * @param descending    se true, a ordem é invertida
+	 * @param accepted      as entradas consideradas
+	 * @param limit         a quantidade máxima de entradas
+	 * @return as posições ordenadas
+	 */
+	int[] first(SortKey key, boolean withExtension, boolean descending, IntPredicate accepted, int limit) {
+		return orders.first(key, withExtension, descending, accepted, limit);
+	}
+
+	/**
+	 * Obtém a quantidade de entradas.
+	 *
+	 * @return a quantidade de entradas
+	 */
+	int size() {
+		return store.size();
+	}
+
+	/**
+	 * Obtém o nome da entrada na posição informada, sem criar a entrada.
+	 *
+	 * @param index a posição da entrada, na ordem por nome
+	 * @return o nome da entrada
+	 */
+	String getName(int index) {
+		return store.getName(index);
+	}
+
+	boolean isDirectory(int index) {
+		return store.isDirectory(index);
+	}
+
+	/**
+	 * Obtém o nome exibido da entrada na posição informada, sem criar a entrada.
+	 *
+	 * @param index         a posição da entrada, na ordem por nome
+	 * @param withExtension se true, o nome de um arquivo incluirá sua extensão
+	 * @return o nome a ser exibido
+	 */
+	String getDisplayName(int index, boolean withExtension) {
+
+		String name = store.getName(index);
+
+		return withExtension || store.isDirectory(index) ? name : Entry.removeExtension(name);
+	}
+
+	/**
+	 * Estima a memória ocupada pelas entradas.
+	 *
+	 * @return a memória estimada, em bytes
+	 */
+	public long estimateBytes() {
+		return store.estimateBytes();
+	}
+
+	/**
+	 * Cria uma lista com as entradas das posições informadas, na mesma ordem.
+	 *
+	 * @param indices as posições das entradas, na ordem por nome
+	 * @param count   a quantidade de posições usadas
+	 * @return uma lista imutável de entradas
+	 */
+	List<Entry> view(int[] indices, int count) {
+		return new EntryList(indices, count);
+	}
+
+	/**
+	 * Lista de entradas que cria cada entrada a partir das colunas somente quando
+	 * ela é consultada.
+	 */
+	private final class EntryList extends AbstractList<Entry> implements RandomAccess {
+
+		/** Posições das entradas no armazenamento, ou null para todas. */
+		private final int[] indices;
+		private final int size;
+
+		EntryList(int[] indices, int size) {
+			this.indices = indices;
+			this.size = size;
+		}
+
+		@Override
+		public Entry get(int position) {
+
+			if (position < 0 || position >= size)
+				throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+
+			int index = indices == null ? position : indices[position];
+
+			return new Entry(null, directory, store.getName(index), store.isDirectory(index), store.getSize(index),
+					store.getLastModified(index));
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * Representa uma entrada do diretório com os atributos lidos no momento da
+	 * fotografia.
+	 */
+	public static final class Entry {
+
+		/** Diretório da entrada, quando o caminho ainda não foi montado. */
+		private final Path parent;
+		private final String name;
+		private final boolean directory;
+		private final long size;
+		private final long lastModified;
+
+		/** Se true, os atributos vieram de um índice e podem estar desatualizados. */
+		private final boolean indexed;
+
+		/** Montado somente na primeira consulta nas entradas criadas pelas visões. */
+		private Path path;
+
+		/**
+		 * Cria uma entrada a partir do caminho e dos atributos lidos.
+		 *
+		 * @param path       o caminho da entrada
+		 * @param attributes os atributos da entrada
+		 */
+		private Entry(Path path, BasicFileAttributes attributes) {
+			this(path, null, path.getFileName().toString(), attributes.isDirectory(), attributes.size(),
+					attributes.lastModifiedTime().toMillis());
+		}
+
+		/**
+		 * Cria uma entrada a partir de valores já conhecidos, como os guardados em
+		 * um índice.
+		 *
+		 * @param path         o caminho da entrada
+		 * @param name         o nome da entrada
+		 * @param directory    se true, a entrada é um diretório
+		 * @param size         o tamanho em bytes
+		 * @param lastModified a data da última modificação, em milissegundos
+		 */
+		Entry(Path path, String name, boolean directory, long size, long lastModified) {
+			this(path, null, name, directory, size, lastModified, false);
+		}
+
+		/**
+		 * Cria uma entrada com o caminho já montado ou, se ele for null, com o
+		 * diretório a partir do qual ele será montado.
+		 */
+		private Entry(Path path, Path parent, String name, boolean directory, long size, long lastModified) {
+			this(path, parent, name, directory, size, lastModified, false);
+		}
+
+		private Entry(Path path, Path parent, String name, boolean directory, long size, long lastModified,
+				boolean indexed) {
+			this.path = path;
+			this.parent = parent;
+			this.name = name;
+			this.directory = directory;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.indexed = indexed;
+		}
+
+		/**
+		 * Cria uma entrada com os atributos guardados em um {@link NameIndex}, que
+		 * são lidos novamente por {@link #current()}.
+		 *
+		 * @param path         o caminho da entrada
+		 * @param name         o nome da entrada
+		 * @param directory    se true, a entrada é um diretório
+		 * @param size         o tamanho em bytes registrado no índice
+		 * @param lastModified a data da última modificação registrada no índice
+		 * @return a entrada
+		 */
+		static Entry indexed(Path path, String name, boolean directory, long size, long lastModified) {
+			return new Entry(path, null, name, directory, size, lastModified, true);
+		}
+
+		/**
+		 * Lê os atributos do caminho e cria a entrada correspondente.
+		 *
+		 * @param path o caminho da entrada
+		 * @return a entrada, ou null se o caminho não existir ou não for um arquivo
+		 *         regular nem um diretório
+		 */
+		static Entry read(Path path) {
+
+			BasicFileAttributes attributes;
+
+			Metrics.countStatCalls(1);
+
+			try {
+				attributes = Files.readAttributes(path, BasicFileAttributes.class);
+			} catch (IOException e) {
+				return null;
+			}
+
+			return of(path, attributes);
+		}
+
+		/**
+		 * Cria a entrada a partir de atributos já lidos.
+		 *
+		 * @param path       o caminho da entrada
+		 * @param attributes os atributos da entrada
+		 * @return a entrada, ou null se o caminho não for um arquivo regular nem um
+		 *         diretório
+		 */
+		static Entry of(Path path, BasicFileAttributes attributes) {
+
+			if (attributes.isRegularFile() || attributes.isDirectory())
+				return new Entry(path, attributes);
+
+			return null;
+		}
+
+		public Path getPath() {
+
+			Path resolved = path;
+
+			if (resolved == null)
+				path = resolved = parent.resolve(name);
+
+			return resolved;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Obtém o nome a ser exibido para a entrada. Nomes de diretórios são sempre
+		 * exibidos completos.
+		 *
+		 * @param withExtension se true, o nome do arquivo incluirá sua extensão
+		 * @return o nome a ser exibido
+		 */
+		public String getDisplayName(boolean withExtension) {
+			return withExtension || directory ? name : removeExtension(name);
+		}
+
+		/**
+		 * Obtém o nome a ser exibido precedido pelo caminho relativo a um diretório
+		 * ancestral, como nos resultados de uma busca recursiva.
+		 *
+		 * @param root          o diretório ancestral
+		 * @param withExtension se true, o nome do arquivo incluirá sua extensão
+		 * @return o caminho relativo, com o nome exibido ao final
+		 */
+		public String getRelativeName(Path root, boolean withExtension) {
+
+			Path relative = root.relativize(getPath()).getParent();
+			String displayName = getDisplayName(withExtension);
+
+			return relative == null ? displayName
+					: relative.toString() + getPath().getFileSystem().getSeparator() + displayName;
+		}
+
+		/**
+		 * Remove a extensão do nome do arquivo.
+		 *
+		 * @param fileName o nome do arquivo
+		 * @return o nome do arquivo sem a extensão
+		 */
+		static String removeExtension(String fileName) {
+			int lastDotIndex = fileName.lastIndexOf('.');
+			if (lastDotIndex == -1 || lastDotIndex == 0)
+				return fileName;
+
+			return fileName.substring(0, lastDotIndex);
+		}
+
+		/**
+		 * Verifica se os atributos da entrada vieram de um índice. O tamanho e a
+		 * data de um arquivo indexado podem ter mudado sem que o índice perceba.
+		 *
+		 * @return true se a entrada foi criada a partir de um índice
+		 */
+		public boolean isIndexed() {
+			return indexed;
+		}
+
+		/**
+		 * Obtém a entrada com os atributos atuais. Entradas de um índice são lidas
+		 * novamente do disco; as demais são devolvidas sem alteração.
+		 *
+		 * @return a entrada atual, ou null se o caminho não existir mais ou não for
+		 *         um arquivo regular nem um diretório
+		 */
+		public Entry current() {
+			return indexed ? read(getPath()) : this;
+		}
+
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		public boolean isFile() {
+			return !directory;
+		}
+
+		/**
+		 * Obtém o tamanho registrado pelo sistema de arquivos. Para diretórios, este
+		 * valor não inclui o conteúdo.
+		 *
+		 * @return o tamanho em bytes
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * Obtém a data da última modificação em milissegundos desde a época.
+		 *
+		 * @return a data da última modificação
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * Duas entradas são iguais quando têm o mesmo caminho, tipo, tamanho e data
+		 * de modificação, ainda que tenham sido criadas em consultas diferentes à
+		 * mesma fotografia.
+		 */
+		@Override
+		public boolean equals(Object object) {
+
+			if (this == object)
+				return true;
+
+			if (!(object instanceof Entry))
+				return false;
+
+			Entry other = (Entry) object;
+
+			return directory == other.directory && size == other.size && lastModified == other.lastModified
+					&& name.equals(other.name) && getPath().equals(other.getPath());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(name, size, lastModified);
+		}
+
+	}// class Entry
+
+}// class DirectorySnapshot
@@ -0,0 +1,142 @@
+package model;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A classe DirectoryWatcher observa as alterações feitas diretamente em um
+ * diretório (criação, remoção e modificação de entradas) por meio de um
+ * {@link WatchService}.
+ *
+ * Os eventos são agrupados: depois do primeiro evento, o observador aguarda um
+ * breve período sem alterações (limitado a um tempo máximo) e entrega de uma vez
+ * todos os caminhos alterados. Assim, diretórios que mudam constantemente geram
+ * poucas notificações.
+ */
+public class DirectoryWatcher implements Closeable {
+
+	/** Tempo sem eventos que encerra um grupo, em milissegundos. */
+	private static final long QUIET_PERIOD = 300;
+
+	/** Tempo máximo de espera de um grupo, em milissegundos. */
+	private static final long MAX_DELAY = 2_000;
+
+	/**
+	 * Recebe as alterações observadas. Os métodos são chamados na thread do
+	 * observador.
+	 */
+	public interface Listener {
+
+		/**
+		 * Chamado com os caminhos que foram criados, removidos ou modificados.
+		 *
+		 * @param paths os caminhos alterados
+		 */
+		void changed(Set<Path> paths);
+
+		/**
+		 * Chamado quando eventos foram perdidos ou o diretório deixou de ser
+		 * observável; o diretório deve ser lido novamente por completo.
+		 */
+		void overflowed();
+	}
+
+	private final Path directory;
+	private final Listener listener;
+	private final WatchService service;
+
+	/**
+	 * Inicia a observação do diretório em uma thread própria.
+	 *
+	 * @param directory o diretório observado
+	 * @param listener  quem recebe as alterações
+	 * @throws IOException se o diretório não puder ser observado
+	 */
+	public DirectoryWatcher(Path directory, Listener listener) throws IOException {
+
+		this.directory = directory;
+		this.listener = listener;
+
+		service = directory.getFileSystem().newWatchService();
+
+		try {
+			directory.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+		} catch (IOException e) {
+			service.close();
+			throw e;
+		}
+
+		Thread thread = new Thread(this::run, "DirectoryWatcher " + directory);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Laço da thread do observador.
+	 */
+	private void run() {
+
+		try {
+			boolean valid = true;
+
+			while (valid) {
+
+				WatchKey key = service.take();
+
+				Set<Path> changes = new HashSet<>();
+				boolean overflow = false;
+
+				long deadline = System.currentTimeMillis() + MAX_DELAY;
+
+				while (key != null) {
+
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == OVERFLOW)
+							overflow = true;
+						else
+							changes.add(directory.resolve((Path) event.context()));
+					}
+
+					if (!key.reset()) {
+						valid = false;
+						overflow = true;
+						break;
+					}
+
+					long remaining = deadline - System.currentTimeMillis();
+					key = remaining > 0 ? service.poll(Math.min(QUIET_PERIOD, remaining), TimeUnit.MILLISECONDS)
+							: null;
+				}
+
+				if (overflow)
+					listener.overflowed();
+				else if (!changes.isEmpty())
+					listener.changed(changes);
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// Observação encerrada
+		}
+	}
+
+	/**
+	 * Encerra a observação do diretório.
+	 */
+	@Override
+	public void close() throws IOException {
+		service.close();
+	}
+
+}// class DirectoryWatcher
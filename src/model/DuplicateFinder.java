@@ -0,0 +1,467 @@
+package model;
+
+import static util.Constants.FORMAT_DUPLICATES_GROUP;
+import static util.Constants.FORMAT_DUPLICATES_SUMMARY;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.DirectorySnapshot.Entry;
+import util.Extension;
+
+/**
+ * A classe DuplicateFinder procura arquivos com o mesmo conteúdo em toda a
+ * árvore abaixo de um diretório.
+ *
+ * A comparação é feita em etapas, cada uma mais cara e aplicada a menos
+ * arquivos que a anterior:
+ * <ol>
+ * <li>os arquivos são agrupados pelo tamanho, lido durante a busca na árvore, e
+ * tamanhos únicos são descartados sem abrir nenhum arquivo;</li>
+ * <li>nos grupos restantes, os links físicos para um mesmo arquivo são
+ * reduzidos a um único caminho, pois não ocupam espaço duplicado;</li>
+ * <li>é calculado o resumo dos primeiros e dos últimos {@value #EDGE_SIZE}
+ * bytes, lidos por leituras posicionais;</li>
+ * <li>somente os arquivos que continuam empatados são lidos por inteiro.
+ * Arquivos de até duas vezes {@value #EDGE_SIZE} bytes já foram lidos por
+ * inteiro na etapa anterior e não passam por esta.</li>
+ * </ol>
+ *
+ * Os resumos (SHA-256) são calculados em paralelo, mas a quantidade de leituras
+ * simultâneas do disco é limitada, para que discos lentos não sejam
+ * sobrecarregados por acessos concorrentes. Arquivos vazios, links simbólicos e
+ * arquivos que não puderem ser lidos são ignorados.
+ */
+public class DuplicateFinder {
+
+	/** Tamanho de cada extremidade lida na comparação parcial. */
+	public static final int EDGE_SIZE = 64 * 1024;
+
+	/** Leituras simultâneas padrão. */
+	public static final int DEFAULT_IO_CONCURRENCY = 4;
+
+	private static final int READ_BUFFER_SIZE = 256 * 1024;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final int parallelism;
+	private final Semaphore reads;
+
+	private final AtomicLong scannedFiles = new AtomicLong();
+	private final AtomicLong partialHashes = new AtomicLong();
+	private final AtomicLong fullHashes = new AtomicLong();
+
+	/**
+	 * Cria um buscador com uma thread por processador e
+	 * {@value #DEFAULT_IO_CONCURRENCY} leituras simultâneas.
+	 */
+	public DuplicateFinder() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_IO_CONCURRENCY);
+	}
+
+	/**
+	 * Construtor da classe DuplicateFinder.
+	 *
+	 * @param parallelism   a quantidade de threads que calculam os resumos
+	 * @param ioConcurrency a quantidade máxima de leituras simultâneas
+	 */
+	public DuplicateFinder(int parallelism, int ioConcurrency) {
+		this.parallelism = parallelism;
+		this.reads = new Semaphore(ioConcurrency);
+	}
+
+	/**
+	 * Procura os arquivos duplicados na árvore do diretório.
+	 *
+	 * @param root o diretório raiz
+	 * @return os grupos de arquivos com o mesmo conteúdo, do que desperdiça mais
+	 *         espaço para o que desperdiça menos
+	 * @throws CancellationException se a thread for interrompida
+	 */
+	public List<DuplicateGroup> find(Path root) {
+
+		partialHashes.set(0);
+		fullHashes.set(0);
+
+		List<DuplicateGroup> bySize = groupBySize(root);
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "DuplicateFinder " + root);
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			List<DuplicateGroup> duplicates = new ArrayList<>();
+			List<DuplicateGroup> pending = new ArrayList<>();
+
+			// Até duas vezes EDGE_SIZE, o resumo parcial já cobre o arquivo inteiro
+			for (DuplicateGroup group : split(executor, bySize, this::partialHash)) {
+				if (group.getSize() <= 2L * EDGE_SIZE)
+					duplicates.add(group);
+				else
+					pending.add(group);
+			}
+
+			duplicates.addAll(split(executor, pending, this::fullHash));
+
+			duplicates.sort(Comparator.comparingLong(DuplicateGroup::getWastedBytes).reversed()
+					.thenComparing(group -> group.getFiles().get(0)));
+
+			return duplicates;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Monta o relatório dos grupos encontrados na última busca, no formato
+	 * exibido na área de propriedades.
+	 *
+	 * @param duplicates os grupos retornados por {@link #find(Path)}
+	 * @return o relatório
+	 */
+	public String formatReport(List<DuplicateGroup> duplicates) {
+
+		long wasted = 0;
+
+		for (DuplicateGroup group : duplicates)
+			wasted += group.getWastedBytes();
+
+		StringBuilder report = new StringBuilder(256 + duplicates.size() * 128);
+
+		report.append(String.format(FORMAT_DUPLICATES_SUMMARY, getScannedFiles(), duplicates.size(), wasted));
+
+		for (DuplicateGroup group : duplicates) {
+
+			report.append(String.format(FORMAT_DUPLICATES_GROUP, group.getFiles().size(), group.getSize(),
+					group.getHash()));
+
+			for (Path file : group.getFiles())
+				report.append(" - ").append(file).append('\n');
+		}
+
+		return report.toString();
+	}
+
+	/**
+	 * Obtém a quantidade de arquivos não vazios encontrados na última busca.
+	 *
+	 * @return a quantidade de arquivos
+	 */
+	public long getScannedFiles() {
+		return scannedFiles.get();
+	}
+
+	/**
+	 * Obtém a quantidade de arquivos comparados pelo início e pelo fim.
+	 *
+	 * @return a quantidade de resumos parciais
+	 */
+	public long getPartialHashes() {
+		return partialHashes.get();
+	}
+
+	/**
+	 * Obtém a quantidade de arquivos lidos por inteiro.
+	 *
+	 * @return a quantidade de resumos completos
+	 */
+	public long getFullHashes() {
+		return fullHashes.get();
+	}
+
+	/**
+	 * Percorre a árvore em paralelo, agrupando os arquivos pelo tamanho. Somente
+	 * os tamanhos com mais de um arquivo distinto são mantidos. A busca usa um pool
+	 * próprio, encerrado no fim, porque as suas tarefas ficam bloqueadas enquanto
+	 * a fila de resultados está cheia.
+	 */
+	private List<DuplicateGroup> groupBySize(Path root) {
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		RecursiveSearch search = new RecursiveSearch(root, null, Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH,
+				false, RecursiveSearch.DEFAULT_CAPACITY, pool).start();
+
+		Map<Long, List<Path>> bySize = new HashMap<>();
+		List<Entry> batch = new ArrayList<>();
+		long scanned = 0;
+
+		try {
+			while (!search.isExhausted()) {
+
+				batch.clear();
+				search.drainTo(batch, 100, TimeUnit.MILLISECONDS);
+
+				for (Entry entry : batch) {
+					if (entry.isFile() && entry.getSize() > 0) {
+						bySize.computeIfAbsent(entry.getSize(), size -> new ArrayList<>(2)).add(entry.getPath());
+						scanned++;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		} finally {
+			search.cancel();
+			pool.shutdown();
+		}
+
+		scannedFiles.set(scanned);
+
+		List<DuplicateGroup> groups = new ArrayList<>();
+
+		for (Map.Entry<Long, List<Path>> group : bySize.entrySet()) {
+
+			List<Path> files = group.getValue();
+
+			if (files.size() > 1)
+				files = removeLinks(files);
+
+			if (files.size() > 1)
+				groups.add(new DuplicateGroup(group.getKey(), null, files));
+		}
+
+		return groups;
+	}
+
+	/**
+	 * Mantém um único caminho, o menor, para cada arquivo identificado pelo
+	 * {@link BasicFileAttributes#fileKey()}. Links físicos compartilham o
+	 * conteúdo e não seriam duplicados de verdade. Sem identificador, o caminho é
+	 * mantido; caminhos que não puderem ser lidos são descartados.
+	 */
+	private static List<Path> removeLinks(List<Path> files) {
+
+		Collections.sort(files);
+
+		List<Path> distinct = new ArrayList<>(files.size());
+		Set<Object> keys = new HashSet<>();
+
+		for (Path file : files) {
+
+			Object key;
+
+			try {
+				key = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).fileKey();
+			} catch (IOException e) {
+				continue;
+			}
+
+			if (key == null || keys.add(key))
+				distinct.add(file);
+		}
+
+		return distinct;
+	}
+
+	/**
+	 * Calcula o resumo de todos os arquivos dos grupos em paralelo e divide cada
+	 * grupo pelos resumos obtidos, descartando os arquivos sem par.
+	 */
+	private List<DuplicateGroup> split(ExecutorService executor, List<DuplicateGroup> groups, Hasher hasher) {
+
+		List<Future<String>> hashes = new ArrayList<>();
+
+		for (DuplicateGroup group : groups)
+			for (Path file : group.getFiles())
+				hashes.add(executor.submit((Callable<String>) () -> hasher.hash(file)));
+
+		List<DuplicateGroup> result = new ArrayList<>();
+		int next = 0;
+
+		try {
+			for (DuplicateGroup group : groups) {
+
+				Map<String, List<Path>> byHash = new LinkedHashMap<>();
+
+				for (Path file : group.getFiles()) {
+
+					String hash = hashes.get(next++).get();
+
+					if (hash != null)
+						byHash.computeIfAbsent(hash, key -> new ArrayList<>(2)).add(file);
+				}
+
+				for (Map.Entry<String, List<Path>> same : byHash.entrySet()) {
+					if (same.getValue().size() > 1) {
+						Collections.sort(same.getValue());
+						result.add(new DuplicateGroup(group.getSize(), same.getKey(), same.getValue()));
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			for (Future<String> hash : hashes)
+				hash.cancel(true);
+
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Calcula o resumo do início e do fim do arquivo, lidos por leituras
+	 * posicionais em um mesmo buffer, sem mapear o arquivo: regiões mapeadas só
+	 * seriam liberadas pelo coletor de lixo. Em arquivos pequenos as duas regiões
+	 * cobrem o arquivo inteiro.
+	 *
+	 * @return o resumo em hexadecimal, ou null se o arquivo não puder ser lido
+	 */
+	private String partialHash(Path file) throws InterruptedException {
+
+		MessageDigest digest = newDigest();
+		ByteBuffer buffer = ByteBuffer.allocate(EDGE_SIZE);
+
+		reads.acquire();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+			long size = channel.size();
+			long head = Math.min(size, EDGE_SIZE);
+			long tailStart = Math.max(head, size - EDGE_SIZE);
+
+			digestRegion(channel, 0, head, buffer, digest);
+
+			if (tailStart < size)
+				digestRegion(channel, tailStart, size - tailStart, buffer, digest);
+		} catch (IOException e) {
+			return null;
+		} finally {
+			reads.release();
+		}
+
+		partialHashes.incrementAndGet();
+
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Calcula o resumo do arquivo inteiro. A permissão de leitura é mantida apenas
+	 * durante cada leitura; o resumo de um bloco é calculado enquanto outras
+	 * threads leem.
+	 *
+	 * @return o resumo em hexadecimal, ou null se o arquivo não puder ser lido
+	 */
+	private String fullHash(Path file) throws InterruptedException {
+
+		MessageDigest digest = newDigest();
+		ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+			while (true) {
+
+				if (Thread.currentThread().isInterrupted())
+					throw new InterruptedException();
+
+				int read;
+
+				reads.acquire();
+
+				try {
+					read = channel.read(buffer);
+				} finally {
+					reads.release();
+				}
+
+				if (read < 0)
+					break;
+
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+
+		fullHashes.incrementAndGet();
+
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Lê uma região do arquivo, de até o tamanho do buffer, e a acrescenta ao
+	 * resumo.
+	 *
+	 * @throws IOException se a leitura falhar ou o arquivo terminar antes da
+	 *                     região
+	 */
+	private static void digestRegion(FileChannel channel, long position, long length, ByteBuffer buffer,
+			MessageDigest digest) throws IOException {
+
+		buffer.clear().limit((int) length);
+
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new EOFException();
+
+		buffer.flip();
+		digest.update(buffer);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Toda implementação do Java é obrigada a oferecer SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Converte os bytes de um resumo para hexadecimal, em minúsculas.
+	 */
+	static String toHex(byte[] bytes) {
+
+		char[] chars = new char[bytes.length * 2];
+
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+
+		return new String(chars);
+	}
+
+	/**
+	 * Calcula o resumo de um arquivo em uma das etapas.
+	 */
+	private interface Hasher {
+		String hash(Path file) throws InterruptedException;
+	}
+
+}// class DuplicateFinder
@@ -0,0 +1,57 @@
+package model;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A classe DuplicateGroup representa um grupo de arquivos com o mesmo conteúdo,
+ * encontrado pelo {@link DuplicateFinder}.
+ */
+public final class DuplicateGroup {
+
+	private final long size;
+	private final String hash;
+	private final List<Path> files;
+
+	/**
+	 * Construtor da classe DuplicateGroup.
+	 *
+	 * @param size  o tamanho de cada arquivo, em bytes
+	 * @param hash  o resumo SHA-256 do conteúdo, em hexadecimal, ou null se o
+	 *              conteúdo ainda não foi comparado
+	 * @param files os arquivos com o mesmo conteúdo
+	 */
+	public DuplicateGroup(long size, String hash, List<Path> files) {
+		this.size = size;
+		this.hash = hash;
+		this.files = Collections.unmodifiableList(files);
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public String getHash() {
+		return hash;
+	}
+
+	public List<Path> getFiles() {
+		return files;
+	}
+
+	/**
+	 * Obtém o espaço que seria liberado mantendo somente uma cópia.
+	 *
+	 * @return o total de bytes das cópias excedentes
+	 */
+	public long getWastedBytes() {
+		return size * (files.size() - 1);
+	}
+
+	@Override
+	public String toString() {
+		return "DuplicateGroup [size=" + size + ", hash=" + hash + ", files=" + files + "]";
+	}
+
+}// class DuplicateGroup
@@ -0,0 +1,487 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import util.SortKey;
+
+/**
+ * A classe EntryOrders calcula e guarda as ordens das entradas de uma
+ * fotografia para cada {@link SortKey}. Cada ordem é calculada uma única vez,
+ * na primeira listagem que a usa; as listagens seguintes, em qualquer sentido,
+ * apenas percorrem a ordem guardada.
+ *
+ * A ordem por nome compara chaves de ordenação montadas uma vez por entrada:
+ * os nomes em minúsculas, com cada sequência de dígitos precedida pela sua
+ * quantidade de dígitos significativos, de modo que "arquivo2" venha antes de
+ * "arquivo10". As demais ordens usam o nome como critério de desempate:
+ * tamanho, data e extensão são convertidos em postos e combinados com o posto
+ * do nome em um único {@code long} por entrada, e o vetor de primitivos é
+ * ordenado com {@link Arrays#parallelSort(long[])}.
+ *
+ * Enquanto uma ordem ainda não foi calculada, as primeiras entradas dela podem
+ * ser obtidas sem montar as chaves de todas as entradas: {@link #first} compara
+ * os nomes diretamente, caractere a caractere, e mantém somente as melhores
+ * entradas encontradas até o momento.
+ */
+final class EntryOrders {
+
+	/** Separa a chave de ordenação da posição da entrada; vem antes de todos os caracteres da chave. */
+	private static final char SEPARATOR = '\u0000';
+
+	private final EntryStore store;
+
+	/** Ordens calculadas, por critério; a última é a do nome sem extensão. */
+	private final int[][] orders = new int[SortKey.values().length + 1][];
+
+	/** Posto de cada entrada na ordem por nome com extensão. */
+	private int[] nameRanks;
+
+	/**
+	 * Construtor da classe EntryOrders.
+	 *
+	 * @param store as entradas da fotografia
+	 */
+	EntryOrders(EntryStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * Obtém as posições das entradas em ordem crescente do critério.
+	 *
+	 * @param key           o critério
+	 * @param withExtension se false, a ordem por nome considera o nome dos
+	 *                      arquivos sem a extensão
+	 * @return as posições ordenadas; o vetor é compartilhado e não deve ser
+	 *         alterado
+	 */
+	synchronized int[] get(SortKey key, boolean withExtension) {
+
+		int slot = key == SortKey.NAME && !withExtension ? orders.length - 1 : key.ordinal();
+
+		if (orders[slot] == null)
+			orders[slot] = compute(key, withExtension);
+
+		return orders[slot];
+	}
+
+	/**
+	 * Verifica se a ordem do critério já foi calculada.
+	 *
+	 * @param key           o critério
+	 * @param withExtension se false, a ordem por nome desconsidera a extensão
+	 * @return true se {@link #get(SortKey, boolean)} não precisar ordenar
+	 */
+	synchronized boolean has(SortKey key, boolean withExtension) {
+		return orders[key == SortKey.NAME && !withExtension ? orders.length - 1 : key.ordinal()] != null;
+	}
+
+	/**
+	 * Obtém as primeiras entradas aceitas na ordem do critério, as mesmas e na
+	 * mesma ordem que o início de {@link #get(SortKey, boolean)}, sem calcular a
+	 * ordem completa. As entradas são selecionadas em uma única passagem por um
+	 * heap limitado à quantidade pedida.
+	 *
+	 * @param key           o critério
+	 * @param withExtension se false, a ordem por nome desconsidera a extensão
+	 * @param descending    se true, a ordem é invertida
+	 * @param accepted      as entradas consideradas
+	 * @param limit         a quantidade máxima de entradas
+	 * @return as posições das primeiras entradas, ordenadas
+	 */
+	int[] first(SortKey key, boolean withExtension, boolean descending, IntPredicate accepted, int limit) {
+
+		EntryStore.IndexComparator ascending = comparator(key, withExtension);
+		EntryStore.IndexComparator comparator = descending ? (a, b) -> ascending.compare(b, a) : ascending;
+
+		// Heap de máximo: a raiz é a pior entre as selecionadas
+		int[] heap = new int[limit];
+		int size = 0;
+
+		for (int index = 0; index < store.size(); index++) {
+
+			if (!accepted.test(index))
+				continue;
+
+			if (size < limit) {
+				heap[size] = index;
+				siftUp(heap, size++, comparator);
+			} else if (limit > 0 && comparator.compare(index, heap[0]) < 0) {
+				heap[0] = index;
+				siftDown(heap, size, comparator);
+			}
+		}
+
+		int[] selected = Arrays.copyOf(heap, size);
+		EntryStore.sort(selected, comparator);
+
+		return selected;
+	}
+
+	/**
+	 * Obtém a comparação equivalente à ordem calculada por {@link #compute}: o
+	 * critério e, no empate, o nome e a posição.
+	 */
+	private EntryStore.IndexComparator comparator(SortKey key, boolean withExtension) {
+
+		CollationCursor first = new CollationCursor();
+		CollationCursor second = new CollationCursor();
+		boolean extension = withExtension || key != SortKey.NAME;
+
+		EntryStore.IndexComparator byName = (a, b) -> {
+
+			int result = first.reset(name(a, extension)).compareTo(second.reset(name(b, extension)));
+
+			return result != 0 ? result : Integer.compare(a, b);
+		};
+
+		switch (key) {
+
+		case NAME:
+			return byName;
+
+		case EXTENSION:
+			return (a, b) -> {
+				int result = extension(a).compareTo(extension(b));
+				return result != 0 ? result : byName.compare(a, b);
+			};
+
+		default:
+			long[] values = values(key);
+
+			return (a, b) -> {
+				int result = Long.compare(values[a], values[b]);
+				return result != 0 ? result : byName.compare(a, b);
+			};
+		}
+	}
+
+	private String name(int index, boolean withExtension) {
+
+		String name = store.getName(index);
+
+		return withExtension || store.isDirectory(index) ? name : DirectorySnapshot.Entry.removeExtension(name);
+	}
+
+	private String extension(int index) {
+		return store.isDirectory(index) ? "" : extension(store.getName(index));
+	}
+
+	private static void siftUp(int[] heap, int position, EntryStore.IndexComparator comparator) {
+
+		int value = heap[position];
+
+		while (position > 0) {
+
+			int parent = (position - 1) >>> 1;
+
+			if (comparator.compare(heap[parent], value) >= 0)
+				break;
+
+			heap[position] = heap[parent];
+			position = parent;
+		}
+
+		heap[position] = value;
+	}
+
+	private static void siftDown(int[] heap, int size, EntryStore.IndexComparator comparator) {
+
+		int value = heap[0];
+		int position = 0;
+
+		for (int child; (child = 2 * position + 1) < size; position = child) {
+
+			if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0)
+				child++;
+
+			if (comparator.compare(heap[child], value) <= 0)
+				break;
+
+			heap[position] = heap[child];
+		}
+
+		heap[position] = value;
+	}
+
+	private int[] compute(SortKey key, boolean withExtension) {
+
+		if (key == SortKey.NAME)
+			return sortByName(withExtension);
+
+		int count = store.size();
+		int[] ranks = key == SortKey.EXTENSION ? extensionRanks() : ranks(values(key));
+		int[] byName = get(SortKey.NAME, true);
+
+		// Posto do critério nos 32 bits altos e posto do nome nos baixos: a ordem dos
+		// valores é a ordem desejada, e o posto do nome identifica a entrada
+		long[] packed = new long[count];
+
+		for (int index = 0; index < count; index++)
+			packed[index] = (long) ranks[index] << 32 | nameRanks[index];
+
+		Arrays.parallelSort(packed);
+
+		int[] order = new int[count];
+
+		for (int position = 0; position < count; position++)
+			order[position] = byName[(int) packed[position]];
+
+		return order;
+	}
+
+	/**
+	 * Ordena as entradas pelas chaves de ordenação dos nomes. A posição de cada
+	 * entrada é acrescentada ao fim da chave, o que torna as chaves distintas e
+	 * permite ordenar as próprias Strings em paralelo, sem comparador.
+	 */
+	private int[] sortByName(boolean withExtension) {
+
+		int count = store.size();
+		String[] keys = new String[count];
+		StringBuilder builder = new StringBuilder();
+
+		for (int index = 0; index < count; index++) {
+
+			String name = store.getName(index);
+
+			if (!withExtension && !store.isDirectory(index))
+				name = DirectorySnapshot.Entry.removeExtension(name);
+
+			builder.setLength(0);
+			appendCollationKey(builder, name);
+			builder.append(SEPARATOR).append((char) (index >>> 16)).append((char) index);
+
+			keys[index] = builder.toString();
+		}
+
+		Arrays.parallelSort(keys);
+
+		int[] order = new int[count];
+
+		for (int position = 0; position < count; position++) {
+			String key = keys[position];
+			order[position] = key.charAt(key.length() - 2) << 16 | key.charAt(key.length() - 1);
+		}
+
+		if (withExtension) {
+
+			nameRanks = new int[count];
+
+			for (int position = 0; position < count; position++)
+				nameRanks[order[position]] = position;
+		}
+
+		return order;
+	}
+
+	/**
+	 * Acrescenta a chave de ordenação do nome: os caracteres em minúsculas e cada
+	 * sequência de dígitos sem os zeros à esquerda, precedida pela quantidade de
+	 * dígitos. Sequências mais longas representam números maiores, e as de mesmo
+	 * tamanho são comparadas dígito a dígito. Como a quantidade é um caractere de
+	 * controle, números vêm antes de letras.
+	 *
+	 * @param builder o destino
+	 * @param name    o nome
+	 */
+	static void appendCollationKey(StringBuilder builder, String name) {
+
+		int length = name.length();
+
+		for (int i = 0; i < length;) {
+
+			char c = name.charAt(i);
+
+			if (c < '0' || c > '9') {
+				builder.append(Character.toLowerCase(c));
+				i++;
+				continue;
+			}
+
+			int start = i;
+
+			while (i < length && name.charAt(i) >= '0' && name.charAt(i) <= '9')
+				i++;
+
+			int significant = start;
+
+			while (significant < i - 1 && name.charAt(significant) == '0')
+				significant++;
+
+			builder.append((char) (i - significant)).append(name, significant, i);
+		}
+	}
+
+	/**
+	 * Percorre a chave de ordenação de um nome, como montada por
+	 * {@link EntryOrders#appendCollationKey(StringBuilder, String)}, sem criá-la.
+	 */
+	private static final class CollationCursor {
+
+		private String name;
+		private int position;
+
+		/** Fim da sequência de dígitos em andamento, ou -1 fora de uma sequência. */
+		private int digitsEnd;
+
+		/** Quantidade de dígitos ainda não informada no início da sequência. */
+		private int pendingLength;
+
+		CollationCursor reset(String name) {
+			this.name = name;
+			position = 0;
+			digitsEnd = -1;
+			pendingLength = 0;
+			return this;
+		}
+
+		/**
+		 * Obtém o próximo caractere da chave.
+		 *
+		 * @return o caractere, ou -1 no fim do nome
+		 */
+		int next() {
+
+			if (pendingLength > 0) {
+				int length = pendingLength;
+				pendingLength = 0;
+				return length;
+			}
+
+			if (position < digitsEnd)
+				return name.charAt(position++);
+
+			digitsEnd = -1;
+
+			if (position >= name.length())
+				return -1;
+
+			char c = name.charAt(position);
+
+			if (c < '0' || c > '9') {
+				position++;
+				return Character.toLowerCase(c);
+			}
+
+			int end = position;
+
+			while (end < name.length() && name.charAt(end) >= '0' && name.charAt(end) <= '9')
+				end++;
+
+			while (position < end - 1 && name.charAt(position) == '0')
+				position++;
+
+			digitsEnd = end;
+			pendingLength = end - position;
+
+			return next();
+		}
+
+		/**
+		 * Compara as chaves dos dois nomes. Como na chave completa, um nome que é
+		 * prefixo do outro vem antes, pois o separador precede todos os caracteres.
+		 */
+		int compareTo(CollationCursor other) {
+
+			while (true) {
+
+				int a = next();
+				int b = other.next();
+
+				if (a != b)
+					return a < 0 ? -1 : b < 0 ? 1 : Integer.compare(a, b);
+
+				if (a < 0)
+					return 0;
+			}
+		}
+
+	}// class CollationCursor
+
+	/**
+	 * Obtém o valor numérico do critério para cada entrada.
+	 */
+	private long[] values(SortKey key) {
+
+		long[] values = new long[store.size()];
+
+		for (int index = 0; index < values.length; index++) {
+
+			if (key == SortKey.LAST_MODIFIED)
+				values[index] = store.getLastModified(index);
+			else
+				// O tamanho de um diretório não inclui o conteúdo; eles ficam juntos, antes dos arquivos
+				values[index] = store.isDirectory(index) ? -1 : store.getSize(index);
+		}
+
+		return values;
+	}
+
+	/**
+	 * Converte valores nos seus postos entre os valores distintos, ordenando uma
+	 * cópia dos valores em paralelo.
+	 */
+	private static int[] ranks(long[] values) {
+
+		long[] distinct = values.clone();
+		Arrays.parallelSort(distinct);
+
+		int size = 0;
+
+		for (int index = 0; index < distinct.length; index++)
+			if (size == 0 || distinct[size - 1] != distinct[index])
+				distinct[size++] = distinct[index];
+
+		int[] ranks = new int[values.length];
+
+		for (int index = 0; index < values.length; index++)
+			ranks[index] = Arrays.binarySearch(distinct, 0, size, values[index]);
+
+		return ranks;
+	}
+
+	/**
+	 * Obtém o posto da extensão de cada entrada, em minúsculas. Subdiretórios e
+	 * arquivos sem extensão têm a extensão vazia, que vem primeiro.
+	 */
+	private int[] extensionRanks() {
+
+		int count = store.size();
+		String[] extensions = new String[count];
+		Map<String, Integer> distinct = new HashMap<>();
+
+		for (int index = 0; index < count; index++) {
+			extensions[index] = store.isDirectory(index) ? "" : extension(store.getName(index));
+			distinct.putIfAbsent(extensions[index], 0);
+		}
+
+		String[] sorted = distinct.keySet().toArray(new String[0]);
+		Arrays.sort(sorted);
+
+		for (int rank = 0; rank < sorted.length; rank++)
+			distinct.put(sorted[rank], rank);
+
+		int[] ranks = new int[count];
+
+		for (int index = 0; index < count; index++)
+			ranks[index] = distinct.get(extensions[index]);
+
+		return ranks;
+	}
+
+	/**
+	 * Obtém a extensão do nome em minúsculas, seguindo a mesma regra de
+	 * {@link DirectorySnapshot.Entry#getDisplayName(boolean)}.
+	 */
+	private static String extension(String name) {
+
+		int dot = name.lastIndexOf('.');
+
+		return dot <= 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+	}
+
+}// class EntryOrders
@@ -0,0 +1,366 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A classe EntryStore guarda as entradas de um diretório em colunas, sem um
+ * objeto por entrada: os nomes ficam juntos em um único vetor de bytes UTF-8,
+ * indicado por deslocamentos, tamanhos e datas ficam em vetores de
+ * {@code long}, e os diretórios são marcados em um {@link BitSet}. Cada entrada
+ * ocupa cerca de 20 bytes além do próprio nome, contra mais de 150 bytes de um
+ * {@link DirectorySnapshot.Entry} com seu {@code Path} e sua String.
+ *
+ * A ordenação é feita sobre um vetor de índices, sem mover objetos. Os nomes
+ * são comparados byte a byte, o que em UTF-8 equivale à ordem dos pontos de
+ * código (idêntica à ordem de {@link String#compareTo(String)}, exceto entre
+ * caracteres fora do plano básico e os caracteres de U+E000 a U+FFFF).
+ *
+ * O armazenamento é imutável; é criado por um {@link Builder}.
+ */
+final class EntryStore {
+
+	/** Compara duas entradas pela posição. */
+	interface IndexComparator {
+
+		int compare(int a, int b);
+	}
+
+	/** Abaixo deste tamanho, a ordenação por intercalação usa inserção direta. */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private final byte[] names;
+	private final int[] nameStart;
+	private final long[] sizes;
+	private final long[] modified;
+	private final BitSet directories;
+	private final int count;
+
+	private EntryStore(byte[] names, int[] nameStart, long[] sizes, long[] modified, BitSet directories, int count) {
+		this.names = names;
+		this.nameStart = nameStart;
+		this.sizes = sizes;
+		this.modified = modified;
+		this.directories = directories;
+		this.count = count;
+	}
+
+	/**
+	 * Obtém a quantidade de entradas.
+	 *
+	 * @return a quantidade de entradas
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Obtém o nome da entrada, decodificado em uma nova String.
+	 *
+	 * @param index a posição da entrada
+	 * @return o nome da entrada
+	 */
+	String getName(int index) {
+		return new String(names, nameStart[index], nameStart[index + 1] - nameStart[index], StandardCharsets.UTF_8);
+	}
+
+	boolean isDirectory(int index) {
+		return directories.get(index);
+	}
+
+	/**
+	 * Conta a entrada no histograma de extensões, sem decodificar o nome.
+	 *
+	 * @param index     a posição da entrada
+	 * @param histogram o histograma
+	 */
+	void countExtension(int index, ExtensionHistogram histogram) {
+		histogram.add(names, nameStart[index], nameStart[index + 1], sizes[index]);
+	}
+
+	long getSize(int index) {
+		return sizes[index];
+	}
+
+	long getLastModified(int index) {
+		return modified[index];
+	}
+
+	/**
+	 * Compara os nomes de duas entradas, byte a byte e sem decodificá-los.
+	 *
+	 * @param a a posição da primeira entrada
+	 * @param b a posição da segunda entrada
+	 * @return negativo, zero ou positivo, como em {@link Comparable}
+	 */
+	int compareNames(int a, int b) {
+		return compareNames(this, a, this, b);
+	}
+
+	/**
+	 * Compara os nomes de entradas de dois armazenamentos, byte a byte.
+	 *
+	 * @param first  o primeiro armazenamento
+	 * @param a      a posição da entrada no primeiro armazenamento
+	 * @param second o segundo armazenamento
+	 * @param b      a posição da entrada no segundo armazenamento
+	 * @return negativo, zero ou positivo, como em {@link Comparable}
+	 */
+	static int compareNames(EntryStore first, int a, EntryStore second, int b) {
+		return compare(first.names, first.nameStart[a], first.nameStart[a + 1], second.names, second.nameStart[b],
+				second.nameStart[b + 1]);
+	}
+
+	/**
+	 * Compara o nome de uma entrada com um nome já codificado em UTF-8.
+	 *
+	 * @param index a posição da entrada
+	 * @param name  o nome codificado
+	 * @return negativo, zero ou positivo, como em {@link Comparable}
+	 */
+	int compareName(int index, byte[] name) {
+		return compare(names, nameStart[index], nameStart[index + 1], name, 0, name.length);
+	}
+
+	/**
+	 * Procura a entrada com o nome informado, supondo as entradas ordenadas por
+	 * nome.
+	 *
+	 * @param name o nome procurado
+	 * @return a posição da entrada, ou -1 se não houver
+	 */
+	int find(String name) {
+
+		byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = count - 1;
+
+		while (low <= high) {
+
+			int middle = (low + high) >>> 1;
+			int comparison = compareName(middle, encoded);
+
+			if (comparison < 0)
+				low = middle + 1;
+			else if (comparison > 0)
+				high = middle - 1;
+			else
+				return middle;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Cria uma cópia com as entradas ordenadas por nome. Somente um vetor de
+	 * índices é ordenado; as colunas são copiadas uma única vez, já na nova ordem.
+	 *
+	 * @return as entradas ordenadas
+	 */
+	EntryStore sortByName() {
+
+		int[] order = new int[count];
+
+		for (int index = 0; index < count; index++)
+			order[index] = index;
+
+		sort(order, this::compareNames);
+
+		Builder builder = new Builder(count, names.length);
+
+		for (int index : order)
+			builder.add(this, index);
+
+		return builder.build();
+	}
+
+	/**
+	 * Estima a memória ocupada pelas colunas.
+	 *
+	 * @return a memória estimada, em bytes
+	 */
+	long estimateBytes() {
+		return names.length + 4L * nameStart.length + 8L * sizes.length + 8L * modified.length
+				+ directories.size() / 8;
+	}
+
+	/**
+	 * Ordena um vetor de índices por intercalação, de forma estável, sem criar
+	 * objetos além de um vetor auxiliar.
+	 *
+	 * @param order      os índices a serem ordenados
+	 * @param comparator a comparação entre dois índices
+	 */
+	static void sort(int[] order, IndexComparator comparator) {
+		sort(order, 0, order.length, comparator);
+	}
+
+	/**
+	 * Ordena um trecho do vetor de índices.
+	 *
+	 * @param order      os índices
+	 * @param from       o início do trecho, inclusivo
+	 * @param to         o fim do trecho, exclusivo
+	 * @param comparator a comparação entre dois índices
+	 */
+	static void sort(int[] order, int from, int to, IndexComparator comparator) {
+
+		int[] buffer = Arrays.copyOfRange(order, from, to);
+		mergeSort(buffer, order, from, to, -from, comparator);
+	}
+
+	/**
+	 * Ordena {@code target[from, to)}, usando {@code source} (deslocado de
+	 * {@code offset}) com o mesmo conteúdo como área auxiliar.
+	 */
+	private static void mergeSort(int[] source, int[] target, int from, int to, int offset,
+			IndexComparator comparator) {
+
+		int length = to - from;
+
+		if (length < INSERTION_SORT_THRESHOLD) {
+
+			for (int i = from + 1; i < to; i++) {
+
+				int value = target[i];
+				int j = i;
+
+				for (; j > from && comparator.compare(target[j - 1], value) > 0; j--)
+					target[j] = target[j - 1];
+
+				target[j] = value;
+			}
+
+			return;
+		}
+
+		int middle = (from + to) >>> 1;
+
+		// As metades são ordenadas em source, que é então intercalado em target
+		mergeSort(target, source, from + offset, middle + offset, -offset, comparator);
+		mergeSort(target, source, middle + offset, to + offset, -offset, comparator);
+
+		int left = from + offset;
+		int leftEnd = middle + offset;
+		int right = leftEnd;
+		int rightEnd = to + offset;
+
+		for (int i = from; i < to; i++) {
+			if (right >= rightEnd || (left < leftEnd && comparator.compare(source[left], source[right]) <= 0))
+				target[i] = source[left++];
+			else
+				target[i] = source[right++];
+		}
+	}
+
+	private static int compare(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+
+		int length = Math.min(aTo - aFrom, bTo - bFrom);
+
+		for (int i = 0; i < length; i++) {
+
+			int difference = (a[aFrom + i] & 0xFF) - (b[bFrom + i] & 0xFF);
+
+			if (difference != 0)
+				return difference;
+		}
+
+		return (aTo - aFrom) - (bTo - bFrom);
+	}
+
+	/**
+	 * Monta um {@link EntryStore}, aumentando as colunas à medida que as entradas
+	 * são adicionadas.
+	 */
+	static final class Builder {
+
+		private byte[] names;
+		private int[] nameStart;
+		private long[] sizes;
+		private long[] modified;
+		private final BitSet directories = new BitSet();
+		private int count;
+		private int nameLength;
+
+		/**
+		 * Construtor do Builder.
+		 *
+		 * @param capacity a quantidade de entradas esperada
+		 */
+		Builder(int capacity) {
+			this(capacity, capacity * 16);
+		}
+
+		private Builder(int capacity, int nameCapacity) {
+
+			capacity = Math.max(capacity, 1);
+
+			names = new byte[Math.max(nameCapacity, 16)];
+			nameStart = new int[capacity + 1];
+			sizes = new long[capacity];
+			modified = new long[capacity];
+		}
+
+		/**
+		 * Adiciona uma entrada.
+		 *
+		 * @param entry a entrada
+		 */
+		void add(DirectorySnapshot.Entry entry) {
+			add(entry.getName().getBytes(StandardCharsets.UTF_8), 0, -1, entry.isDirectory(), entry.getSize(),
+					entry.getLastModified());
+		}
+
+		/**
+		 * Adiciona uma entrada de outro armazenamento, copiando o nome sem
+		 * decodificá-lo.
+		 *
+		 * @param store o armazenamento de origem
+		 * @param index a posição da entrada na origem
+		 */
+		void add(EntryStore store, int index) {
+			add(store.names, store.nameStart[index], store.nameStart[index + 1], store.isDirectory(index),
+					store.sizes[index], store.modified[index]);
+		}
+
+		/**
+		 * Adiciona um nome já codificado. Um fim negativo indica o vetor inteiro.
+		 */
+		void add(byte[] name, int from, int to, boolean directory, long size, long lastModified) {
+
+			int length = (to < 0 ? name.length : to) - from;
+
+			if (count == sizes.length) {
+				int capacity = count * 2;
+				nameStart = Arrays.copyOf(nameStart, capacity + 1);
+				sizes = Arrays.copyOf(sizes, capacity);
+				modified = Arrays.copyOf(modified, capacity);
+			}
+
+			if (nameLength + length > names.length)
+				names = Arrays.copyOf(names, Math.max(names.length * 2, nameLength + length));
+
+			System.arraycopy(name, from, names, nameLength, length);
+			nameLength += length;
+
+			if (directory)
+				directories.set(count);
+
+			sizes[count] = size;
+			modified[count] = lastModified;
+			nameStart[++count] = nameLength;
+		}
+
+		/**
+		 * Cria o armazenamento com as colunas reduzidas à quantidade de entradas.
+		 *
+		 * @return o armazenamento
+		 */
+		EntryStore build() {
+			return new EntryStore(Arrays.copyOf(names, nameLength), Arrays.copyOf(nameStart, count + 1),
+					Arrays.copyOf(sizes, count), Arrays.copyOf(modified, count), (BitSet) directories.clone(), count);
+		}
+	}
+
+}// class EntryStore
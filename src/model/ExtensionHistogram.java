@@ -0,0 +1,225 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+import util.ExtensionMatcher;
+
+/**
+ * A classe ExtensionHistogram conta os arquivos de um diretório e soma os seus
+ * tamanhos por extensão, para que a lista de tipos ofereça as extensões que de
+ * fato existem no diretório.
+ *
+ * As extensões são procuradas em uma tabela de endereçamento aberto cuja chave
+ * são os próprios bytes do nome, após o último ponto, sem diferenciar
+ * maiúsculas e minúsculas pela mesma regra de {@link ExtensionMatcher}. Uma
+ * extensão em ASCII não é decodificada nem copiada: somente a primeira
+ * ocorrência de cada extensão guarda uma cópia dos bytes, de modo que contar um
+ * milhão de arquivos com poucas extensões não aloca memória por arquivo. As
+ * raras extensões com outros caracteres são decodificadas para serem
+ * convertidas. Arquivos sem extensão são contados sob a extensão vazia.
+ */
+public final class ExtensionHistogram {
+
+	/** Posição de cada extensão nas colunas, mais 1; 0 indica posição livre. */
+	private int[] table = new int[16];
+
+	private byte[][] keys = new byte[8][];
+	private int[] hashes = new int[8];
+	private int[] counts = new int[8];
+	private long[] bytes = new long[8];
+	private int size;
+
+	/**
+	 * Conta um arquivo.
+	 *
+	 * @param name   o vetor com o nome do arquivo em UTF-8
+	 * @param from   o início do nome, inclusivo
+	 * @param to     o fim do nome, exclusivo
+	 * @param length o tamanho do arquivo em bytes
+	 */
+	void add(byte[] name, int from, int to, long length) {
+
+		int start = suffixStart(name, from, to);
+
+		for (int index = start; index < to; index++)
+			if (name[index] < 0) {
+				byte[] key = ExtensionMatcher.lowerCase(new String(name, start, to - start, StandardCharsets.UTF_8))
+						.getBytes(StandardCharsets.UTF_8);
+				count(key, 0, key.length, length);
+				return;
+			}
+
+		count(name, start, to, length);
+	}
+
+	/**
+	 * Conta um arquivo sob a extensão do trecho do vetor, convertendo somente as
+	 * letras maiúsculas do ASCII.
+	 */
+	private void count(byte[] name, int start, int to, long length) {
+
+		int hash = 0;
+
+		for (int index = start; index < to; index++)
+			hash = 31 * hash + lowerCase(name[index]);
+
+		int mask = table.length - 1;
+		int slot = mix(hash) & mask;
+
+		for (int bucket; (bucket = table[slot]) != 0; slot = (slot + 1) & mask) {
+
+			if (hashes[bucket - 1] == hash && keyEquals(keys[bucket - 1], name, start, to)) {
+				counts[bucket - 1]++;
+				bytes[bucket - 1] += length;
+				return;
+			}
+		}
+
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			hashes = Arrays.copyOf(hashes, size * 2);
+			counts = Arrays.copyOf(counts, size * 2);
+			bytes = Arrays.copyOf(bytes, size * 2);
+		}
+
+		byte[] key = new byte[to - start];
+
+		for (int index = 0; index < key.length; index++)
+			key[index] = lowerCase(name[start + index]);
+
+		keys[size] = key;
+		hashes[size] = hash;
+		counts[size] = 1;
+		bytes[size] = length;
+		table[slot] = ++size;
+
+		// Mantém a tabela no máximo meio cheia, para que as sondagens sejam curtas
+		if (size * 2 > table.length)
+			rehash(table.length * 2);
+	}
+
+	/**
+	 * Obtém a quantidade de extensões diferentes, incluindo a extensão vazia se
+	 * houver arquivos sem extensão.
+	 *
+	 * @return a quantidade de extensões
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Obtém a extensão como ela é comparada, em minúsculas e sem o ponto: é a
+	 * extensão que deve ser usada para filtrar os arquivos.
+	 *
+	 * @param index a posição da extensão, de 0 a {@link #size()} - 1
+	 * @return a extensão, ou uma String vazia para os arquivos sem extensão
+	 */
+	public String getKey(int index) {
+		return new String(keys[index], StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Obtém a extensão em maiúsculas, somente para exibição.
+	 *
+	 * @param index a posição da extensão, de 0 a {@link #size()} - 1
+	 * @return a extensão, ou uma String vazia para os arquivos sem extensão
+	 */
+	public String getExtension(int index) {
+		return getKey(index).toUpperCase(Locale.ROOT);
+	}
+
+	public int getCount(int index) {
+		return counts[index];
+	}
+
+	/**
+	 * Obtém a soma dos tamanhos dos arquivos com a extensão.
+	 *
+	 * @param index a posição da extensão
+	 * @return o total em bytes
+	 */
+	public long getBytes(int index) {
+		return bytes[index];
+	}
+
+	/**
+	 * Obtém as posições das extensões da mais frequente para a menos frequente;
+	 * extensões com a mesma quantidade de arquivos ficam em ordem alfabética.
+	 *
+	 * @return as posições ordenadas
+	 */
+	public int[] byCount() {
+
+		int[] order = new int[size];
+		String[] names = new String[size];
+
+		for (int index = 0; index < size; index++) {
+			order[index] = index;
+			names[index] = getExtension(index);
+		}
+
+		EntryStore.sort(order, (a, b) -> counts[a] != counts[b] ? Integer.compare(counts[b], counts[a])
+				: names[a].compareTo(names[b]));
+
+		return order;
+	}
+
+	/**
+	 * Obtém o início da extensão no nome: o byte após o último ponto, se o ponto
+	 * não for o primeiro byte nem o último. Sem extensão, devolve o fim do nome.
+	 * Como em {@link ExtensionMatcher}, nomes como ".bashrc" não têm
+	 * extensão.
+	 */
+	private static int suffixStart(byte[] name, int from, int to) {
+
+		for (int index = to - 1; index > from; index--)
+			if (name[index] == '.')
+				return index + 1;
+
+		return to;
+	}
+
+	private static byte lowerCase(byte value) {
+		return value >= 'A' && value <= 'Z' ? (byte) (value + ('a' - 'A')) : value;
+	}
+
+	private static boolean keyEquals(byte[] key, byte[] name, int from, int to) {
+
+		if (key.length != to - from)
+			return false;
+
+		for (int index = 0; index < key.length; index++)
+			if (key[index] != lowerCase(name[from + index]))
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Como no HashMap, traz os bits altos do hash para os bits baixos usados
+	 * pela máscara da tabela.
+	 */
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private void rehash(int capacity) {
+
+		table = new int[capacity];
+		int mask = capacity - 1;
+
+		for (int bucket = 0; bucket < size; bucket++) {
+
+			int slot = mix(hashes[bucket]) & mask;
+
+			while (table[slot] != 0)
+				slot = (slot + 1) & mask;
+
+			table[slot] = bucket + 1;
+		}
+	}
+
+}// class ExtensionHistogram
@@ -1,44 +1,289 @@
 package model;
 
+import static util.Constants.CONTENT_TYPE_CACHE_ENTRIES;
+import static util.Constants.DATE_FORMATTER;
 import static util.Constants.FORMAT_PROPERTIES;
+import static util.Constants.MSG_ENTRY_REMOVED;
 import static util.Constants.MSG_INVALID_PATH;
 import static util.Constants.MSG_NOT_DIRECTORY;
-
-import java.io.File;
-import java.text.SimpleDateFormat;
-import java.util.Arrays;
-import java.util.Date;
-import java.util.Objects;
-
+import static util.Constants.MSG_READ_ERROR;
+import static util.Constants.SIZE_CACHE_MAX_BYTES;
+import static util.Constants.SIZE_CACHE_MAX_ENTRIES;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import model.DirectorySnapshot.Entry;
+import util.Constants;
+import util.ContentType;
 import util.Extension;
+import util.ExtensionFilter;
+import util.SortKey;
 
 /**
  * A classe FileChecker é responsável por verificar e obter informações sobre
  * arquivos e diretórios. Permite listar arquivos e subdiretórios, obter nomes
  * de arquivos com ou sem extensões, e propriedades de subdiretórios.
+ *
+ * O conteúdo do diretório é lido uma única vez, na construção, e guardado em um
+ * {@link DirectorySnapshot}. Todas as listagens são respondidas a partir dessa
+ * fotografia.
  */
 public class FileChecker {
 
-	private File fileDirectory;
-	private File[] filesSubdirectories;
+	/** Trechos fixos de {@link Constants#FORMAT_PROPERTIES}, separados uma única vez. */
+	private static final String[] PROPERTIES_TEMPLATE = FORMAT_PROPERTIES.split("%s", -1);
+
+	/** Capacidade inicial reservada para as propriedades de uma entrada. */
+	private static final int PROPERTIES_CAPACITY = 256;
+
+	/**
+	 * Calculador compartilhado pelas instâncias que não informam um próprio. O
+	 * pool é exclusivo da aplicação, e não o pool comum do fork-join, porque as
+	 * buscas recursivas executadas nele ficam bloqueadas enquanto a fila de
+	 * resultados está cheia.
+	 */
+	private static final DirectorySizeCalculator SIZE_CALCULATOR = new DirectorySizeCalculator(
+			Runtime.getRuntime().availableProcessors());
+
+	private static final DirectorySizeCache SIZE_CACHE = new DirectorySizeCache(SIZE_CACHE_MAX_ENTRIES,
+			SIZE_CACHE_MAX_BYTES);
+
+	/** Tipos de conteúdo já identificados, compartilhados por todos os diretórios. */
+	private static final ContentTypeDetector CONTENT_TYPES = new ContentTypeDetector(CONTENT_TYPE_CACHE_ENTRIES);
+
+	private final DirectorySizeCalculator sizeCalculator;
+	private final DirectorySizeCache sizeCache;
+
+	private DirectorySnapshot snapshot;
+
+	/**
+	 * Entradas exibidas na última listagem, na mesma ordem dos nomes retornados.
+	 * Usada para relacionar o índice selecionado com a entrada correspondente.
+	 */
+	private List<Entry> filesSubdirectories;
+
+	private DirectoryWatcher watcher;
+
+	/**
+	 * Caminhos alterados informados pelo observador e ainda não aplicados à
+	 * fotografia.
+	 */
+	private final Set<Path> pendingChanges = ConcurrentHashMap.newKeySet();
+	private volatile boolean pendingReread;
 
 	/**
 	 * Construtor da classe FileChecker. Inicializa a instância com o caminho
 	 * fornecido e verifica se é um diretório válido.
 	 *
 	 * @param path o caminho do diretório a ser verificado
-	 * @throws FileCheckerException se o caminho não existir ou não for um diretório
+	 * @throws FileCheckerException se o caminho não existir, não for um diretório
+	 *                              ou não puder ser lido
 	 */
 	public FileChecker(String path) {
+		this(path, SIZE_CALCULATOR);
+	}
 
-		fileDirectory = new File(path);
+	/**
+	 * Construtor da classe FileChecker com um calculador de tamanho próprio,
+	 * permitindo configurar o pool utilizado no cálculo do tamanho dos
+	 * subdiretórios.
+	 *
+	 * @param path           o caminho do diretório a ser verificado
+	 * @param sizeCalculator o calculador de tamanho de diretórios
+	 * @throws FileCheckerException se o caminho não existir, não for um diretório
+	 *                              ou não puder ser lido
+	 */
+	public FileChecker(String path, DirectorySizeCalculator sizeCalculator) {
+		this(path, sizeCalculator, SIZE_CACHE);
+	}
+
+	/**
+	 * Construtor da classe FileChecker com um calculador e um cache de tamanhos
+	 * próprios.
+	 *
+	 * @param path           o caminho do diretório a ser verificado
+	 * @param sizeCalculator o calculador de tamanho de diretórios
+	 * @param sizeCache      o cache de tamanhos de diretórios
+	 * @throws FileCheckerException se o caminho não existir, não for um diretório
+	 *                              ou não puder ser lido
+	 */
+	public FileChecker(String path, DirectorySizeCalculator sizeCalculator, DirectorySizeCache sizeCache) {
+
+		this.sizeCalculator = sizeCalculator;
+		this.sizeCache = sizeCache;
 
-		if (!fileDirectory.exists())
+		Path fileDirectory = Paths.get(path);
+
+		if (!Files.exists(fileDirectory))
 			throw new FileCheckerException(MSG_INVALID_PATH);
-		if (!fileDirectory.isDirectory())
+		if (!Files.isDirectory(fileDirectory))
 			throw new FileCheckerException(MSG_NOT_DIRECTORY);
 
-		filesSubdirectories = getFilesSubdirectories();
+		long start = Metrics.start();
+
+		try {
+			snapshot = DirectorySnapshot.read(fileDirectory);
+		} catch (IOException e) {
+			throw new FileCheckerException(MSG_READ_ERROR);
+		} finally {
+			Metrics.OPEN.stop(start, fileDirectory);
+		}
+
+		filesSubdirectories = snapshot.getEntries();
+	}
+
+	/**
+	 * Obtém o cache de tamanhos compartilhado pelas instâncias que não informam
+	 * um cache próprio.
+	 *
+	 * @return o cache de tamanhos padrão
+	 */
+	public static DirectorySizeCache getSizeCache() {
+		return SIZE_CACHE;
+	}
+
+	/**
+	 * Obtém a fotografia do diretório verificado.
+	 *
+	 * @return a fotografia do diretório
+	 */
+	public DirectorySnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Passa a observar as alterações do diretório. As alterações ficam pendentes
+	 * até a chamada de {@link #applyPendingChanges()}.
+	 *
+	 * @param onChange chamado, na thread do observador, sempre que houver novas
+	 *                 alterações pendentes
+	 * @return true se o diretório puder ser observado
+	 */
+	public boolean watch(Runnable onChange) {
+
+		stopWatching();
+
+		try {
+			watcher = new DirectoryWatcher(snapshot.getDirectory(), new DirectoryWatcher.Listener() {
+
+				@Override
+				public void changed(Set<Path> paths) {
+					pendingChanges.addAll(paths);
+					onChange.run();
+				}
+
+				@Override
+				public void overflowed() {
+					pendingReread = true;
+					onChange.run();
+				}
+			});
+		} catch (IOException e) {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Encerra a observação do diretório, se houver.
+	 */
+	public void stopWatching() {
+
+		if (watcher == null)
+			return;
+
+		try {
+			watcher.close();
+		} catch (IOException e) {
+			// O observador já estava encerrado
+		}
+
+		watcher = null;
+	}
+
+	/**
+	 * Verifica se há alterações observadas ainda não aplicadas à fotografia.
+	 *
+	 * @return true se houver alterações pendentes
+	 */
+	public boolean hasPendingChanges() {
+		return pendingReread || !pendingChanges.isEmpty();
+	}
+
+	/**
+	 * Aplica à fotografia as alterações informadas pelo observador. Somente os
+	 * caminhos alterados são lidos novamente, exceto quando eventos foram
+	 * perdidos, caso em que o diretório é lido por completo. Os tamanhos em cache
+	 * do diretório, de seus ancestrais e dos subdiretórios alterados são
+	 * descartados.
+	 *
+	 * @return true se a fotografia foi alterada
+	 * @throws FileCheckerException se o diretório não puder mais ser lido
+	 */
+	public boolean applyPendingChanges() {
+
+		Path directory = snapshot.getDirectory();
+
+		if (pendingReread) {
+
+			pendingReread = false;
+			pendingChanges.clear();
+
+			try {
+				snapshot = DirectorySnapshot.read(directory);
+			} catch (IOException e) {
+				pendingReread = true;
+				throw new FileCheckerException(MSG_READ_ERROR);
+			}
+
+			for (Entry entry : snapshot.getSubdirectories())
+				sizeCache.invalidate(entry.getPath());
+
+		} else {
+
+			if (pendingChanges.isEmpty())
+				return false;
+
+			Set<String> removed = new HashSet<>();
+			List<Entry> updated = new ArrayList<>();
+
+			for (Iterator<Path> iterator = pendingChanges.iterator(); iterator.hasNext();) {
+
+				Path path = iterator.next();
+				iterator.remove();
+
+				Entry entry = Entry.read(path);
+
+				if (entry == null)
+					removed.add(path.getFileName().toString());
+				else
+					updated.add(entry);
+
+				sizeCache.invalidate(path);
+			}
+
+			snapshot = snapshot.apply(removed, updated);
+		}
+
+		for (Path ancestor = directory.toAbsolutePath(); ancestor != null; ancestor = ancestor.getParent())
+			sizeCache.invalidate(ancestor);
+
+		return true;
 	}
 
 	/**
@@ -49,111 +294,502 @@ public class FileChecker {
 	 * @param extension     a extensão dos arquivos a serem listados
 	 * @return uma lista de nomes de arquivos e subdiretórios
 	 */
-	public String[] getFileNamesSubdirectories(boolean withExtension, Extension extension) {
+	public String[] getFileNamesSubdirectories(boolean withExtension, ExtensionFilter extension) {
+		return names(listFilesSubdirectories(withExtension, extension), withExtension);
+	}
 
-		String[] files = getFileNames(withExtension, extension);
+	/**
+	 * Obtém uma lista de nomes de arquivos no diretório, filtrados por extensão.
+	 *
+	 * @param withExtension se true, os nomes dos arquivos incluirão suas extensões
+	 * @param extension     a extensão dos arquivos a serem listados
+	 * @return uma lista de nomes de arquivos
+	 */
+	public String[] getFileNames(boolean withExtension, ExtensionFilter extension) {
+		return names(listFiles(extension), withExtension);
+	}
+
+	/**
+	 * Obtém uma lista de nomes de subdiretórios no diretório.
+	 *
+	 * @return uma lista de nomes de subdiretórios
+	 */
+	public String[] getSubdirectoryNames() {
+		return names(listSubdirectories(), true);
+	}
 
-		String[] subdirectories = getSubdirectoryNames();
+	/**
+	 * Obtém as entradas de arquivos e subdiretórios no diretório, filtradas por
+	 * extensão e ordenadas pelo nome exibido. As entradas passam a ser as
+	 * entradas exibidas.
+	 *
+	 * @param withExtension se true, a ordem considera os nomes com extensão
+	 * @param extension     a extensão dos arquivos a serem listados
+	 * @return as entradas de arquivos e subdiretórios
+	 */
+	public List<Entry> listFilesSubdirectories(boolean withExtension, ExtensionFilter extension) {
 
-		String[] combined = new String[files.length + subdirectories.length];
+		long start = Metrics.start();
+		int[] indices = new int[snapshot.size()];
+		int count = 0;
 
-		System.arraycopy(files, 0, combined, 0, files.length);
-		System.arraycopy(subdirectories, 0, combined, files.length, subdirectories.length);
+		for (int index = 0; index < indices.length; index++)
+			if (snapshot.isDirectory(index) || matches(index, extension))
+				indices[count++] = index;
 
-		Arrays.sort(combined);
+		// A fotografia já está ordenada pelo nome completo; só é preciso reordenar
+		// quando as extensões são omitidas
+		if (!withExtension)
+			sortByDisplayName(indices, count);
 
-		filesSubdirectories = getFilesSubdirectories();
+		List<Entry> entries = snapshot.view(indices, count);
 
-		return combined;
+		Metrics.LIST_FILES_SUBDIRECTORIES.stop(start);
+
+		return select(entries);
 	}
 
 	/**
-	 * Obtém uma lista de nomes de arquivos no diretório, filtrados por extensão.
+	 * Obtém as entradas de arquivos no diretório, filtradas por extensão. As
+	 * entradas passam a ser as entradas exibidas.
 	 *
-	 * @param withExtension se true, os nomes dos arquivos incluirão suas extensões
+	 * @param extension a extensão dos arquivos a serem listados
+	 * @return as entradas de arquivos
+	 */
+	public List<Entry> listFiles(ExtensionFilter extension) {
+
+		long start = Metrics.start();
+		int[] indices = new int[snapshot.size()];
+		int count = 0;
+
+		for (int index = 0; index < indices.length; index++)
+			if (!snapshot.isDirectory(index) && matches(index, extension))
+				indices[count++] = index;
+
+		List<Entry> entries = snapshot.view(indices, count);
+
+		Metrics.LIST_FILES.stop(start);
+
+		return select(entries);
+	}
+
+	/**
+	 * Obtém as entradas de subdiretórios no diretório. As entradas passam a ser
+	 * as entradas exibidas.
+	 *
+	 * @return as entradas de subdiretórios
+	 */
+	public List<Entry> listSubdirectories() {
+
+		long start = Metrics.start();
+		List<Entry> entries = select(snapshot.getSubdirectories());
+
+		Metrics.LIST_SUBDIRECTORIES.stop(start);
+
+		return entries;
+	}
+
+	/**
+	 * Obtém as entradas de arquivos e subdiretórios no diretório, filtradas por
+	 * extensão e ordenadas pelo critério informado. A ordem é calculada uma única
+	 * vez por fotografia e reaproveitada nas listagens seguintes. As entradas
+	 * passam a ser as entradas exibidas.
+	 *
+	 * @param withExtension se true, a ordem por nome considera os nomes com
+	 *                      extensão
 	 * @param extension     a extensão dos arquivos a serem listados
-	 * @return uma lista de nomes de arquivos
+	 * @param key           o critério de ordenação
+	 * @param descending    se true, a ordem é invertida
+	 * @return as entradas de arquivos e subdiretórios
 	 */
-	public String[] getFileNames(boolean withExtension, Extension extension) {
+	public List<Entry> listFilesSubdirectories(boolean withExtension, ExtensionFilter extension, SortKey key,
+			boolean descending) {
+		return listFilesSubdirectories(withExtension, extension, ContentType.ANY, key, descending);
+	}
 
-		String[] files = Arrays.stream(Objects.requireNonNull(getFiles())).filter(file -> {
-			return extension == Extension.ALL
-					|| file.getName().toLowerCase().endsWith(extension.getName().toLowerCase());
-		})
+	/**
+	 * Obtém as entradas de arquivos e subdiretórios no diretório, filtradas por
+	 * extensão e pelo tipo de conteúdo dos arquivos e ordenadas pelo critério
+	 * informado. As entradas passam a ser as entradas exibidas.
+	 *
+	 * @param withExtension se true, a ordem por nome considera os nomes com
+	 *                      extensão
+	 * @param extension     a extensão dos arquivos a serem listados
+	 * @param contentType   o tipo de conteúdo dos arquivos a serem listados,
+	 *                      identificado pelos primeiros bytes
+	 * @param key           o critério de ordenação
+	 * @param descending    se true, a ordem é invertida
+	 * @return as entradas de arquivos e subdiretórios
+	 */
+	public List<Entry> listFilesSubdirectories(boolean withExtension, ExtensionFilter extension,
+			ContentType contentType, SortKey key, boolean descending) {
 
-				.map(file -> withExtension ? file.getName() : removeExtension(file.getName())).toArray(String[]::new);
+		long start = Metrics.start();
+		List<Entry> entries = sorted(key, withExtension, descending, extension, contentType, true, true);
 
-		filesSubdirectories = getFiles();
+		Metrics.LIST_FILES_SUBDIRECTORIES.stop(start);
 
-		return files;
+		return select(entries);
 	}
 
 	/**
-	 * Obtém uma lista de nomes de subdiretórios no diretório.
+	 * Obtém as entradas de arquivos no diretório, filtradas por extensão e
+	 * ordenadas pelo critério informado. As entradas passam a ser as entradas
+	 * exibidas.
 	 *
-	 * @return uma lista de nomes de subdiretórios
+	 * @param withExtension se true, a ordem por nome considera os nomes com
+	 *                      extensão
+	 * @param extension     a extensão dos arquivos a serem listados
+	 * @param key           o critério de ordenação
+	 * @param descending    se true, a ordem é invertida
+	 * @return as entradas de arquivos
 	 */
-	public String[] getSubdirectoryNames() {
+	public List<Entry> listFiles(boolean withExtension, ExtensionFilter extension, SortKey key, boolean descending) {
+		return listFiles(withExtension, extension, ContentType.ANY, key, descending);
+	}
+
+	/**
+	 * Obtém as entradas de arquivos no diretório, filtradas por extensão e pelo
+	 * tipo de conteúdo e ordenadas pelo critério informado. As entradas passam a
+	 * ser as entradas exibidas.
+	 *
+	 * @param withExtension se true, a ordem por nome considera os nomes com
+	 *                      extensão
+	 * @param extension     a extensão dos arquivos a serem listados
+	 * @param contentType   o tipo de conteúdo dos arquivos a serem listados,
+	 *                      identificado pelos primeiros bytes
+	 * @param key           o critério de ordenação
+	 * @param descending    se true, a ordem é invertida
+	 * @return as entradas de arquivos
+	 */
+	public List<Entry> listFiles(boolean withExtension, ExtensionFilter extension, ContentType contentType,
+			SortKey key, boolean descending) {
+
+		long start = Metrics.start();
+		List<Entry> entries = sorted(key, withExtension, descending, extension, contentType, true, false);
+
+		Metrics.LIST_FILES.stop(start);
+
+		return select(entries);
+	}
 
-		String[] subdirectory = Arrays.stream(Objects.requireNonNull(getSubdirectories())).map(File::getName)
-				.toArray(String[]::new);
+	/**
+	 * Obtém as entradas de subdiretórios no diretório, ordenadas pelo critério
+	 * informado. As entradas passam a ser as entradas exibidas.
+	 *
+	 * @param key        o critério de ordenação
+	 * @param descending se true, a ordem é invertida
+	 * @return as entradas de subdiretórios
+	 */
+	public List<Entry> listSubdirectories(SortKey key, boolean descending) {
+
+		long start = Metrics.start();
+		List<Entry> entries = sorted(key, true, descending, Extension.ALL, ContentType.ANY, false, true);
+
+		Metrics.LIST_SUBDIRECTORIES.stop(start);
+
+		return select(entries);
+	}
+
+	/**
+	 * Obtém as primeiras entradas de uma listagem antes que a ordem completa seja
+	 * calculada, para que a primeira tela apareça enquanto as demais entradas são
+	 * ordenadas. As entradas são as mesmas, e na mesma ordem, do início da
+	 * listagem com os mesmos parâmetros, mas não passam a ser as entradas
+	 * exibidas.
+	 *
+	 * @param files          se true, os arquivos serão aceitos
+	 * @param subdirectories se true, os subdiretórios serão aceitos
+	 * @param withExtension  se true, a ordem por nome considera os nomes com
+	 *                       extensão
+	 * @param extension      a extensão dos arquivos a serem listados
+	 * @param contentType    o tipo de conteúdo dos arquivos a serem listados
+	 * @param key            o critério de ordenação
+	 * @param descending     se true, a ordem é invertida
+	 * @param limit          a quantidade máxima de entradas
+	 * @return as primeiras entradas, ou null se a ordem já estiver calculada, se
+	 *         todas as entradas couberem no limite ou se o tipo de conteúdo
+	 *         exigir a leitura dos arquivos
+	 */
+	public List<Entry> listFirst(boolean files, boolean subdirectories, boolean withExtension,
+			ExtensionFilter extension, ContentType contentType, SortKey key, boolean descending, int limit) {
+
+		DirectorySnapshot current = snapshot;
+
+		if (contentType != ContentType.ANY || current.size() <= limit || current.hasOrder(key, withExtension))
+			return null;
+
+		int[] first = current.first(key, withExtension, descending,
+				index -> current.isDirectory(index) ? subdirectories
+						: files && (extension == Extension.ALL || extension.matches(current.getName(index))),
+				limit);
+
+		return current.view(first, first.length);
+	}
+
+	/**
+	 * Inicia uma busca recursiva a partir do diretório, executada no mesmo pool
+	 * usado no cálculo do tamanho dos subdiretórios.
+	 *
+	 * @param pattern     o padrão do nome, como glob ou trecho do nome
+	 * @param extension   o filtro aplicado aos arquivos
+	 * @param maxDepth    a quantidade máxima de níveis lidos
+	 * @param followLinks se true, links simbólicos para diretórios serão seguidos
+	 * @param collector   se não for null, recebe os diretórios lidos para montar
+	 *                    o índice da árvore; exige que os links não sejam seguidos
+	 * @return a busca em andamento
+	 */
+	public RecursiveSearch search(String pattern, ExtensionFilter extension, int maxDepth, boolean followLinks,
+			NameIndex.Collector collector) {
+
+		RecursiveSearch search = new RecursiveSearch(snapshot.getDirectory().toAbsolutePath().normalize(), pattern,
+				extension, maxDepth, followLinks, RecursiveSearch.DEFAULT_CAPACITY, sizeCalculator.getPool());
+
+		if (collector != null)
+			search.indexInto(collector);
+
+		return search.start();
+	}
+
+	/**
+	 * Inicia a procura de um texto no conteúdo dos arquivos do diretório, os
+	 * mesmos de {@link #getFileNames(boolean, ExtensionFilter)}, ou de toda a
+	 * árvore, no mesmo pool usado no cálculo do tamanho dos subdiretórios.
+	 *
+	 * @param text        o texto procurado
+	 * @param pattern     o padrão do nome dos arquivos lidos
+	 * @param extension   o filtro aplicado aos arquivos
+	 * @param maxDepth    a quantidade máxima de níveis lidos; 1 lê apenas os
+	 *                    arquivos do diretório
+	 * @param followLinks se true, links simbólicos para diretórios serão seguidos
+	 * @return a busca em andamento
+	 */
+	public ContentSearch searchContent(String text, String pattern, ExtensionFilter extension, int maxDepth,
+			boolean followLinks) {
+
+		RecursiveSearch files = new RecursiveSearch(snapshot.getDirectory().toAbsolutePath().normalize(), pattern,
+				extension, maxDepth, followLinks, RecursiveSearch.DEFAULT_CAPACITY, sizeCalculator.getPool());
+
+		return new ContentSearch(files, text, RecursiveSearch.DEFAULT_CAPACITY).start();
+	}
+
+	/**
+	 * Captura a listagem do diretório para ser gravada ou comparada: os
+	 * subdiretórios e os arquivos aceitos pelo filtro. A listagem simples usa a
+	 * fotografia atual; a recursiva percorre a árvore com uma
+	 * {@link RecursiveSearch}, sem seguir links simbólicos.
+	 *
+	 * @param extension o filtro aplicado aos arquivos
+	 * @param recursive se true, a listagem inclui toda a árvore
+	 * @return a listagem capturada
+	 * @throws InterruptedException se a thread for interrompida durante a busca
+	 */
+	public TreeSnapshot captureSnapshot(ExtensionFilter extension, boolean recursive) throws InterruptedException {
+
+		TreeSnapshot.Builder builder = new TreeSnapshot.Builder(snapshot.getDirectory());
+
+		if (!recursive) {
 
-		filesSubdirectories = getSubdirectories();
+			for (Entry entry : snapshot.getEntries())
+				if (entry.isDirectory() || extension.matches(entry.getName()))
+					builder.add(entry);
 
-		return subdirectory;
+			return builder.build();
+		}
+
+		RecursiveSearch search = search("", extension, RecursiveSearch.UNLIMITED_DEPTH, false, null);
+		List<Entry> batch = new ArrayList<>();
+
+		try {
+			while (!search.isExhausted()) {
+
+				batch.clear();
+				search.drainTo(batch, 100, TimeUnit.MILLISECONDS);
+
+				for (Entry entry : batch)
+					builder.add(entry);
+			}
+		} finally {
+			search.cancel();
+		}
+
+		return builder.build();
 	}
 
 	/**
-	 * Obtém os arquivos e subdiretórios no diretório.
+	 * Grava a listagem do diretório em um arquivo, no formato de
+	 * {@link TreeSnapshot}.
 	 *
-	 * @return uma matriz de arquivos e subdiretórios
+	 * @param file      o arquivo de destino
+	 * @param extension o filtro aplicado aos arquivos
+	 * @param recursive se true, a listagem inclui toda a árvore
+	 * @return a listagem gravada
+	 * @throws IOException          se o arquivo não puder ser gravado
+	 * @throws InterruptedException se a thread for interrompida durante a busca
 	 */
-	private File[] getFilesSubdirectories() {
-		return fileDirectory.listFiles();
+	public TreeSnapshot exportSnapshot(Path file, ExtensionFilter extension, boolean recursive)
+			throws IOException, InterruptedException {
+
+		TreeSnapshot captured = captureSnapshot(extension, recursive);
+		captured.write(file);
+
+		return captured;
 	}
 
 	/**
-	 * Obtém os arquivos no diretório.
+	 * Compara uma listagem gravada com a listagem atual do diretório, capturada
+	 * com as mesmas opções usadas na gravação.
 	 *
-	 * @return uma matriz de arquivos
+	 * @param file      o arquivo gravado por
+	 *                  {@link #exportSnapshot(Path, ExtensionFilter, boolean)}
+	 * @param extension o filtro aplicado aos arquivos
+	 * @param recursive se true, a listagem inclui toda a árvore
+	 * @param listener  quem recebe cada alteração, na ordem dos caminhos
+	 * @return a quantidade de alterações
+	 * @throws IOException          se o arquivo não puder ser lido
+	 * @throws InterruptedException se a thread for interrompida durante a busca
 	 */
-	private File[] getFiles() {
+	public int compareSnapshot(Path file, ExtensionFilter extension, boolean recursive,
+			Consumer<SnapshotDiff.Change> listener) throws IOException, InterruptedException {
+		return SnapshotDiff.compare(TreeSnapshot.read(file), captureSnapshot(extension, recursive), listener);
+	}
 
-		File[] files = fileDirectory.listFiles(File::isFile);
+	/**
+	 * Define as entradas exibidas, na mesma ordem da lista da interface.
+	 *
+	 * @param entries as entradas a serem exibidas
+	 * @return as mesmas entradas
+	 */
+	private List<Entry> select(List<Entry> entries) {
 
-		if (files != null)
-			Arrays.sort(files);
+		filesSubdirectories = Collections.unmodifiableList(entries);
 
-		return files;
+		return filesSubdirectories;
 	}
 
 	/**
-	 * Obtém os subdiretórios no diretório.
+	 * Obtém os nomes das entradas, na mesma ordem.
 	 *
-	 * @return uma matriz de subdiretórios
+	 * @param entries       as entradas
+	 * @param withExtension se true, os nomes dos arquivos incluirão suas extensões
+	 * @return os nomes das entradas
 	 */
-	private File[] getSubdirectories() {
+	private String[] names(List<Entry> entries, boolean withExtension) {
+
+		String[] names = new String[entries.size()];
+
+		for (int index = 0; index < names.length; index++)
+			names[index] = entries.get(index).getDisplayName(withExtension);
+
+		return names;
+	}
+
+	/**
+	 * Percorre a ordem guardada na fotografia para o critério, no sentido
+	 * pedido, mantendo somente as entradas aceitas.
+	 *
+	 * @param key            o critério de ordenação
+	 * @param withExtension  se false, a ordem por nome desconsidera as extensões
+	 * @param descending     se true, a ordem é invertida
+	 * @param extension      a extensão dos arquivos aceitos
+	 * @param contentType    o tipo de conteúdo dos arquivos aceitos
+	 * @param files          se true, os arquivos serão aceitos
+	 * @param subdirectories se true, os subdiretórios serão aceitos
+	 * @return as entradas aceitas, na ordem pedida
+	 */
+	private List<Entry> sorted(SortKey key, boolean withExtension, boolean descending, ExtensionFilter extension,
+			ContentType contentType, boolean files, boolean subdirectories) {
+
+		int[] order = snapshot.getOrder(key, withExtension);
+		int[] indices = new int[order.length];
+		int count = 0;
+
+		for (int position = 0; position < order.length; position++) {
+
+			int index = order[descending ? order.length - 1 - position : position];
+
+			if (snapshot.isDirectory(index) ? subdirectories : files && matches(index, extension))
+				indices[count++] = index;
+		}
+
+		if (contentType != ContentType.ANY)
+			count = filterByContent(indices, count, contentType);
+
+		return snapshot.view(indices, count);
+	}
+
+	/**
+	 * Mantém, entre as posições aceitas, os subdiretórios e os arquivos do tipo
+	 * de conteúdo pedido, preservando a ordem. Os cabeçalhos dos arquivos são
+	 * lidos em paralelo, no mesmo pool usado no cálculo do tamanho dos
+	 * subdiretórios, somente se não estiverem no cache.
+	 *
+	 * @param indices     as posições das entradas na fotografia
+	 * @param count       a quantidade de posições usadas
+	 * @param contentType o tipo de conteúdo aceito
+	 * @return a quantidade de posições mantidas
+	 */
+	private int filterByContent(int[] indices, int count, ContentType contentType) {
+
+		int[] fileIndices = new int[count];
+		int files = 0;
+
+		for (int position = 0; position < count; position++)
+			if (!snapshot.isDirectory(indices[position]))
+				fileIndices[files++] = indices[position];
 
-		File[] subdirectories = fileDirectory.listFiles(File::isDirectory);
+		ContentType[] types = CONTENT_TYPES.detect(snapshot.view(fileIndices, files), sizeCalculator.getPool());
+		int file = 0;
+		int kept = 0;
 
-		if (subdirectories != null)
-			Arrays.sort(subdirectories);
+		for (int position = 0; position < count; position++) {
 
-		return subdirectories;
+			int index = indices[position];
+
+			if (snapshot.isDirectory(index) || types[file++] == contentType)
+				indices[kept++] = index;
+		}
+
+		return kept;
 	}
 
 	/**
-	 * Remove a extensão do nome do arquivo.
+	 * Ordena as posições das entradas pelo nome sem extensão, calculando cada nome
+	 * uma única vez. Somente o vetor de posições é ordenado.
 	 *
-	 * @param fileName o nome do arquivo
-	 * @return o nome do arquivo sem a extensão
+	 * @param indices as posições das entradas na fotografia
+	 * @param count   a quantidade de posições usadas
 	 */
-	private String removeExtension(String fileName) {
-		int lastDotIndex = fileName.lastIndexOf('.');
-		if (lastDotIndex == -1 || lastDotIndex == 0)
-			return fileName;
+	private void sortByDisplayName(int[] indices, int count) {
+
+		String[] names = new String[count];
+		int[] order = new int[count];
+
+		for (int position = 0; position < count; position++) {
+			names[position] = snapshot.getDisplayName(indices[position], false);
+			order[position] = position;
+		}
+
+		EntryStore.sort(order, (a, b) -> names[a].compareTo(names[b]));
+
+		int[] sorted = new int[count];
 
-		return fileName.substring(0, lastDotIndex);
+		for (int position = 0; position < count; position++)
+			sorted[position] = indices[order[position]];
+
+		System.arraycopy(sorted, 0, indices, 0, count);
+	}
+
+	/**
+	 * Verifica se a entrada corresponde à extensão selecionada. Com
+	 * {@link Extension#ALL} o nome não é decodificado.
+	 *
+	 * @param index     a posição da entrada na fotografia
+	 * @param extension a extensão selecionada
+	 * @return true se a entrada deve ser exibida
+	 */
+	private boolean matches(int index, ExtensionFilter extension) {
+		return extension == Extension.ALL || extension.matches(snapshot.getName(index));
 	}
 
 	/**
@@ -163,77 +799,200 @@ public class FileChecker {
 	 * @return as propriedades do subdiretório em formato de string
 	 */
 	public String getSubdirectoryProperties(int index) {
+		return getProperties(filesSubdirectories.get(index));
+	}
+
+	/**
+	 * Obtém as propriedades de uma entrada do diretório. Os atributos de uma
+	 * entrada vinda de um índice são lidos novamente do disco.
+	 *
+	 * @param entry a entrada do diretório
+	 * @return as propriedades da entrada em formato de string
+	 * @throws FileCheckerException se a entrada indexada não existir mais
+	 */
+	public String getProperties(Entry entry) {
 
-		String absolutePath = getAbsolutePath(filesSubdirectories[index]);
-		String name = getNameDirectory(filesSubdirectories[index]);
-		String lastModification = getLastModification(filesSubdirectories[index]);
-		String size = getSizeFile(filesSubdirectories[index]);
+		long start = Metrics.start();
+		Entry current = entry.current();
 
-		return String.format(FORMAT_PROPERTIES, absolutePath, name, lastModification, size);
+		if (current == null)
+			throw new FileCheckerException(MSG_ENTRY_REMOVED);
+
+		StringBuilder builder = new StringBuilder(PROPERTIES_CAPACITY);
+		appendProperties(builder, current);
+
+		Metrics.PROPERTIES.stop(start);
+
+		return builder.toString();
 	}
 
 	/**
-	 * Obtém o tamanho do arquivo ou diretório.
+	 * Obtém as propriedades de várias entradas em um único texto, na ordem da
+	 * lista. Todas as entradas são escritas no mesmo StringBuilder.
 	 *
-	 * @param file o arquivo ou diretório
-	 * @return o tamanho em bytes
+	 * @param entries as entradas do diretório
+	 * @return as propriedades das entradas em formato de string
 	 */
-	private String getSizeFile(File file) {
-		return Long.toString((file.isFile()) ? file.length() : getDirectorySize(file));
+	public String formatProperties(List<Entry> entries) {
+
+		long start = Metrics.start();
+		StringBuilder builder = new StringBuilder(entries.size() * PROPERTIES_CAPACITY);
+
+		for (Entry entry : entries)
+			appendProperties(builder, entry);
+
+		Metrics.PROPERTIES.stop(start);
+
+		return builder.toString();
 	}
 
 	/**
-	 * Obtém o caminho absoluto do arquivo ou diretório.
+	 * Escreve as propriedades da entrada seguindo {@link Constants#FORMAT_PROPERTIES},
+	 * sem interpretar o formato a cada chamada.
 	 *
-	 * @param file o arquivo ou diretório
-	 * @return o caminho absoluto
+	 * @param builder o destino
+	 * @param entry   a entrada do diretório
 	 */
-	private String getAbsolutePath(File file) {
-		return file.getAbsolutePath();
+	private void appendProperties(StringBuilder builder, Entry entry) {
+
+		builder.append(PROPERTIES_TEMPLATE[0]).append(entry.getPath().toAbsolutePath());
+		builder.append(PROPERTIES_TEMPLATE[1]).append(entry.getName());
+		builder.append(PROPERTIES_TEMPLATE[2]);
+		DATE_FORMATTER.formatTo(Instant.ofEpochMilli(entry.getLastModified()), builder);
+		builder.append(PROPERTIES_TEMPLATE[3]).append(getSizeFile(entry));
+		builder.append(PROPERTIES_TEMPLATE[4]);
 	}
 
 	/**
-	 * Obtém o nome do arquivo ou diretório.
+	 * Obtém o tamanho do arquivo ou diretório.
 	 *
-	 * @param file o arquivo ou diretório
-	 * @return o nome
+	 * @param entry o arquivo ou diretório
+	 * @return o tamanho em bytes
 	 */
-	private String getNameDirectory(File file) {
-		return file.getName();
+	private long getSizeFile(Entry entry) {
+		return (entry.isFile()) ? entry.getSize() : getDirectorySize(entry.getPath()).getBytes();
 	}
 
 	/**
-	 * Obtém a data da última modificação do arquivo ou diretório.
+	 * Obtém o relatório de espaço do diretório. A mesma passagem que encontra os
+	 * maiores arquivos e subdiretórios guarda o conteúdo de cada subdiretório no
+	 * cache usado por {@link #getDirectorySize(Path)}.
 	 *
-	 * @param file o arquivo ou diretório
-	 * @return a data da última modificação
+	 * @param directory o diretório
+	 * @param limit     a quantidade de arquivos e de subdiretórios do relatório
+	 * @return o relatório de espaço
 	 */
-	private String getLastModification(File file) {
-		return new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date(file.lastModified()));
+	public SpaceReport getSpaceReport(Path directory, int limit) {
+
+		long start = Metrics.start();
+		BasicFileAttributes attributes = readAttributes(directory);
+
+		SpaceReport report = sizeCalculator.report(directory, limit, new CachingListener(attributes));
+
+		Metrics.SPACE_REPORT.stop(start, directory);
+
+		return report;
 	}
 
 	/**
-	 * Obtém o tamanho do diretório, incluindo todos os seus arquivos e
-	 * subdiretórios.
+	 * Calcula o espaço ocupado pelos subdiretórios do diretório, em dois níveis,
+	 * entregando retratos dos totais parciais enquanto a árvore é percorrida. A
+	 * mesma passagem guarda no cache o conteúdo de cada subdiretório.
 	 *
 	 * @param directory o diretório
-	 * @return o tamanho em bytes
+	 * @param interval  o intervalo mínimo entre dois retratos parciais, em
+	 *                  milissegundos
+	 * @param partial   quem recebe os retratos parciais, chamado nas threads do
+	 *                  cálculo
+	 * @return o retrato final, com todos os totais completos
 	 */
-	private static long getDirectorySize(File directory) {
+	public SpaceUsage.Block getSpaceUsage(Path directory, long interval, Consumer<SpaceUsage.Block> partial) {
 
-		long size = 0;
+		long start = Metrics.start();
+		BasicFileAttributes attributes = readAttributes(directory);
+		SpaceUsage usage = new SpaceUsage(directory, TimeUnit.MILLISECONDS.toNanos(interval), partial);
 
-		if (directory.isDirectory()) {
+		sizeCalculator.calculate(directory, new CachingListener(attributes) {
 
-			File[] files = directory.listFiles();
+			@Override
+			public void file(Path file, BasicFileAttributes attributes) {
+				usage.add(file, attributes.size());
+			}
 
-			if (files != null) {
-				for (File file : files)
-					size += (file.isFile()) ? file.length() : getDirectorySize(file);
+			@Override
+			public void directory(Path subdirectory, BasicFileAttributes attributes, DirectorySize size) {
+				usage.complete(subdirectory);
 			}
-		}
+		});
+
+		usage.finish();
+
+		Metrics.SPACE_USAGE.stop(start, directory);
+
+		return usage.snapshot();
+	}
+
+	/**
+	 * Obtém o tamanho do diretório, incluindo todos os seus arquivos e
+	 * subdiretórios. O valor é remontado a partir do cache quando nenhum diretório
+	 * da subárvore mudou desde o último cálculo.
+	 *
+	 * @param directory o diretório
+	 * @return o total de bytes, arquivos e subdiretórios
+	 */
+	public DirectorySize getDirectorySize(Path directory) {
+
+		long start = Metrics.start();
+		BasicFileAttributes attributes = readAttributes(directory);
+
+		DirectorySize size = attributes == null ? null : sizeCache.get(directory, attributes);
+
+		if (size == null)
+			size = sizeCalculator.calculate(directory, new CachingListener(attributes));
+
+		Metrics.DIRECTORY_SIZE.stop(start, directory);
 
 		return size;
 	}
 
+	/**
+	 * Guarda no cache o conteúdo direto de cada diretório lido em um cálculo.
+	 */
+	private class CachingListener implements DirectorySizeTask.SizeListener {
+
+		/** Atributos do diretório inicial, lidos antes do cálculo. */
+		private final BasicFileAttributes rootAttributes;
+
+		CachingListener(BasicFileAttributes rootAttributes) {
+			this.rootAttributes = rootAttributes;
+		}
+
+		@Override
+		public void contents(Path directory, BasicFileAttributes attributes, DirectorySize contents,
+				String[] subdirectories) {
+
+			BasicFileAttributes validity = attributes == null ? rootAttributes : attributes;
+
+			if (validity != null)
+				sizeCache.put(directory, validity, contents, subdirectories);
+		}
+	}
+
+	/**
+	 * Lê os atributos do diretório, usados como validade das entradas do cache.
+	 *
+	 * @param directory o diretório
+	 * @return os atributos, ou null se não puderem ser lidos
+	 */
+	private BasicFileAttributes readAttributes(Path directory) {
+
+		Metrics.countStatCalls(1);
+
+		try {
+			return Files.readAttributes(directory, BasicFileAttributes.class);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
 }// class FileChecker
\ No newline at end of file
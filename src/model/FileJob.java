@@ -0,0 +1,670 @@
+package model;
+
+import static util.Constants.FILE_JOB_CHUNK;
+import static util.Constants.FILE_JOB_PART;
+import static util.Constants.FORMAT_FILE_JOB_PART;
+import static util.Constants.FORMAT_RENAMED;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import util.ConflictPolicy;
+import util.FileOperation;
+
+/**
+ * A classe FileJob copia, move ou exclui um conjunto de entradas, com todo o
+ * conteúdo dos subdiretórios, acompanhando o progresso em bytes.
+ *
+ * Os arquivos são copiados com {@link FileChannel#transferTo}, que deixa o
+ * sistema operacional passar os dados de um arquivo ao outro sem trazê-los
+ * para a memória da JVM. A cópia é feita em blocos de
+ * {@link util.Constants#FILE_JOB_CHUNK} bytes, entre os quais a operação pode
+ * ser pausada ou cancelada, e grava um arquivo temporário que só substitui o
+ * destino ao final, de modo que uma cópia interrompida não destrói o arquivo
+ * que já existia. Entradas movidas dentro do mesmo sistema de arquivos são
+ * apenas renomeadas com {@link Files#move}; as demais são copiadas e depois
+ * excluídas da origem.
+ *
+ * Erros em uma entrada não interrompem a operação: a entrada é contada como
+ * falha e as demais continuam. A operação é executada uma única vez, pelo
+ * método {@link #run()}; os demais métodos podem ser chamados de qualquer
+ * thread.
+ */
+public final class FileJob implements Runnable {
+
+	/**
+	 * Enumeração que define os estados de uma operação.
+	 */
+	public enum State {
+
+		QUEUED("Aguardando"),
+		RUNNING("Executando"),
+		PAUSED("Pausada"),
+		CANCELLED("Cancelada"),
+		DONE("Concluída");
+
+		private final String label;
+
+		private State(String label) {
+			this.label = label;
+		}
+
+		public String getLabel() {
+			return label;
+		}
+	}// enum State
+
+	private final FileOperation operation;
+	private final List<Path> sources;
+	private final Path target;
+	private final ConflictPolicy policy;
+
+	private volatile State state = State.QUEUED;
+	private boolean paused;
+	private volatile boolean cancelled;
+
+	private final AtomicLong totalBytes = new AtomicLong();
+	private final AtomicLong doneBytes = new AtomicLong();
+	private final AtomicInteger failures = new AtomicInteger();
+	private volatile String firstFailure;
+
+	private volatile long startNanos;
+	private volatile long endNanos;
+
+	/** Tempo já passado em pausa, descontado da vazão. */
+	private long pausedNanos;
+
+	/**
+	 * Construtor da classe FileJob.
+	 *
+	 * @param operation a operação
+	 * @param sources   as entradas de origem
+	 * @param target    o diretório de destino, ignorado na exclusão
+	 * @param policy    o que fazer com as entradas que já existem no destino
+	 */
+	public FileJob(FileOperation operation, List<Path> sources, Path target, ConflictPolicy policy) {
+		this.operation = operation;
+		this.sources = Collections.unmodifiableList(new ArrayList<>(sources));
+		this.target = target;
+		this.policy = policy;
+	}
+
+	public FileOperation getOperation() {
+		return operation;
+	}
+
+	public List<Path> getSources() {
+		return sources;
+	}
+
+	public Path getTarget() {
+		return target;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * Obtém a quantidade de bytes a transferir. Vale 0 enquanto as entradas ainda
+	 * estão sendo medidas e não inclui as entradas apenas renomeadas.
+	 *
+	 * @return o total em bytes
+	 */
+	public long getTotalBytes() {
+		return totalBytes.get();
+	}
+
+	public long getDoneBytes() {
+		return doneBytes.get();
+	}
+
+	/**
+	 * Obtém a quantidade de entradas que não puderam ser copiadas, movidas ou
+	 * excluídas.
+	 *
+	 * @return a quantidade de falhas
+	 */
+	public int getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * Obtém a descrição da primeira falha.
+	 *
+	 * @return a descrição, ou null se não houve falhas
+	 */
+	public String getFirstFailure() {
+		return firstFailure;
+	}
+
+	/**
+	 * Calcula a vazão média, sem contar o tempo em pausa.
+	 *
+	 * @return a vazão em bytes por segundo
+	 */
+	public synchronized double getThroughput() {
+
+		if (startNanos == 0)
+			return 0;
+
+		long elapsed = (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos - pausedNanos;
+
+		return elapsed <= 0 ? 0 : doneBytes.get() * 1e9 / elapsed;
+	}
+
+	/**
+	 * Suspende a operação ao fim do bloco em cópia.
+	 */
+	public synchronized void pause() {
+
+		if (state == State.QUEUED || state == State.RUNNING) {
+			paused = true;
+			state = State.PAUSED;
+		}
+	}
+
+	/**
+	 * Retoma uma operação suspensa.
+	 */
+	public synchronized void resume() {
+
+		if (state == State.PAUSED) {
+			paused = false;
+			state = startNanos == 0 ? State.QUEUED : State.RUNNING;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Cancela a operação ao fim do bloco em cópia. Entradas já copiadas,
+	 * movidas ou excluídas permanecem assim; o arquivo em cópia é descartado.
+	 */
+	public synchronized void cancel() {
+
+		cancelled = true;
+		notifyAll();
+
+		if (state == State.QUEUED || state == State.PAUSED)
+			state = State.CANCELLED;
+	}
+
+	/**
+	 * Verifica se a operação já terminou, concluída ou cancelada.
+	 *
+	 * @return true se a operação terminou
+	 */
+	public boolean isFinished() {
+		return endNanos != 0 || state == State.CANCELLED;
+	}
+
+	/**
+	 * Executa a operação. Deve ser chamado uma única vez.
+	 */
+	@Override
+	public void run() {
+
+		synchronized (this) {
+
+			startNanos = System.nanoTime();
+
+			if (!paused && !cancelled)
+				state = State.RUNNING;
+		}
+
+		try {
+			checkpoint();
+
+			Set<Path> renamed = new HashSet<>();
+
+			for (Path source : sources)
+				if (operation == FileOperation.MOVE && isSameStore(source))
+					renamed.add(source);
+				else
+					measure(source);
+
+			for (Path source : sources) {
+
+				checkpoint();
+
+				if (operation == FileOperation.DELETE)
+					delete(source);
+				else if (isInside(target, source))
+					fail(source, new IOException(source + " -> " + target));
+				else if (renamed.contains(source))
+					rename(source);
+				else
+					copy(source, operation == FileOperation.MOVE);
+			}
+		} catch (CancellationException e) {
+			// As entradas já processadas permanecem; o restante é abandonado
+		} finally {
+			synchronized (this) {
+				endNanos = System.nanoTime();
+				state = cancelled ? State.CANCELLED : State.DONE;
+			}
+		}
+	}
+
+	/**
+	 * Aguarda enquanto a operação estiver pausada e interrompe a operação
+	 * cancelada.
+	 *
+	 * @throws CancellationException se a operação foi cancelada
+	 */
+	private synchronized void checkpoint() {
+
+		long pausedAt = System.nanoTime();
+		boolean waited = false;
+
+		while (paused && !cancelled) {
+			waited = true;
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				cancelled = true;
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (waited)
+			pausedNanos += System.nanoTime() - pausedAt;
+
+		if (cancelled)
+			throw new CancellationException();
+	}
+
+	/**
+	 * Soma ao total o tamanho dos arquivos da entrada.
+	 */
+	private void measure(Path source) {
+
+		try {
+			Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+					totalBytes.addAndGet(attributes.isRegularFile() ? attributes.size() : 0);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					// A falha é contada quando a entrada for processada
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			// Idem
+		}
+	}
+
+	/**
+	 * Verifica se o destino fica no mesmo sistema de arquivos que a entrada, caso
+	 * em que mover é apenas renomear.
+	 */
+	private boolean isSameStore(Path source) {
+
+		try {
+			return Files.getFileStore(source).equals(Files.getFileStore(target));
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Verifica se o caminho é a própria entrada ou fica dentro dela, o que faria
+	 * a cópia de um diretório para dentro de si mesmo.
+	 */
+	private static boolean isInside(Path path, Path source) {
+		return path.toAbsolutePath().normalize().startsWith(source.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Move a entrada renomeando-a, sem copiar o conteúdo.
+	 */
+	private void rename(Path source) {
+
+		try {
+			Path destination = resolveConflict(source, target.resolve(source.getFileName().toString()));
+
+			if (destination == null)
+				return;
+
+			if (Files.isDirectory(destination, LinkOption.NOFOLLOW_LINKS)) {
+				// Um subdiretório existente é mesclado com a entrada, que precisa ser copiada
+				measure(source);
+				copy(source, true);
+				return;
+			}
+
+			Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			fail(source, e);
+		}
+	}
+
+	/**
+	 * Copia a entrada para o destino, com todo o conteúdo, e a exclui da origem
+	 * se a operação for de mover. Mesmo com a operação cancelada, os arquivos já
+	 * copiados são excluídos da origem, ficando movidos.
+	 */
+	private void copy(Path source, boolean removeSource) {
+
+		CopyVisitor visitor = new CopyVisitor(source);
+
+		try {
+			Files.walkFileTree(source, visitor);
+		} catch (IOException e) {
+			fail(source, e);
+		} finally {
+			if (removeSource)
+				removeCopied(source, visitor.copied);
+		}
+	}
+
+	/**
+	 * Percorre a entrada copiando cada arquivo. A política de conflitos decide o
+	 * destino da própria entrada e de cada arquivo; subdiretórios internos que já
+	 * existem no destino são mesclados.
+	 */
+	private final class CopyVisitor extends SimpleFileVisitor<Path> {
+
+		private final Path source;
+
+		/** Destinos dos diretórios abertos, do mais externo ao atual. */
+		private final List<Path> directories = new ArrayList<>();
+
+		/** Arquivos copiados, que podem ser excluídos da origem. */
+		private final List<Path> copied = new ArrayList<>();
+
+		CopyVisitor(Path source) {
+			this.source = source;
+		}
+
+		private Path destinationOf(Path path) {
+
+			if (path.equals(source))
+				return target.resolve(source.getFileName().toString());
+
+			return directories.get(directories.size() - 1).resolve(path.getFileName().toString());
+		}
+
+		@Override
+		public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+
+			checkpoint();
+
+			Path destination = destinationOf(directory);
+
+			if (directory.equals(source))
+				destination = resolveConflict(directory, destination);
+
+			if (destination == null)
+				return FileVisitResult.SKIP_SUBTREE;
+
+			Files.createDirectories(destination);
+			directories.add(destination);
+
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+
+			checkpoint();
+
+			try {
+				Path destination = resolveConflict(file, destinationOf(file));
+
+				if (destination != null) {
+					copyFile(file, destination, attributes);
+					copied.add(file);
+				}
+			} catch (IOException e) {
+				fail(file, e);
+			}
+
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult visitFileFailed(Path file, IOException e) {
+			fail(file, e);
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult postVisitDirectory(Path directory, IOException e) {
+
+			if (e != null)
+				fail(directory, e);
+
+			directories.remove(directories.size() - 1);
+
+			return FileVisitResult.CONTINUE;
+		}
+	}// class CopyVisitor
+
+	/**
+	 * Exclui da origem os arquivos já copiados e os subdiretórios que ficaram
+	 * vazios. Arquivos ignorados ou que falharam permanecem na origem.
+	 */
+	private void removeCopied(Path source, List<Path> copied) {
+
+		for (Path file : copied) {
+			try {
+				Files.delete(file);
+			} catch (IOException e) {
+				fail(file, e);
+			}
+		}
+
+		try {
+			Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path directory, IOException e) {
+
+					try {
+						Files.delete(directory);
+					} catch (IOException notEmpty) {
+						// Restaram entradas ignoradas ou que falharam
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			// Idem
+		}
+	}
+
+	/**
+	 * Obtém o destino de uma entrada segundo a política de conflitos.
+	 *
+	 * @return o destino, ou null se a entrada deve ser ignorada
+	 */
+	private Path resolveConflict(Path source, Path destination) throws IOException {
+
+		if (!Files.exists(destination, LinkOption.NOFOLLOW_LINKS))
+			return destination;
+
+		// Copiar uma entrada sobre ela mesma só faz sentido criando outra com um número
+		if (policy != ConflictPolicy.RENAME && Files.isSameFile(source, destination))
+			return null;
+
+		switch (policy) {
+		case SKIP:
+			return null;
+		case OVERWRITE:
+			return destination;
+		default:
+			return renamed(destination);
+		}
+	}
+
+	/**
+	 * Acrescenta ao nome o primeiro número que não existe no diretório, antes da
+	 * extensão: "relatorio (2).txt".
+	 */
+	private static Path renamed(Path destination) {
+
+		String name = destination.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		String base = dot > 0 ? name.substring(0, dot) : name;
+		String extension = dot > 0 ? name.substring(dot) : "";
+
+		for (int number = 2;; number++) {
+
+			Path candidate = destination.resolveSibling(String.format(FORMAT_RENAMED, base, number, extension));
+
+			if (!Files.exists(candidate, LinkOption.NOFOLLOW_LINKS))
+				return candidate;
+		}
+	}
+
+	/**
+	 * Copia um arquivo em blocos, por um arquivo temporário novo no diretório de
+	 * destino que depois substitui o destino. Links simbólicos são copiados como
+	 * links.
+	 */
+	private void copyFile(Path source, Path destination, BasicFileAttributes attributes) throws IOException {
+
+		if (!attributes.isRegularFile()) {
+			Files.copy(source, destination, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.REPLACE_EXISTING);
+			return;
+		}
+
+		long start = Metrics.start();
+		Path part = null;
+		boolean complete = false;
+
+		try {
+			part = createPart(destination);
+
+			try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+					FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE)) {
+
+				long size = in.size();
+
+				for (long position = 0; position < size;) {
+
+					checkpoint();
+
+					long transferred = in.transferTo(position, Math.min(FILE_JOB_CHUNK, size - position), out);
+
+					// O arquivo diminuiu durante a cópia
+					if (transferred <= 0)
+						break;
+
+					position += transferred;
+					doneBytes.addAndGet(transferred);
+				}
+			}
+
+			Files.setLastModifiedTime(part, attributes.lastModifiedTime());
+			Files.move(part, destination, StandardCopyOption.REPLACE_EXISTING);
+			complete = true;
+		} finally {
+			if (!complete && part != null)
+				Files.deleteIfExists(part);
+
+			Metrics.FILE_COPY.stop(start);
+		}
+	}
+
+	/**
+	 * Cria o arquivo temporário da cópia ao lado do destino, com um nome que
+	 * ainda não existe: um arquivo do usuário com o mesmo nome nunca é truncado
+	 * nem excluído.
+	 */
+	private static Path createPart(Path destination) throws IOException {
+
+		String name = destination.getFileName().toString();
+
+		for (int number = 1;; number++) {
+
+			Path part = destination.resolveSibling(number == 1 ? name + FILE_JOB_PART
+					: String.format(FORMAT_FILE_JOB_PART, name, number, FILE_JOB_PART));
+
+			try {
+				return Files.createFile(part);
+			} catch (FileAlreadyExistsException e) {
+				// Tenta o próximo nome
+			}
+		}
+	}
+
+	/**
+	 * Exclui a entrada e todo o seu conteúdo, dos arquivos para os diretórios.
+	 */
+	private void delete(Path source) {
+
+		try {
+			Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+
+					checkpoint();
+
+					try {
+						Files.delete(file);
+						doneBytes.addAndGet(attributes.isRegularFile() ? attributes.size() : 0);
+					} catch (IOException e) {
+						fail(file, e);
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					fail(file, e);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path directory, IOException e) {
+
+					try {
+						Files.delete(directory);
+					} catch (IOException notEmpty) {
+						// Só falha se algum arquivo interno falhou, e ele já foi contado
+						if (e != null)
+							fail(directory, e);
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			fail(source, e);
+		}
+	}
+
+	private void fail(Path path, IOException e) {
+
+		if (failures.getAndIncrement() == 0)
+			firstFailure = e.getMessage() != null ? e.getMessage() : path.toString();
+	}
+
+}// class FileJob
@@ -0,0 +1,75 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A classe FileJobQueue executa as operações em lote ({@link FileJob}) em
+ * segundo plano, no máximo algumas ao mesmo tempo: as demais aguardam na fila,
+ * na ordem em que foram enviadas. Limitar o paralelismo evita que várias
+ * cópias para o mesmo disco disputem a leitura e a gravação.
+ *
+ * As threads não impedem o encerramento da aplicação e são encerradas quando
+ * a fila fica ociosa.
+ */
+public class FileJobQueue {
+
+	/** Tempo que uma thread ociosa aguarda antes de ser encerrada, em segundos. */
+	private static final long KEEP_ALIVE = 30;
+
+	private final ExecutorService executor;
+	private final List<FileJob> jobs = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Construtor da classe FileJobQueue.
+	 *
+	 * @param name        o nome das threads
+	 * @param parallelism a quantidade máxima de operações executadas ao mesmo tempo
+	 */
+	public FileJobQueue(String name, int parallelism) {
+
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, KEEP_ALIVE, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+
+		pool.allowCoreThreadTimeOut(true);
+		executor = pool;
+	}
+
+	/**
+	 * Coloca a operação na fila.
+	 *
+	 * @param job a operação, ainda não executada
+	 */
+	public void submit(FileJob job) {
+		jobs.add(job);
+		executor.execute(job);
+	}
+
+	/**
+	 * Obtém as operações enviadas e ainda não removidas, na ordem de envio.
+	 *
+	 * @return uma cópia da lista de operações
+	 */
+	public List<FileJob> getJobs() {
+		return new ArrayList<>(jobs);
+	}
+
+	/**
+	 * Remove da lista as operações que já terminaram.
+	 */
+	public void removeFinished() {
+		jobs.removeIf(FileJob::isFinished);
+	}
+
+}// class FileJobQueue
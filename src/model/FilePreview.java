@@ -0,0 +1,158 @@
+package model;
+
+import static util.Constants.PREVIEW_CACHE_PAGES;
+import static util.Constants.PREVIEW_PAGE_SIZE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A classe FilePreview dá acesso ao conteúdo de um arquivo em páginas de
+ * {@link util.Constants#PREVIEW_PAGE_SIZE} bytes, para que ele seja exibido
+ * sem ser lido por inteiro.
+ *
+ * Cada página é lida com uma leitura posicional do {@link FileChannel}, somente
+ * quando é pedida, e guardada em um cache das
+ * {@link util.Constants#PREVIEW_CACHE_PAGES} páginas usadas mais recentemente.
+ * Abrir um arquivo lê apenas a primeira página, de modo que um arquivo de
+ * vários gigabytes abre tão rápido quanto um pequeno, e a memória usada não
+ * depende do tamanho do arquivo.
+ *
+ * As páginas guardadas podem ser consultadas de qualquer thread; as leituras do
+ * disco devem ser feitas fora da EDT.
+ */
+public final class FilePreview implements Closeable {
+
+	private final Path file;
+	private final FileChannel channel;
+	private final long size;
+	private final boolean binary;
+
+	private final Map<Long, byte[]> pages = new LinkedHashMap<Long, byte[]>(PREVIEW_CACHE_PAGES, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+			return size() > PREVIEW_CACHE_PAGES;
+		}
+	};
+
+	private FilePreview(Path file, FileChannel channel) throws IOException {
+
+		this.file = file;
+		this.channel = channel;
+		this.size = channel.size();
+
+		byte[] first = readPage(0);
+
+		// Pelo mesmo critério da busca no conteúdo
+		this.binary = ContentSearch.isBinary(ByteBuffer.wrap(first), first.length);
+	}
+
+	/**
+	 * Abre o arquivo e lê a sua primeira página.
+	 *
+	 * @param file o arquivo
+	 * @return o acesso ao conteúdo do arquivo
+	 * @throws IOException se o arquivo não puder ser lido
+	 */
+	public static FilePreview open(Path file) throws IOException {
+
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+		try {
+			return new FilePreview(file, channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Obtém o tamanho do arquivo no momento em que foi aberto.
+	 *
+	 * @return o tamanho em bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Indica se o arquivo parece binário, isto é, se há um byte nulo no seu
+	 * início.
+	 *
+	 * @return true se o arquivo deve ser exibido em hexadecimal
+	 */
+	public boolean isBinary() {
+		return binary;
+	}
+
+	/**
+	 * Obtém uma página já lida, sem acessar o disco.
+	 *
+	 * @param index a posição da página, a partir de 0
+	 * @return o conteúdo da página, ou null se ela não estiver no cache; a última
+	 *         página pode ser menor que as demais
+	 */
+	public synchronized byte[] getPage(long index) {
+		return pages.get(index);
+	}
+
+	/**
+	 * Lê uma página do disco e a guarda no cache, descartando a página usada há
+	 * mais tempo se o cache estiver cheio.
+	 *
+	 * @param index a posição da página, a partir de 0
+	 * @return o conteúdo da página
+	 * @throws IOException se a página não puder ser lida
+	 */
+	public byte[] readPage(long index) throws IOException {
+
+		byte[] cached = getPage(index);
+
+		if (cached != null)
+			return cached;
+
+		long start = Metrics.start();
+		long position = index * PREVIEW_PAGE_SIZE;
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(0, Math.min(PREVIEW_PAGE_SIZE, size - position)));
+
+		while (buffer.hasRemaining())
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				break;
+
+		byte[] page = buffer.position() == buffer.capacity() ? buffer.array()
+				: Arrays.copyOf(buffer.array(), buffer.position());
+
+		synchronized (this) {
+			pages.put(index, page);
+		}
+
+		Metrics.PREVIEW_PAGE.stop(start);
+
+		return page;
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		synchronized (this) {
+			pages.clear();
+		}
+
+		channel.close();
+	}
+
+}// class FilePreview
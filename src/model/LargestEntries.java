@@ -0,0 +1,106 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+
+/**
+ * Guarda os maiores valores oferecidos, até um limite, em um heap de mínimo: o
+ * menor valor guardado fica no topo e é substituído quando aparece um maior. A
+ * memória usada depende somente do limite, e não da quantidade de valores
+ * oferecidos. Os valores são comparados por uma chave numérica, como o tamanho
+ * de uma entrada ou a duração de uma operação.
+ *
+ * As ofertas podem vir de várias threads. Enquanto o heap está cheio, valores
+ * que não superam o menor guardado são descartados sem bloqueio; com
+ * {@link #accepts(long)}, quem oferece pode descartá-los antes mesmo de criar
+ * o objeto.
+ *
+ * @param <T> o tipo dos valores guardados
+ */
+final class LargestEntries<T> {
+
+	private final int limit;
+	private final ToLongFunction<? super T> key;
+	private final Comparator<T> byKey;
+	private final Comparator<? super T> ties;
+	private final PriorityQueue<T> heap;
+
+	/** Menor chave guardada com o heap cheio; antes disso, aceita tudo. */
+	private volatile long threshold = Long.MIN_VALUE;
+
+	/**
+	 * Construtor da classe LargestEntries.
+	 *
+	 * @param limit a quantidade máxima de valores guardados
+	 * @param key   a chave pela qual os valores são comparados
+	 * @param ties  a ordem, em {@link #toList()}, dos valores com a mesma chave
+	 */
+	LargestEntries(int limit, ToLongFunction<? super T> key, Comparator<? super T> ties) {
+		this.limit = limit;
+		this.key = key;
+		this.byKey = Comparator.comparingLong(key);
+		this.ties = ties;
+		this.heap = new PriorityQueue<>(Math.max(1, limit), byKey);
+	}
+
+	/**
+	 * Verifica, sem bloqueio, se um valor com a chave ainda pode ser guardado.
+	 *
+	 * @param candidate a chave do valor
+	 * @return false se o valor certamente seria descartado
+	 */
+	boolean accepts(long candidate) {
+		return limit > 0 && candidate > threshold;
+	}
+
+	/**
+	 * Oferece um valor.
+	 *
+	 * @param value o valor
+	 */
+	void offer(T value) {
+
+		long candidate = key.applyAsLong(value);
+
+		if (!accepts(candidate))
+			return;
+
+		synchronized (this) {
+
+			if (heap.size() == limit) {
+
+				if (candidate <= key.applyAsLong(heap.peek()))
+					return;
+
+				heap.poll();
+			}
+
+			heap.add(value);
+
+			if (heap.size() == limit)
+				threshold = key.applyAsLong(heap.peek());
+		}
+	}
+
+	/**
+	 * Obtém os valores guardados, do maior para o menor.
+	 *
+	 * @return os valores guardados
+	 */
+	List<T> toList() {
+
+		List<T> values;
+
+		synchronized (this) {
+			values = new ArrayList<>(heap);
+		}
+
+		values.sort(byKey.reversed().thenComparing(ties));
+
+		return values;
+	}
+
+}// class LargestEntries
@@ -0,0 +1,154 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A classe LatencyHistogram registra durações em nanossegundos em faixas
+ * log-lineares, no mesmo formato do HdrHistogram: cada potência de dois é
+ * dividida em {@value #SUB_BUCKETS} faixas iguais, de modo que o erro relativo
+ * de qualquer valor é menor que 1/{@value #SUB_BUCKETS} (cerca de 3%) entre um
+ * nanossegundo e várias horas, com memória fixa.
+ *
+ * Os registros podem vir de várias threads ao mesmo tempo e não usam bloqueio.
+ * As leituras são aproximadas enquanto há registros em andamento.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** Valores abaixo deste limite têm uma faixa própria, sem perda de precisão. */
+	private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Registra uma duração.
+	 *
+	 * @param nanos a duração, em nanossegundos; valores negativos contam como zero
+	 */
+	public void record(long nanos) {
+
+		if (nanos < 0)
+			nanos = 0;
+
+		counts.incrementAndGet(index(nanos));
+		count.increment();
+		total.add(nanos);
+
+		long current = max.get();
+
+		while (nanos > current && !max.compareAndSet(current, nanos))
+			current = max.get();
+	}
+
+	/**
+	 * Obtém a quantidade de durações registradas.
+	 *
+	 * @return a quantidade de registros
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Obtém a soma das durações registradas.
+	 *
+	 * @return a soma, em nanossegundos
+	 */
+	public long getTotal() {
+		return total.sum();
+	}
+
+	/**
+	 * Obtém a maior duração registrada, sem arredondamento.
+	 *
+	 * @return a maior duração, em nanossegundos
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Obtém a média das durações registradas.
+	 *
+	 * @return a média, em nanossegundos, ou 0 sem registros
+	 */
+	public long getMean() {
+
+		long registered = count.sum();
+
+		return registered == 0 ? 0 : total.sum() / registered;
+	}
+
+	/**
+	 * Obtém a duração abaixo da qual está a porcentagem informada dos registros.
+	 * O valor é o maior da faixa em que o percentil cai, limitado à maior duração
+	 * registrada.
+	 *
+	 * @param percentile a porcentagem, entre 0 e 100
+	 * @return a duração, em nanossegundos, ou 0 sem registros
+	 */
+	public long getValueAtPercentile(double percentile) {
+
+		long[] snapshot = new long[BUCKET_COUNT];
+		long registered = 0;
+
+		for (int index = 0; index < BUCKET_COUNT; index++)
+			registered += snapshot[index] = counts.get(index);
+
+		if (registered == 0)
+			return 0;
+
+		long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * registered));
+		long seen = 0;
+
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+
+			seen += snapshot[index];
+
+			if (seen >= target)
+				return Math.min(highestValue(index), max.get());
+		}
+
+		return max.get();
+	}
+
+	/**
+	 * Obtém a faixa do valor. Abaixo de {@link #LINEAR_LIMIT} a faixa é o próprio
+	 * valor; acima, o expoente escolhe a potência de dois e os
+	 * {@value #SUB_BUCKET_BITS} bits seguintes ao mais significativo escolhem a
+	 * faixa dentro dela.
+	 */
+	static int index(long value) {
+
+		if (value < LINEAR_LIMIT)
+			return (int) value;
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	/**
+	 * Obtém o maior valor que cai na faixa.
+	 */
+	static long highestValue(int index) {
+
+		if (index < LINEAR_LIMIT)
+			return index;
+
+		int shift = index / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+
+		return lowest + (1L << shift) - 1;
+	}
+
+}// class LatencyHistogram
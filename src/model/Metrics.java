@@ -0,0 +1,480 @@
+package model;
+
+import static util.Constants.FORMAT_METRICS_COUNTERS;
+import static util.Constants.FORMAT_METRICS_OPERATION;
+import static util.Constants.FORMAT_METRICS_SLOW;
+import static util.Constants.METRICS_DOMAIN;
+import static util.Constants.METRICS_SLOW_DIRECTORIES;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A classe Metrics reúne as medições do programa: a latência de cada operação
+ * instrumentada, a quantidade de entradas lidas e de leituras de atributos
+ * (stat) feitas no disco, o tempo de bloqueio da thread de eventos do Swing e
+ * os diretórios mais lentos.
+ *
+ * As medições são sempre registradas, sem bloqueio. Podem ser consultadas por
+ * JMX, depois de {@link #register()}, ou gravadas periodicamente no log com
+ * {@link #startLogging(long)}.
+ */
+public final class Metrics {
+
+	/**
+	 * Atributos JMX de uma operação. As durações são informadas em
+	 * microssegundos.
+	 */
+	public interface OperationMXBean {
+
+		long getCount();
+
+		long getMeanMicros();
+
+		long getP50Micros();
+
+		long getP90Micros();
+
+		long getP99Micros();
+
+		long getMaxMicros();
+
+		long getTotalMillis();
+	}
+
+	/**
+	 * Atributos JMX gerais do programa.
+	 */
+	public interface MetricsMXBean {
+
+		long getEntriesScanned();
+
+		long getStatCalls();
+
+		long getEventStalls();
+
+		long getEventBlockedMillis();
+
+		long getSizeCacheHits();
+
+		long getSizeCacheMisses();
+
+		String[] getSlowestDirectories();
+
+		String getReport();
+	}
+
+	/**
+	 * Uma operação instrumentada, com o histograma das suas durações.
+	 */
+	public static final class Operation implements OperationMXBean {
+
+		private final String name;
+		private final LatencyHistogram histogram = new LatencyHistogram();
+
+		private Operation(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Registra uma execução da operação.
+		 *
+		 * @param start o instante em que a operação começou, obtido com
+		 *              {@link Metrics#start()}
+		 * @return a duração, em nanossegundos
+		 */
+		public long stop(long start) {
+
+			long nanos = System.nanoTime() - start;
+			histogram.record(nanos);
+
+			return nanos;
+		}
+
+		/**
+		 * Registra uma execução da operação sobre um diretório, que passa a
+		 * concorrer entre os diretórios mais lentos.
+		 *
+		 * @param start     o instante em que a operação começou
+		 * @param directory o diretório
+		 * @return a duração, em nanossegundos
+		 */
+		public long stop(long start, Path directory) {
+
+			long nanos = stop(start);
+
+			if (SLOWEST.accepts(nanos))
+				SLOWEST.offer(new Slow(name, directory, nanos));
+
+			return nanos;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public LatencyHistogram getHistogram() {
+			return histogram;
+		}
+
+		@Override
+		public long getCount() {
+			return histogram.getCount();
+		}
+
+		@Override
+		public long getMeanMicros() {
+			return histogram.getMean() / 1_000;
+		}
+
+		@Override
+		public long getP50Micros() {
+			return histogram.getValueAtPercentile(50) / 1_000;
+		}
+
+		@Override
+		public long getP90Micros() {
+			return histogram.getValueAtPercentile(90) / 1_000;
+		}
+
+		@Override
+		public long getP99Micros() {
+			return histogram.getValueAtPercentile(99) / 1_000;
+		}
+
+		@Override
+		public long getMaxMicros() {
+			return histogram.getMax() / 1_000;
+		}
+
+		@Override
+		public long getTotalMillis() {
+			return histogram.getTotal() / 1_000_000;
+		}
+	}
+
+	private static final List<Operation> OPERATIONS = new CopyOnWriteArrayList<>();
+
+	/** Leitura do diretório na construção do {@link FileChecker}. */
+	public static final Operation OPEN = operation("FileChecker.open");
+	public static final Operation LIST_FILES_SUBDIRECTORIES = operation("FileChecker.listFilesSubdirectories");
+	public static final Operation LIST_FILES = operation("FileChecker.listFiles");
+	public static final Operation LIST_SUBDIRECTORIES = operation("FileChecker.listSubdirectories");
+	public static final Operation PROPERTIES = operation("FileChecker.properties");
+	public static final Operation DIRECTORY_SIZE = operation("FileChecker.directorySize");
+	public static final Operation SPACE_REPORT = operation("FileChecker.spaceReport");
+	public static final Operation SPACE_USAGE = operation("FileChecker.spaceUsage");
+
+	/** Gravação e leitura de uma listagem em arquivo, e comparação de duas listagens. */
+	public static final Operation SNAPSHOT_WRITE = operation("TreeSnapshot.write");
+	public static final Operation SNAPSHOT_READ = operation("TreeSnapshot.read");
+	public static final Operation SNAPSHOT_DIFF = operation("SnapshotDiff.compare");
+
+	/** Busca do texto no conteúdo de um arquivo. */
+	public static final Operation CONTENT_FILE = operation("ContentSearch.file");
+
+	/** Leitura do cabeçalho de um arquivo para identificar o tipo de conteúdo. */
+	public static final Operation CONTENT_TYPE = operation("ContentTypeDetector.read");
+
+	/** Cópia de um arquivo por uma operação em lote. */
+	public static final Operation FILE_COPY = operation("FileJob.copyFile");
+
+	/** Leitura de uma página de um arquivo para a pré-visualização. */
+	public static final Operation PREVIEW_PAGE = operation("FilePreview.readPage");
+
+	/** Leitura dos subdiretórios de um nó da árvore de diretórios. */
+	public static final Operation TREE_CHILDREN = operation("UI.treeChildren");
+
+	/** Desenho do mapa de espaço ocupado no buffer fora da tela. */
+	public static final Operation TREEMAP_RENDER = operation("UI.treemapRender");
+
+	/** Tratamento de um evento na thread de eventos do Swing. */
+	public static final Operation EVENT = operation("UI.event");
+
+	private static final LongAdder ENTRIES_SCANNED = new LongAdder();
+	private static final LongAdder STAT_CALLS = new LongAdder();
+	private static final LongAdder EVENT_STALLS = new LongAdder();
+	private static final LongAdder EVENT_BLOCKED = new LongAdder();
+
+	/** Execuções mais lentas sobre diretórios; as mais rápidas são descartadas sem bloqueio. */
+	private static final LargestEntries<Slow> SLOWEST = new LargestEntries<>(METRICS_SLOW_DIRECTORIES,
+			slow -> slow.nanos, Comparator.comparing(slow -> slow.directory));
+
+	private static final Logger LOGGER = Logger.getLogger(Metrics.class.getName());
+
+	private static boolean registered;
+	private static ScheduledExecutorService logger;
+
+	private Metrics() {
+	}
+
+	private static Operation operation(String name) {
+
+		Operation operation = new Operation(name);
+		OPERATIONS.add(operation);
+
+		return operation;
+	}
+
+	/**
+	 * Obtém o instante de início de uma operação medida.
+	 *
+	 * @return o instante atual, em nanossegundos
+	 */
+	public static long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Obtém as operações instrumentadas, na ordem em que foram criadas.
+	 *
+	 * @return as operações
+	 */
+	public static List<Operation> getOperations() {
+		return Collections.unmodifiableList(OPERATIONS);
+	}
+
+	/**
+	 * Conta as entradas lidas de um diretório.
+	 *
+	 * @param entries a quantidade de entradas
+	 */
+	static void countEntries(long entries) {
+		ENTRIES_SCANNED.add(entries);
+	}
+
+	/**
+	 * Conta as leituras de atributos feitas no disco.
+	 *
+	 * @param calls a quantidade de leituras
+	 */
+	static void countStatCalls(long calls) {
+		STAT_CALLS.add(calls);
+	}
+
+	/**
+	 * Registra o tratamento de um evento na thread de eventos. Eventos mais longos
+	 * que o limite informado contam como bloqueios da interface.
+	 *
+	 * @param start     o instante em que o tratamento começou
+	 * @param threshold a duração a partir da qual o evento bloqueou a
+	 *                  interface, em nanossegundos
+	 */
+	public static void recordEvent(long start, long threshold) {
+
+		long nanos = EVENT.stop(start);
+
+		if (nanos >= threshold) {
+			EVENT_STALLS.increment();
+			EVENT_BLOCKED.add(nanos);
+		}
+	}
+
+	public static long getEntriesScanned() {
+		return ENTRIES_SCANNED.sum();
+	}
+
+	public static long getStatCalls() {
+		return STAT_CALLS.sum();
+	}
+
+	public static long getEventStalls() {
+		return EVENT_STALLS.sum();
+	}
+
+	public static long getEventBlockedNanos() {
+		return EVENT_BLOCKED.sum();
+	}
+
+	/**
+	 * Obtém os diretórios mais lentos, do mais lento para o mais rápido, no
+	 * formato {@link util.Constants#FORMAT_METRICS_SLOW}.
+	 *
+	 * @return os diretórios mais lentos
+	 */
+	public static String[] getSlowestDirectories() {
+
+		List<Slow> slowest = SLOWEST.toList();
+		String[] lines = new String[slowest.size()];
+
+		for (int index = 0; index < lines.length; index++) {
+			Slow slow = slowest.get(index);
+			lines[index] = String.format(FORMAT_METRICS_SLOW, millis(slow.nanos), slow.operation, slow.directory);
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Monta um relatório com todas as medições.
+	 *
+	 * @return o relatório
+	 */
+	public static String format() {
+
+		StringBuilder builder = new StringBuilder();
+
+		for (Operation operation : OPERATIONS) {
+
+			LatencyHistogram histogram = operation.getHistogram();
+
+			if (histogram.getCount() == 0)
+				continue;
+
+			builder.append(String.format(FORMAT_METRICS_OPERATION, operation.getName(), histogram.getCount(),
+					millis(histogram.getMean()), millis(histogram.getValueAtPercentile(50)),
+					millis(histogram.getValueAtPercentile(99)), millis(histogram.getMax())));
+		}
+
+		DirectorySizeCache cache = FileChecker.getSizeCache();
+
+		builder.append(String.format(FORMAT_METRICS_COUNTERS, getEntriesScanned(), getStatCalls(), getEventStalls(),
+				millis(getEventBlockedNanos()), cache.getHits(), cache.getMisses()));
+
+		for (String slow : getSlowestDirectories())
+			builder.append(slow).append(System.lineSeparator());
+
+		return builder.toString();
+	}
+
+	/**
+	 * Registra as medições no servidor de MBeans da plataforma: uma MBean geral e
+	 * uma para cada operação. Chamadas seguintes não têm efeito.
+	 */
+	public static synchronized void register() {
+
+		if (registered)
+			return;
+
+		registered = true;
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		try {
+			server.registerMBean(new Summary(), new ObjectName(METRICS_DOMAIN + ":type=Metrics"));
+
+			for (Operation operation : OPERATIONS)
+				server.registerMBean(operation,
+						new ObjectName(METRICS_DOMAIN + ":type=Operation,name=" + operation.getName()));
+
+		} catch (InstanceAlreadyExistsException e) {
+			// Registradas por outra cópia da classe
+		} catch (JMException e) {
+			LOGGER.warning(e.toString());
+		}
+	}
+
+	/**
+	 * Grava o relatório no log a cada intervalo, somente quando houve novas
+	 * medições desde a gravação anterior.
+	 *
+	 * @param seconds o intervalo, em segundos; 0 ou menos não grava
+	 */
+	public static synchronized void startLogging(long seconds) {
+
+		if (seconds <= 0 || logger != null)
+			return;
+
+		logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, Metrics.class.getSimpleName());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long[] last = { 0 };
+
+		logger.scheduleWithFixedDelay(() -> {
+
+			long activity = getEntriesScanned();
+
+			for (Operation operation : OPERATIONS)
+				activity += operation.getCount();
+
+			if (activity != last[0]) {
+				last[0] = activity;
+				LOGGER.info(format());
+			}
+		}, seconds, seconds, TimeUnit.SECONDS);
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	/**
+	 * MBean geral, que apenas repassa as medições estáticas.
+	 */
+	private static final class Summary implements MetricsMXBean {
+
+		@Override
+		public long getEntriesScanned() {
+			return Metrics.getEntriesScanned();
+		}
+
+		@Override
+		public long getStatCalls() {
+			return Metrics.getStatCalls();
+		}
+
+		@Override
+		public long getEventStalls() {
+			return Metrics.getEventStalls();
+		}
+
+		@Override
+		public long getEventBlockedMillis() {
+			return Metrics.getEventBlockedNanos() / 1_000_000;
+		}
+
+		@Override
+		public long getSizeCacheHits() {
+			return FileChecker.getSizeCache().getHits();
+		}
+
+		@Override
+		public long getSizeCacheMisses() {
+			return FileChecker.getSizeCache().getMisses();
+		}
+
+		@Override
+		public String[] getSlowestDirectories() {
+			return Metrics.getSlowestDirectories();
+		}
+
+		@Override
+		public String getReport() {
+			return Metrics.format();
+		}
+	}
+
+	/**
+	 * Uma execução de uma operação sobre um diretório.
+	 */
+	private static final class Slow {
+
+		final String operation;
+		final Path directory;
+		final long nanos;
+
+		Slow(String operation, Path directory, long nanos) {
+			this.operation = operation;
+			this.directory = directory;
+			this.nanos = nanos;
+		}
+	}
+
+}// class Metrics
@@ -0,0 +1,804 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.DirectorySnapshot.Entry;
+import util.Extension;
+import util.ExtensionFilter;
+
+/**
+ * A classe NameIndex guarda os nomes, tamanhos, datas de modificação e tipos de
+ * todas as entradas de uma árvore de diretórios, permitindo buscar nomes sem
+ * percorrer o disco novamente.
+ *
+ * Os dados são guardados em colunas: os nomes ficam juntos em um único vetor de
+ * caracteres, indicado por deslocamentos, e tamanhos, datas e diretórios pais
+ * ficam em vetores de primitivos. As entradas de cada diretório são contíguas.
+ * Sobre os nomes é montado um índice de trigramas (trechos de três caracteres,
+ * em minúsculas), que reduz a busca às entradas que contêm o trecho mais raro
+ * do padrão.
+ *
+ * O índice é imutável. {@link #update()} cria um novo índice lendo somente os
+ * diretórios cuja data de modificação mudou; os demais são copiados do índice
+ * atual. A data de um diretório muda quando entradas são criadas, removidas ou
+ * renomeadas nele, mas não quando o conteúdo de um arquivo muda: nesses
+ * diretórios, tamanho e data dos arquivos podem estar desatualizados, enquanto
+ * nomes e tipos estão sempre corretos; por isso, as entradas encontradas são
+ * marcadas como indexadas (veja {@link Entry#current()}). Links simbólicos não
+ * são seguidos.
+ *
+ * O índice também pode ser montado a partir dos diretórios lidos por uma
+ * {@link RecursiveSearch}, por meio de um {@link Collector}, sem percorrer a
+ * árvore novamente.
+ */
+public final class NameIndex {
+
+	private static final int MAGIC = 0x46534931; // "FSI1"
+	private static final int VERSION = 1;
+
+	/** Data gravada para diretórios que não puderam ser lidos. */
+	private static final long UNREADABLE = Long.MIN_VALUE;
+
+	private static final int MIN_BUCKETS = 1 << 10;
+	private static final int MAX_BUCKETS = 1 << 22;
+
+	private final Path root;
+
+	/** Caminho de cada diretório relativo à raiz; a raiz é o primeiro, vazio. */
+	private final String[] directories;
+	private final long[] directoryModified;
+
+	/** Profundidade das entradas de cada diretório; 1 para as entradas da raiz. */
+	private final int[] directoryDepth;
+
+	/** As entradas do diretório d ocupam as posições [firstEntry[d], firstEntry[d + 1]). */
+	private final int[] firstEntry;
+
+	private final int[] parent;
+	private final char[] names;
+	private final int[] nameStart;
+	private final long[] sizes;
+	private final long[] modified;
+	private final BitSet directoryFlags;
+
+	private final int readDirectories;
+
+	private final int bucketMask;
+	private final int[] bucketStart;
+	private final int[] postings;
+
+	private NameIndex(Path root, Builder builder, int readDirectories) {
+
+		this.root = root;
+		this.readDirectories = readDirectories;
+
+		directories = builder.directories.toArray(new String[0]);
+		directoryModified = Arrays.copyOf(builder.directoryModified, directories.length);
+		firstEntry = Arrays.copyOf(builder.firstEntry, directories.length + 1);
+		firstEntry[directories.length] = builder.entries;
+		directoryDepth = depths(directories, root.getFileSystem().getSeparator());
+
+		parent = Arrays.copyOf(builder.parent, builder.entries);
+		names = Arrays.copyOf(builder.names, builder.nameLength);
+		nameStart = Arrays.copyOf(builder.nameStart, builder.entries + 1);
+		nameStart[builder.entries] = builder.nameLength;
+		sizes = Arrays.copyOf(builder.sizes, builder.entries);
+		modified = Arrays.copyOf(builder.modified, builder.entries);
+		directoryFlags = builder.directoryFlags;
+
+		int trigrams = 0;
+
+		for (int id = 0; id < parent.length; id++)
+			trigrams += Math.max(0, nameStart[id + 1] - nameStart[id] - 2);
+
+		int buckets = Integer.highestOneBit(Math.max(MIN_BUCKETS, Math.min(MAX_BUCKETS, trigrams / 4)));
+
+		bucketMask = buckets - 1;
+		bucketStart = new int[buckets + 1];
+
+		fillTrigrams(null);
+
+		for (int bucket = 0, total = 0; bucket <= buckets; bucket++) {
+			int count = bucketStart[bucket];
+			bucketStart[bucket] = total;
+			total += count;
+		}
+
+		postings = new int[bucketStart[buckets]];
+
+		fillTrigrams(postings);
+	}
+
+	/**
+	 * Indexa toda a árvore abaixo do diretório.
+	 *
+	 * @param root o diretório raiz
+	 * @return o índice da árvore
+	 * @throws IOException se a raiz não puder ser lida ou a thread for
+	 *                     interrompida
+	 */
+	public static NameIndex build(Path root) throws IOException {
+		return walk(root.toAbsolutePath().normalize(), null, null);
+	}
+
+	/**
+	 * Cria um índice atualizado, lendo novamente apenas os diretórios cuja data de
+	 * modificação mudou.
+	 *
+	 * @return o novo índice, ou este mesmo índice se nenhum diretório mudou
+	 * @throws IOException se a raiz não puder ser lida ou a thread for
+	 *                     interrompida
+	 */
+	public NameIndex update() throws IOException {
+
+		return walk(root, this, null);
+	}
+
+	/**
+	 * Percorre a árvore, copiando do índice anterior os diretórios não
+	 * modificados. Com as listagens de uma busca, os diretórios são obtidos
+	 * delas em vez de lidos do disco.
+	 */
+	private static NameIndex walk(Path root, NameIndex previous, Map<String, Listing> listings) throws IOException {
+
+		Map<String, Integer> known = new HashMap<>();
+
+		if (previous != null)
+			for (int d = 0; d < previous.directories.length; d++)
+				known.put(previous.directories[d], d);
+
+		Builder builder = new Builder();
+		Deque<String> pending = new ArrayDeque<>();
+		int read = 0;
+
+		pending.push("");
+
+		while (!pending.isEmpty()) {
+
+			if (Thread.currentThread().isInterrupted())
+				throw new InterruptedIOException();
+
+			String relative = pending.pop();
+			Path directory = relative.isEmpty() ? root : root.resolve(relative);
+
+			Listing listing = null;
+			long lastModified;
+
+			if (listings != null) {
+
+				listing = listings.get(relative);
+
+				if (listing == null) {
+					if (relative.isEmpty())
+						throw new IOException(directory.toString());
+					continue;
+				}
+
+				lastModified = listing.lastModified;
+			} else {
+				try {
+					lastModified = Files.readAttributes(directory, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+							.lastModifiedTime().toMillis();
+				} catch (IOException e) {
+					if (relative.isEmpty())
+						throw e;
+					continue;
+				}
+			}
+
+			Integer old = known.get(relative);
+			int d = builder.addDirectory(relative, lastModified);
+
+			if (old != null && previous.directoryModified[old] == lastModified) {
+				previous.copyEntries(old, d, builder);
+			} else {
+				read++;
+
+				if (listing != null ? !listing.addTo(builder, d) : !builder.readEntries(directory, d)) {
+					if (relative.isEmpty())
+						throw new IOException(directory.toString());
+					builder.directoryModified[d] = UNREADABLE;
+				}
+			}
+
+			for (int id = builder.firstEntry[d]; id < builder.entries; id++)
+				if (builder.directoryFlags.get(id))
+					pending.push(builder.childPath(relative, id, root.getFileSystem().getSeparator()));
+		}
+
+		if (previous != null && read == 0 && builder.directories.size() == previous.directories.length)
+			return previous;
+
+		return new NameIndex(root, builder, read);
+	}
+
+	/**
+	 * Calcula a profundidade das entradas de cada diretório pela quantidade de
+	 * nomes no caminho relativo.
+	 */
+	private static int[] depths(String[] directories, String separator) {
+
+		int[] depths = new int[directories.length];
+
+		for (int d = 0; d < directories.length; d++) {
+
+			String relative = directories[d];
+			int depth = 1;
+
+			if (!relative.isEmpty())
+				for (int i = 0; i >= 0; i = relative.indexOf(separator, i + separator.length()))
+					depth++;
+
+			depths[d] = depth;
+		}
+
+		return depths;
+	}
+
+	/**
+	 * Copia as entradas de um diretório deste índice para o índice em montagem.
+	 */
+	private void copyEntries(int directory, int target, Builder builder) {
+
+		for (int id = firstEntry[directory]; id < firstEntry[directory + 1]; id++)
+			builder.addEntry(target, names, nameStart[id], nameStart[id + 1] - nameStart[id], directoryFlags.get(id),
+					sizes[id], modified[id]);
+	}
+
+	/**
+	 * Busca as entradas cujo nome corresponde ao padrão, com as mesmas regras da
+	 * {@link RecursiveSearch}: um glob aplicado ao nome inteiro ou um trecho
+	 * procurado sem diferenciar maiúsculas de minúsculas. O filtro de extensão é
+	 * aplicado somente aos arquivos, e a profundidade é contada como na busca:
+	 * as entradas da raiz estão no nível 1.
+	 *
+	 * @param pattern   o padrão do nome
+	 * @param extension o filtro aplicado aos arquivos
+	 * @param maxDepth  a quantidade máxima de níveis abaixo da raiz
+	 * @param limit     a quantidade máxima de resultados
+	 * @return as entradas encontradas, na ordem do índice
+	 */
+	public List<Entry> find(String pattern, ExtensionFilter extension, int maxDepth, int limit) {
+
+		NamePattern namePattern = new NamePattern(pattern);
+		ExtensionFilter filter = extension == null ? Extension.ALL : extension;
+		char[] literal = namePattern.getLiteral().toCharArray();
+
+		List<Entry> found = new ArrayList<>();
+
+		if (literal.length < 3) {
+			for (int id = 0; id < parent.length && found.size() < limit; id++)
+				collect(id, namePattern, literal, filter, maxDepth, found);
+
+			return found;
+		}
+
+		int bucket = rarestBucket(literal);
+
+		for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1] && found.size() < limit; i++)
+			collect(postings[i], namePattern, literal, filter, maxDepth, found);
+
+		return found;
+	}
+
+	/**
+	 * Acrescenta a entrada aos resultados se ela corresponder ao padrão. O trecho
+	 * obrigatório é conferido diretamente no vetor de nomes, e o nome só é criado
+	 * para as entradas que passam por essa verificação.
+	 */
+	private void collect(int id, NamePattern pattern, char[] literal, ExtensionFilter extension, int maxDepth,
+			List<Entry> found) {
+
+		if (directoryDepth[parent[id]] > maxDepth || !contains(id, literal))
+			return;
+
+		String name = new String(names, nameStart[id], nameStart[id + 1] - nameStart[id]);
+		boolean directory = directoryFlags.get(id);
+
+		if (!directory && !extension.matches(name))
+			return;
+
+		Path path = getPath(id, name);
+
+		// Sem glob, o trecho conferido acima já é o próprio padrão
+		if (!pattern.isGlob() || pattern.matches(name, path.getFileName()))
+			found.add(Entry.indexed(path, name, directory, sizes[id], modified[id]));
+	}
+
+	/**
+	 * Verifica se o nome da entrada contém o trecho, em minúsculas, sem criar
+	 * objetos.
+	 */
+	private boolean contains(int id, char[] literal) {
+
+		int start = nameStart[id];
+		int last = nameStart[id + 1] - literal.length;
+
+		for (int i = start; i <= last; i++) {
+
+			int j = 0;
+
+			while (j < literal.length && Character.toLowerCase(names[i + j]) == literal[j])
+				j++;
+
+			if (j == literal.length)
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Obtém, entre os trigramas do trecho, aquele com a menor lista de entradas.
+	 */
+	private int rarestBucket(char[] literal) {
+
+		int rarest = -1;
+
+		for (int i = 0; i + 2 < literal.length; i++) {
+
+			int bucket = bucket(literal[i], literal[i + 1], literal[i + 2]);
+
+			if (rarest < 0 || bucketStart[bucket + 1] - bucketStart[bucket] < bucketStart[rarest + 1]
+					- bucketStart[rarest])
+				rarest = bucket;
+		}
+
+		return rarest;
+	}
+
+	/**
+	 * Percorre os trigramas de todos os nomes. Sem destino, conta as entradas de
+	 * cada grupo; com destino, grava cada entrada nas posições do grupo. Uma
+	 * entrada aparece no máximo uma vez em cada grupo.
+	 *
+	 * @param target o vetor de destino, ou null para apenas contar
+	 */
+	private void fillTrigrams(int[] target) {
+
+		int[] last = new int[bucketMask + 1];
+		Arrays.fill(last, -1);
+
+		int[] next = target == null ? null : Arrays.copyOf(bucketStart, bucketStart.length);
+
+		for (int id = 0; id < parent.length; id++) {
+
+			for (int i = nameStart[id]; i + 2 < nameStart[id + 1]; i++) {
+
+				int bucket = bucket(Character.toLowerCase(names[i]), Character.toLowerCase(names[i + 1]),
+						Character.toLowerCase(names[i + 2]));
+
+				if (last[bucket] == id)
+					continue;
+
+				last[bucket] = id;
+
+				if (target == null)
+					bucketStart[bucket]++;
+				else
+					target[next[bucket]++] = id;
+			}
+		}
+	}
+
+	private int bucket(char a, char b, char c) {
+
+		int hash = (a * 31 + b) * 31 + c;
+		hash ^= hash >>> 16;
+		hash *= 0x45d9f3b;
+		hash ^= hash >>> 16;
+
+		return hash & bucketMask;
+	}
+
+	private Path getPath(int id, String name) {
+
+		String directory = directories[parent[id]];
+
+		return directory.isEmpty() ? root.resolve(name) : root.resolve(directory).resolve(name);
+	}
+
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * Obtém a quantidade de entradas indexadas.
+	 *
+	 * @return a quantidade de arquivos e diretórios, sem contar a raiz
+	 */
+	public int size() {
+		return parent.length;
+	}
+
+	public int getDirectoryCount() {
+		return directories.length;
+	}
+
+	/**
+	 * Obtém a quantidade de diretórios lidos do disco na criação deste índice; os
+	 * demais foram copiados do índice anterior.
+	 *
+	 * @return a quantidade de diretórios lidos
+	 */
+	public int getReadDirectories() {
+		return readDirectories;
+	}
+
+	/**
+	 * Grava o índice em um arquivo binário, coluna por coluna. O índice de
+	 * trigramas não é gravado, pois é montado novamente na leitura.
+	 *
+	 * @param file o arquivo de destino
+	 * @throws IOException se o arquivo não puder ser gravado
+	 */
+	public void save(Path file) throws IOException {
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeUTF(root.toString());
+
+			output.writeInt(directories.length);
+
+			for (int d = 0; d < directories.length; d++) {
+				output.writeUTF(directories[d]);
+				output.writeLong(directoryModified[d]);
+				output.writeInt(firstEntry[d]);
+			}
+
+			output.writeInt(parent.length);
+
+			for (int value : parent)
+				output.writeInt(value);
+
+			for (int value : nameStart)
+				output.writeInt(value);
+
+			byte[] encoded = new String(names).getBytes(StandardCharsets.UTF_8);
+			output.writeInt(encoded.length);
+			output.write(encoded);
+
+			for (long value : sizes)
+				output.writeLong(value);
+
+			for (long value : modified)
+				output.writeLong(value);
+
+			long[] flags = directoryFlags.toLongArray();
+			output.writeInt(flags.length);
+
+			for (long value : flags)
+				output.writeLong(value);
+		}
+	}
+
+	/**
+	 * Lê um índice gravado por {@link #save(Path)}.
+	 *
+	 * @param file o arquivo de origem
+	 * @return o índice lido, ou null se o arquivo for de outra versão
+	 * @throws IOException se o arquivo não puder ser lido
+	 */
+	public static NameIndex load(Path file) throws IOException {
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				return null;
+
+			Path root = file.getFileSystem().getPath(input.readUTF());
+			Builder builder = new Builder();
+
+			int directoryCount = input.readInt();
+			int[] first = new int[directoryCount];
+
+			for (int d = 0; d < directoryCount; d++) {
+				builder.addDirectory(input.readUTF(), input.readLong());
+				first[d] = input.readInt();
+			}
+
+			int entries = input.readInt();
+			int[] parents = readInts(input, entries);
+			int[] starts = readInts(input, entries + 1);
+
+			byte[] encoded = new byte[input.readInt()];
+			input.readFully(encoded);
+			char[] chars = new String(encoded, StandardCharsets.UTF_8).toCharArray();
+
+			if (chars.length != starts[entries])
+				throw new IOException(file.toString());
+
+			long[] entrySizes = readLongs(input, entries);
+			long[] entryModified = readLongs(input, entries);
+			BitSet flags = BitSet.valueOf(readLongs(input, input.readInt()));
+
+			builder.firstEntry = first;
+			builder.parent = parents;
+			builder.nameStart = starts;
+			builder.names = chars;
+			builder.nameLength = chars.length;
+			builder.sizes = entrySizes;
+			builder.modified = entryModified;
+			builder.directoryFlags = flags;
+			builder.entries = entries;
+
+			return new NameIndex(root, builder, 0);
+		}
+	}
+
+	private static int[] readInts(DataInputStream input, int count) throws IOException {
+
+		int[] values = new int[count];
+
+		for (int i = 0; i < count; i++)
+			values[i] = input.readInt();
+
+		return values;
+	}
+
+	private static long[] readLongs(DataInputStream input, int count) throws IOException {
+
+		long[] values = new long[count];
+
+		for (int i = 0; i < count; i++)
+			values[i] = input.readLong();
+
+		return values;
+	}
+
+	/**
+	 * Recebe os diretórios lidos por uma {@link RecursiveSearch} e monta com eles
+	 * o índice da árvore. Os diretórios podem ser entregues por várias threads,
+	 * em qualquer ordem. O índice só pode ser montado se a busca leu a árvore
+	 * inteira: sem ser cancelada, sem seguir links e sem parar no limite de
+	 * profundidade.
+	 */
+	public static final class Collector {
+
+		private final Path root;
+		private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+		private volatile boolean incomplete;
+
+		/**
+		 * Construtor da classe Collector.
+		 *
+		 * @param root o diretório raiz da busca
+		 */
+		public Collector(Path root) {
+			this.root = root.toAbsolutePath().normalize();
+		}
+
+		public Path getRoot() {
+			return root;
+		}
+
+		/**
+		 * Registra as entradas lidas de um diretório.
+		 *
+		 * @param relative     o caminho do diretório relativo à raiz
+		 * @param lastModified a data de modificação lida antes da listagem
+		 * @param entries      as entradas do diretório, ou null se ele não pôde ser
+		 *                     lido
+		 */
+		void add(String relative, long lastModified, List<Entry> entries) {
+			listings.put(relative, new Listing(lastModified, entries));
+		}
+
+		/**
+		 * Indica que a busca deixou de ler parte da árvore.
+		 */
+		void markIncomplete() {
+			incomplete = true;
+		}
+
+		/**
+		 * Verifica se os diretórios recebidos cobrem a árvore inteira.
+		 *
+		 * @return true se o índice pode ser montado
+		 */
+		public boolean isComplete() {
+
+			Listing rootListing = listings.get("");
+
+			return !incomplete && rootListing != null && rootListing.lastModified != UNREADABLE;
+		}
+
+		/**
+		 * Monta o índice com os diretórios recebidos, sem acessar o disco. Deve ser
+		 * chamado depois que a busca terminar.
+		 *
+		 * @return o índice da árvore
+		 * @throws IOException se a árvore não foi lida por inteiro
+		 */
+		public NameIndex build() throws IOException {
+
+			if (!isComplete())
+				throw new IOException(root.toString());
+
+			return walk(root, null, listings);
+		}
+
+	}// class Collector
+
+	/**
+	 * As entradas de um diretório lidas por uma busca.
+	 */
+	private static final class Listing {
+
+		private final long lastModified;
+		private final String[] names;
+		private final long[] sizes;
+		private final long[] modified;
+		private final BitSet directoryFlags = new BitSet();
+
+		Listing(long lastModified, List<Entry> entries) {
+
+			int count = entries == null ? 0 : entries.size();
+
+			this.lastModified = entries == null ? UNREADABLE : lastModified;
+			names = new String[count];
+			sizes = new long[count];
+			modified = new long[count];
+
+			for (int i = 0; i < count; i++) {
+				Entry entry = entries.get(i);
+				names[i] = entry.getName();
+				sizes[i] = entry.getSize();
+				modified[i] = entry.getLastModified();
+				directoryFlags.set(i, entry.isDirectory());
+			}
+		}
+
+		/**
+		 * Copia as entradas para o índice em montagem.
+		 *
+		 * @return false se o diretório não pôde ser lido
+		 */
+		boolean addTo(Builder builder, int d) {
+
+			if (lastModified == UNREADABLE)
+				return false;
+
+			for (int i = 0; i < names.length; i++)
+				builder.addEntry(d, names[i].toCharArray(), 0, names[i].length(), directoryFlags.get(i), sizes[i],
+						modified[i]);
+
+			return true;
+		}
+
+	}// class Listing
+
+	/**
+	 * Acumula as colunas de um índice em montagem, em vetores que crescem
+	 * conforme necessário.
+	 */
+	private static final class Builder {
+
+		private final List<String> directories = new ArrayList<>();
+		private long[] directoryModified = new long[16];
+		private int[] firstEntry = new int[17];
+
+		private int entries;
+		private int[] parent = new int[64];
+		private int[] nameStart = new int[65];
+		private long[] sizes = new long[64];
+		private long[] modified = new long[64];
+		private BitSet directoryFlags = new BitSet();
+
+		private char[] names = new char[1024];
+		private int nameLength;
+
+		private int addDirectory(String relative, long lastModified) {
+
+			int d = directories.size();
+
+			if (d == directoryModified.length) {
+				directoryModified = Arrays.copyOf(directoryModified, d * 2);
+				firstEntry = Arrays.copyOf(firstEntry, d * 2 + 1);
+			}
+
+			directories.add(relative);
+			directoryModified[d] = lastModified;
+			firstEntry[d] = entries;
+
+			return d;
+		}
+
+		/**
+		 * Lê as entradas do diretório do disco.
+		 *
+		 * @return false se o diretório não puder ser lido
+		 */
+		private boolean readEntries(Path directory, int d) throws InterruptedIOException {
+
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+
+				for (Path path : stream) {
+
+					if (Thread.currentThread().isInterrupted())
+						throw new InterruptedIOException();
+
+					BasicFileAttributes attributes;
+
+					try {
+						attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+					} catch (IOException e) {
+						continue;
+					}
+
+					if (!attributes.isRegularFile() && !attributes.isDirectory())
+						continue;
+
+					String name = path.getFileName().toString();
+
+					addEntry(d, name.toCharArray(), 0, name.length(), attributes.isDirectory(), attributes.size(),
+							attributes.lastModifiedTime().toMillis());
+				}
+			} catch (InterruptedIOException e) {
+				throw e;
+			} catch (IOException e) {
+				return false;
+			}
+
+			return true;
+		}
+
+		private void addEntry(int d, char[] source, int offset, int length, boolean directory, long size,
+				long lastModified) {
+
+			if (entries == parent.length) {
+				int capacity = entries * 2;
+				parent = Arrays.copyOf(parent, capacity);
+				nameStart = Arrays.copyOf(nameStart, capacity + 1);
+				sizes = Arrays.copyOf(sizes, capacity);
+				modified = Arrays.copyOf(modified, capacity);
+			}
+
+			if (nameLength + length > names.length)
+				names = Arrays.copyOf(names, Math.max(names.length * 2, nameLength + length));
+
+			System.arraycopy(source, offset, names, nameLength, length);
+
+			parent[entries] = d;
+			nameStart[entries] = nameLength;
+			sizes[entries] = size;
+			modified[entries] = lastModified;
+			directoryFlags.set(entries, directory);
+
+			nameLength += length;
+			entries++;
+		}
+
+		private String childPath(String relative, int id, String separator) {
+
+			String name = new String(names, nameStart[id], (id + 1 < entries ? nameStart[id + 1] : nameLength)
+					- nameStart[id]);
+
+			return relative.isEmpty() ? name : relative + separator + name;
+		}
+
+	}// class Builder
+
+}// class NameIndex
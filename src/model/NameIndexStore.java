@@ -0,0 +1,132 @@
+package model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A classe NameIndexStore guarda em disco um {@link NameIndex} para cada
+ * diretório raiz já indexado e mantém na memória o último índice usado.
+ *
+ * Cada consulta ao índice de uma raiz o atualiza de forma incremental e grava o
+ * resultado somente se algum diretório mudou.
+ */
+public class NameIndexStore {
+
+	private final Path directory;
+
+	private volatile NameIndex current;
+
+	/**
+	 * Construtor da classe NameIndexStore.
+	 *
+	 * @param directory o diretório onde os índices são gravados
+	 */
+	public NameIndexStore(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Verifica se já existe um índice para a raiz, sem lê-lo. Não aguarda uma
+	 * indexação em andamento.
+	 *
+	 * @param root o diretório raiz
+	 * @return true se a raiz já foi indexada
+	 */
+	public boolean contains(Path root) {
+
+		root = normalize(root);
+		NameIndex index = current;
+
+		return (index != null && index.getRoot().equals(root)) || Files.exists(getFile(root));
+	}
+
+	/**
+	 * Obtém o índice atualizado da raiz, lendo-o do disco ou indexando a árvore
+	 * inteira se ainda não existir.
+	 *
+	 * @param root o diretório raiz
+	 * @return o índice atualizado
+	 * @throws IOException se a raiz não puder ser lida ou o índice não puder ser
+	 *                     gravado
+	 */
+	public synchronized NameIndex get(Path root) throws IOException {
+
+		root = normalize(root);
+		Path file = getFile(root);
+
+		NameIndex index = current != null && current.getRoot().equals(root) ? current : null;
+
+		if (index == null && Files.exists(file)) {
+			try {
+				index = NameIndex.load(file);
+			} catch (IOException e) {
+				// Um índice ilegível é criado novamente
+			}
+
+			if (index != null && !index.getRoot().equals(root))
+				index = null;
+		}
+
+		NameIndex updated = index == null ? NameIndex.build(root) : index.update();
+
+		if (updated != index)
+			save(updated, file);
+
+		current = updated;
+
+		return updated;
+	}
+
+	/**
+	 * Guarda um índice já montado, como o de uma busca que percorreu a árvore
+	 * inteira, substituindo o índice anterior da mesma raiz.
+	 *
+	 * @param index o índice
+	 * @throws IOException se o índice não puder ser gravado
+	 */
+	public synchronized void put(NameIndex index) throws IOException {
+
+		save(index, getFile(index.getRoot()));
+
+		current = index;
+	}
+
+	private void save(NameIndex index, Path file) throws IOException {
+
+		Files.createDirectories(directory);
+
+		// Gravado à parte e movido, para que uma gravação interrompida não
+		// substitua o índice anterior
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		index.save(temporary);
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Obtém o arquivo do índice da raiz. O nome é o resumo SHA-1 do caminho, para
+	 * que duas raízes não disputem o mesmo arquivo; ainda assim, a raiz gravada
+	 * no arquivo é conferida na leitura.
+	 */
+	private Path getFile(Path root) {
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] name = digest.digest(root.toString().getBytes(StandardCharsets.UTF_8));
+
+			return directory.resolve(DuplicateFinder.toHex(name) + ".idx");
+		} catch (NoSuchAlgorithmException e) {
+			// Toda implementação do Java é obrigada a oferecer SHA-1
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Path normalize(Path root) {
+		return root.toAbsolutePath().normalize();
+	}
+
+}// class NameIndexStore
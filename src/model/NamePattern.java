@@ -0,0 +1,139 @@
+package model;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+
+/**
+ * Padrão de nome usado nas buscas. Se contiver um dos caracteres especiais de
+ * glob ({@code * ? [ {}), é aplicado ao nome inteiro como glob; caso contrário,
+ * é procurado como trecho do nome, sem diferenciar maiúsculas de minúsculas. Um
+ * padrão vazio aceita qualquer nome.
+ */
+final class NamePattern {
+
+	private final PathMatcher glob;
+	private final String text;
+	private final String literal;
+
+	/**
+	 * Construtor da classe NamePattern.
+	 *
+	 * @param pattern o padrão informado pelo usuário
+	 */
+	NamePattern(String pattern) {
+
+		pattern = pattern == null ? "" : pattern.trim();
+
+		if (isGlob(pattern)) {
+			glob = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+			text = null;
+			literal = longestLiteral(pattern);
+		} else {
+			glob = null;
+			text = toLowerCase(pattern);
+			literal = text;
+		}
+	}
+
+	/**
+	 * Verifica se o nome corresponde ao padrão.
+	 *
+	 * @param name     o nome da entrada
+	 * @param fileName o mesmo nome como caminho, usado pelo glob
+	 * @return true se o nome corresponde ao padrão
+	 */
+	boolean matches(String name, Path fileName) {
+
+		if (glob != null)
+			return glob.matches(fileName);
+
+		return text.isEmpty() || toLowerCase(name).contains(text);
+	}
+
+	boolean isGlob() {
+		return glob != null;
+	}
+
+	/**
+	 * Obtém o maior trecho, em minúsculas, que todo nome aceito contém. Para um
+	 * trecho simples é o próprio trecho; para um glob, o maior trecho sem
+	 * caracteres especiais.
+	 *
+	 * @return o trecho obrigatório, possivelmente vazio
+	 */
+	String getLiteral() {
+		return literal;
+	}
+
+	private static boolean isGlob(String pattern) {
+
+		for (int i = 0; i < pattern.length(); i++) {
+			switch (pattern.charAt(i)) {
+			case '*':
+			case '?':
+			case '[':
+			case '{':
+				return true;
+			default:
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Obtém o maior trecho do glob fora de grupos e sem curingas. Caracteres com
+	 * escape encerram o trecho, o que apenas torna o trecho obrigatório menor.
+	 */
+	private static String longestLiteral(String pattern) {
+
+		String longest = "";
+		StringBuilder run = new StringBuilder();
+		int nesting = 0;
+
+		for (int i = 0; i <= pattern.length(); i++) {
+
+			char c = i < pattern.length() ? pattern.charAt(i) : '*';
+
+			if (nesting == 0 && c != '*' && c != '?' && c != '\\' && c != '[' && c != '{') {
+				run.append(c);
+				continue;
+			}
+
+			if (run.length() > longest.length())
+				longest = run.toString();
+
+			run.setLength(0);
+
+			if (c == '\\')
+				i++;
+			else if (c == '[' || c == '{')
+				nesting++;
+			else if ((c == ']' || c == '}') && nesting > 0)
+				nesting--;
+		}
+
+		return toLowerCase(longest);
+	}
+
+	/**
+	 * Converte o texto para minúsculas caractere por caractere, com
+	 * {@link Character#toLowerCase(char)}, para que o resultado tenha o mesmo
+	 * tamanho do texto e possa ser comparado diretamente com nomes guardados como
+	 * vetores de caracteres.
+	 *
+	 * @param text o texto
+	 * @return o texto em minúsculas
+	 */
+	static String toLowerCase(String text) {
+
+		char[] chars = text.toCharArray();
+
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = Character.toLowerCase(chars[i]);
+
+		return new String(chars);
+	}
+
+}// class NamePattern
@@ -0,0 +1,276 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.DirectorySnapshot.Entry;
+import util.Extension;
+import util.ExtensionFilter;
+
+/**
+ * A classe RecursiveSearch procura, em toda a árvore abaixo de um diretório, as
+ * entradas cujo nome corresponde a um padrão e a um filtro de extensão.
+ *
+ * Cada diretório é lido por uma tarefa fork-join própria, de modo que vários
+ * diretórios são percorridos em paralelo. As entradas encontradas são colocadas
+ * em uma fila limitada à medida que aparecem; quando quem consome os resultados
+ * não acompanha a busca, as tarefas aguardam espaço na fila em vez de acumular
+ * resultados na memória.
+ *
+ * O padrão pode ser um glob (por exemplo, {@code relatorio*.pdf}), aplicado ao
+ * nome da entrada, ou um trecho simples, procurado no nome sem diferenciar
+ * maiúsculas de minúsculas. Um padrão vazio aceita qualquer nome.
+ */
+public class RecursiveSearch {
+
+	/** Profundidade máxima padrão: a árvore inteira. */
+	public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+	/** Capacidade padrão da fila de resultados. */
+	public static final int DEFAULT_CAPACITY = 4_096;
+
+	private static final LinkOption[] NO_FOLLOW_LINKS = { LinkOption.NOFOLLOW_LINKS };
+	private static final LinkOption[] FOLLOW_LINKS = {};
+
+	private final Path root;
+	private final ExtensionFilter extension;
+	private final NamePattern pattern;
+	private final int maxDepth;
+	private final boolean followLinks;
+
+	private final BlockingQueue<Entry> results;
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+	private final Set<Object> visited = ConcurrentHashMap.newKeySet();
+
+	private final ForkJoinPool pool;
+	private SearchTask task;
+	private NameIndex.Collector collector;
+
+	/**
+	 * Construtor da classe RecursiveSearch.
+	 *
+	 * @param root        o diretório em que a busca começa
+	 * @param pattern     o padrão do nome
+	 * @param extension   o filtro aplicado aos arquivos
+	 * @param maxDepth    a quantidade máxima de níveis abaixo da raiz que serão
+	 *                    lidos; 1 lê apenas a própria raiz
+	 * @param followLinks se true, links simbólicos para diretórios serão seguidos,
+	 *                    visitando cada diretório real uma única vez
+	 * @param capacity    a capacidade da fila de resultados
+	 * @param pool        o pool em que as tarefas serão executadas; não deve ser
+	 *                    o pool comum do fork-join, porque as tarefas ficam
+	 *                    bloqueadas enquanto a fila de resultados está cheia
+	 */
+	public RecursiveSearch(Path root, String pattern, ExtensionFilter extension, int maxDepth, boolean followLinks,
+			int capacity, ForkJoinPool pool) {
+
+		if (maxDepth < 1)
+			throw new IllegalArgumentException("maxDepth: " + maxDepth);
+
+		this.root = root;
+		this.extension = extension == null ? Extension.ALL : extension;
+		this.maxDepth = maxDepth;
+		this.followLinks = followLinks;
+		this.pool = pool;
+
+		results = new ArrayBlockingQueue<>(capacity);
+
+		this.pattern = new NamePattern(pattern);
+	}
+
+	/**
+	 * Entrega ao coletor todos os diretórios lidos pela busca, para que o índice
+	 * da árvore seja montado sem percorrê-la novamente. Deve ser chamado antes de
+	 * {@link #start()}.
+	 *
+	 * @param collector o coletor com a mesma raiz da busca
+	 * @return esta busca
+	 * @throws IllegalArgumentException se o coletor tiver outra raiz
+	 * @throws IllegalStateException    se a busca seguir links ou já tiver
+	 *                                  começado
+	 */
+	public synchronized RecursiveSearch indexInto(NameIndex.Collector collector) {
+
+		if (!collector.getRoot().equals(root.toAbsolutePath().normalize()))
+			throw new IllegalArgumentException(collector.getRoot().toString());
+
+		if (followLinks || task != null)
+			throw new IllegalStateException();
+
+		this.collector = collector;
+
+		return this;
+	}
+
+	/**
+	 * Inicia a busca em segundo plano.
+	 *
+	 * @return esta busca
+	 */
+	public synchronized RecursiveSearch start() {
+
+		if (task == null) {
+
+			if (followLinks) {
+				try {
+					visit(Files.readAttributes(root, BasicFileAttributes.class));
+				} catch (IOException e) {
+					// A leitura da raiz falhará na própria tarefa
+				}
+			}
+
+			task = new SearchTask(this, root, 1, null);
+			pool.execute(task);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Cancela a busca. As tarefas param assim que terminam a entrada atual, e as
+	 * que aguardam espaço na fila são liberadas.
+	 */
+	public void cancel() {
+		cancelled.set(true);
+	}
+
+	/**
+	 * Verifica se a busca foi cancelada.
+	 *
+	 * @return true se a busca foi cancelada
+	 */
+	public boolean isCancelled() {
+		return cancelled.get();
+	}
+
+	/**
+	 * Verifica se todas as tarefas da busca terminaram. Ainda pode haver
+	 * resultados na fila.
+	 *
+	 * @return true se a busca terminou
+	 */
+	public synchronized boolean isDone() {
+		return task != null && task.isDone();
+	}
+
+	/**
+	 * Verifica se a busca terminou e todos os resultados já foram retirados da
+	 * fila.
+	 *
+	 * @return true se não haverá mais resultados
+	 */
+	public boolean isExhausted() {
+		return isDone() && results.isEmpty();
+	}
+
+	/**
+	 * Retira os resultados disponíveis, aguardando até o tempo informado se a fila
+	 * estiver vazia.
+	 *
+	 * @param target  onde os resultados serão adicionados
+	 * @param timeout o tempo máximo de espera
+	 * @param unit    a unidade do tempo de espera
+	 * @return a quantidade de resultados retirados
+	 * @throws InterruptedException se a thread for interrompida durante a espera
+	 */
+	public int drainTo(Collection<? super Entry> target, long timeout, TimeUnit unit) throws InterruptedException {
+
+		int count = results.drainTo(target);
+
+		if (count > 0)
+			return count;
+
+		Entry entry = results.poll(timeout, unit);
+
+		if (entry == null)
+			return 0;
+
+		target.add(entry);
+
+		return 1 + results.drainTo(target);
+	}
+
+	/**
+	 * Obtém o nome da entrada relativo à raiz da busca.
+	 *
+	 * @param entry         uma entrada encontrada pela busca
+	 * @param withExtension se true, o nome de um arquivo incluirá sua extensão
+	 * @return o caminho relativo, com o nome exibido da entrada ao final
+	 */
+	public String getRelativeName(Entry entry, boolean withExtension) {
+
+		return entry.getRelativeName(root, withExtension);
+	}
+
+	public Path getRoot() {
+		return root;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public boolean isFollowLinks() {
+		return followLinks;
+	}
+
+	NameIndex.Collector getCollector() {
+		return collector;
+	}
+
+	ForkJoinPool getPool() {
+		return pool;
+	}
+
+	BlockingQueue<Entry> getResults() {
+		return results;
+	}
+
+	LinkOption[] getLinkOptions() {
+		return followLinks ? FOLLOW_LINKS : NO_FOLLOW_LINKS;
+	}
+
+	/**
+	 * Verifica se a entrada corresponde ao padrão e, no caso de arquivos, ao filtro
+	 * de extensão.
+	 */
+	boolean accepts(Entry entry) {
+
+		String name = entry.getName();
+
+		if (entry.isFile() && !extension.matches(name))
+			return false;
+
+		return pattern.matches(name, entry.getPath().getFileName());
+	}
+
+	/**
+	 * Registra a visita a um diretório. Sem seguir links a árvore não tem ciclos e
+	 * todo diretório é visitado; seguindo links, um diretório já visitado por outro
+	 * caminho é ignorado, o que impede laços infinitos.
+	 *
+	 * @param attributes os atributos do diretório
+	 * @return true se o diretório deve ser lido
+	 */
+	boolean visit(BasicFileAttributes attributes) {
+
+		if (!followLinks)
+			return true;
+
+		Object key = attributes.fileKey();
+
+		return key == null || visited.add(key);
+	}
+
+}// class RecursiveSearch
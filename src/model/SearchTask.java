@@ -0,0 +1,187 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import model.DirectorySnapshot.Entry;
+
+/**
+ * Tarefa fork-join da busca recursiva. Cada tarefa lê um único diretório,
+ * entrega as entradas aceitas à fila de resultados e cria uma nova tarefa para
+ * cada subdiretório dentro do limite de profundidade. As tarefas criadas são
+ * distribuídas entre as threads do pool por roubo de trabalho.
+ *
+ * Se a busca tiver um {@link NameIndex.Collector}, cada tarefa também entrega a
+ * ele todas as entradas lidas do seu diretório.
+ */
+class SearchTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Intervalo de verificação do cancelamento enquanto a fila está cheia. */
+	private static final long OFFER_TIMEOUT = 50;
+
+	private final RecursiveSearch search;
+	private final Path directory;
+	private final int depth;
+	private final BasicFileAttributes directoryAttributes;
+
+	/**
+	 * Construtor da classe SearchTask.
+	 *
+	 * @param search     a busca a que a tarefa pertence
+	 * @param directory  o diretório a ser lido
+	 * @param depth      a profundidade do diretório em relação à raiz da busca
+	 * @param attributes os atributos do diretório, ou null para a raiz
+	 */
+	SearchTask(RecursiveSearch search, Path directory, int depth, BasicFileAttributes attributes) {
+		this.search = search;
+		this.directory = directory;
+		this.depth = depth;
+		this.directoryAttributes = attributes;
+	}
+
+	@Override
+	protected void compute() {
+
+		if (search.isCancelled())
+			return;
+
+		List<SearchTask> subtasks = new ArrayList<>();
+		long entries = 0;
+
+		NameIndex.Collector collector = search.getCollector();
+		List<Entry> listed = collector == null ? null : new ArrayList<>();
+		long lastModified = 0;
+		boolean readable = true;
+
+		if (collector != null) {
+			try {
+				lastModified = (directoryAttributes != null ? directoryAttributes
+						: Files.readAttributes(directory, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS))
+						.lastModifiedTime().toMillis();
+			} catch (IOException e) {
+				collector.markIncomplete();
+				collector = null;
+			}
+		}
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+
+			for (Path path : stream) {
+
+				if (search.isCancelled())
+					break;
+
+				entries++;
+				BasicFileAttributes attributes;
+
+				try {
+					attributes = Files.readAttributes(path, BasicFileAttributes.class, search.getLinkOptions());
+				} catch (IOException e) {
+					continue;
+				}
+
+				Entry entry = Entry.of(path, attributes);
+
+				if (entry == null)
+					continue;
+
+				if (search.accepts(entry))
+					offer(entry);
+
+				if (listed != null)
+					listed.add(entry);
+
+				if (!entry.isDirectory())
+					continue;
+
+				if (depth >= search.getMaxDepth()) {
+					// O índice não pode ser montado com a árvore cortada
+					if (collector != null)
+						collector.markIncomplete();
+				} else if (search.visit(attributes)) {
+					SearchTask subtask = new SearchTask(search, path, depth + 1, attributes);
+					subtask.fork();
+					subtasks.add(subtask);
+				}
+			}
+		} catch (IOException e) {
+			// Diretórios sem permissão de leitura são ignorados
+			readable = false;
+		}
+
+		if (collector != null) {
+			if (search.isCancelled())
+				collector.markIncomplete();
+			else
+				collector.add(search.getRoot().relativize(directory).toString(), lastModified,
+						readable ? listed : null);
+		}
+
+		Metrics.countEntries(entries);
+		Metrics.countStatCalls(entries);
+
+		for (SearchTask subtask : subtasks)
+			subtask.join();
+	}
+
+	/**
+	 * Entrega a entrada à fila de resultados.
+	 *
+	 * @param entry a entrada aceita
+	 */
+	private void offer(Entry entry) {
+		offer(search.getResults(), entry, search::isCancelled);
+	}
+
+	/**
+	 * Entrega um resultado a uma fila limitada. Se a fila estiver cheia, a thread
+	 * aguarda como bloqueio gerenciado, permitindo que o pool compense a thread
+	 * parada, até haver espaço ou a busca ser cancelada.
+	 *
+	 * @param queue     a fila de resultados
+	 * @param value     o resultado
+	 * @param cancelled indica se a busca foi cancelada
+	 */
+	static <T> void offer(BlockingQueue<T> queue, T value, BooleanSupplier cancelled) {
+
+		if (queue.offer(value))
+			return;
+
+		try {
+			ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+
+				private boolean done;
+
+				@Override
+				public boolean block() throws InterruptedException {
+
+					while (!done && !cancelled.getAsBoolean())
+						done = queue.offer(value, OFFER_TIMEOUT, TimeUnit.MILLISECONDS);
+
+					return true;
+				}
+
+				@Override
+				public boolean isReleasable() {
+					return done || cancelled.getAsBoolean() || (done = queue.offer(value));
+				}
+			});
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}// class SearchTask
@@ -0,0 +1,163 @@
+package model;
+
+import java.util.function.Consumer;
+
+/**
+ * A classe SnapshotDiff compara duas listagens do mesmo diretório, gravadas ou
+ * recém-capturadas como {@link TreeSnapshot}, e informa as entradas que
+ * mudaram entre elas.
+ *
+ * Como as duas listagens estão ordenadas pelo mesmo critério, a comparação as
+ * percorre juntas uma única vez, como na intercalação de duas listas
+ * ordenadas: o caminho menor só existe em uma das listagens, e caminhos iguais
+ * têm os atributos comparados. O tempo é linear na soma das quantidades de
+ * entradas, e os caminhos são comparados sem serem decodificados.
+ */
+public final class SnapshotDiff {
+
+	/**
+	 * Enumeração que define os tipos de alteração de uma entrada.
+	 */
+	public enum Type {
+
+		/** A entrada só existe na listagem posterior. */
+		ADDED,
+
+		/** A entrada só existe na listagem anterior. */
+		REMOVED,
+
+		/** O tamanho da entrada mudou. */
+		RESIZED,
+
+		/** O tamanho é o mesmo, mas a data de modificação ou o tipo mudou. */
+		MODIFIED
+	}// enum Type
+
+	/**
+	 * Representa a alteração de uma entrada entre as duas listagens.
+	 */
+	public static final class Change {
+
+		private final Type type;
+		private final String name;
+		private final boolean directory;
+		private final long sizeBefore;
+		private final long sizeAfter;
+
+		private Change(Type type, String name, boolean directory, long sizeBefore, long sizeAfter) {
+			this.type = type;
+			this.name = name;
+			this.directory = directory;
+			this.sizeBefore = sizeBefore;
+			this.sizeAfter = sizeAfter;
+		}
+
+		public Type getType() {
+			return type;
+		}
+
+		/**
+		 * Obtém o caminho da entrada relativo à raiz, com "/" como separador.
+		 *
+		 * @return o caminho relativo
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		/**
+		 * Obtém o tamanho na listagem anterior.
+		 *
+		 * @return o tamanho em bytes, ou -1 se a entrada foi criada
+		 */
+		public long getSizeBefore() {
+			return sizeBefore;
+		}
+
+		/**
+		 * Obtém o tamanho na listagem posterior.
+		 *
+		 * @return o tamanho em bytes, ou -1 se a entrada foi removida
+		 */
+		public long getSizeAfter() {
+			return sizeAfter;
+		}
+
+		@Override
+		public String toString() {
+			return "Change [type=" + type + ", name=" + name + ", sizeBefore=" + sizeBefore + ", sizeAfter="
+					+ sizeAfter + "]";
+		}
+	}// class Change
+
+	private SnapshotDiff() {
+	}
+
+	/**
+	 * Compara as duas listagens, entregando as alterações na ordem dos caminhos.
+	 *
+	 * @param before   a listagem anterior
+	 * @param after    a listagem posterior
+	 * @param listener quem recebe cada alteração
+	 * @return a quantidade de alterações
+	 */
+	public static int compare(TreeSnapshot before, TreeSnapshot after, Consumer<Change> listener) {
+
+		long start = Metrics.start();
+		EntryStore first = before.getStore();
+		EntryStore second = after.getStore();
+
+		int i = 0;
+		int j = 0;
+		int changes = 0;
+
+		while (i < first.size() || j < second.size()) {
+
+			int comparison = i == first.size() ? 1
+					: j == second.size() ? -1 : EntryStore.compareNames(first, i, second, j);
+
+			if (comparison < 0) {
+				listener.accept(new Change(Type.REMOVED, first.getName(i), first.isDirectory(i), first.getSize(i), -1));
+				i++;
+				changes++;
+				continue;
+			}
+
+			if (comparison > 0) {
+				listener.accept(
+						new Change(Type.ADDED, second.getName(j), second.isDirectory(j), -1, second.getSize(j)));
+				j++;
+				changes++;
+				continue;
+			}
+
+			Type type = null;
+
+			// O tamanho de um diretório não inclui o conteúdo; somente a data é comparada
+			if (first.isDirectory(i) != second.isDirectory(j))
+				type = Type.MODIFIED;
+			else if (!second.isDirectory(j) && first.getSize(i) != second.getSize(j))
+				type = Type.RESIZED;
+			else if (first.getLastModified(i) != second.getLastModified(j))
+				type = Type.MODIFIED;
+
+			if (type != null) {
+				listener.accept(new Change(type, second.getName(j), second.isDirectory(j), first.getSize(i),
+						second.getSize(j)));
+				changes++;
+			}
+
+			i++;
+			j++;
+		}
+
+		Metrics.SNAPSHOT_DIFF.stop(start);
+
+		return changes;
+	}
+
+}// class SnapshotDiff
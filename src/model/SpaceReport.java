@@ -0,0 +1,85 @@
+package model;
+
+import static util.Constants.FORMAT_SPACE_DIRECTORIES;
+import static util.Constants.FORMAT_SPACE_ENTRY;
+import static util.Constants.FORMAT_SPACE_FILES;
+import static util.Constants.FORMAT_SPACE_SUMMARY;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import model.DirectorySnapshot.Entry;
+
+/**
+ * A classe SpaceReport responde "o que está ocupando este disco?": guarda o
+ * tamanho total de um diretório junto com os maiores arquivos e os maiores
+ * subdiretórios de toda a sua árvore, obtidos em uma única passagem.
+ *
+ * O tamanho das entradas de subdiretórios é o total da subárvore de cada um.
+ */
+public final class SpaceReport {
+
+	private final Path directory;
+	private final DirectorySize size;
+	private final List<Entry> largestFiles;
+	private final List<Entry> largestDirectories;
+
+	/**
+	 * Construtor da classe SpaceReport.
+	 *
+	 * @param directory          o diretório analisado
+	 * @param size               o tamanho total do diretório
+	 * @param largestFiles       os maiores arquivos, do maior para o menor
+	 * @param largestDirectories os maiores subdiretórios, do maior para o menor
+	 */
+	public SpaceReport(Path directory, DirectorySize size, List<Entry> largestFiles, List<Entry> largestDirectories) {
+		this.directory = directory;
+		this.size = size;
+		this.largestFiles = Collections.unmodifiableList(largestFiles);
+		this.largestDirectories = Collections.unmodifiableList(largestDirectories);
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public DirectorySize getSize() {
+		return size;
+	}
+
+	public List<Entry> getLargestFiles() {
+		return largestFiles;
+	}
+
+	public List<Entry> getLargestDirectories() {
+		return largestDirectories;
+	}
+
+	/**
+	 * Monta o relatório no formato exibido na área de propriedades.
+	 *
+	 * @return o relatório
+	 */
+	public String format() {
+
+		StringBuilder report = new StringBuilder(256 + (largestFiles.size() + largestDirectories.size()) * 96);
+
+		report.append(String.format(FORMAT_SPACE_SUMMARY, directory, size.getBytes(), size.getFiles(),
+				size.getDirectories()));
+
+		report.append(String.format(FORMAT_SPACE_FILES, largestFiles.size()));
+		append(report, largestFiles);
+
+		report.append(String.format(FORMAT_SPACE_DIRECTORIES, largestDirectories.size()));
+		append(report, largestDirectories);
+
+		return report.toString();
+	}
+
+	private void append(StringBuilder report, List<Entry> entries) {
+		for (Entry entry : entries)
+			report.append(String.format(FORMAT_SPACE_ENTRY, entry.getSize(), directory.relativize(entry.getPath())));
+	}
+
+}// class SpaceReport
@@ -0,0 +1,260 @@
+package model;
+
+import static util.Constants.TREEMAP_FILES;
+import static util.Constants.TREEMAP_MAX_BLOCKS;
+import static util.Constants.TREEMAP_OTHERS;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A classe SpaceUsage soma o espaço ocupado pelos subdiretórios de um
+ * diretório, em dois níveis, durante o mesmo cálculo de tamanho usado por
+ * {@link FileChecker#getDirectorySize(Path)}.
+ *
+ * Cada arquivo encontrado é somado ao subdiretório de primeiro nível e ao de
+ * segundo nível que o contêm, de modo que os totais crescem à medida que a
+ * árvore é percorrida e convergem para os valores finais; quando a subárvore
+ * de um subdiretório termina, seu total passa a ser exato. Durante o cálculo,
+ * retratos dos totais parciais são entregues a um ouvinte, no máximo um a cada
+ * intervalo.
+ *
+ * Os métodos de soma são chamados pelas threads do pool, ao mesmo tempo.
+ */
+public final class SpaceUsage {
+
+	/**
+	 * Retrato imutável do espaço ocupado por um diretório, pelos arquivos soltos
+	 * de um diretório ou por um grupo de diretórios menores.
+	 */
+	public static final class Block {
+
+		private static final Comparator<Block> BY_SIZE = Comparator.comparingLong(Block::getBytes).reversed();
+
+		private final String name;
+		private final long bytes;
+		private final boolean complete;
+		private final List<Block> children;
+
+		private Block(String name, long bytes, boolean complete, List<Block> children) {
+			this.name = name;
+			this.bytes = bytes;
+			this.complete = complete;
+			this.children = children;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * Indica se o total é definitivo.
+		 *
+		 * @return true se toda a subárvore já foi calculada
+		 */
+		public boolean isComplete() {
+			return complete;
+		}
+
+		/**
+		 * Obtém as partes do bloco, da maior para a menor.
+		 *
+		 * @return uma lista imutável, vazia no segundo nível
+		 */
+		public List<Block> getChildren() {
+			return children;
+		}
+	}
+
+	/** Total de um diretório em cálculo. A chave vazia guarda os arquivos soltos. */
+	private static final class Node {
+
+		private final LongAdder bytes = new LongAdder();
+		private final Map<String, Node> children;
+		private volatile boolean complete;
+
+		Node(boolean nested) {
+			children = nested ? new ConcurrentHashMap<>() : null;
+		}
+
+		Node child(String name) {
+			return children.computeIfAbsent(name, key -> new Node(false));
+		}
+	}
+
+	private static final String FILES_KEY = "";
+
+	private final Path root;
+	private final Node top = new Node(false);
+	private final Map<String, Node> directories = new ConcurrentHashMap<>();
+
+	private final long interval;
+	private final Consumer<Block> listener;
+	private final AtomicLong nextPublish;
+
+	/**
+	 * Construtor da classe SpaceUsage.
+	 *
+	 * @param root     o diretório calculado
+	 * @param interval o intervalo mínimo entre dois retratos parciais, em
+	 *                 nanossegundos
+	 * @param listener quem recebe os retratos parciais, chamado em uma das threads
+	 *                 do cálculo
+	 */
+	SpaceUsage(Path root, long interval, Consumer<Block> listener) {
+		this.root = root;
+		this.interval = interval;
+		this.listener = listener;
+		this.nextPublish = new AtomicLong(System.nanoTime() + interval);
+	}
+
+	/**
+	 * Soma um arquivo encontrado ao diretório da raiz e aos subdiretórios de
+	 * primeiro e segundo níveis que o contêm.
+	 *
+	 * @param file  o arquivo
+	 * @param bytes o tamanho do arquivo
+	 */
+	void add(Path file, long bytes) {
+
+		Path relative = root.relativize(file);
+		int count = relative.getNameCount();
+
+		top.bytes.add(bytes);
+
+		if (count == 1) {
+			directory(FILES_KEY).bytes.add(bytes);
+		} else {
+			Node first = directory(relative.getName(0).toString());
+			first.bytes.add(bytes);
+			first.child(count == 2 ? FILES_KEY : relative.getName(1).toString()).bytes.add(bytes);
+		}
+
+		publishIfDue();
+	}
+
+	/**
+	 * Registra o fim do cálculo de um subdiretório. Somente os dois primeiros
+	 * níveis são exibidos; os demais são ignorados.
+	 *
+	 * @param directory o subdiretório calculado
+	 */
+	void complete(Path directory) {
+
+		Path relative = root.relativize(directory);
+
+		if (relative.getNameCount() == 1)
+			directory(relative.getName(0).toString()).complete = true;
+		else if (relative.getNameCount() == 2)
+			directory(relative.getName(0).toString()).child(relative.getName(1).toString()).complete = true;
+		else
+			return;
+
+		publishIfDue();
+	}
+
+	/**
+	 * Registra o fim do cálculo de toda a árvore.
+	 */
+	void finish() {
+		top.complete = true;
+	}
+
+	/**
+	 * Monta um retrato dos totais atuais. Em cada nível são mantidos os
+	 * {@link util.Constants#TREEMAP_MAX_BLOCKS} maiores blocos; os demais são
+	 * somados em um único bloco.
+	 *
+	 * @return o retrato, cujo nome é o do diretório calculado
+	 */
+	public Block snapshot() {
+
+		List<Block> children = new ArrayList<>(directories.size());
+
+		for (Map.Entry<String, Node> entry : directories.entrySet()) {
+
+			Node node = entry.getValue();
+			boolean complete = node.complete || top.complete;
+			List<Block> grandchildren = Collections.emptyList();
+
+			if (node.children != null) {
+
+				grandchildren = new ArrayList<>(node.children.size());
+
+				for (Map.Entry<String, Node> child : node.children.entrySet()) {
+					// Os arquivos soltos só ficam completos junto com o diretório que os contém
+					Node value = child.getValue();
+					grandchildren.add(new Block(label(child.getKey()), value.bytes.sum(), value.complete || complete,
+							Collections.emptyList()));
+				}
+
+				grandchildren = limit(grandchildren, complete);
+			}
+
+			children.add(new Block(label(entry.getKey()), node.bytes.sum(), complete, grandchildren));
+		}
+
+		Path name = root.getFileName();
+
+		return new Block(name == null ? root.toString() : name.toString(), top.bytes.sum(), top.complete,
+				limit(children, top.complete));
+	}
+
+	private Node directory(String name) {
+		return directories.computeIfAbsent(name, key -> new Node(!FILES_KEY.equals(key)));
+	}
+
+	private static String label(String name) {
+		return FILES_KEY.equals(name) ? TREEMAP_FILES : name;
+	}
+
+	/**
+	 * Ordena os blocos do maior para o menor, descarta os vazios e agrupa os que
+	 * passam do limite.
+	 */
+	private static List<Block> limit(List<Block> blocks, boolean complete) {
+
+		blocks.removeIf(block -> block.bytes == 0);
+		blocks.sort(Block.BY_SIZE);
+
+		if (blocks.size() <= TREEMAP_MAX_BLOCKS)
+			return Collections.unmodifiableList(blocks);
+
+		long others = 0;
+
+		for (Block block : blocks.subList(TREEMAP_MAX_BLOCKS - 1, blocks.size()))
+			others += block.bytes;
+
+		List<Block> limited = new ArrayList<>(blocks.subList(0, TREEMAP_MAX_BLOCKS - 1));
+		limited.add(new Block(String.format(TREEMAP_OTHERS, blocks.size() - TREEMAP_MAX_BLOCKS + 1), others, complete,
+				Collections.emptyList()));
+
+		return Collections.unmodifiableList(limited);
+	}
+
+	/**
+	 * Entrega um retrato parcial se o intervalo desde o anterior já passou. Só
+	 * uma das threads que chegam ao mesmo tempo monta o retrato.
+	 */
+	private void publishIfDue() {
+
+		long now = System.nanoTime();
+		long next = nextPublish.get();
+
+		if (now - next >= 0 && nextPublish.compareAndSet(next, now + interval))
+			listener.accept(snapshot());
+	}
+
+}// class SpaceUsage
@@ -0,0 +1,400 @@
+package model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import model.DirectorySnapshot.Entry;
+
+/**
+ * A classe TreeSnapshot guarda uma listagem, simples ou recursiva, para ser
+ * gravada em disco e comparada depois com outra listagem do mesmo diretório
+ * por um {@link SnapshotDiff}.
+ *
+ * As entradas ficam em um {@link EntryStore}, identificadas pelo caminho
+ * relativo à raiz com "/" como separador e ordenadas byte a byte por esse
+ * caminho. Nessa ordem, as entradas de um mesmo diretório ficam próximas e
+ * caminhos vizinhos têm prefixos longos em comum, o que o formato gravado
+ * aproveita:
+ *
+ * <pre>
+ * cabeçalho: MAGIC, VERSION, raiz, instante da captura, quantidade
+ * entrada:   prefixo comum com o caminho anterior, tamanho do restante,
+ *            restante do caminho em UTF-8, tipo, tamanho,
+ *            diferença entre a data e a data da entrada anterior
+ * </pre>
+ *
+ * Os inteiros das entradas são gravados como varints (7 bits por byte), e as
+ * diferenças de data em zigue-zague, de modo que valores pequenos ocupam um ou
+ * dois bytes. A gravação passa por um buffer de um {@link FileChannel}, e a
+ * leitura mapeia o arquivo na memória.
+ */
+public final class TreeSnapshot {
+
+	private static final int MAGIC = 0x46534E31; // "FSN1"
+	private static final int VERSION = 1;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Maior espaço ocupado pelos campos de uma entrada, exceto o caminho. */
+	private static final int MAX_RECORD_HEADER = 4 * 10 + 1;
+
+	private static final byte FILE = 0;
+	private static final byte DIRECTORY = 1;
+
+	private final String root;
+	private final long capturedAt;
+	private final EntryStore store;
+
+	private TreeSnapshot(String root, long capturedAt, EntryStore store) {
+		this.root = root;
+		this.capturedAt = capturedAt;
+		this.store = store;
+	}
+
+	/**
+	 * Obtém o diretório listado, como estava escrito na captura.
+	 *
+	 * @return o caminho absoluto do diretório
+	 */
+	public String getRoot() {
+		return root;
+	}
+
+	/**
+	 * Obtém o instante da captura.
+	 *
+	 * @return o instante, em milissegundos desde a época
+	 */
+	public long getCapturedAt() {
+		return capturedAt;
+	}
+
+	/**
+	 * Obtém a quantidade de entradas.
+	 *
+	 * @return a quantidade de entradas
+	 */
+	public int size() {
+		return store.size();
+	}
+
+	/**
+	 * Obtém o caminho da entrada relativo à raiz, com "/" como separador.
+	 *
+	 * @param index a posição da entrada
+	 * @return o caminho relativo
+	 */
+	public String getName(int index) {
+		return store.getName(index);
+	}
+
+	public boolean isDirectory(int index) {
+		return store.isDirectory(index);
+	}
+
+	public long getSize(int index) {
+		return store.getSize(index);
+	}
+
+	public long getLastModified(int index) {
+		return store.getLastModified(index);
+	}
+
+	EntryStore getStore() {
+		return store;
+	}
+
+	/**
+	 * Grava a listagem no formato compacto, substituindo o arquivo se ele existir.
+	 *
+	 * @param file o arquivo de destino
+	 * @throws IOException se o arquivo não puder ser gravado
+	 */
+	public void write(Path file) throws IOException {
+
+		long start = Metrics.start();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			byte[] encodedRoot = root.getBytes(StandardCharsets.UTF_8);
+
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			putVarint(buffer, encodedRoot.length);
+			put(channel, buffer, encodedRoot, 0, encodedRoot.length);
+			ensure(channel, buffer, MAX_RECORD_HEADER);
+			buffer.putLong(capturedAt);
+			putVarint(buffer, store.size());
+
+			byte[] previous = new byte[0];
+			long previousModified = 0;
+
+			for (int index = 0; index < store.size(); index++) {
+
+				byte[] name = store.getName(index).getBytes(StandardCharsets.UTF_8);
+				int shared = sharedPrefix(previous, name);
+				long modified = store.getLastModified(index);
+
+				ensure(channel, buffer, MAX_RECORD_HEADER);
+				putVarint(buffer, shared);
+				putVarint(buffer, name.length - shared);
+				put(channel, buffer, name, shared, name.length - shared);
+
+				ensure(channel, buffer, MAX_RECORD_HEADER);
+				buffer.put(store.isDirectory(index) ? DIRECTORY : FILE);
+				putVarint(buffer, store.getSize(index));
+				putVarint(buffer, zigzag(modified - previousModified));
+
+				previous = name;
+				previousModified = modified;
+			}
+
+			drain(channel, buffer);
+		} finally {
+			Metrics.SNAPSHOT_WRITE.stop(start, file);
+		}
+	}
+
+	/**
+	 * Lê uma listagem gravada por {@link #write(Path)}, mapeando o arquivo na
+	 * memória. Arquivos maiores que 2 GB não podem ser mapeados em um único
+	 * buffer e não são aceitos.
+	 *
+	 * @param file o arquivo de origem
+	 * @return a listagem lida
+	 * @throws IOException se o arquivo não puder ser lido ou não estiver no
+	 *                     formato esperado
+	 */
+	public static TreeSnapshot read(Path file) throws IOException {
+
+		long start = Metrics.start();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException(file.toString());
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				throw new IOException(file.toString());
+
+			byte[] encodedRoot = new byte[length(buffer, file)];
+			buffer.get(encodedRoot);
+
+			String root = new String(encodedRoot, StandardCharsets.UTF_8);
+			long capturedAt = buffer.getLong();
+			int count = length(buffer, file);
+
+			// Cada entrada ocupa ao menos 5 bytes; um total maior indica um arquivo corrompido
+			if (count > buffer.remaining() / 5)
+				throw new IOException(file.toString());
+
+			EntryStore.Builder builder = new EntryStore.Builder(count);
+			byte[] name = new byte[256];
+			int previousLength = 0;
+			long modified = 0;
+
+			for (int index = 0; index < count; index++) {
+
+				int shared = length(buffer, file);
+				int suffix = length(buffer, file);
+
+				if (shared > previousLength || suffix > buffer.remaining())
+					throw new IOException(file.toString());
+
+				if (shared + suffix > name.length)
+					name = Arrays.copyOf(name, Math.max(name.length * 2, shared + suffix));
+
+				buffer.get(name, shared, suffix);
+
+				byte type = buffer.get();
+
+				if (type != FILE && type != DIRECTORY)
+					throw new IOException(file.toString());
+
+				long size = getVarint(buffer);
+				modified += unzigzag(getVarint(buffer));
+
+				builder.add(name, 0, shared + suffix, type == DIRECTORY, size, modified);
+				previousLength = shared + suffix;
+			}
+
+			EntryStore store = builder.build();
+
+			// A comparação por intercalação depende da ordem gravada
+			for (int index = 1; index < store.size(); index++)
+				if (store.compareNames(index - 1, index) > 0)
+					throw new IOException(file.toString());
+
+			return new TreeSnapshot(root, capturedAt, store);
+		} catch (BufferUnderflowException e) {
+			throw new IOException(file.toString(), e);
+		} finally {
+			Metrics.SNAPSHOT_READ.stop(start, file);
+		}
+	}
+
+	private static int length(ByteBuffer buffer, Path file) throws IOException {
+
+		long value = getVarint(buffer);
+
+		if (value < 0 || value > Integer.MAX_VALUE)
+			throw new IOException(file.toString());
+
+		return (int) value;
+	}
+
+	private static int sharedPrefix(byte[] a, byte[] b) {
+
+		int length = Math.min(a.length, b.length);
+		int shared = 0;
+
+		while (shared < length && a[shared] == b[shared])
+			shared++;
+
+		return shared;
+	}
+
+	/**
+	 * Grava um trecho de bytes, enviando o buffer ao canal sempre que ele enche.
+	 */
+	private static void put(FileChannel channel, ByteBuffer buffer, byte[] bytes, int from, int length)
+			throws IOException {
+
+		while (length > 0) {
+
+			if (!buffer.hasRemaining())
+				drain(channel, buffer);
+
+			int chunk = Math.min(length, buffer.remaining());
+			buffer.put(bytes, from, chunk);
+			from += chunk;
+			length -= chunk;
+		}
+	}
+
+	/**
+	 * Garante espaço no buffer para a quantidade de bytes informada.
+	 */
+	private static void ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+
+		if (buffer.remaining() < bytes)
+			drain(channel, buffer);
+	}
+
+	private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+		buffer.flip();
+
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+
+		buffer.clear();
+	}
+
+	/**
+	 * Grava um valor não negativo em grupos de 7 bits, do menos significativo ao
+	 * mais significativo; o bit mais alto de cada byte indica que há outro.
+	 */
+	private static void putVarint(ByteBuffer buffer, long value) {
+
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+
+		buffer.put((byte) value);
+	}
+
+	private static long getVarint(ByteBuffer buffer) {
+
+		long value = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+
+			if (b >= 0)
+				return value;
+		}
+
+		throw new BufferUnderflowException();
+	}
+
+	/** Leva valores próximos de zero, positivos ou negativos, a valores pequenos. */
+	private static long zigzag(long value) {
+		return value << 1 ^ value >> 63;
+	}
+
+	private static long unzigzag(long value) {
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/**
+	 * Monta uma {@link TreeSnapshot} a partir das entradas de uma listagem,
+	 * recebidas em qualquer ordem. Cada entrada é guardada em colunas assim que é
+	 * adicionada, sem que os objetos {@link Entry} sejam mantidos.
+	 */
+	public static final class Builder {
+
+		private final Path root;
+		private final long capturedAt = System.currentTimeMillis();
+		private final EntryStore.Builder entries = new EntryStore.Builder(256);
+		private final StringBuilder name = new StringBuilder();
+
+		/**
+		 * Construtor do Builder.
+		 *
+		 * @param root o diretório listado
+		 */
+		public Builder(Path root) {
+			this.root = root.toAbsolutePath().normalize();
+		}
+
+		/**
+		 * Adiciona uma entrada do diretório listado ou de um de seus
+		 * descendentes.
+		 *
+		 * @param entry a entrada
+		 * @return este Builder
+		 */
+		public Builder add(Entry entry) {
+
+			Path relative = root.relativize(entry.getPath().toAbsolutePath().normalize());
+
+			name.setLength(0);
+
+			for (int index = 0; index < relative.getNameCount(); index++) {
+				if (index > 0)
+					name.append('/');
+				name.append(relative.getName(index));
+			}
+
+			entries.add(name.toString().getBytes(StandardCharsets.UTF_8), 0, -1, entry.isDirectory(),
+					entry.getSize(), entry.getLastModified());
+
+			return this;
+		}
+
+		/**
+		 * Cria a listagem, com as entradas ordenadas pelo caminho relativo.
+		 *
+		 * @return a listagem
+		 */
+		public TreeSnapshot build() {
+			return new TreeSnapshot(root.toString(), capturedAt, entries.build().sortByName());
+		}
+	}
+
+}// class TreeSnapshot
@@ -0,0 +1,48 @@
+package util;
+
+/**
+ * Enumeração que define o que fazer quando uma entrada copiada ou movida já
+ * existe no destino.
+ */
+public enum ConflictPolicy {
+
+	/** Mantém a entrada do destino e não copia a de origem. */
+	SKIP("Ignorar"),
+
+	/** Substitui o arquivo do destino; subdiretórios são mesclados. */
+	OVERWRITE("Substituir"),
+
+	/** Mantém as duas, acrescentando um número ao nome da entrada copiada. */
+	RENAME("Manter os dois");
+
+	private final String label;
+
+	private ConflictPolicy(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Obtém o nome exibido na interface.
+	 *
+	 * @return o nome da opção
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Obtém os nomes exibidos de todas as opções, na ordem da enumeração.
+	 *
+	 * @return os nomes das opções
+	 */
+	public static String[] labels() {
+
+		ConflictPolicy[] policies = values();
+		String[] labels = new String[policies.length];
+
+		for (int index = 0; index < policies.length; index++)
+			labels[index] = policies[index].label;
+
+		return labels;
+	}
+}// enum ConflictPolicy
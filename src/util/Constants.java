@@ -1,5 +1,8 @@
 package util;
 
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
 /**
  * Interface que contém constantes utilizadas no programa Verificador de
  * Arquivos.
@@ -10,12 +13,84 @@ public interface Constants {
 
 	String MSG_INVALID_PATH = "O caminho inserido não existe";
 	String MSG_NOT_DIRECTORY = "O caminho inserido não pertence a um diretório";
+	String MSG_READ_ERROR = "Não foi possível ler o conteúdo do diretório";
+	String MSG_ENTRY_REMOVED = "A entrada não existe mais";
+	String MSG_LOADING = "Carregando...";
+	String MSG_SEARCHING = "Buscando... %d encontrado(s)";
+	String MSG_SEARCH_DONE = "Busca concluída: %d encontrado(s)";
+	String MSG_DUPLICATES_SEARCHING = "Procurando arquivos duplicados...";
+	String MSG_LARGEST_SEARCHING = "Procurando os maiores arquivos e subdiretórios...";
+	String MSG_EXPORT_ERROR = "Não foi possível salvar o relatório";
+	String MSG_DELETE_CONFIRM = "Excluir %d item(ns) selecionado(s), com todo o conteúdo dos subdiretórios?";
+	String MSG_CONFLICT_POLICY = "O que fazer com os itens que já existem no destino?";
+	String MSG_PREVIEW_ERROR = "Não foi possível ler o conteúdo do arquivo";
+	String MSG_PREVIEW_EMPTY = "Selecione um arquivo para exibir o seu conteúdo";
+	String MSG_SNAPSHOT_ERROR = "Não foi possível gravar ou ler a listagem em %s";
+	String MSG_TREEMAP_PROGRESS = "Calculando... %d Bytes encontrados";
+	String MSG_TREEMAP_DONE = "Total: %d Bytes";
 
 	String DATE_FORMAT = "dd/MM/yyyy - HH:mm:ss";
+	DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT).withZone(ZoneId.systemDefault());
 	
 	String EMPTY = "";
 
-	int[] SIZE_UI = { 860, 423 };
+	int SIZE_CACHE_MAX_ENTRIES = 10_000;
+	long SIZE_CACHE_MAX_BYTES = 4 * 1024 * 1024;
+	String SIZE_CACHE_FILE = ".file-navigator-sizes";
+
+	int SEARCH_MAX_DEPTH = 64;
+	boolean SEARCH_FOLLOW_LINKS = false;
+	String SEARCH_UNLIMITED_DEPTH = "∞";
+	String[] SEARCH_DEPTHS = { "1", "2", "4", "8", "16", "32", "64", SEARCH_UNLIMITED_DEPTH };
+	String NAME_INDEX_DIRECTORY = ".file-navigator-index";
+	int LARGEST_LIMIT = 20;
+
+	int TREE_COLD_MILLIS = 60_000;
+	int TREE_EVICTION_INTERVAL = 10_000;
+	int TREE_ROW_HEIGHT = 18;
+
+	int TREEMAP_MAX_BLOCKS = 60;
+	long TREEMAP_PUBLISH_MILLIS = 100;
+	int[] TREEMAP_SIZE = { 720, 520 };
+	String TREEMAP_FILES = "(arquivos)";
+	String TREEMAP_OTHERS = "(outros %d)";
+	String TREEMAP_PARTIAL = " (parcial)";
+	String TITLE_TREEMAP = "Espaço ocupado: %s";
+	String FORMAT_TREEMAP_TIP = "%s: %d Bytes%s";
+
+	int CONTENT_WINDOW_SIZE = 1024 * 1024;
+	int CONTENT_BINARY_PROBE = 8 * 1024;
+	int CONTENT_MAX_LINE = 240;
+
+	int CONTENT_TYPE_HEADER = 512;
+	int CONTENT_TYPE_CACHE_ENTRIES = 200_000;
+	int CONTENT_TYPE_PARALLEL_THRESHOLD = 16;
+
+	int PREVIEW_PAGE_SIZE = 64 * 1024;
+	int PREVIEW_CACHE_PAGES = 16;
+	int PREVIEW_SCROLL_UNITS = 1 << 24;
+	int PREVIEW_WHEEL_ROWS = 3;
+
+	int FILE_JOB_THREADS = 2;
+	int FILE_JOB_CHUNK = 8 * 1024 * 1024;
+	int FILE_JOB_REFRESH = 250;
+	int[] FILE_JOB_SIZE = { 620, 260 };
+	String FILE_JOB_PART = ".part";
+	String FORMAT_FILE_JOB_PART = "%s.%d%s";
+	String FORMAT_FILE_JOB = "%s %s: %s, %d%% (%.1f de %.1f MB, %.1f MB/s)%s";
+	String FORMAT_FILE_JOB_MORE = "%s e mais %d";
+	String FORMAT_FILE_JOB_FAILURES = ", %d falha(s): %s";
+	String FORMAT_RENAMED = "%s (%d)%s";
+	String FORMAT_EXTENSION_ITEM = "%s (%d)";
+	String FORMAT_EXTENSION_TIP = "%d arquivo(s), %d Bytes";
+
+	String METRICS_DOMAIN = "FileNavigator";
+	String METRICS_LOG_PROPERTY = "filenavigator.metrics.interval";
+	long METRICS_LOG_INTERVAL = 300;
+	int METRICS_SLOW_DIRECTORIES = 10;
+	long EVENT_STALL_MILLIS = 100;
+
+	int[] SIZE_UI = { 1110, 423 };
 	
 	String LABEL_DIRECTORY = "Diretório: ";
 	String LABEL_DIRECTORY_TIP = "Digite o caminho do diretório";
@@ -23,10 +98,42 @@ public interface Constants {
 	String LABEL_FILE_SUBDIRECTORY_TIP = "Clique em um dos arquivos ou subdiretórios para obter suas propriedades";
 	String LABEL_TYPE = "Tipo: ";
 	String LABEL_TYPE_TIP = "Selecione a extensão dos arquivos a serem exibidos";
+	String LABEL_CONTENT_TYPE_TIP = "Selecione o tipo de conteúdo dos arquivos, identificado pelos primeiros bytes e não pelo nome";
 	String LABEL_EXTENTION = "Exibir extensão ";
 	String LABEL_EXTENTION_TIP = "Marque ou desmarque para exibir a extensão dos arquivos";
 	String LABEL_PROPERTIES = "Propriedades";
+	String LABEL_PREVIEW = "Conteúdo";
+	String LABEL_PREVIEW_TIP = "Exibe o conteúdo do arquivo selecionado, em texto ou em hexadecimal";
+	String LABEL_TREE = "Árvore de diretórios";
+	String LABEL_TREE_TIP = "Expanda um diretório para ver seus subdiretórios e clique nele para listar seu conteúdo";
+	String LABEL_SEARCH = "Buscar: ";
+	String LABEL_SEARCH_TIP = "Digite parte do nome ou um padrão (*.txt) e pressione Enter para buscar em todos os subdiretórios";
+	String LABEL_SEARCH_DEPTH_TIP = "Quantidade máxima de níveis de subdiretórios percorridos pela busca";
+	String LABEL_FOLLOW_LINKS = "Seguir links";
+	String LABEL_FOLLOW_LINKS_TIP = "Percorre também os diretórios apontados por links simbólicos durante a busca";
 	
+	String BUTTON_DUPLICATES = "Duplicados";
+	String BUTTON_DUPLICATES_TIP = "Procurar arquivos com o mesmo conteúdo em todos os subdiretórios";
+
+	String BUTTON_LARGEST = "Maiores";
+	String BUTTON_LARGEST_TIP = "Exibir os maiores arquivos e subdiretórios de toda a árvore";
+
+	String BUTTON_EXPORT = "Exportar";
+	String BUTTON_EXPORT_TIP = "Salvar o último relatório exibido";
+
+	String BUTTON_TREEMAP = "Gráfico";
+	String BUTTON_TREEMAP_TIP = "Exibir o espaço ocupado por cada subdiretório em um mapa de áreas";
+
+	String MENU_COPY = "Copiar para...";
+	String MENU_MOVE = "Mover para...";
+	String MENU_DELETE = "Excluir";
+	String MENU_JOBS = "Operações em andamento";
+
+	String TITLE_FILE_JOBS = "Operações";
+	String BUTTON_PAUSE = "Pausar/Retomar";
+	String BUTTON_CANCEL = "Cancelar";
+	String BUTTON_CLEAR = "Limpar concluídas";
+
 	String BUTTON_FILE = "Arquivos";
 	String BUTTON_FILE_TIP = "Exibir somente Arquivos";
 	
@@ -36,8 +143,53 @@ public interface Constants {
 	String BUTTON_FILE_SUBDIRECTORY = "Arquivos e Subdiretórios";
 	String BUTTON_FILE_SUBDIRECTORY_TIP = "Exibir Arquivos e Subdiretórios";
 	
+	String LABEL_SORT = "Ordenar por: ";
+	String LABEL_SORT_TIP = "Selecione o critério de ordenação da lista";
+	String LABEL_DESCENDING = "Decrescente";
+	String LABEL_DESCENDING_TIP = "Marque para inverter a ordem da lista";
+	
 	String TITLE_BORDER = "Conteúdo do diretório";
 	
+	String USAGE_HEADLESS = "Uso: java -cp bin app.FileNavigator <diretório> [opções]\n"
+			+ "  -t, --type <EXTENSÃO>   ALL (padrão), DOCX, EXE, JAVA, JPG, PDF, PNG, PPTX, RTF, TXT, XLSX\n"
+			+ "                          os grupos DOCUMENTS, IMAGES e PROGRAMS ou qualquer outra extensão\n"
+			+ "  -s, --show <OPÇÃO>      FILES, SUBDIRECTORIES ou FILES_SUBDIRECTORIES (padrão)\n"
+			+ "  -n, --no-extension      omite a extensão dos nomes de arquivos\n"
+			+ "  -p, --properties        inclui tipo, caminho absoluto, última modificação e tamanho\n"
+			+ "  -f, --format <FORMATO>  TEXT (padrão), CSV ou JSONL\n"
+			+ "      --sort <CRITÉRIO>   ordena por NAME, SIZE, LAST_MODIFIED ou EXTENSION; sem a opção,\n"
+			+ "                          as entradas são escritas na ordem do diretório\n"
+			+ "      --descending        com --sort, inverte a ordem\n"
+			+ "  -r, --recursive         busca em todos os subdiretórios, exibindo o caminho relativo\n"
+			+ "      --name <PADRÃO>     com -r, aceita somente nomes com o trecho ou o glob informado\n"
+			+ "      --max-depth <N>     com -r, lê no máximo N níveis (padrão: sem limite)\n"
+			+ "      --follow-links      com -r, segue links simbólicos para diretórios\n"
+			+ "  -i, --index             com -r, busca no índice gravado do diretório, criado na primeira\n"
+			+ "                          busca e atualizado apenas nos diretórios modificados\n"
+			+ "  -d, --duplicates        lista os arquivos duplicados de toda a árvore (grupo, tamanho,\n"
+			+ "                          resumo SHA-256 e caminho)\n"
+			+ "  -l, --largest <K>       lista os K maiores arquivos e subdiretórios de toda a árvore\n"
+			+ "                          (tipo, tamanho e caminho)\n"
+			+ "  -g, --grep <TEXTO>      lista as linhas dos arquivos (com -r, de toda a árvore) que contêm\n"
+			+ "                          o texto: caminho, número da linha e conteúdo\n"
+			+ "      --export <ARQUIVO>  grava a listagem (com -r, a da árvore inteira) em um arquivo binário\n"
+			+ "      --diff <ARQUIVO>    compara a listagem gravada com a atual, obtida com as mesmas opções,\n"
+			+ "                          e lista as entradas criadas, removidas e alteradas\n"
+			+ "      --metrics           ao final, escreve na saída de erro as medições de desempenho";
+
+	String FORMAT_DUPLICATES_SUMMARY = "Arquivos analisados: %d\nGrupos de duplicados: %d\nEspaço desperdiçado: %d Bytes\n";
+	String FORMAT_DUPLICATES_GROUP = "\n%d cópias de %d Bytes (SHA-256 %s)\n";
+
+	String FORMAT_SPACE_SUMMARY = "Diretório: %s\nTotal: %d Bytes em %d arquivos e %d subdiretórios\n";
+	String FORMAT_SPACE_FILES = "\nMaiores arquivos (%d):\n";
+	String FORMAT_SPACE_DIRECTORIES = "\nMaiores subdiretórios (%d):\n";
+	String FORMAT_SPACE_ENTRY = "%15d Bytes  %s\n";
+
+	String FORMAT_METRICS_OPERATION = "%-38s %9d chamadas  média %10.3f ms  p50 %10.3f ms  p99 %10.3f ms  máx %10.3f ms%n";
+	String FORMAT_METRICS_COUNTERS = "Entradas lidas: %d  Leituras de atributos: %d  Bloqueios da interface: %d (%.3f ms)"
+			+ "  Cache de tamanhos: %d acertos, %d falhas%n";
+	String FORMAT_METRICS_SLOW = "%12.3f ms  %s  %s";
+
 	String FORMAT_PROPERTIES = "\n - Caminho Absoluto: %s\n - Nome: %s\n - Última Modificação: %s\n - Tamanho em Bytes: %s Bytes";
 	
 	
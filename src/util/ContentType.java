@@ -0,0 +1,94 @@
+package util;
+
+/**
+ * Enumeração que define os tipos de conteúdo reconhecidos pelos primeiros
+ * bytes de um arquivo (a "assinatura" do formato), independentemente do nome.
+ *
+ * Cada tipo guarda as suas assinaturas em hexadecimal, sempre a partir do
+ * início do arquivo. Quando mais de uma assinatura corresponde ao início do
+ * arquivo, vale a mais longa.
+ */
+public enum ContentType {
+
+	/** Qualquer conteúdo; não lê os arquivos. */
+	ANY("Qualquer conteúdo"),
+
+	PDF("PDF", "255044462D"),
+	PNG("PNG", "89504E470D0A1A0A"),
+	JPEG("JPEG", "FFD8FF"),
+	GIF("GIF", "474946383761", "474946383961"),
+
+	/** Arquivos ZIP, entre eles os documentos do Office (DOCX, XLSX, PPTX) e os JAR. */
+	ZIP("ZIP/Office", "504B0304", "504B0506", "504B0708"),
+
+	GZIP("GZIP", "1F8B"),
+	SEVEN_ZIP("7-Zip", "377ABCAF271C"),
+	RTF("RTF", "7B5C727466"),
+	SQLITE("SQLite", "53514C69746520666F726D6174203300"),
+	CLASS("Java class", "CAFEBABE"),
+	ELF("ELF", "7F454C46"),
+	EXE("EXE", "4D5A"),
+
+	/**
+	 * Texto: arquivos sem assinatura e sem bytes nulos no cabeçalho, ou com a
+	 * marca de ordem de bytes do UTF-8 ou do UTF-16.
+	 */
+	TEXT("Texto", "EFBBBF", "FEFF", "FFFE"),
+
+	/** Arquivos vazios, ilegíveis ou binários sem assinatura conhecida. */
+	UNKNOWN("Desconhecido");
+
+	private final String label;
+	private final String[] signatures;
+
+	private ContentType(String label, String... signatures) {
+		this.label = label;
+		this.signatures = signatures;
+	}
+
+	/**
+	 * Obtém o nome exibido na interface.
+	 *
+	 * @return o nome do tipo
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Obtém as assinaturas do tipo.
+	 *
+	 * @return as sequências de bytes que iniciam os arquivos deste tipo
+	 */
+	public byte[][] getSignatures() {
+
+		byte[][] bytes = new byte[signatures.length][];
+
+		for (int index = 0; index < signatures.length; index++) {
+
+			String hex = signatures[index];
+			bytes[index] = new byte[hex.length() / 2];
+
+			for (int position = 0; position < bytes[index].length; position++)
+				bytes[index][position] = (byte) Integer.parseInt(hex.substring(2 * position, 2 * position + 2), 16);
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Obtém os nomes exibidos de todos os tipos, na ordem da enumeração.
+	 *
+	 * @return os nomes dos tipos
+	 */
+	public static String[] labels() {
+
+		ContentType[] types = values();
+		String[] labels = new String[types.length];
+
+		for (int index = 0; index < types.length; index++)
+			labels[index] = types[index].label;
+
+		return labels;
+	}
+}// enum ContentType
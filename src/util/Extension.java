@@ -1,9 +1,15 @@
 package util;
 
+import java.util.Locale;
+
 /**
  * Enumeração que representa diferentes tipos de extensões de arquivo.
+ *
+ * Cada extensão guarda seus caracteres em minúsculas e em maiúsculas, de modo
+ * que a verificação de um nome de arquivo compara os caracteres diretamente,
+ * sem criar novas Strings.
  */
-public enum Extension {
+public enum Extension implements ExtensionFilter {
 
 	ALL("ALL"),
 	DOCX("DOCX"),
@@ -19,16 +25,51 @@ public enum Extension {
 	
 	private String name;
 
+	private char[] lowerCase;
+	private char[] upperCase;
+
 	private Extension(String name) {
-		this.name = name;
+		setName(name);
 	}
 
+	@Override
 	public String getName() {
 		return name;
 	}
 
 	public void setName(String name) {
 		this.name = name;
+		this.lowerCase = name.toLowerCase(Locale.ROOT).toCharArray();
+		this.upperCase = name.toUpperCase(Locale.ROOT).toCharArray();
+	}
+
+	/**
+	 * Verifica se o nome do arquivo termina com um ponto seguido desta extensão,
+	 * sem diferenciar maiúsculas e minúsculas. A extensão ALL corresponde a
+	 * qualquer arquivo.
+	 *
+	 * @param fileName o nome do arquivo
+	 * @return true se o arquivo possui esta extensão
+	 */
+	@Override
+	public boolean matches(String fileName) {
+
+		if (this == ALL)
+			return true;
+
+		int start = fileName.length() - lowerCase.length;
+
+		// O ponto não pode ser o primeiro caractere (arquivos ocultos sem extensão)
+		if (start < 2 || fileName.charAt(start - 1) != '.')
+			return false;
+
+		for (int i = 0; i < lowerCase.length; i++) {
+			char c = fileName.charAt(start + i);
+			if (c != lowerCase[i] && c != upperCase[i])
+				return false;
+		}
+
+		return true;
 	}
 	
 	/**
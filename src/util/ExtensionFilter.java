@@ -0,0 +1,68 @@
+package util;
+
+/**
+ * Interface comum aos filtros de arquivos por extensão exibidos na lista de
+ * tipos: as extensões individuais ({@link Extension}), os grupos de extensões
+ * ({@link ExtensionGroup}) e as extensões encontradas no diretório
+ * ({@link SuffixFilter}).
+ */
+public interface ExtensionFilter {
+
+	/**
+	 * Obtém o nome do filtro, exibido na lista de tipos.
+	 *
+	 * @return o nome do filtro
+	 */
+	String getName();
+
+	/**
+	 * Verifica se o arquivo é aceito pelo filtro.
+	 *
+	 * @param fileName o nome do arquivo
+	 * @return true se o arquivo é aceito
+	 */
+	boolean matches(String fileName);
+
+	/**
+	 * Obtém o filtro pelo nome, procurando primeiro entre as extensões e depois
+	 * entre os grupos. Qualquer outro nome é tratado como uma extensão
+	 * ({@link SuffixFilter}).
+	 *
+	 * @param name o nome do filtro
+	 * @return o filtro correspondente
+	 */
+	static ExtensionFilter valueOf(String name) {
+
+		for (Extension extension : Extension.values())
+			if (extension.getName().equals(name))
+				return extension;
+
+		for (ExtensionGroup group : ExtensionGroup.values())
+			if (group.getName().equals(name))
+				return group;
+
+		if (name.equals(SuffixFilter.NO_EXTENSION))
+			return new SuffixFilter("");
+
+		return new SuffixFilter(name);
+	}
+
+	/**
+	 * Obtém os nomes de todas as extensões seguidos dos nomes de todos os grupos.
+	 *
+	 * @return uma matriz com os nomes dos filtros
+	 */
+	static String[] names() {
+
+		String[] extensions = Extension.names();
+		String[] groups = ExtensionGroup.names();
+
+		String[] names = new String[extensions.length + groups.length];
+
+		System.arraycopy(extensions, 0, names, 0, extensions.length);
+		System.arraycopy(groups, 0, names, extensions.length, groups.length);
+
+		return names;
+	}
+
+}// interface ExtensionFilter
@@ -0,0 +1,66 @@
+package util;
+
+/**
+ * Enumeração que representa grupos de extensões de arquivo, permitindo filtrar
+ * vários tipos relacionados de uma só vez.
+ */
+public enum ExtensionGroup implements ExtensionFilter {
+
+	DOCUMENTS("DOCUMENTS", Extension.DOCX, Extension.PDF, Extension.PPTX, Extension.RTF, Extension.TXT,
+			Extension.XLSX),
+	IMAGES("IMAGES", Extension.JPG, Extension.PNG),
+	PROGRAMS("PROGRAMS", Extension.EXE, Extension.JAVA);
+
+	private final String name;
+	private final Extension[] extensions;
+	private final ExtensionMatcher matcher;
+
+	private ExtensionGroup(String name, Extension... extensions) {
+
+		this.name = name;
+		this.extensions = extensions;
+
+		String[] names = new String[extensions.length];
+
+		for (int index = 0; index < extensions.length; index++)
+			names[index] = extensions[index].getName();
+
+		matcher = new ExtensionMatcher(names);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Obtém as extensões que fazem parte do grupo.
+	 *
+	 * @return uma cópia da matriz de extensões
+	 */
+	public Extension[] getExtensions() {
+		return extensions.clone();
+	}
+
+	@Override
+	public boolean matches(String fileName) {
+		return matcher.matches(fileName);
+	}
+
+	/**
+	 * Obtém uma lista com os nomes de todos os grupos de extensões.
+	 *
+	 * @return uma matriz de strings com os nomes de todos os grupos
+	 */
+	public static String[] names() {
+
+		String[] names = new String[ExtensionGroup.values().length];
+
+		int index = 0;
+		for (ExtensionGroup group : ExtensionGroup.values())
+			names[index++] = group.getName();
+
+		return names;
+	}
+
+}// enum ExtensionGroup
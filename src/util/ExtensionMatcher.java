@@ -0,0 +1,113 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * A classe ExtensionMatcher verifica se um arquivo possui uma entre várias
+ * extensões com uma única consulta em tabela hash, independente da quantidade
+ * de extensões.
+ *
+ * A extensão do nome do arquivo (o trecho após o último ponto) não é extraída
+ * para uma nova String: o hash e a comparação são feitos diretamente sobre os
+ * caracteres do nome, sem diferenciar maiúsculas e minúsculas, de modo que a
+ * verificação não aloca memória.
+ */
+public final class ExtensionMatcher {
+
+	/** Extensões em minúsculas, distribuídas por endereçamento aberto. */
+	private final char[][] table;
+	private final int mask;
+
+	/**
+	 * Construtor da classe ExtensionMatcher.
+	 *
+	 * @param extensions as extensões aceitas, sem o ponto
+	 */
+	public ExtensionMatcher(String... extensions) {
+
+		int capacity = Integer.highestOneBit(Math.max(1, extensions.length) * 4 - 1) << 1;
+
+		table = new char[capacity][];
+		mask = capacity - 1;
+
+		for (String extension : extensions) {
+
+			char[] suffix = lowerCase(extension).toCharArray();
+			int slot = hash(suffix, 0, suffix.length) & mask;
+
+			while (table[slot] != null && !Arrays.equals(table[slot], suffix))
+				slot = (slot + 1) & mask;
+
+			table[slot] = suffix;
+		}
+	}
+
+	/**
+	 * Verifica se o nome do arquivo termina com uma das extensões aceitas.
+	 * Arquivos sem ponto, ou cujo único ponto é o primeiro caractere, não possuem
+	 * extensão.
+	 *
+	 * @param fileName o nome do arquivo
+	 * @return true se a extensão do arquivo for uma das aceitas
+	 */
+	public boolean matches(String fileName) {
+
+		int dot = fileName.lastIndexOf('.');
+
+		if (dot <= 0)
+			return false;
+
+		int start = dot + 1;
+		int end = fileName.length();
+
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + Character.toLowerCase(fileName.charAt(i));
+
+		for (int slot = hash & mask; table[slot] != null; slot = (slot + 1) & mask)
+			if (regionMatches(table[slot], fileName, start, end))
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Converte a extensão para minúsculas caractere a caractere, pela mesma regra
+	 * usada na comparação com os nomes dos arquivos. Ao contrário de
+	 * {@link String#toLowerCase}, nunca muda a quantidade de caracteres.
+	 *
+	 * @param extension a extensão
+	 * @return a extensão em minúsculas
+	 */
+	public static String lowerCase(String extension) {
+
+		char[] chars = extension.toCharArray();
+
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = Character.toLowerCase(chars[i]);
+
+		return new String(chars);
+	}
+
+	private static int hash(char[] chars, int start, int end) {
+
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + chars[i];
+
+		return hash;
+	}
+
+	private static boolean regionMatches(char[] suffix, String fileName, int start, int end) {
+
+		if (suffix.length != end - start)
+			return false;
+
+		for (int i = 0; i < suffix.length; i++)
+			if (Character.toLowerCase(fileName.charAt(start + i)) != suffix[i])
+				return false;
+
+		return true;
+	}
+
+}// class ExtensionMatcher
@@ -0,0 +1,32 @@
+package util;
+
+/**
+ * Enumeração que define as operações que podem ser feitas sobre as entradas
+ * selecionadas na lista.
+ */
+public enum FileOperation {
+
+	/** Copia as entradas, com todo o conteúdo dos subdiretórios, para um destino. */
+	COPY("Copiar"),
+
+	/** Move as entradas para um destino. */
+	MOVE("Mover"),
+
+	/** Exclui as entradas e todo o conteúdo dos subdiretórios. */
+	DELETE("Excluir");
+
+	private final String label;
+
+	private FileOperation(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Obtém o nome exibido na interface.
+	 *
+	 * @return o nome da operação
+	 */
+	public String getLabel() {
+		return label;
+	}
+}// enum FileOperation
@@ -0,0 +1,51 @@
+package util;
+
+/**
+ * Enumeração que define os critérios de ordenação das listagens de um
+ * diretório.
+ */
+public enum SortKey {
+
+	/** Nome sem diferenciar maiúsculas e minúsculas, com números em ordem numérica. */
+	NAME("Nome"),
+
+	/** Tamanho; os subdiretórios vêm antes dos arquivos. */
+	SIZE("Tamanho"),
+
+	/** Data da última modificação. */
+	LAST_MODIFIED("Modificação"),
+
+	/** Extensão e, em seguida, nome; entradas sem extensão vêm primeiro. */
+	EXTENSION("Extensão");
+
+	private final String label;
+
+	private SortKey(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Obtém o nome exibido na interface.
+	 *
+	 * @return o nome do critério
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Obtém os nomes exibidos de todos os critérios, na ordem da enumeração.
+	 *
+	 * @return os nomes dos critérios
+	 */
+	public static String[] labels() {
+
+		SortKey[] keys = values();
+		String[] labels = new String[keys.length];
+
+		for (int index = 0; index < keys.length; index++)
+			labels[index] = keys[index].label;
+
+		return labels;
+	}
+}// enum SortKey
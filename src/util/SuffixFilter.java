@@ -0,0 +1,82 @@
+package util;
+
+import java.util.Locale;
+
+/**
+ * A classe SuffixFilter filtra os arquivos por uma extensão qualquer, que não
+ * precisa estar entre as de {@link Extension}: é o filtro das extensões
+ * encontradas no diretório aberto. A extensão vazia seleciona os arquivos sem
+ * extensão.
+ *
+ * O filtro é identificado pela extensão em minúsculas, convertida por
+ * {@link ExtensionMatcher#lowerCase}; o nome em maiúsculas serve apenas para
+ * exibição, pois a conversão para maiúsculas nem sempre pode ser desfeita
+ * (como em "straße", exibida como "STRASSE").
+ */
+public final class SuffixFilter implements ExtensionFilter {
+
+	/** Nome exibido para o filtro dos arquivos sem extensão. */
+	public static final String NO_EXTENSION = "(SEM EXTENSÃO)";
+
+	private final String extension;
+	private final String name;
+	private final ExtensionMatcher matcher;
+
+	/**
+	 * Construtor da classe SuffixFilter.
+	 *
+	 * @param extension a extensão, sem o ponto; vazia para os arquivos sem
+	 *                  extensão
+	 */
+	public SuffixFilter(String extension) {
+		this.extension = ExtensionMatcher.lowerCase(extension);
+		this.name = extension.toUpperCase(Locale.ROOT);
+		this.matcher = extension.isEmpty() ? null : new ExtensionMatcher(extension);
+	}
+
+	@Override
+	public String getName() {
+		return name.isEmpty() ? NO_EXTENSION : name;
+	}
+
+	/**
+	 * Obtém a extensão do filtro.
+	 *
+	 * @return a extensão em minúsculas, ou uma String vazia
+	 */
+	public String getExtension() {
+		return extension;
+	}
+
+	/**
+	 * Verifica se o arquivo possui a extensão do filtro. Com a extensão vazia,
+	 * aceita os arquivos sem ponto, com um único ponto no início (como
+	 * ".bashrc") ou terminados em ponto.
+	 */
+	@Override
+	public boolean matches(String fileName) {
+
+		if (matcher != null)
+			return matcher.matches(fileName);
+
+		int dot = fileName.lastIndexOf('.');
+
+		return dot <= 0 || dot == fileName.length() - 1;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof SuffixFilter && ((SuffixFilter) object).extension.equals(extension);
+	}
+
+	@Override
+	public int hashCode() {
+		return extension.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+
+}// class SuffixFilter
@@ -0,0 +1,286 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static util.Constants.CONTENT_BINARY_PROBE;
+import static util.Constants.CONTENT_MAX_LINE;
+import static util.Constants.CONTENT_WINDOW_SIZE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import util.Extension;
+
+/**
+ * Compara a busca no conteúdo, com janelas bem menores que as linhas, a uma
+ * busca ingênua que percorre o arquivo inteiro linha a linha. As linhas
+ * geradas atravessam várias janelas, têm caracteres de até quatro bytes e
+ * terminam ora em "\n", ora em "\r\n", ora no fim do arquivo.
+ */
+public class ContentSearchTest {
+
+	private static final String[] PATTERNS = { "a", "ab", "é€", "a𝄞b", "bb aé", "€€€€€€€€€€" };
+
+	/** Trechos de que as linhas são formadas, com 1 a 4 bytes por caractere. */
+	private static final String[] PIECES = { "a", "b", " ", "é", "€", "𝄞", "ab", "é€", "x" };
+
+	private static final int[] WINDOWS = { 16, 17, 64, 251 };
+
+	@ClassRule
+	public static TemporaryFolder folder = new TemporaryFolder();
+
+	private static ForkJoinPool pool;
+	private static Path directory;
+	private static final Map<String, byte[]> contents = new LinkedHashMap<>();
+
+	@BeforeClass
+	public static void createFiles() throws IOException {
+
+		pool = new ForkJoinPool(4);
+		directory = folder.newFolder("conteudo").toPath();
+
+		Random random = new Random(7);
+
+		for (int i = 0; i < 12; i++)
+			file("texto-" + i, randomText(random, 60, i % 3 == 0 ? 900 : 120));
+
+		file("vazio", new byte[0]);
+		file("curto", bytes("a"));
+		file("quebras", bytes("\n\n\r\n\n"));
+		file("sem-quebra-final", bytes("bb aé\nxxab"));
+		file("cr-final", bytes("ab xxxxxxxxxxxxxxxxxxxx\r"));
+		file("binario", concat(bytes("ab"), new byte[] { 0 }, bytes("ab\nab\n")));
+	}
+
+	@AfterClass
+	public static void shutdown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void matchesLinearScanForEveryWindowSize() throws InterruptedException {
+
+		int total = 0;
+
+		for (int window : WINDOWS)
+			for (String pattern : PATTERNS)
+				if (bytes(pattern).length < window)
+					total += compare(pattern, window);
+
+		assertTrue("poucas ocorrências: " + total, total > 1_000);
+	}
+
+	@Test
+	public void defaultWindowMatchesLinearScan() throws InterruptedException {
+
+		for (String pattern : PATTERNS)
+			compare(pattern, CONTENT_WINDOW_SIZE);
+	}
+
+	/**
+	 * A pré-visualização e a busca usam o mesmo critério de arquivo binário: um
+	 * byte nulo antes de {@link util.Constants#CONTENT_BINARY_PROBE} bytes.
+	 */
+	@Test
+	public void previewAndSearchAgreeOnBinaryFiles() throws IOException, InterruptedException {
+
+		Path probe = folder.newFolder("binarios").toPath();
+
+		for (int nul : new int[] { 0, CONTENT_BINARY_PROBE - 1, CONTENT_BINARY_PROBE, CONTENT_BINARY_PROBE + 100 }) {
+
+			byte[] content = new byte[CONTENT_BINARY_PROBE * 2];
+			Arrays.fill(content, (byte) 'a');
+			content[nul] = 0;
+
+			Path file = Files.write(probe.resolve("nulo-" + nul), content);
+			boolean binary = nul < CONTENT_BINARY_PROBE;
+
+			try (FilePreview preview = FilePreview.open(file)) {
+				assertEquals("nulo em " + nul, binary, preview.isBinary());
+			}
+
+			ContentSearch search = new ContentSearch(new RecursiveSearch(probe, file.getFileName().toString(),
+					Extension.ALL, 1, false, 16, pool), "aaa", 16).start();
+			List<ContentMatch> found = new ArrayList<>();
+
+			while (!search.isExhausted())
+				search.drainTo(found, 50, TimeUnit.MILLISECONDS);
+
+			assertEquals("nulo em " + nul, binary, found.isEmpty());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void textAsLongAsTheWindowIsRejected() {
+		new ContentSearch(files(), "0123456789abcdef", 16, 16);
+	}
+
+	/**
+	 * Busca o texto em todos os arquivos e compara, arquivo por arquivo, as
+	 * linhas encontradas às da busca ingênua.
+	 *
+	 * @return a quantidade de ocorrências
+	 */
+	private static int compare(String text, int window) throws InterruptedException {
+
+		ContentSearch search = new ContentSearch(files(), text, 16, window).start();
+		Map<String, List<String>> actual = new TreeMap<>();
+		List<ContentMatch> batch = new ArrayList<>();
+
+		while (!search.isExhausted()) {
+
+			batch.clear();
+			search.drainTo(batch, 50, TimeUnit.MILLISECONDS);
+
+			for (ContentMatch match : batch)
+				actual.computeIfAbsent(match.getFile().getFileName().toString(), name -> new ArrayList<>())
+						.add(match.getLine() + ": " + match.getText());
+		}
+
+		Map<String, List<String>> expected = new TreeMap<>();
+		int count = 0;
+
+		for (Map.Entry<String, byte[]> file : contents.entrySet()) {
+
+			List<String> lines = scan(file.getValue(), bytes(text));
+
+			if (!lines.isEmpty())
+				expected.put(file.getKey(), lines);
+
+			count += lines.size();
+		}
+
+		assertEquals("\"" + text + "\", janela " + window, expected, actual);
+
+		return count;
+	}
+
+	private static RecursiveSearch files() {
+		return new RecursiveSearch(directory, null, Extension.ALL, 1, false, 16, pool);
+	}
+
+	/**
+	 * Procura o texto no arquivo inteiro, com a primeira ocorrência de cada
+	 * linha, reduzindo as linhas longas como a busca: o trecho em torno do texto
+	 * é recuado ou avançado até o limite de um caractere.
+	 */
+	private static List<String> scan(byte[] content, byte[] pattern) {
+
+		List<String> lines = new ArrayList<>();
+
+		if (content.length < pattern.length || indexOf(content, new byte[] { 0 }, 0, content.length) >= 0)
+			return lines;
+
+		long number = 1;
+
+		for (int start = 0; start <= content.length; number++) {
+
+			int end = indexOf(content, new byte[] { '\n' }, start, content.length);
+
+			if (end < 0)
+				end = content.length;
+
+			int match = indexOf(content, pattern, start, end);
+
+			if (match >= 0) {
+
+				int from = Math.max(start, match - CONTENT_MAX_LINE / 2);
+				int to = Math.min(end, match + pattern.length + CONTENT_MAX_LINE / 2);
+
+				while (from > start && isContinuation(content[from]))
+					from++;
+
+				while (to < end && isContinuation(content[to]))
+					to--;
+
+				if (to == end && to > from && content[to - 1] == '\r')
+					to--;
+
+				lines.add(number + ": " + new String(content, from, to - from, StandardCharsets.UTF_8));
+			}
+
+			start = end + 1;
+		}
+
+		return lines;
+	}
+
+	private static int indexOf(byte[] content, byte[] pattern, int from, int to) {
+
+		search: for (int index = from; index + pattern.length <= to; index++) {
+
+			for (int offset = 0; offset < pattern.length; offset++)
+				if (content[index + offset] != pattern[offset])
+					continue search;
+
+			return index;
+		}
+
+		return -1;
+	}
+
+	private static boolean isContinuation(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+
+	/**
+	 * Gera linhas de tamanhos variados; parte delas é maior que as janelas e que
+	 * {@link util.Constants#CONTENT_MAX_LINE}.
+	 */
+	private static byte[] randomText(Random random, int lines, int maxPieces) {
+
+		StringBuilder text = new StringBuilder();
+
+		for (int line = 0; line < lines; line++) {
+
+			int pieces = random.nextInt(maxPieces);
+
+			for (int piece = 0; piece < pieces; piece++)
+				text.append(random.nextInt(40) == 0 ? PATTERNS[random.nextInt(PATTERNS.length)]
+						: PIECES[random.nextInt(PIECES.length)]);
+
+			if (line < lines - 1 || random.nextBoolean())
+				text.append(random.nextInt(4) == 0 ? "\r\n" : "\n");
+		}
+
+		return bytes(text.toString());
+	}
+
+	private static void file(String name, byte[] content) throws IOException {
+		Files.write(directory.resolve(name), content);
+		contents.put(name, content);
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] concat(byte[]... parts) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		for (byte[] part : parts)
+			out.write(part);
+
+		return out.toByteArray();
+	}
+
+}// class ContentSearchTest
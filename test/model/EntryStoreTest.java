@@ -0,0 +1,185 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testes da ordenação, da busca por nome e da memória ocupada pelo
+ * {@link EntryStore}.
+ */
+public class EntryStoreTest {
+
+	/**
+	 * Memória mínima de cada {@link File}, com referências comprimidas: o objeto
+	 * (16 bytes), a String do caminho (24), o cabeçalho do vetor do caminho (16)
+	 * e a referência no vetor de arquivos (4). O caminho soma ao menos um byte
+	 * por caractere.
+	 */
+	private static final int FILE_OVERHEAD = 16 + 24 + 16 + 4;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void sortMatchesArraysSortForAllSizes() {
+
+		Random random = new Random(42);
+
+		for (int length : new int[] { 0, 1, 2, 15, 16, 17, 33, 100, 1_000, 10_007 }) {
+
+			int[] keys = random.ints(length, 0, length / 2 + 1).toArray();
+			int[] order = IntStream.range(0, length).toArray();
+
+			EntryStore.sort(order, (a, b) -> Integer.compare(keys[a], keys[b]));
+
+			assertArrayEquals("tamanho " + length, stableOrder(keys), order);
+		}
+	}
+
+	@Test
+	public void sortKeepsTiesInOriginalOrder() {
+
+		int[] keys = { 3, 1, 3, 2, 1, 3, 2, 1, 3, 2, 1, 3, 2, 1, 3, 2, 1, 3, 2, 1 };
+		int[] order = IntStream.range(0, keys.length).toArray();
+
+		EntryStore.sort(order, (a, b) -> Integer.compare(keys[a], keys[b]));
+
+		for (int i = 1; i < order.length; i++)
+			if (keys[order[i - 1]] == keys[order[i]])
+				assertTrue("empate fora da ordem em " + i, order[i - 1] < order[i]);
+	}
+
+	@Test
+	public void sortRangeLeavesTheRestUntouched() {
+
+		int[] order = { 9, 8, 7, 6, 5, 4, 3, 2, 1, 0 };
+
+		EntryStore.sort(order, 2, 7, Integer::compare);
+
+		assertArrayEquals(new int[] { 9, 8, 3, 4, 5, 6, 7, 2, 1, 0 }, order);
+	}
+
+	@Test
+	public void sortByNameOrdersByCodePoint() {
+
+		String[] names = { "b", "ação", "A", "a", "Zebra", "acao", "é", "_x", "a.txt", "" };
+		EntryStore store = store(names).sortByName();
+
+		String[] expected = names.clone();
+		Arrays.sort(expected);
+
+		for (int index = 0; index < expected.length; index++)
+			assertEquals(expected[index], store.getName(index));
+	}
+
+	@Test
+	public void findLocatesEveryName() {
+
+		String[] names = new String[500];
+
+		for (int i = 0; i < names.length; i++)
+			names[i] = (i % 3 == 0 ? "Relatório " : "arquivo-") + i + (i % 2 == 0 ? ".txt" : "");
+
+		EntryStore store = store(names).sortByName();
+
+		for (String name : names)
+			assertEquals(name, store.getName(store.find(name)));
+	}
+
+	@Test
+	public void findReturnsMinusOneForMissingNames() {
+
+		EntryStore store = store("b", "d", "f").sortByName();
+
+		for (String missing : new String[] { "", "a", "c", "e", "g", "bb", "B" })
+			assertEquals(missing, -1, store.find(missing));
+
+		assertEquals(-1, store(new String[0]).find("a"));
+	}
+
+	@Test
+	public void sortByNameKeepsAttributes() {
+
+		EntryStore.Builder builder = new EntryStore.Builder(2);
+		builder.add(bytes("z"), 0, -1, true, 10, 20);
+		builder.add(bytes("a"), 0, -1, false, 30, 40);
+
+		EntryStore store = builder.build().sortByName();
+		int a = store.find("a");
+		int z = store.find("z");
+
+		assertEquals(0, a);
+		assertEquals(false, store.isDirectory(a));
+		assertEquals(30, store.getSize(a));
+		assertEquals(40, store.getLastModified(a));
+		assertEquals(true, store.isDirectory(z));
+		assertEquals(10, store.getSize(z));
+		assertEquals(20, store.getLastModified(z));
+	}
+
+	/**
+	 * As colunas de um diretório grande devem ocupar menos da metade da memória
+	 * mínima do vetor de {@link File} com as mesmas entradas.
+	 */
+	@Test
+	public void columnsAreMuchSmallerThanFileArray() throws IOException {
+
+		Path directory = folder.newFolder("entradas").toPath();
+
+		for (int i = 0; i < 5_000; i++)
+			Files.createFile(directory.resolve(String.format("arquivo-%05d.txt", i)));
+
+		DirectorySnapshot snapshot = DirectorySnapshot.read(directory);
+		File[] files = directory.toFile().listFiles();
+
+		long fileBytes = 0;
+
+		for (File file : files)
+			fileBytes += FILE_OVERHEAD + file.getPath().length();
+
+		long columnBytes = snapshot.estimateBytes();
+
+		assertEquals(files.length, snapshot.getEntries().size());
+		assertTrue(String.format("colunas: %d bytes, File[]: %d bytes", columnBytes, fileBytes),
+				columnBytes * 2 < fileBytes);
+	}
+
+	/**
+	 * Obtém as posições em ordem crescente das chaves, mantendo os empates na
+	 * ordem original.
+	 */
+	private static int[] stableOrder(int[] keys) {
+		return IntStream.range(0, keys.length).boxed().sorted(Comparator.comparingInt(index -> keys[index]))
+				.mapToInt(Integer::intValue).toArray();
+	}
+
+	private static EntryStore store(String... names) {
+
+		EntryStore.Builder builder = new EntryStore.Builder(names.length);
+
+		for (String name : names)
+			builder.add(bytes(name), 0, -1, false, name.length(), 0);
+
+		return builder.build();
+	}
+
+	private static byte[] bytes(String name) {
+		return name.getBytes(StandardCharsets.UTF_8);
+	}
+
+}// class EntryStoreTest
@@ -0,0 +1,110 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import util.SuffixFilter;
+
+/**
+ * Testes da contagem de arquivos por extensão do {@link ExtensionHistogram} e
+ * dos filtros construídos a partir dela.
+ */
+public class ExtensionHistogramTest {
+
+	@Test
+	public void asciiCaseVariantsShareOneExtension() {
+
+		ExtensionHistogram histogram = histogram("a.txt", "b.TXT", "c.Txt", "d.jpg");
+		int[] order = histogram.byCount();
+
+		assertEquals(2, histogram.size());
+		assertEquals("TXT", histogram.getExtension(order[0]));
+		assertEquals("txt", histogram.getKey(order[0]));
+		assertEquals(3, histogram.getCount(order[0]));
+		assertEquals(1, histogram.getCount(order[1]));
+	}
+
+	@Test
+	public void nonAsciiCaseVariantsShareOneExtension() {
+
+		ExtensionHistogram histogram = histogram("a.É", "b.é", "c.ÇÃO", "d.ção");
+
+		assertEquals(2, histogram.size());
+
+		for (int index = 0; index < histogram.size(); index++)
+			assertEquals(2, histogram.getCount(index));
+	}
+
+	@Test
+	public void filesWithoutExtensionAreCountedTogether() {
+
+		ExtensionHistogram histogram = histogram("Makefile", ".bashrc", "fim.", "a.b.c");
+		int[] order = histogram.byCount();
+
+		assertEquals(2, histogram.size());
+		assertEquals("", histogram.getKey(order[0]));
+		assertEquals(3, histogram.getCount(order[0]));
+		assertEquals("c", histogram.getKey(order[1]));
+	}
+
+	@Test
+	public void sizesAreSummedPerExtension() {
+
+		ExtensionHistogram histogram = new ExtensionHistogram();
+		add(histogram, "a.log", 10);
+		add(histogram, "b.LOG", 32);
+
+		assertEquals(42, histogram.getBytes(0));
+	}
+
+	/**
+	 * O filtro de cada extensão contada deve aceitar exatamente os arquivos
+	 * contados sob ela, mesmo quando o nome exibido não pode ser convertido de
+	 * volta para a extensão.
+	 */
+	@Test
+	public void filterFromKeyMatchesTheCountedFiles() {
+
+		String[] names = { "x.straße", "y.STRAßE", "z.ı", "a.I", "b.i", "c.É", "d.é", "e.txt", "Makefile", "f.ǅ",
+				"g.ǆ" };
+
+		ExtensionHistogram histogram = histogram(names);
+
+		int total = 0;
+
+		for (int index = 0; index < histogram.size(); index++) {
+
+			SuffixFilter filter = new SuffixFilter(histogram.getKey(index));
+			int matched = 0;
+
+			for (String name : names)
+				if (filter.matches(name))
+					matched++;
+
+			assertEquals(histogram.getExtension(index), histogram.getCount(index), matched);
+			total += matched;
+		}
+
+		assertEquals(names.length, total);
+	}
+
+	private static ExtensionHistogram histogram(String... names) {
+
+		ExtensionHistogram histogram = new ExtensionHistogram();
+
+		for (String name : names)
+			add(histogram, name, 1);
+
+		return histogram;
+	}
+
+	private static void add(ExtensionHistogram histogram, String name, long length) {
+
+		byte[] bytes = ("/" + name).getBytes(StandardCharsets.UTF_8);
+		histogram.add(bytes, 1, bytes.length, length);
+	}
+
+}// class ExtensionHistogramTest
@@ -0,0 +1,94 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+/**
+ * Testes do heap limitado dos maiores valores.
+ */
+public class LargestEntriesTest {
+
+	/**
+	 * Valores oferecidos por várias threads resultam nos mesmos maiores valores
+	 * de uma ordenação completa.
+	 */
+	@Test
+	public void keepsTheLargestFromManyThreads() throws InterruptedException {
+
+		long[] values = new Random(3).longs(100_000, 0, 50_000).toArray();
+		LargestEntries<Long> largest = new LargestEntries<>(25, Long::longValue, Comparator.naturalOrder());
+
+		List<Thread> threads = new ArrayList<>();
+
+		for (int t = 0; t < 4; t++) {
+
+			int first = t;
+			Thread thread = new Thread(() -> {
+				for (int index = first; index < values.length; index += 4)
+					largest.offer(values[index]);
+			});
+
+			threads.add(thread);
+			thread.start();
+		}
+
+		for (Thread thread : threads)
+			thread.join();
+
+		List<Long> expected = LongStream.of(values).boxed().sorted(Comparator.reverseOrder()).limit(25)
+				.collect(Collectors.toList());
+
+		assertEquals(expected, largest.toList());
+	}
+
+	@Test
+	public void tiesFollowTheGivenOrder() {
+
+		LargestEntries<String> largest = new LargestEntries<>(3, String::length, Comparator.naturalOrder());
+
+		for (String value : new String[] { "bb", "a", "cc", "aa", "d" })
+			largest.offer(value);
+
+		List<String> values = largest.toList();
+
+		assertEquals(3, values.size());
+		assertEquals("aa", values.get(0));
+		assertEquals("bb", values.get(1));
+		assertEquals("cc", values.get(2));
+	}
+
+	@Test
+	public void acceptsOnlyKeysAboveTheSmallestOnceFull() {
+
+		LargestEntries<Long> largest = new LargestEntries<>(2, Long::longValue, Comparator.naturalOrder());
+
+		assertTrue(largest.accepts(Long.MIN_VALUE + 1));
+
+		largest.offer(10L);
+		largest.offer(20L);
+
+		assertFalse(largest.accepts(10));
+		assertTrue(largest.accepts(11));
+	}
+
+	@Test
+	public void zeroLimitKeepsNothing() {
+
+		LargestEntries<Long> largest = new LargestEntries<>(0, Long::longValue, Comparator.naturalOrder());
+		largest.offer(1L);
+
+		assertFalse(largest.accepts(Long.MAX_VALUE));
+		assertTrue(largest.toList().isEmpty());
+	}
+
+}// class LargestEntriesTest
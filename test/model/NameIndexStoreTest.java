@@ -0,0 +1,85 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import util.Extension;
+
+/**
+ * Testes dos arquivos de índice guardados pelo {@link NameIndexStore}.
+ */
+public class NameIndexStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void eachRootHasItsOwnFile() throws IOException {
+
+		Path indexes = folder.newFolder("indices").toPath();
+		Path first = tree("primeira", "a.txt");
+		Path second = tree("segunda", "b.txt");
+
+		NameIndexStore store = new NameIndexStore(indexes);
+
+		assertFalse(store.contains(first));
+
+		store.get(first);
+
+		assertTrue(store.contains(first));
+		assertFalse(store.contains(second));
+
+		store.get(second);
+
+		List<String> files = list(indexes);
+
+		assertEquals(2, files.size());
+
+		for (String file : files)
+			assertTrue(file, file.matches("[0-9a-f]{40}\\.idx"));
+
+		// Um novo armazenamento lê cada índice do seu próprio arquivo
+		NameIndexStore reopened = new NameIndexStore(indexes);
+
+		assertEquals("a.txt", reopened.get(first).find("", Extension.ALL, 1, 10).get(0).getName());
+		assertEquals("b.txt", reopened.get(second).find("", Extension.ALL, 1, 10).get(0).getName());
+	}
+
+	@Test
+	public void unchangedIndexIsReused() throws IOException {
+
+		Path root = tree("arvore", "c.txt");
+		NameIndexStore store = new NameIndexStore(folder.newFolder("indices").toPath());
+
+		assertSame(store.get(root), store.get(root));
+	}
+
+	private Path tree(String name, String file) throws IOException {
+
+		Path root = folder.newFolder(name).toPath();
+		Files.write(root.resolve(file), new byte[1]);
+
+		return root;
+	}
+
+	private static List<String> list(Path directory) throws IOException {
+
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+		}
+	}
+
+}// class NameIndexStoreTest
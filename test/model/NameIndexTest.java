@@ -0,0 +1,332 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.DirectorySnapshot.Entry;
+import util.Extension;
+import util.ExtensionFilter;
+import util.SuffixFilter;
+
+/**
+ * Testes da busca, da atualização incremental e da gravação do
+ * {@link NameIndex}.
+ */
+public class NameIndexTest {
+
+	private static final String[] SYLLABLES = { "re", "la", "to", "rio", "Fo", "TO", "da", "dos", "ab", "x" };
+
+	private static final String[] EXTENSIONS = { ".txt", ".TXT", ".jpg", ".pdf", "", ".tar.gz" };
+
+	private static final String[] PATTERNS = { "", "a", "re", "rel", "rela", "LATO", "fotO", "dosab", "xyz", "*.txt",
+			"fo*.jpg", "*da*", "??.pdf", "[rf]*", "{ab,re}*", "*rio*.t?t", "la.t" };
+
+	private static final int[] DEPTHS = { 1, 2, 3, RecursiveSearch.UNLIMITED_DEPTH };
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path root;
+
+	/** Próxima data atribuída por {@link #touch(Path)}, sempre maior que a anterior. */
+	private long clock = System.currentTimeMillis() + 3_600_000;
+
+	@Before
+	public void createTree() throws IOException {
+
+		root = folder.newFolder("arvore").toPath().toAbsolutePath().normalize();
+
+		Random random = new Random(11);
+		List<Path> directories = new ArrayList<>();
+		directories.add(root);
+
+		for (int i = 0; i < 40; i++) {
+
+			Path parent = directories.get(random.nextInt(directories.size()));
+			Path directory = parent.resolve(randomName(random, "") + i);
+
+			Files.createDirectory(directory);
+			directories.add(directory);
+		}
+
+		for (int i = 0; i < 600; i++) {
+
+			Path parent = directories.get(random.nextInt(directories.size()));
+			Path file = parent.resolve(randomName(random, EXTENSIONS[random.nextInt(EXTENSIONS.length)]));
+
+			if (!Files.exists(file))
+				Files.write(file, new byte[random.nextInt(64)]);
+		}
+	}
+
+	/**
+	 * A busca pelos trigramas deve encontrar exatamente as entradas que uma
+	 * leitura completa da árvore encontra, com qualquer padrão, filtro e
+	 * profundidade.
+	 */
+	@Test
+	public void findMatchesLinearScan() throws IOException {
+
+		NameIndex index = NameIndex.build(root);
+		List<Path> all = walk();
+
+		assertEquals(all.size(), index.size());
+
+		for (ExtensionFilter extension : new ExtensionFilter[] { Extension.ALL, new SuffixFilter("txt") })
+			for (String pattern : PATTERNS)
+				for (int depth : DEPTHS)
+					assertEquals(pattern + ", " + extension + ", " + depth, scan(all, pattern, extension, depth),
+							paths(index.find(pattern, extension, depth, Integer.MAX_VALUE)));
+	}
+
+	@Test
+	public void findStopsAtTheLimit() throws IOException {
+
+		NameIndex index = NameIndex.build(root);
+
+		assertEquals(5, index.find("", Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH, 5).size());
+		assertEquals(3, index.find("rel", Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH, 3).size());
+	}
+
+	@Test
+	public void foundEntriesAreIndexed() throws IOException {
+
+		for (Entry entry : NameIndex.build(root).find("", Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH, 50)) {
+
+			assertTrue(entry.isIndexed());
+			assertEquals(Files.isDirectory(entry.getPath(), LinkOption.NOFOLLOW_LINKS), entry.isDirectory());
+		}
+	}
+
+	@Test
+	public void updateWithoutChangesReturnsTheSameIndex() throws IOException {
+
+		NameIndex index = NameIndex.build(root);
+
+		assertSame(index, index.update());
+	}
+
+	/**
+	 * Somente o diretório cuja data mudou é lido novamente; o resultado é igual
+	 * ao de uma indexação completa.
+	 */
+	@Test
+	public void updateReadsOnlyModifiedDirectories() throws IOException {
+
+		NameIndex index = NameIndex.build(root);
+		Path directory = firstSubdirectory();
+
+		Files.write(directory.resolve("novo-relatorio.txt"), new byte[3]);
+		touch(directory);
+
+		NameIndex updated = index.update();
+
+		assertNotSame(index, updated);
+		assertEquals(1, updated.getReadDirectories());
+		assertEquals(index.size() + 1, updated.size());
+		assertSameEntries(NameIndex.build(root), updated);
+		assertEquals(3, updated.find("novo-relatorio", Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH, 10).get(0)
+				.getSize());
+	}
+
+	@Test
+	public void updateDropsRemovedDirectories() throws IOException {
+
+		NameIndex index = NameIndex.build(root);
+		Path directory = Files.createDirectories(root.resolve("removido").resolve("interno"));
+		Files.write(directory.resolve("perdido.txt"), new byte[1]);
+		touch(root);
+
+		NameIndex withDirectory = index.update();
+
+		assertEquals(index.getDirectoryCount() + 2, withDirectory.getDirectoryCount());
+
+		Files.delete(directory.resolve("perdido.txt"));
+		Files.delete(directory);
+		Files.delete(directory.getParent());
+		touch(root);
+
+		NameIndex updated = withDirectory.update();
+
+		assertEquals(1, updated.getReadDirectories());
+		assertEquals(index.getDirectoryCount(), updated.getDirectoryCount());
+		assertSameEntries(index, updated);
+	}
+
+	/**
+	 * Como documentado, o conteúdo de um arquivo pode mudar sem mudar a data do
+	 * diretório: o índice mantém o tamanho antigo até que o diretório mude.
+	 */
+	@Test
+	public void updateKeepsFileAttributesOfUnchangedDirectories() throws IOException {
+
+		Path file = Files.write(firstSubdirectory().resolve("crescente.txt"), new byte[1]);
+		NameIndex index = NameIndex.build(root);
+		FileTime modified = Files.getLastModifiedTime(file.getParent());
+
+		Files.write(file, new byte[100]);
+		Files.setLastModifiedTime(file.getParent(), modified);
+
+		Entry entry = index.update().find("crescente", Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH, 1).get(0);
+
+		assertEquals(1, entry.getSize());
+		assertEquals(100, entry.current().getSize());
+	}
+
+	@Test
+	public void saveAndLoadRoundTrip() throws IOException {
+
+		NameIndex index = NameIndex.build(root);
+		Path file = folder.newFile("indice.idx").toPath();
+
+		index.save(file);
+		NameIndex loaded = NameIndex.load(file);
+
+		assertEquals(index.getRoot(), loaded.getRoot());
+		assertEquals(index.size(), loaded.size());
+		assertEquals(index.getDirectoryCount(), loaded.getDirectoryCount());
+
+		for (String pattern : PATTERNS)
+			assertEquals(pattern, index.find(pattern, Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH, Integer.MAX_VALUE),
+					loaded.find(pattern, Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH, Integer.MAX_VALUE));
+
+		// As datas gravadas permitem atualizar o índice lido sem reler a árvore
+		assertSame(loaded, loaded.update());
+	}
+
+	@Test
+	public void loadRejectsOtherFormats() throws IOException {
+
+		Path file = folder.newFile("outro.idx").toPath();
+		Files.write(file, new byte[] { 'F', 'S', 'I', '9', 0, 0, 0, 1 });
+
+		assertNull(NameIndex.load(file));
+	}
+
+	/**
+	 * O índice montado com os diretórios lidos por uma busca é igual ao montado
+	 * percorrendo a árvore.
+	 */
+	@Test
+	public void collectorBuildsTheSameIndex() throws IOException, InterruptedException {
+
+		ForkJoinPool pool = new ForkJoinPool(2);
+
+		try {
+			NameIndex.Collector collector = new NameIndex.Collector(root);
+			RecursiveSearch search = new RecursiveSearch(root, null, Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH,
+					false, 64, pool).indexInto(collector).start();
+			List<Entry> found = new ArrayList<>();
+
+			while (!search.isExhausted())
+				search.drainTo(found, 50, TimeUnit.MILLISECONDS);
+
+			assertTrue(collector.isComplete());
+			assertSameEntries(NameIndex.build(root), collector.build());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static String randomName(Random random, String extension) {
+
+		StringBuilder name = new StringBuilder();
+		int syllables = 1 + random.nextInt(4);
+
+		for (int i = 0; i < syllables; i++)
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+
+		return name.append(extension).toString();
+	}
+
+	private List<Path> walk() throws IOException {
+
+		try (Stream<Path> paths = Files.walk(root)) {
+			return paths.filter(path -> !path.equals(root)).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Aplica ao resultado da leitura completa as regras da busca recursiva.
+	 */
+	private List<String> scan(List<Path> all, String pattern, ExtensionFilter extension, int maxDepth) {
+
+		NamePattern namePattern = new NamePattern(pattern);
+		List<String> found = new ArrayList<>();
+
+		for (Path path : all) {
+
+			String name = path.getFileName().toString();
+			boolean directory = Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
+
+			if (root.relativize(path).getNameCount() <= maxDepth && (directory || extension.matches(name))
+					&& namePattern.matches(name, path.getFileName()))
+				found.add(path.toString());
+		}
+
+		Collections.sort(found);
+
+		return found;
+	}
+
+	private static List<String> paths(List<Entry> entries) {
+		return entries.stream().map(entry -> entry.getPath().toString()).sorted().collect(Collectors.toList());
+	}
+
+	/**
+	 * Compara os caminhos e os tipos das entradas. O tamanho e a data não são
+	 * comparados: a entrada de um diretório modificado fica no diretório pai,
+	 * que não é lido novamente.
+	 */
+	private static void assertSameEntries(NameIndex expected, NameIndex actual) {
+
+		List<Entry> expectedEntries = expected.find("", Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH,
+				Integer.MAX_VALUE);
+		List<Entry> actualEntries = actual.find("", Extension.ALL, RecursiveSearch.UNLIMITED_DEPTH, Integer.MAX_VALUE);
+
+		assertEquals(sorted(expectedEntries), sorted(actualEntries));
+	}
+
+	private static List<String> sorted(List<Entry> entries) {
+		return entries.stream().map(entry -> entry.getPath() + " " + entry.isDirectory()).sorted()
+				.collect(Collectors.toList());
+	}
+
+	private Path firstSubdirectory() throws IOException {
+
+		try (Stream<Path> paths = Files.list(root)) {
+			return paths.filter(path -> Files.isDirectory(path)).sorted().findFirst().get();
+		}
+	}
+
+	/**
+	 * Avança a data do diretório, para que a mudança seja percebida mesmo
+	 * quando acontece no mesmo milissegundo da indexação.
+	 */
+	private void touch(Path directory) throws IOException {
+		Files.setLastModifiedTime(directory, FileTime.fromMillis(clock += 60_000));
+	}
+
+}// class NameIndexTest
@@ -0,0 +1,172 @@
+package model;
+
+import static model.TreeSnapshotTest.entry;
+import static model.TreeSnapshotTest.snapshot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.SnapshotDiff.Change;
+import model.SnapshotDiff.Type;
+
+/**
+ * Testes da comparação de duas {@link TreeSnapshot}.
+ */
+public class SnapshotDiffTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void identicalSnapshotsHaveNoChanges() {
+
+		TreeSnapshot snapshot = snapshot(entry("a", true, 0, 1), entry("a/b", false, 2, 3));
+
+		assertEquals(0, compare(snapshot, snapshot(entry("a/b", false, 2, 3), entry("a", true, 0, 1))).size());
+	}
+
+	@Test
+	public void addedEntries() {
+
+		List<Change> changes = compare(snapshot(entry("b", false, 1, 1)),
+				snapshot(entry("a", false, 5, 1), entry("b", false, 1, 1), entry("c", true, 0, 1)));
+
+		assertEquals(2, changes.size());
+		assertChange(changes.get(0), Type.ADDED, "a", false, -1, 5);
+		assertChange(changes.get(1), Type.ADDED, "c", true, -1, 0);
+	}
+
+	@Test
+	public void removedEntries() {
+
+		List<Change> changes = compare(snapshot(entry("a", true, 0, 1), entry("a/x", false, 7, 1),
+				entry("b", false, 1, 1)), snapshot(entry("b", false, 1, 1)));
+
+		assertEquals(2, changes.size());
+		assertChange(changes.get(0), Type.REMOVED, "a", true, 0, -1);
+		assertChange(changes.get(1), Type.REMOVED, "a/x", false, 7, -1);
+	}
+
+	@Test
+	public void resizedFile() {
+
+		List<Change> changes = compare(snapshot(entry("a", false, 10, 1)), snapshot(entry("a", false, 20, 2)));
+
+		assertEquals(1, changes.size());
+		assertChange(changes.get(0), Type.RESIZED, "a", false, 10, 20);
+	}
+
+	@Test
+	public void modifiedFileWithSameSize() {
+
+		List<Change> changes = compare(snapshot(entry("a", false, 10, 1)), snapshot(entry("a", false, 10, -1)));
+
+		assertEquals(1, changes.size());
+		assertChange(changes.get(0), Type.MODIFIED, "a", false, 10, 10);
+	}
+
+	@Test
+	public void typeChangeIsModified() {
+
+		List<Change> changes = compare(snapshot(entry("a", false, 4096, 1)), snapshot(entry("a", true, 4096, 1)));
+
+		assertEquals(1, changes.size());
+		assertChange(changes.get(0), Type.MODIFIED, "a", true, 4096, 4096);
+	}
+
+	/**
+	 * O tamanho de um diretório não inclui o conteúdo: só a data indica que ele
+	 * mudou.
+	 */
+	@Test
+	public void directorySizeAloneIsIgnored() {
+
+		assertEquals(0, compare(snapshot(entry("a", true, 4096, 1)), snapshot(entry("a", true, 8192, 1))).size());
+
+		List<Change> changes = compare(snapshot(entry("a", true, 4096, 1)), snapshot(entry("a", true, 8192, 2)));
+
+		assertEquals(1, changes.size());
+		assertChange(changes.get(0), Type.MODIFIED, "a", true, 4096, 8192);
+	}
+
+	@Test
+	public void emptySnapshots() {
+
+		TreeSnapshot empty = snapshot();
+		TreeSnapshot one = snapshot(entry("a", false, 1, 1));
+
+		assertEquals(0, compare(empty, empty).size());
+		assertChange(compare(empty, one).get(0), Type.ADDED, "a", false, -1, 1);
+		assertChange(compare(one, empty).get(0), Type.REMOVED, "a", false, 1, -1);
+	}
+
+	/**
+	 * As alterações saem na ordem dos caminhos, intercalando as duas listagens,
+	 * e a contagem devolvida é a quantidade entregue.
+	 */
+	@Test
+	public void mixedChangesInPathOrder() {
+
+		TreeSnapshot before = snapshot(entry("a", false, 1, 1), entry("b", false, 2, 2), entry("c", false, 3, 3),
+				entry("d/e", false, 4, 4), entry("f", false, 5, 5));
+		TreeSnapshot after = snapshot(entry("a", false, 1, 1), entry("b", false, 9, 2), entry("cc", false, 3, 3),
+				entry("d/e", false, 4, 0), entry("f", false, 5, 5), entry("g", false, 6, 6));
+
+		List<Change> changes = new ArrayList<>();
+
+		assertEquals(5, SnapshotDiff.compare(before, after, changes::add));
+		assertChange(changes.get(0), Type.RESIZED, "b", false, 2, 9);
+		assertChange(changes.get(1), Type.REMOVED, "c", false, 3, -1);
+		assertChange(changes.get(2), Type.ADDED, "cc", false, -1, 3);
+		assertChange(changes.get(3), Type.MODIFIED, "d/e", false, 4, 4);
+		assertChange(changes.get(4), Type.ADDED, "g", false, -1, 6);
+	}
+
+	/**
+	 * Uma listagem gravada e lida de volta é comparada como a listagem original.
+	 */
+	@Test
+	public void writtenSnapshotComparesLikeTheOriginal() throws IOException {
+
+		TreeSnapshot before = snapshot(entry("a", true, 0, 100), entry("a/b", false, 10, -50), entry("c", false, 3, 7));
+		TreeSnapshot after = snapshot(entry("a", true, 0, 100), entry("a/b", false, 11, -50), entry("d", false, 1, 1));
+
+		Path file = folder.newFile().toPath();
+		before.write(file);
+
+		List<Change> expected = compare(before, after);
+		List<Change> actual = compare(TreeSnapshot.read(file), after);
+
+		assertEquals(expected.toString(), actual.toString());
+		assertFalse(actual.isEmpty());
+	}
+
+	private static List<Change> compare(TreeSnapshot before, TreeSnapshot after) {
+
+		List<Change> changes = new ArrayList<>();
+		int count = SnapshotDiff.compare(before, after, changes::add);
+
+		assertEquals(changes.size(), count);
+
+		return changes;
+	}
+
+	private static void assertChange(Change change, Type type, String name, boolean directory, long sizeBefore,
+			long sizeAfter) {
+
+		assertEquals(type, change.getType());
+		assertEquals(name, change.getName());
+		assertEquals(directory, change.isDirectory());
+		assertEquals(sizeBefore, change.getSizeBefore());
+		assertEquals(sizeAfter, change.getSizeAfter());
+	}
+
+}// class SnapshotDiffTest
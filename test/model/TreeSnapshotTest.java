@@ -0,0 +1,263 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.DirectorySnapshot.Entry;
+
+/**
+ * Testes da gravação e da leitura de uma {@link TreeSnapshot}.
+ */
+public class TreeSnapshotTest {
+
+	static final Path ROOT = Paths.get("/dados/fotos").toAbsolutePath();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void roundTripKeepsEveryField() throws IOException {
+
+		TreeSnapshot snapshot = snapshot(entry("b.txt", false, 10, 5_000), entry("a", true, 4096, 9_000),
+				entry("a/novo.txt", false, Long.MAX_VALUE, 1), entry("a/antigo", false, 0, -86_400_000L),
+				entry("c", false, 1L << 40, Long.MAX_VALUE / 2));
+
+		assertSame(snapshot, roundTrip(snapshot));
+	}
+
+	@Test
+	public void roundTripOrdersByRelativePath() throws IOException {
+
+		TreeSnapshot read = roundTrip(snapshot(entry("z", false, 1, 1), entry("a/b", false, 2, 2), entry("a", true,
+				0, 3)));
+
+		assertEquals("a", read.getName(0));
+		assertEquals("a/b", read.getName(1));
+		assertEquals("z", read.getName(2));
+	}
+
+	@Test
+	public void emptySnapshot() throws IOException {
+
+		TreeSnapshot read = roundTrip(snapshot());
+
+		assertEquals(0, read.size());
+		assertEquals(ROOT.toString(), read.getRoot());
+	}
+
+	/**
+	 * Caminhos que são prefixos uns dos outros, que não têm nada em comum com o
+	 * anterior ou que repetem o anterior inteiro e acrescentam um nome.
+	 */
+	@Test
+	public void prefixEdgeCases() throws IOException {
+
+		TreeSnapshot snapshot = snapshot(entry("a", true, 0, 0), entry("a b", false, 1, 0), entry("a/b", true, 0, 0),
+				entry("a/b/c", false, 2, 0), entry("a/bc", false, 3, 0), entry("ab", false, 4, 0),
+				entry("b", false, 5, 0));
+
+		assertSame(snapshot, roundTrip(snapshot));
+	}
+
+	/**
+	 * Nomes acentuados cujo prefixo comum termina no meio de um caractere em
+	 * UTF-8. Depende de o sistema aceitar esses nomes em caminhos.
+	 */
+	@Test
+	public void prefixSplittingMultibyteCharacters() throws IOException {
+
+		try {
+			ROOT.resolve("ção");
+		} catch (InvalidPathException e) {
+			Assume.assumeNoException(e);
+		}
+
+		TreeSnapshot snapshot = snapshot(entry("é", false, 1, 0), entry("ê", false, 2, 0), entry("êé", true, 0, 0),
+				entry("êé/ção", false, 3, 0));
+
+		assertSame(snapshot, roundTrip(snapshot));
+	}
+
+	/**
+	 * Um caminho maior que o buffer de leitura e que o buffer de gravação.
+	 */
+	@Test
+	public void longPaths() throws IOException {
+
+		char[] component = new char[250];
+		Arrays.fill(component, 'x');
+
+		StringBuilder path = new StringBuilder();
+
+		for (int i = 0; i < 300; i++)
+			path.append(i == 0 ? "" : "/").append(component).append(i);
+
+		TreeSnapshot snapshot = snapshot(entry(path.toString(), false, 1, 1), entry(path + "/fim", false, 2, 2),
+				entry("curto", false, 3, 3));
+
+		assertSame(snapshot, roundTrip(snapshot));
+	}
+
+	/**
+	 * Datas em ordem decrescente e alternada geram diferenças negativas entre
+	 * entradas vizinhas.
+	 */
+	@Test
+	public void negativeModifiedDeltas() throws IOException {
+
+		Entry[] entries = new Entry[20_000];
+
+		for (int i = 0; i < entries.length; i++) {
+			long modified = (i % 2 == 0 ? -1 : 1) * (1_600_000_000_000L - i * 1_000L);
+			entries[i] = entry(String.format("d%02d/arquivo-%05d", i % 50, i), false, i, modified);
+		}
+
+		TreeSnapshot snapshot = snapshot(entries);
+
+		assertSame(snapshot, roundTrip(snapshot));
+	}
+
+	@Test
+	public void everyTruncationIsRejected() throws IOException {
+
+		Path file = folder.newFile().toPath();
+
+		snapshot(entry("a", true, 0, 1_000), entry("a/b", false, 300, -5), entry("c", false, 1L << 35, 7)).write(file);
+
+		byte[] bytes = Files.readAllBytes(file);
+
+		for (int length = 0; length < bytes.length; length++) {
+			Files.write(file, Arrays.copyOf(bytes, length));
+			assertRejected(file, "truncado em " + length);
+		}
+	}
+
+	@Test
+	public void wrongMagicOrVersionIsRejected() throws IOException {
+
+		byte[] bytes = write(snapshot(entry("a", false, 0, 0)));
+
+		assertRejected(corrupt(bytes, 0, 'X'), "assinatura");
+		assertRejected(corrupt(bytes, 7, 9), "versão");
+	}
+
+	@Test
+	public void invalidTypeIsRejected() throws IOException {
+
+		byte[] bytes = write(snapshot(entry("a", false, 0, 0)));
+
+		// Prefixo, tamanho do restante e o nome "a" precedem o tipo
+		assertRejected(corrupt(bytes, firstEntry(bytes) + 3, 7), "tipo");
+	}
+
+	@Test
+	public void sharedPrefixLongerThanPreviousPathIsRejected() throws IOException {
+
+		byte[] bytes = write(snapshot(entry("a", false, 0, 0)));
+
+		assertRejected(corrupt(bytes, firstEntry(bytes), 1), "prefixo");
+	}
+
+	@Test
+	public void unsortedPathsAreRejected() throws IOException {
+
+		byte[] bytes = write(snapshot(entry("a", false, 0, 0), entry("b", false, 0, 0)));
+
+		// Cada entrada ocupa 6 bytes: prefixo, restante, nome, tipo, tamanho e data
+		assertRejected(corrupt(bytes, firstEntry(bytes) + 6 + 2, '0'), "ordem");
+	}
+
+	@Test
+	public void impossibleCountIsRejected() throws IOException {
+
+		byte[] bytes = write(snapshot(entry("a", false, 0, 0)));
+
+		assertRejected(corrupt(bytes, firstEntry(bytes) - 1, 100), "quantidade");
+	}
+
+	static Entry entry(String path, boolean directory, long size, long modified) {
+
+		Path resolved = ROOT.resolve(path);
+
+		return new Entry(resolved, resolved.getFileName().toString(), directory, size, modified);
+	}
+
+	static TreeSnapshot snapshot(Entry... entries) {
+
+		TreeSnapshot.Builder builder = new TreeSnapshot.Builder(ROOT);
+
+		for (Entry entry : entries)
+			builder.add(entry);
+
+		return builder.build();
+	}
+
+	private TreeSnapshot roundTrip(TreeSnapshot snapshot) throws IOException {
+
+		Path file = folder.newFile().toPath();
+		snapshot.write(file);
+
+		return TreeSnapshot.read(file);
+	}
+
+	private byte[] write(TreeSnapshot snapshot) throws IOException {
+
+		Path file = folder.newFile().toPath();
+		snapshot.write(file);
+
+		return Files.readAllBytes(file);
+	}
+
+	private Path corrupt(byte[] bytes, int position, int value) throws IOException {
+
+		byte[] copy = bytes.clone();
+		copy[position] = (byte) value;
+
+		return Files.write(folder.newFile().toPath(), copy);
+	}
+
+	/**
+	 * Obtém a posição da primeira entrada, depois do cabeçalho com a raiz curta
+	 * e a quantidade de um byte.
+	 */
+	private static int firstEntry(byte[] bytes) {
+		return 4 + 4 + 1 + bytes[8] + 8 + 1;
+	}
+
+	private static void assertRejected(Path file, String message) {
+
+		try {
+			TreeSnapshot.read(file);
+			fail(message);
+		} catch (IOException e) {
+			// Esperado
+		}
+	}
+
+	private static void assertSame(TreeSnapshot expected, TreeSnapshot actual) {
+
+		assertEquals(expected.getRoot(), actual.getRoot());
+		assertEquals(expected.getCapturedAt(), actual.getCapturedAt());
+		assertEquals(expected.size(), actual.size());
+
+		for (int index = 0; index < expected.size(); index++) {
+			assertEquals(expected.getName(index), actual.getName(index));
+			assertEquals(expected.isDirectory(index), actual.isDirectory(index));
+			assertEquals(expected.getSize(index), actual.getSize(index));
+			assertEquals(expected.getLastModified(index), actual.getLastModified(index));
+		}
+	}
+
+}// class TreeSnapshotTest